@@ -54,4 +54,8 @@ public interface PageCache
 
     @Description( "Number of page flushes" )
     int getFlushes();
+
+    @Description( "Faults, hits, evictions, flushes, bytes read and written, and a histogram of pin durations "
+                  + "in power-of-two nanosecond buckets, for each mapped file" )
+    PagedFileInfo[] getPagedFiles();
 }
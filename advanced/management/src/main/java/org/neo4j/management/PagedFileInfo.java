@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+public final class PagedFileInfo implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private final String fileName;
+    private final long faults;
+    private final long hits;
+    private final long evictions;
+    private final long flushes;
+    private final long bytesRead;
+    private final long bytesWritten;
+    private final long[] pinDurationHistogram;
+
+    @ConstructorProperties( { "fileName", "faults", "hits", "evictions", "flushes", "bytesRead", "bytesWritten",
+            "pinDurationHistogram" } )
+    public PagedFileInfo( String fileName, long faults, long hits, long evictions, long flushes, long bytesRead,
+            long bytesWritten, long[] pinDurationHistogram )
+    {
+        this.fileName = fileName;
+        this.faults = faults;
+        this.hits = hits;
+        this.evictions = evictions;
+        this.flushes = flushes;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.pinDurationHistogram = pinDurationHistogram;
+    }
+
+    public String getFileName()
+    {
+        return fileName;
+    }
+
+    public long getFaults()
+    {
+        return faults;
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    public long getFlushes()
+    {
+        return flushes;
+    }
+
+    public long getBytesRead()
+    {
+        return bytesRead;
+    }
+
+    public long getBytesWritten()
+    {
+        return bytesWritten;
+    }
+
+    /**
+     * @return number of pins per duration, where element {@code i} counts pins that lasted between {@code 2^i} and
+     * {@code 2^(i+1)} nanoseconds.
+     */
+    public long[] getPinDurationHistogram()
+    {
+        return pinDurationHistogram.clone();
+    }
+}
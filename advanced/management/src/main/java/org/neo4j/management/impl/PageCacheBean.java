@@ -19,14 +19,17 @@
  */
 package org.neo4j.management.impl;
 
+import java.util.Collection;
 import javax.management.NotCompliantMBeanException;
 
 import org.neo4j.helpers.Service;
 import org.neo4j.io.pagecache.CountingPageCacheMonitor;
+import org.neo4j.io.pagecache.PagedFileStatistics;
 import org.neo4j.jmx.impl.ManagementBeanProvider;
 import org.neo4j.jmx.impl.ManagementData;
 import org.neo4j.jmx.impl.Neo4jMBean;
 import org.neo4j.management.PageCache;
+import org.neo4j.management.PagedFileInfo;
 
 @Service.Implementation(ManagementBeanProvider.class)
 public final class PageCacheBean extends ManagementBeanProvider
@@ -42,6 +45,12 @@ public final class PageCacheBean extends ManagementBeanProvider
         return new PageCacheImpl( management );
     }
 
+    @Override
+    protected Neo4jMBean createMXBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new PageCacheImpl( management, true );
+    }
+
     private static class PageCacheImpl extends Neo4jMBean implements PageCache
     {
         private final CountingPageCacheMonitor pageCacheMonitor;
@@ -52,6 +61,12 @@ public final class PageCacheBean extends ManagementBeanProvider
             this.pageCacheMonitor = management.resolveDependency( CountingPageCacheMonitor.class );
         }
 
+        PageCacheImpl( ManagementData management, boolean isMxBean )
+        {
+            super( management, isMxBean );
+            this.pageCacheMonitor = management.resolveDependency( CountingPageCacheMonitor.class );
+        }
+
         @Override
         public int getFaults()
         {
@@ -106,6 +121,19 @@ public final class PageCacheBean extends ManagementBeanProvider
             return pageCacheMonitor.countFlushes();
         }
 
-
+        @Override
+        public PagedFileInfo[] getPagedFiles()
+        {
+            Collection<PagedFileStatistics> fileStatistics = pageCacheMonitor.fileStatistics();
+            PagedFileInfo[] result = new PagedFileInfo[fileStatistics.size()];
+            int i = 0;
+            for ( PagedFileStatistics statistics : fileStatistics )
+            {
+                result[i++] = new PagedFileInfo( statistics.fileName(), statistics.countFaults(),
+                        statistics.countHits(), statistics.countEvictions(), statistics.countFlushes(),
+                        statistics.bytesRead(), statistics.bytesWritten(), statistics.pinDurationHistogram() );
+            }
+            return result;
+        }
     }
 }
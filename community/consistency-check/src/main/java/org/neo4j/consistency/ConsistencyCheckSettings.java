@@ -53,6 +53,12 @@ public class ConsistencyCheckSettings
             "checking the native stores, so it may be useful to turn off this check for very large databases.")
     public static final Setting<Boolean> consistency_check_indexes = setting( "consistency_check_indexes", BOOLEAN, TRUE );
 
+    @Description("Copy all node and relationship records into compact arrays, off-heap if they do not fit in the heap, " +
+            "before checking. Following relationship chains then no longer requires random reads from the store files, " +
+            "and node and relationship records are checked in parallel partitions when using the MULTI_THREADED " +
+            "execution order. Requires about 16 bytes of memory per node and 40 bytes per relationship.")
+    public static final Setting<Boolean> consistency_check_record_cache = setting( "consistency_check_record_cache", BOOLEAN, FALSE );
+
     @Description("Window pool implementation to be used when running consistency check")
     public static final Setting<TaskExecutionOrder> consistency_check_execution_order =
             setting( "consistency_check_execution_order", options( TaskExecutionOrder.class ), TaskExecutionOrder.MULTI_PASS.name() );
@@ -52,13 +52,25 @@ public class ConsistencyCheckTasks
     private final ProgressMonitorFactory.MultiPartBuilder progress;
     private final TaskExecutionOrder order;
     private final StoreProcessor processor;
+    private final int partitions;
 
     ConsistencyCheckTasks( ProgressMonitorFactory.MultiPartBuilder progress, TaskExecutionOrder order,
                            StoreProcessor processor )
+    {
+        this( progress, order, processor, 1 );
+    }
+
+    /**
+     * @param partitions number of id ranges to split the node and relationship stores into, each checked by its own
+     * task. Only worth it if those tasks can run in parallel without fighting over random reads.
+     */
+    ConsistencyCheckTasks( ProgressMonitorFactory.MultiPartBuilder progress, TaskExecutionOrder order,
+                           StoreProcessor processor, int partitions )
     {
         this.progress = progress;
         this.order = order;
         this.processor = processor;
+        this.partitions = partitions;
     }
 
     public List<StoppableRunnable> createTasks(
@@ -68,10 +80,10 @@ public class ConsistencyCheckTasks
     {
         List<StoppableRunnable> tasks = new ArrayList<>();
 
-        tasks.add( create( nativeStores.getNodeStore(),
+        tasks.addAll( createPartitioned( nativeStores.getNodeStore(),
                 multiPass.processors( PROPERTIES, RELATIONSHIPS ) ) );
 
-        tasks.add( create( nativeStores.getRelationshipStore(),
+        tasks.addAll( createPartitioned( nativeStores.getRelationshipStore(),
                 multiPass.processors(  NODES, PROPERTIES, RELATIONSHIPS  ) ) );
 
         tasks.add( create( nativeStores.getPropertyStore(),
@@ -160,4 +172,26 @@ public class ConsistencyCheckTasks
         return new StoreProcessorTask<>(
                 input, progress, order, processor, processors );
     }
+
+    <RECORD extends AbstractBaseRecord> List<StoreProcessorTask<RECORD>> createPartitioned(
+            RecordStore<RECORD> input, StoreProcessor[] processors )
+    {
+        List<StoreProcessorTask<RECORD>> tasks = new ArrayList<>();
+        if ( partitions <= 1 )
+        {
+            tasks.add( create( input, processors ) );
+            return tasks;
+        }
+
+        long partitionSize = Math.max( 1, (input.getHighId() + partitions - 1) / partitions );
+        for ( int i = 0; i < partitions; i++ )
+        {
+            long fromId = i * partitionSize;
+            // The last partition is open ended so that it picks up any records beyond the high id we saw here
+            long toId = i == partitions - 1 ? Long.MAX_VALUE : fromId + partitionSize;
+            tasks.add( new StoreProcessorTask<>( input, format( "partition_%d", i ), fromId, toId,
+                    progress, order, processor, processors ) );
+        }
+        return tasks;
+    }
 }
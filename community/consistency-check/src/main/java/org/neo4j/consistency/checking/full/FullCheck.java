@@ -29,6 +29,7 @@ import org.neo4j.consistency.report.ConsistencyReporter;
 import org.neo4j.consistency.report.ConsistencySummaryStatistics;
 import org.neo4j.consistency.report.InconsistencyMessageLogger;
 import org.neo4j.consistency.report.InconsistencyReport;
+import org.neo4j.consistency.store.CacheNodesAndRelationshipsRecordAccess;
 import org.neo4j.consistency.store.CacheSmallStoresRecordAccess;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.DirectRecordAccess;
@@ -38,17 +39,21 @@ import org.neo4j.kernel.api.direct.DirectStoreAccess;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.nioneo.store.AbstractBaseRecord;
 import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArrayFactory;
 
 public class FullCheck
 {
     private final boolean checkPropertyOwners;
     private final boolean checkLabelScanStore;
     private final boolean checkIndexes;
+    private final boolean cacheRecords;
     private final TaskExecutionOrder order;
     private final ProgressMonitorFactory progressFactory;
     private final Long totalMappedMemory;
@@ -58,6 +63,7 @@ public class FullCheck
         this.checkPropertyOwners = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_property_owners );
         this.checkLabelScanStore = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_label_scan_store );
         this.checkIndexes = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_indexes );
+        this.cacheRecords = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_record_cache );
         this.order = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_execution_order );
         this.totalMappedMemory = tuningConfiguration.get( GraphDatabaseSettings.mapped_memory_total_size );
         this.progressFactory = progressFactory;
@@ -70,7 +76,23 @@ public class FullCheck
         InconsistencyReport report = new InconsistencyReport( new InconsistencyMessageLogger( logger ), summary );
 
         OwnerCheck ownerCheck = new OwnerCheck( checkPropertyOwners );
-        execute( stores, ownerCheck, recordAccess( stores.nativeStores() ), report );
+        DiffRecordAccess recordAccess = recordAccess( stores.nativeStores() );
+        CacheNodesAndRelationshipsRecordAccess cache = null;
+        if ( cacheRecords )
+        {
+            cache = cacheNodesAndRelationships( recordAccess, stores.nativeStores(), logger );
+        }
+        try
+        {
+            execute( stores, ownerCheck, cache != null ? cache : recordAccess, report );
+        }
+        finally
+        {
+            if ( cache != null )
+            {
+                cache.free();
+            }
+        }
         ownerCheck.scanForOrphanChains( progressFactory );
 
         if ( !summary.isConsistent() )
@@ -94,7 +116,8 @@ public class FullCheck
         {
             MultiPassStore.Factory multiPass = new MultiPassStore.Factory(
                     decorator, totalMappedMemory, nativeStores, recordAccess, report );
-            List<StoppableRunnable> tasks = new ConsistencyCheckTasks( progress, order, processEverything ).createTasks(
+            List<StoppableRunnable> tasks = new ConsistencyCheckTasks(
+                    progress, order, processEverything, partitions() ).createTasks(
                     nativeStores,
                     directStoreAccess.labelScanStore(),
                     indexes,
@@ -113,6 +136,43 @@ public class FullCheck
 
     }
 
+    private int partitions()
+    {
+        return cacheRecords && order == TaskExecutionOrder.MULTI_THREADED ?
+                Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    private CacheNodesAndRelationshipsRecordAccess cacheNodesAndRelationships( DiffRecordAccess recordAccess,
+                                                                               StoreAccess store, StringLogger logger )
+    {
+        RecordStore<NodeRecord> nodeStore = store.getNodeStore();
+        RecordStore<RelationshipRecord> relationshipStore = store.getRelationshipStore();
+        CacheNodesAndRelationshipsRecordAccess cache;
+        try
+        {
+            cache = new CacheNodesAndRelationshipsRecordAccess( recordAccess, LongArrayFactory.AUTO,
+                    nodeStore.getHighId(), relationshipStore.getHighId() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            logger.warn( "Not enough memory to cache node and relationship records, " +
+                    "checking directly against the store files instead", e );
+            return null;
+        }
+        try
+        {
+            cache.cacheNodes( nodeStore, progressFactory.singlePart( "Caching nodes", nodeStore.getHighId() ) );
+            cache.cacheRelationships( relationshipStore,
+                    progressFactory.singlePart( "Caching relationships", relationshipStore.getHighId() ) );
+        }
+        catch ( RuntimeException | Error e )
+        {
+            cache.free();
+            throw e;
+        }
+        return cache;
+    }
+
     static DiffRecordAccess recordAccess( StoreAccess store )
     {
         return new CacheSmallStoresRecordAccess(
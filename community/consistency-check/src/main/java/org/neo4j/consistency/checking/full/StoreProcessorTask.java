@@ -29,6 +29,8 @@ import static java.lang.String.format;
 class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunnable
 {
     private final RecordStore<R> store;
+    private final long fromId;
+    private final long toId;
     private final StoreProcessor[] processors;
     private final ProgressListener[] progressListeners;
 
@@ -45,9 +47,23 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
                         ProgressMonitorFactory.MultiPartBuilder builder,
                         TaskExecutionOrder order, StoreProcessor singlePassProcessor,
                         StoreProcessor... multiPassProcessors )
+    {
+        this( store, builderPrefix, 0, Long.MAX_VALUE, builder, order, singlePassProcessor, multiPassProcessors );
+    }
+
+    /**
+     * Creates a task that only processes the records with ids in {@code [fromId, toId)}.
+     */
+    StoreProcessorTask( RecordStore<R> store, String builderPrefix, long fromId, long toId,
+                        ProgressMonitorFactory.MultiPartBuilder builder,
+                        TaskExecutionOrder order, StoreProcessor singlePassProcessor,
+                        StoreProcessor... multiPassProcessors )
     {
         this.store = store;
+        this.fromId = fromId;
+        this.toId = toId;
         String storeFileName = store.getStorageFileName().getName();
+        long totalCount = Math.max( 0, Math.min( toId, store.getHighId() ) - fromId );
 
         String sanitizedBuilderPrefix = builderPrefix == null ? "" : builderPrefix;
 
@@ -58,7 +74,7 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
             for ( int i = 0; i < multiPassProcessors.length; i++ )
             {
                 String partName = indexedPartName( storeFileName, sanitizedBuilderPrefix, i );
-                progressListeners[i] = builder.progressForPart( partName, store.getHighId() );
+                progressListeners[i] = builder.progressForPart( partName, totalCount );
             }
         }
         else
@@ -66,7 +82,7 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
             this.processors = new StoreProcessor[]{singlePassProcessor};
             String partName = partName( storeFileName, sanitizedBuilderPrefix );
             this.progressListeners = new ProgressListener[]{
-                    builder.progressForPart( partName, store.getHighId() )};
+                    builder.progressForPart( partName, totalCount )};
         }
     }
 
@@ -94,7 +110,14 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
             beforeProcessing(processor);
             try
             {
-                processor.applyFiltered( store, progressListeners[i] );
+                if ( isPartition() )
+                {
+                    processor.applyFiltered( store, fromId, toId, progressListeners[i] );
+                }
+                else
+                {
+                    processor.applyFiltered( store, progressListeners[i] );
+                }
             }
             catch ( Throwable e )
             {
@@ -107,6 +130,11 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
         }
     }
 
+    private boolean isPartition()
+    {
+        return fromId != 0 || toId != Long.MAX_VALUE;
+    }
+
     protected void beforeProcessing( StoreProcessor processor )
     {
         // intentionally empty
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.store;
+
+import java.util.Collections;
+
+import org.neo4j.helpers.progress.ProgressListener;
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArrayFactory;
+
+/**
+ * Keeps compact copies of all node and relationship records in {@link LongArray long arrays}, preferably off-heap,
+ * so that following relationship chains and node back-references during a full check is a memory lookup instead
+ * of a random read from the store files. The arrays are filled by scanning the stores sequentially, once, before
+ * the check starts.
+ *
+ * Reference fields are split into a low part of 32 bits and a high part of 4 bits, which is enough for the
+ * 35 bit node and relationship ids and the 36 bit property ids of the current store format. All high parts,
+ * together with the flags of a record, are packed into a single header long. A relationship takes 5 longs and
+ * a node 2 longs, which is roughly what the records occupy in the store files.
+ */
+public class CacheNodesAndRelationshipsRecordAccess extends DelegatingRecordAccess
+{
+    static final int LONGS_PER_NODE = 2;
+    static final int LONGS_PER_RELATIONSHIP = 5;
+
+    private static final long NULL_REFERENCE = 0xF_FFFF_FFFFL;
+    private static final long LOW_MASK = 0xFFFF_FFFFL;
+    private static final long HIGH_MASK = 0xFL;
+
+    // Node header: labels (40 bits), in use, dense, next relationship high bits, next property high bits
+    private static final long LABELS_MASK = 0xFF_FFFF_FFFFL;
+    private static final int NODE_IN_USE_BIT = 40;
+    private static final int NODE_DENSE_BIT = 41;
+    private static final int NODE_NEXT_REL_SHIFT = 42;
+    private static final int NODE_NEXT_PROP_SHIFT = 46;
+
+    // Relationship header: type (16 bits), three flags and the high bits of the seven references
+    private static final long TYPE_MASK = 0xFFFFL;
+    private static final int RELATIONSHIP_IN_USE_BIT = 16;
+    private static final int FIRST_IN_FIRST_CHAIN_BIT = 17;
+    private static final int FIRST_IN_SECOND_CHAIN_BIT = 18;
+    private static final int FIRST_NODE_SHIFT = 19;
+    private static final int SECOND_NODE_SHIFT = 23;
+    private static final int FIRST_PREV_SHIFT = 27;
+    private static final int FIRST_NEXT_SHIFT = 31;
+    private static final int SECOND_PREV_SHIFT = 35;
+    private static final int SECOND_NEXT_SHIFT = 39;
+    private static final int NEXT_PROP_SHIFT = 43;
+
+    private final LongArray nodes;
+    private final long nodeCount;
+    private final LongArray relationships;
+    private final long relationshipCount;
+
+    public CacheNodesAndRelationshipsRecordAccess( DiffRecordAccess delegate, LongArrayFactory arrayFactory,
+                                                   long nodeCount, long relationshipCount )
+    {
+        super( delegate );
+        this.nodeCount = nodeCount;
+        this.relationshipCount = relationshipCount;
+        this.nodes = arrayFactory.newLongArray( Math.max( 1, nodeCount * LONGS_PER_NODE ) );
+        try
+        {
+            this.relationships = arrayFactory.newLongArray(
+                    Math.max( 1, relationshipCount * LONGS_PER_RELATIONSHIP ) );
+        }
+        catch ( RuntimeException | Error e )
+        {
+            nodes.free();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the node and relationship arrays, which may live off-heap. Must be called when the check is done.
+     */
+    public void free()
+    {
+        nodes.free();
+        relationships.free();
+    }
+
+    public void cacheNodes( RecordStore<NodeRecord> store, ProgressListener progress )
+    {
+        for ( long id = 0; id < nodeCount; id++ )
+        {
+            put( store.forceGetRecord( id ) );
+            progress.set( id );
+        }
+        progress.done();
+    }
+
+    public void cacheRelationships( RecordStore<RelationshipRecord> store, ProgressListener progress )
+    {
+        for ( long id = 0; id < relationshipCount; id++ )
+        {
+            put( store.forceGetRecord( id ) );
+            progress.set( id );
+        }
+        progress.done();
+    }
+
+    void put( NodeRecord node )
+    {
+        long nextRel = encode( node.getNextRel() );
+        long nextProp = encode( node.getNextProp() );
+        long header = (node.getLabelField() & LABELS_MASK)
+                | flag( node.inUse(), NODE_IN_USE_BIT )
+                | flag( node.isDense(), NODE_DENSE_BIT )
+                | high( nextRel, NODE_NEXT_REL_SHIFT )
+                | high( nextProp, NODE_NEXT_PROP_SHIFT );
+
+        long index = node.getId() * LONGS_PER_NODE;
+        nodes.set( index, header );
+        nodes.set( index + 1, lows( nextRel, nextProp ) );
+    }
+
+    void put( RelationshipRecord relationship )
+    {
+        long firstNode = encode( relationship.getFirstNode() );
+        long secondNode = encode( relationship.getSecondNode() );
+        long firstPrev = encode( relationship.getFirstPrevRel() );
+        long firstNext = encode( relationship.getFirstNextRel() );
+        long secondPrev = encode( relationship.getSecondPrevRel() );
+        long secondNext = encode( relationship.getSecondNextRel() );
+        long nextProp = encode( relationship.getNextProp() );
+        long header = (relationship.getType() & TYPE_MASK)
+                | flag( relationship.inUse(), RELATIONSHIP_IN_USE_BIT )
+                | flag( relationship.isFirstInFirstChain(), FIRST_IN_FIRST_CHAIN_BIT )
+                | flag( relationship.isFirstInSecondChain(), FIRST_IN_SECOND_CHAIN_BIT )
+                | high( firstNode, FIRST_NODE_SHIFT )
+                | high( secondNode, SECOND_NODE_SHIFT )
+                | high( firstPrev, FIRST_PREV_SHIFT )
+                | high( firstNext, FIRST_NEXT_SHIFT )
+                | high( secondPrev, SECOND_PREV_SHIFT )
+                | high( secondNext, SECOND_NEXT_SHIFT )
+                | high( nextProp, NEXT_PROP_SHIFT );
+
+        long index = relationship.getId() * LONGS_PER_RELATIONSHIP;
+        relationships.set( index, header );
+        relationships.set( index + 1, lows( firstNode, secondNode ) );
+        relationships.set( index + 2, lows( firstPrev, firstNext ) );
+        relationships.set( index + 3, lows( secondPrev, secondNext ) );
+        relationships.set( index + 4, lows( nextProp, 0 ) );
+    }
+
+    @Override
+    public RecordReference<NodeRecord> node( long id )
+    {
+        if ( id >= 0 && id < nodeCount )
+        {
+            return new DirectRecordReference<>( getNode( id ), this );
+        }
+        else
+        {
+            return super.node( id );
+        }
+    }
+
+    @Override
+    public RecordReference<RelationshipRecord> relationship( long id )
+    {
+        if ( id >= 0 && id < relationshipCount )
+        {
+            return new DirectRecordReference<>( getRelationship( id ), this );
+        }
+        else
+        {
+            return super.relationship( id );
+        }
+    }
+
+    NodeRecord getNode( long id )
+    {
+        long index = id * LONGS_PER_NODE;
+        long header = nodes.get( index );
+        long lows = nodes.get( index + 1 );
+
+        NodeRecord node = new NodeRecord( id, isSet( header, NODE_DENSE_BIT ),
+                decode( header, NODE_NEXT_REL_SHIFT, lows, 0 ),
+                decode( header, NODE_NEXT_PROP_SHIFT, lows, 32 ),
+                isSet( header, NODE_IN_USE_BIT ) );
+        node.setLabelField( header & LABELS_MASK, Collections.<DynamicRecord>emptyList() );
+        return node;
+    }
+
+    RelationshipRecord getRelationship( long id )
+    {
+        long index = id * LONGS_PER_RELATIONSHIP;
+        long header = relationships.get( index );
+        long nodes = relationships.get( index + 1 );
+        long firstChain = relationships.get( index + 2 );
+        long secondChain = relationships.get( index + 3 );
+        long properties = relationships.get( index + 4 );
+
+        RelationshipRecord relationship = new RelationshipRecord( id,
+                decode( header, FIRST_NODE_SHIFT, nodes, 0 ),
+                decode( header, SECOND_NODE_SHIFT, nodes, 32 ),
+                (int) (header & TYPE_MASK) );
+        relationship.setInUse( isSet( header, RELATIONSHIP_IN_USE_BIT ) );
+        relationship.setFirstInFirstChain( isSet( header, FIRST_IN_FIRST_CHAIN_BIT ) );
+        relationship.setFirstInSecondChain( isSet( header, FIRST_IN_SECOND_CHAIN_BIT ) );
+        relationship.setFirstPrevRel( decode( header, FIRST_PREV_SHIFT, firstChain, 0 ) );
+        relationship.setFirstNextRel( decode( header, FIRST_NEXT_SHIFT, firstChain, 32 ) );
+        relationship.setSecondPrevRel( decode( header, SECOND_PREV_SHIFT, secondChain, 0 ) );
+        relationship.setSecondNextRel( decode( header, SECOND_NEXT_SHIFT, secondChain, 32 ) );
+        relationship.setNextProp( decode( header, NEXT_PROP_SHIFT, properties, 0 ) );
+        return relationship;
+    }
+
+    private static long encode( long reference )
+    {
+        if ( reference == -1 )
+        {
+            return NULL_REFERENCE;
+        }
+        if ( reference < 0 || reference >= NULL_REFERENCE )
+        {
+            throw new IllegalArgumentException( "Reference " + reference + " does not fit in 36 bits" );
+        }
+        return reference;
+    }
+
+    private static long decode( long header, int highShift, long lows, int lowShift )
+    {
+        long reference = (((header >>> highShift) & HIGH_MASK) << 32) | ((lows >>> lowShift) & LOW_MASK);
+        return reference == NULL_REFERENCE ? -1 : reference;
+    }
+
+    private static long high( long encodedReference, int shift )
+    {
+        return ((encodedReference >>> 32) & HIGH_MASK) << shift;
+    }
+
+    private static long lows( long first, long second )
+    {
+        return (first & LOW_MASK) | ((second & LOW_MASK) << 32);
+    }
+
+    private static long flag( boolean value, int bit )
+    {
+        return value ? 1L << bit : 0;
+    }
+
+    private static boolean isSet( long header, int bit )
+    {
+        return (header & (1L << bit)) != 0;
+    }
+}
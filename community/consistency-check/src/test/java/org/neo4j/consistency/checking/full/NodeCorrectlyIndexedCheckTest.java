@@ -36,6 +36,8 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.kernel.api.direct.BoundedIterable;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.SchemaIndexProvider.Descriptor;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
@@ -254,5 +256,17 @@ public class NodeCorrectlyIndexedCheckTest
         {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public IndexSampler newSampler()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IndexSample lastSample()
+        {
+            throw new UnsupportedOperationException();
+        }
     }
 }
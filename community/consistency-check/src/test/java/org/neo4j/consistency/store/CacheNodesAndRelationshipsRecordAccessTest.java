@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.store;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArrayFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class CacheNodesAndRelationshipsRecordAccessTest
+{
+    @Test
+    public void shouldServeRelationshipsFromCache() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        CacheNodesAndRelationshipsRecordAccess recordAccess =
+                new CacheNodesAndRelationshipsRecordAccess( delegate, LongArrayFactory.OFF_HEAP, 0, 3 );
+        RelationshipRecord first = new RelationshipRecord( 0, 1, 2, 0xFFFE );
+        first.setInUse( true );
+        first.setFirstInFirstChain( true );
+        first.setFirstPrevRel( 3 );
+        first.setFirstNextRel( 2 );
+        first.setSecondPrevRel( (1L << 34) + 5 );
+        first.setSecondNextRel( -1 );
+        first.setNextProp( (1L << 35) + 7 );
+        RelationshipRecord second = new RelationshipRecord( 2, (1L << 35) - 2, 0, 4 );
+        second.setInUse( false );
+        second.setFirstInSecondChain( true );
+        second.setFirstPrevRel( 0 );
+        second.setFirstNextRel( -1 );
+        second.setSecondPrevRel( 1 );
+        second.setSecondNextRel( 1L << 33 );
+        second.setNextProp( -1 );
+
+        // when
+        recordAccess.put( first );
+        recordAccess.put( second );
+
+        // then
+        assertSameRecord( first, recordAccess.relationship( 0 ) );
+        assertSameRecord( second, recordAccess.relationship( 2 ) );
+        verifyZeroInteractions( delegate );
+        recordAccess.free();
+    }
+
+    @Test
+    public void shouldServeNodesFromCache() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        CacheNodesAndRelationshipsRecordAccess recordAccess =
+                new CacheNodesAndRelationshipsRecordAccess( delegate, LongArrayFactory.HEAP, 2, 0 );
+        NodeRecord sparse = new NodeRecord( 0, false, (1L << 34) + 9, -1, true );
+        sparse.setLabelField( 0x80_0000_0001L, Collections.<DynamicRecord>emptyList() );
+        NodeRecord dense = new NodeRecord( 1, true, 12, (1L << 35) + 3, false );
+
+        // when
+        recordAccess.put( sparse );
+        recordAccess.put( dense );
+
+        // then
+        assertSameRecord( sparse, recordAccess.node( 0 ) );
+        assertSameRecord( dense, recordAccess.node( 1 ) );
+        verifyZeroInteractions( delegate );
+    }
+
+    @Test
+    public void shouldDelegateLookupsBeyondCachedRecords() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        CacheNodesAndRelationshipsRecordAccess recordAccess =
+                new CacheNodesAndRelationshipsRecordAccess( delegate, LongArrayFactory.HEAP, 10, 10 );
+
+        // when
+        recordAccess.node( 10 );
+        recordAccess.relationship( 42 );
+        recordAccess.property( 3 );
+
+        // then
+        verify( delegate ).node( 10 );
+        verify( delegate ).relationship( 42 );
+        verify( delegate ).property( 3 );
+    }
+
+    @Test
+    public void shouldFreeBothArrays() throws Exception
+    {
+        // given
+        LongArrayFactory arrayFactory = mock( LongArrayFactory.class );
+        LongArray nodes = mock( LongArray.class );
+        LongArray relationships = mock( LongArray.class );
+        when( arrayFactory.newLongArray( 2 ) ).thenReturn( nodes );
+        when( arrayFactory.newLongArray( 5 ) ).thenReturn( relationships );
+        CacheNodesAndRelationshipsRecordAccess recordAccess =
+                new CacheNodesAndRelationshipsRecordAccess( mock( DiffRecordAccess.class ), arrayFactory, 1, 1 );
+
+        // when
+        recordAccess.free();
+
+        // then
+        verify( nodes ).free();
+        verify( relationships ).free();
+    }
+
+    @Test
+    public void shouldFreeNodeArrayIfRelationshipArrayCannotBeAllocated() throws Exception
+    {
+        // given
+        LongArrayFactory arrayFactory = mock( LongArrayFactory.class );
+        LongArray nodes = mock( LongArray.class );
+        IllegalArgumentException failure = new IllegalArgumentException( "Not enough memory" );
+        when( arrayFactory.newLongArray( 2 ) ).thenReturn( nodes );
+        when( arrayFactory.newLongArray( 5 ) ).thenThrow( failure );
+
+        // when
+        try
+        {
+            new CacheNodesAndRelationshipsRecordAccess( mock( DiffRecordAccess.class ), arrayFactory, 1, 1 );
+            fail( "Should have failed" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // then
+            assertEquals( failure, e );
+            verify( nodes ).free();
+        }
+    }
+
+    private static void assertSameRecord( Object expected, RecordReference<?> reference )
+    {
+        assertTrue( reference instanceof DirectRecordReference );
+        assertEquals( expected.toString(), ((DirectRecordReference<?>) reference).record().toString() );
+    }
+}
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_2
 
 import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
 import org.neo4j.graphdb.Direction
+import org.neo4j.kernel.api.index.IndexDescriptor
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Cardinality, Multiplier}
 
 
@@ -52,4 +53,10 @@ class HardcodedGraphStatisticsValues extends GraphStatistics {
 
   def nodesCardinality: Cardinality =
     NODES_CARDINALITY
+
+  def indexSelectivity(index: IndexDescriptor): Option[Multiplier] =
+    None
+
+  def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Multiplier] =
+    None
 }
@@ -69,7 +69,7 @@ sealed trait ClosingClause extends Clause with SemanticChecking {
   }
 }
 
-case class LoadCSV(withHeaders: Boolean, urlString: Expression, identifier: Identifier, fieldTerminator: Option[StringLiteral])(val position: InputPosition) extends Clause with SemanticChecking {
+case class LoadCSV(withHeaders: Boolean, urlString: Expression, identifier: Identifier, fieldTerminator: Option[StringLiteral], typedHeaders: Boolean = false)(val position: InputPosition) extends Clause with SemanticChecking {
   val name = "LOAD CSV"
 
   def semanticCheck: SemanticCheck =
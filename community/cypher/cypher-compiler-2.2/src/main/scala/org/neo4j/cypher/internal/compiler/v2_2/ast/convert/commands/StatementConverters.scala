@@ -131,7 +131,8 @@ object StatementConverters {
         inner.withHeaders,
         inner.urlString.asCommandExpression,
         inner.identifier.name,
-        inner.fieldTerminator.map(_.value)
+        inner.fieldTerminator.map(_.value),
+        inner.typedHeaders
       )
       builder.startItems(items: _*)
     }
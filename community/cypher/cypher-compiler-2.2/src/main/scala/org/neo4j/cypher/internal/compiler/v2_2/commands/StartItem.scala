@@ -143,7 +143,7 @@ case class AllRelationships(columnName: String) extends StartItem(columnName, Se
   override def localEffects = Effects.READS_NODES
 }
 
-case class LoadCSV(withHeaders: Boolean, url: Expression, identifier: String, fieldTerminator: Option[String]) extends StartItem(identifier, Seq.empty)
+case class LoadCSV(withHeaders: Boolean, url: Expression, identifier: String, fieldTerminator: Option[String], typedHeaders: Boolean = false) extends StartItem(identifier, Seq.empty)
   with ReadOnlyStartItem {
   def identifiers: Seq[(String, CypherType)] = Seq(identifierName -> (if (withHeaders) CTMap else CTCollection(CTAny)))
   override def localEffects = Effects.NONE
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.commands.expressions
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongLongMap}
+import org.neo4j.cypher.internal.PathImpl
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.QueryState
+import org.neo4j.cypher.internal.compiler.v2_2.spi.QueryContext
+import org.neo4j.graphdb.{Direction, Node, Path, PropertyContainer}
+
+import scala.collection.mutable
+
+/*
+Finds shortest paths with a breadth-first search from both ends at once, on node ids. Every step expands the whole
+frontier of the side with the fewest nodes in it. Each side keeps the depth at which it first reached a node in a
+primitive map, and when looking for a single path, also the relationship it reached the node through.
+
+Both sides have seen every node closer to them than their current depth, so the first step that reaches nodes the
+other side has seen finds exactly the nodes at that depth that shortest paths go through. Nodes and relationships are
+only looked up for the paths that are returned.
+ */
+class BidirectionalShortestPath(dir: Direction, relTypes: Seq[String], maxDepth: Int, single: Boolean) {
+
+  def find(start: Node, end: Node)(implicit state: QueryState): Seq[Path] =
+    if (start.getId == end.getId)
+      Seq(PathImpl(start))
+    else
+      typeIds(state.query) match {
+        case Some(types) => new Search(start, end, types).paths
+        case None        => Seq.empty
+      }
+
+  // None if none of the given types exist, in which case there are no relationships to follow
+  private def typeIds(query: QueryContext): Option[Array[Int]] =
+    if (relTypes.isEmpty)
+      Some(Array.empty)
+    else {
+      val ids = relTypes.flatMap(query.getOptRelTypeId)
+      if (ids.isEmpty) None else Some(ids.toArray)
+    }
+
+  private class Side(val origin: Long, val dir: Direction) {
+    val depths: PrimitiveLongLongMap = Primitive.longLongMap()
+    val parents: PrimitiveLongLongMap = if (single) Primitive.longLongMap() else null
+    var frontier: Array[Long] = Array(origin)
+    var depth = 0
+
+    depths.put(origin, 0)
+  }
+
+  private class Search(start: Node, end: Node, types: Array[Int])(implicit state: QueryState) {
+    private val query = state.query
+    private val fromStart = new Side(start.getId, dir)
+    private val fromEnd = new Side(end.getId, dir.reverse())
+
+    def paths: Seq[Path] = {
+      var meetings = Array.empty[Long]
+      while (meetings.isEmpty && fromStart.depth + fromEnd.depth < maxDepth &&
+             fromStart.frontier.nonEmpty && fromEnd.frontier.nonEmpty) {
+        meetings =
+          if (fromStart.frontier.length <= fromEnd.frontier.length) step(fromStart, fromEnd)
+          else step(fromEnd, fromStart)
+      }
+
+      if (meetings.isEmpty)
+        Seq.empty
+      else if (single)
+        Seq(path(pathThroughParents(fromStart, meetings(0)).reverse ++ pathThroughParents(fromEnd, meetings(0)).tail))
+      else
+        meetings.toSeq.flatMap(allPathsThrough)
+    }
+
+    // Expands the frontier of a side by one level and returns the new nodes that the other side has already seen
+    private def step(side: Side, other: Side): Array[Long] = {
+      val next = mutable.ArrayBuilder.make[Long]()
+      val meetings = mutable.ArrayBuilder.make[Long]()
+      val nextDepth = side.depth + 1
+      var met = false
+
+      var i = 0
+      while (i < side.frontier.length && !(single && met)) {
+        query.expand(side.frontier(i), side.dir, types) {
+          (relId, neighbor) =>
+            if (!(single && met) && !side.depths.containsKey(neighbor)) {
+              side.depths.put(neighbor, nextDepth)
+              if (side.parents != null)
+                side.parents.put(neighbor, relId)
+              next += neighbor
+              if (other.depths.containsKey(neighbor)) {
+                meetings += neighbor
+                met = true
+              }
+            }
+        }
+        i += 1
+      }
+
+      side.frontier = next.result()
+      side.depth = nextDepth
+      meetings.result()
+    }
+
+    // From the meeting node back to the origin of the side, following the first relationship that reached each node
+    private def pathThroughParents(side: Side, meeting: Long): List[PropertyContainer] = {
+      var node = query.nodeOps.getById(meeting)
+      val entities = mutable.ListBuffer[PropertyContainer](node)
+      while (node.getId != side.origin) {
+        val relationship = query.relationshipOps.getById(side.parents.get(node.getId))
+        node = relationship.getOtherNode(node)
+        entities += relationship += node
+      }
+      entities.toList
+    }
+
+    private def allPathsThrough(meeting: Long): Seq[Path] = {
+      val toStart = stepsToOrigin(fromStart, meeting)
+      val toEnd = stepsToOrigin(fromEnd, meeting)
+      val meetingNode = query.nodeOps.getById(meeting)
+      for (first <- toStart; second <- toEnd)
+        yield path(entities(first).reverse ++ (meetingNode :: entities(second)))
+    }
+
+    // All ways back from a node to the origin of a side, one step at a time through nodes one level closer to it
+    private def stepsToOrigin(side: Side, node: Long): Seq[List[(Long, Long)]] = {
+      val depth = side.depths.get(node)
+      if (depth == 0)
+        Seq(Nil)
+      else {
+        val steps = mutable.ArrayBuffer[(Long, Long)]()
+        query.expand(node, side.dir.reverse(), types) {
+          (relId, neighbor) => if (side.depths.get(neighbor) == depth - 1) steps += (relId -> neighbor)
+        }
+        steps.flatMap {
+          case step@(_, neighbor) => stepsToOrigin(side, neighbor).map(step :: _)
+        }
+      }
+    }
+
+    private def entities(steps: List[(Long, Long)]): List[PropertyContainer] = steps.flatMap {
+      case (relId, nodeId) => List(query.relationshipOps.getById(relId), query.nodeOps.getById(nodeId))
+    }
+
+    private def path(entities: Seq[PropertyContainer]): Path = PathImpl(entities: _*)
+  }
+}
@@ -103,16 +103,14 @@ abstract class Arithmetics(left: Expression, right: Expression)
     throw new CypherTypeException("Don't know how to " + this + " `" + bVal + "` with `" + aVal + "`")
   }
 
-  def apply(ctx: ExecutionContext)(implicit state: QueryState) = {
-    val aVal = left(ctx)
-    val bVal = right(ctx)
-
-    (aVal, bVal) match {
-      case (null, _) => null
-      case (_, null) => null
-      case (x: Number, y: Number) => calc(x, y)
-      case _ => throwTypeError(bVal, aVal)
-    }
+  def apply(ctx: ExecutionContext)(implicit state: QueryState) = evaluate(left(ctx), right(ctx))
+
+  /** Evaluates this expression for the values of its operands, also used by compiled expressions. */
+  def evaluate(aVal: Any, bVal: Any): Any = (aVal, bVal) match {
+    case (null, _) => null
+    case (_, null) => null
+    case (x: Number, y: Number) => calc(x, y)
+    case _ => throwTypeError(bVal, aVal)
   }
 
   def calc(a: Number, b: Number): Any
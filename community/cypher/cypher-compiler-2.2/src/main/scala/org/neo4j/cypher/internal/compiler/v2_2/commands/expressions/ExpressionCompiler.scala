@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.commands.expressions
+
+import org.neo4j.cypher.EntityNotFoundException
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.commands._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.KeyToken
+import org.neo4j.cypher.internal.compiler.v2_2.helpers.IsMap
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.QueryState
+import org.neo4j.cypher.internal.compiler.v2_2.spi.Operations
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.graphdb.{NotFoundException, Node, Relationship}
+import org.neo4j.helpers.ThisShouldNotHappenError
+
+/*
+Compiles expression trees into trees of evaluator functions once, when the plan is built, instead of having every
+row go through the generic evaluation of each expression. Property lookups on nodes and relationships go straight to
+the property key id instead of through a map view of the entity and a lookup of the key name, comparisons of strings
+and integers skip the generic comparison of values, and boolean logic doesn't allocate any options.
+
+Expressions that don't compile are evaluated by the interpreter as usual, also when they are part of an expression
+that does compile. Compiled expressions keep the expression they were compiled from, for rewriting, type checking and
+plan descriptions.
+ */
+object ExpressionCompiler {
+  type Evaluator = (ExecutionContext, QueryState) => Any
+  type PredicateEvaluator = (ExecutionContext, QueryState) => Option[Boolean]
+
+  private val TRUE = Some(true)
+  private val FALSE = Some(false)
+
+  private def bool(b: Boolean): Option[Boolean] = if (b) TRUE else FALSE
+
+  def compile(expression: Expression): Expression = expression match {
+    case predicate: Predicate => compile(predicate)
+    case _ if compiles(expression) => new CompiledExpression(expression, evaluator(expression))
+    case _ => expression
+  }
+
+  def compile(predicate: Predicate): Predicate =
+    if (compiles(predicate)) new CompiledPredicate(predicate, predicateEvaluator(predicate)) else predicate
+
+  private def compiles(expression: Expression) = expression match {
+    case _: Property | _: Arithmetics |
+         _: Equals | _: ComparablePredicate | _: And | _: Ands | _: Or | _: Ors | _: Not | _: IsNull => true
+    case _ => false
+  }
+
+  private def evaluator(expression: Expression): Evaluator = expression match {
+    case Literal(value) =>
+      (_, _) => value
+
+    case Property(mapExpr, propertyKey) =>
+      property(evaluator(mapExpr), propertyKey)
+
+    case arithmetics: Arithmetics =>
+      val Seq(left, right) = arithmetics.arguments.map(evaluator)
+      (ctx, state) => arithmetics.evaluate(left(ctx, state), right(ctx, state))
+
+    case predicate: Predicate if compiles(predicate) =>
+      val isMatch = predicateEvaluator(predicate)
+      (ctx, state) => isMatch(ctx, state).getOrElse(null)
+
+    case compiled: CompiledExpression =>
+      compiled.evaluator
+
+    case _ =>
+      (ctx, state) => expression(ctx)(state)
+  }
+
+  private def predicateEvaluator(predicate: Predicate): PredicateEvaluator = predicate match {
+    case Equals(a, b) =>
+      equality(evaluator(a), evaluator(b))
+
+    case comparison: ComparablePredicate =>
+      val Seq(left, right) = comparison.arguments.map(evaluator)
+      compare(comparison, left, right)
+
+    case and: And =>
+      all(Seq(and.a, and.b))
+
+    case Ands(predicates) =>
+      all(predicates)
+
+    case Or(a, b) =>
+      any(Seq(a, b))
+
+    case Ors(predicates) =>
+      any(predicates)
+
+    case Not(a) =>
+      val isMatch = predicateEvaluator(a)
+      (ctx, state) => isMatch(ctx, state) match {
+        case Some(x) => bool(!x)
+        case None => None
+      }
+
+    case IsNull(expression) =>
+      val value = evaluator(expression)
+      (ctx, state) => bool(value(ctx, state) == null)
+
+    case compiled: CompiledPredicate =>
+      compiled.evaluator
+
+    case _ =>
+      (ctx, state) => predicate.isMatch(ctx)(state)
+  }
+
+  private def property(mapExpr: Evaluator, propertyKey: KeyToken): Evaluator = {
+    val propertyOf: (Long, Operations[_], QueryState) => Any = propertyKey match {
+      case KeyToken.Resolved(_, keyId, _) =>
+        (id, ops, _) => ops.getProperty(id, keyId)
+      case _ =>
+        (id, ops, state) => propertyKey.getOptId(state.query) match {
+          case Some(keyId) => ops.getProperty(id, keyId)
+          case None => null
+        }
+    }
+
+    (ctx, state) => mapExpr(ctx, state) match {
+      case null => null
+      case value => try {
+        value match {
+          case n: Node => propertyOf(n.getId, state.query.nodeOps, state)
+          case r: Relationship => propertyOf(r.getId, state.query.relationshipOps, state)
+          case IsMap(mapFunc) => mapFunc(state.query).getOrElse(propertyKey.name, null)
+          case _ => throw new ThisShouldNotHappenError("Andres", "Need something with properties")
+        }
+      } catch {
+        case _: EntityNotFoundException => null
+        case _: NotFoundException => null
+      }
+    }
+  }
+
+  private def equality(a: Evaluator, b: Evaluator): PredicateEvaluator = (ctx, state) => {
+    val l = a(ctx, state)
+    val r = b(ctx, state)
+    if (l == null || r == null)
+      None
+    else (l, r) match {
+      case (_: String, _: String) | (_: Number, _: Number) | (_: java.lang.Boolean, _: java.lang.Boolean) =>
+        bool(l == r)
+      case _ =>
+        // collections, entities and values of different types are compared like Equals does
+        Equals(Literal(l), Literal(r)).isMatch(ctx)(state)
+    }
+  }
+
+  private def compare(comparison: ComparablePredicate, a: Evaluator, b: Evaluator): PredicateEvaluator = (ctx, state) => {
+    val l = a(ctx, state)
+    val r = b(ctx, state)
+    if (l == null || r == null)
+      None
+    else {
+      val comparisonResult = (l, r) match {
+        case (x: String, y: String) => x.compareTo(y)
+        case (x: java.lang.Long, y: java.lang.Long) => java.lang.Long.compare(x, y)
+        case (x: java.lang.Integer, y: java.lang.Integer) => java.lang.Integer.compare(x, y)
+        case _ => comparison.compare(l, r)(state)
+      }
+      bool(comparison.compare(comparisonResult))
+    }
+  }
+
+  private def all(predicates: Seq[Predicate]): PredicateEvaluator = {
+    val isMatches = predicates.map(predicateEvaluator).toArray
+    (ctx, state) => {
+      var result: Option[Boolean] = TRUE
+      var i = 0
+      while (i < isMatches.length && result != FALSE) {
+        isMatches(i)(ctx, state) match {
+          case None => result = None
+          case Some(false) => result = FALSE
+          case _ =>
+        }
+        i += 1
+      }
+      result
+    }
+  }
+
+  private def any(predicates: Seq[Predicate]): PredicateEvaluator = {
+    val isMatches = predicates.map(predicateEvaluator).toArray
+    (ctx, state) => {
+      var result: Option[Boolean] = FALSE
+      var i = 0
+      while (i < isMatches.length && result != TRUE) {
+        isMatches(i)(ctx, state) match {
+          case None => result = None
+          case Some(true) => result = TRUE
+          case _ =>
+        }
+        i += 1
+      }
+      result
+    }
+  }
+}
+
+class CompiledExpression(val original: Expression, val evaluator: ExpressionCompiler.Evaluator) extends Expression {
+  def apply(ctx: ExecutionContext)(implicit state: QueryState) = evaluator(ctx, state)
+
+  def rewrite(f: (Expression) => Expression) = original.rewrite(f)
+
+  def arguments = original.arguments
+
+  override def children = original.children
+
+  protected def calculateType(symbols: SymbolTable) = original.getType(symbols)
+
+  override def evaluateType(expectedType: CypherType, symbols: SymbolTable) = original.evaluateType(expectedType, symbols)
+
+  def symbolTableDependencies = original.symbolTableDependencies
+
+  override def localEffects = original.localEffects
+
+  override def toString = original.toString
+
+  override def hashCode() = original.hashCode()
+
+  override def equals(other: Any) = other match {
+    case that: CompiledExpression => original == that.original
+    case _ => false
+  }
+}
+
+class CompiledPredicate(val original: Predicate, val evaluator: ExpressionCompiler.PredicateEvaluator) extends Predicate {
+  def isMatch(m: ExecutionContext)(implicit state: QueryState) = evaluator(m, state)
+
+  def containsIsNull = original.containsIsNull
+
+  def rewrite(f: (Expression) => Expression) = original.rewrite(f)
+
+  def arguments = original.arguments
+
+  override def children = original.children
+
+  def symbolTableDependencies = original.symbolTableDependencies
+
+  override def localEffects = original.localEffects
+
+  override def toString = original.toString
+
+  override def hashCode() = original.hashCode()
+
+  override def equals(other: Any) = other match {
+    case that: CompiledPredicate => original == that.original
+    case _ => false
+  }
+}
@@ -25,11 +25,8 @@ import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
 import pipes.QueryState
 import symbols._
 import org.neo4j.cypher.SyntaxException
-import org.neo4j.graphalgo.GraphAlgoFactory
-import org.neo4j.graphdb.{Path, DynamicRelationshipType, Node, Expander}
-import org.neo4j.kernel.Traversal
+import org.neo4j.graphdb.{Path, Node}
 import collection.Map
-import scala.collection.JavaConverters._
 
 case class ShortestPathExpression(ast: ShortestPath) extends Expression with PathExtractor {
   val pathPattern:Seq[Pattern] = Seq(ast)
@@ -42,7 +39,7 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
     }
   }
 
-  private def getMatches(m: Map[String, Any]): Any = {
+  private def getMatches(m: Map[String, Any])(implicit state: QueryState): Any = {
     val start = getEndPoint(m, ast.left)
     val end = getEndPoint(m, ast.right)
     shortestPathStrategy.findResult(start, end)
@@ -60,19 +57,14 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
 
   def rewrite(f: (Expression) => Expression): Expression = f(ShortestPathExpression(ast.rewrite(f)))
 
-  private lazy val expander: Expander = if (ast.relTypes.isEmpty) {
-    Traversal.expanderForAllTypes(ast.dir)
-  } else {
-    ast.relTypes.foldLeft(Traversal.emptyExpander()) {
-      case (e, t) => e.add(DynamicRelationshipType.withName(t), ast.dir)
-    }
+  val shortestPathStrategy: ShortestPathStrategy = {
+    val finder = new BidirectionalShortestPath(ast.dir, ast.relTypes, ast.maxDepth.getOrElse(15), ast.single)
+    if (ast.single)
+      new SingleShortestPathStrategy(finder)
+    else
+      new AllShortestPathsStrategy(finder)
   }
 
-  val shortestPathStrategy = if (ast.single)
-    new SingleShortestPathStrategy(expander, ast.maxDepth.getOrElse(15))
-  else
-    new AllShortestPathsStrategy(expander, ast.maxDepth.getOrElse(15))
-
   def calculateType(symbols: SymbolTable) =  shortestPathStrategy.typ
 
   def symbolTableDependencies = ast.symbolTableDependencies + ast.left.name + ast.right.name
@@ -81,24 +73,18 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
 }
 
 trait ShortestPathStrategy {
-  def findResult(start: Node, end: Node): Any
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Any
   def typ: CypherType
 }
 
-class SingleShortestPathStrategy(expander: Expander, depth: Int) extends ShortestPathStrategy {
-  private val finder = GraphAlgoFactory.shortestPath(expander, depth)
-
-  def findResult(start: Node, end: Node): Path = finder.findSinglePath(start, end)
+class SingleShortestPathStrategy(finder: BidirectionalShortestPath) extends ShortestPathStrategy {
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Path = finder.find(start, end).headOption.orNull
 
   def typ = CTPath
 }
 
-class AllShortestPathsStrategy(expander: Expander, depth: Int) extends ShortestPathStrategy {
-  private val finder = GraphAlgoFactory.shortestPath(expander, depth)
-
-  def findResult(start: Node, end: Node): Stream[Path] = {
-    finder.findAllPaths(start, end).asScala.toStream
-  }
+class AllShortestPathsStrategy(finder: BidirectionalShortestPath) extends ShortestPathStrategy {
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Stream[Path] = finder.find(start, end).toStream
 
   def typ = CTCollection(CTPath)
 }
@@ -26,5 +26,6 @@ abstract class ExecutionPlan {
   def execute(queryContext: QueryContext, params: Map[String, Any]): InternalExecutionResult
   def profile(queryContext: QueryContext, params: Map[String, Any]): InternalExecutionResult
   def isPeriodicCommit: Boolean
+  def isReadOnly: Boolean
 }
 
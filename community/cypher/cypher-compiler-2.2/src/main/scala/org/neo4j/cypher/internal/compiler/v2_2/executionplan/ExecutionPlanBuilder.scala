@@ -50,12 +50,14 @@ trait PipeBuilder {
 }
 
 class ExecutionPlanBuilder(graph: GraphDatabaseService,
-                           pipeBuilder: PipeBuilder) extends PatternGraphBuilder {
+                           pipeBuilder: PipeBuilder,
+                           compiledExpressions: Boolean = true,
+                           parallelAggregation: Boolean = true) extends PatternGraphBuilder {
 
   def build(planContext: PlanContext, inputQuery: PreparedQuery): ExecutionPlan = {
     val abstractQuery = inputQuery.abstractQuery
 
-    val pipeInfo = pipeBuilder.producePlan(inputQuery, planContext)
+    val pipeInfo = compile(rewriteReadOnly(pipeBuilder.producePlan(inputQuery, planContext)))
     val PipeInfo(pipe, updating, periodicCommitInfo) = pipeInfo
 
     val columns = getQueryResultColumns(abstractQuery, pipe.symbols)
@@ -68,9 +70,29 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService,
       def execute(queryContext: QueryContext, params: Map[String, Any]) = func(queryContext, params, profileMarker)
       def profile(queryContext: QueryContext, params: Map[String, Any]) = func(new UpdateCountingQueryContext(queryContext), params, true)
       def isPeriodicCommit = periodicCommitInfo.isDefined
+      def isReadOnly = !updating && periodicCommitInfo.isEmpty
     }
   }
 
+  private def rewriteReadOnly(pipeInfo: PipeInfo): PipeInfo =
+    if (pipeInfo.updating || pipeInfo.periodicCommit.isDefined)
+      pipeInfo
+    else
+      pipeInfo.copy(pipe = parallelize(pushDownPropertyReads(pipeInfo.pipe)))
+
+  private def parallelize(pipe: Pipe): Pipe =
+    if (parallelAggregation)
+      parallelizeAggregation(pipe)
+    else
+      pipe
+
+  // After parallelizing, which only knows about interpreted expressions
+  private def compile(pipeInfo: PipeInfo): PipeInfo =
+    if (compiledExpressions)
+      pipeInfo.copy(pipe = compileExpressions(pipeInfo.pipe))
+    else
+      pipeInfo
+
   private def getQueryResultColumns(q: AbstractQuery, currentSymbols: SymbolTable): List[String] = q match {
     case in: PeriodicCommitQuery =>
       getQueryResultColumns(in.query, currentSymbols)
@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.executionplan.builders
 
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.{ExecutionPlanInProgress, PlanBuilder}
 import org.neo4j.cypher.internal.compiler.v2_2.spi.PlanContext
-import org.neo4j.cypher.internal.compiler.v2_2.pipes.{PipeMonitor, HasHeaders, NoHeaders, LoadCSVPipe}
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.{PipeMonitor, HasHeaders, HasTypedHeaders, NoHeaders, LoadCSVPipe}
 import org.neo4j.cypher.internal.compiler.v2_2.commands.LoadCSV
 import org.neo4j.cypher.LoadExternalResourceException
 
@@ -36,11 +36,16 @@ class LoadCSVBuilder extends PlanBuilder {
     }
   }
 
+  private def format(item: LoadCSV) =
+    if (item.typedHeaders) HasTypedHeaders
+    else if (item.withHeaders) HasHeaders
+    else NoHeaders
+
   def apply(plan: ExecutionPlanInProgress, ctx: PlanContext)(implicit pipeMonitor: PipeMonitor): ExecutionPlanInProgress = {
     val item: LoadCSV = findLoadCSVItem(plan).get
     plan.copy(
       query = plan.query.copy(start = plan.query.start.replace(Unsolved(item), Solved(item))),
-      pipe = new LoadCSVPipe(plan.pipe, if (item.withHeaders) HasHeaders else NoHeaders, item.url, item.identifier, item.fieldTerminator)
+      pipe = new LoadCSVPipe(plan.pipe, format(item), item.url, item.identifier, item.fieldTerminator)
     )
   }
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.{Expression, ExpressionCompiler}
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+
+/*
+Compiles the predicates of filters and the expressions of projections, see ExpressionCompiler.
+ */
+object compileExpressions extends (Pipe => Pipe) {
+
+  def apply(pipe: Pipe): Pipe = {
+    val sources = pipe.sources.map(apply)
+    val withSources = if (sources.corresponds(pipe.sources)(_ eq _)) pipe else pipe.dup(sources.toList)
+
+    withSources match {
+      case p@FilterPipe(_, predicate) =>
+        p.copy(predicate = ExpressionCompiler.compile(predicate))(p.monitor)
+
+      case p@ProjectionNewPipe(_, expressions) =>
+        p.copy(expressions = compile(expressions))(p.monitor)
+
+      case p@ExtractPipe(_, expressions, _) =>
+        p.copy(expressions = compile(expressions))(p.monitor)
+
+      case p =>
+        p
+    }
+  }
+
+  private def compile(expressions: Map[String, Expression]): Map[String, Expression] =
+    expressions.map { case (name, expression) => name -> ExpressionCompiler.compile(expression) }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import org.neo4j.cypher.internal.compiler.v2_2.commands._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.KeyToken
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+
+/*
+Replaces aggregations over node scans with ParallelAggregationPipe, when it is safe to evaluate the pipes in between
+on other threads than the query's own. Core API entities, such as the nodes and relationships in a row, need the
+transaction to be bound to the calling thread, so only pipes and expressions that read through the query context are
+allowed. Must only be used for read-only plans.
+ */
+object parallelizeAggregation extends (Pipe => Pipe) {
+
+  def apply(pipe: Pipe): Pipe = pipe match {
+    case EagerAggregationPipe(source, keyExpressions, aggregations)
+      if canRunInParallel(source) && (keyExpressions.values ++ aggregations.values).forall(canRunInParallel) =>
+      ParallelAggregationPipe(source, keyExpressions, aggregations)(pipe.monitor)
+
+    case _ =>
+      val sources = pipe.sources.map(apply)
+      if (sources.corresponds(pipe.sources)(_ eq _)) pipe else pipe.dup(sources.toList)
+  }
+
+  private def canRunInParallel(pipe: Pipe): Boolean = pipe match {
+    case _: AllNodesScanPipe | _: NodeByLabelScanPipe => true
+    case FilterPipe(source, predicate) => canRunInParallel(predicate) && canRunInParallel(source)
+    case ProjectionNewPipe(source, expressions) => expressions.values.forall(canRunInParallel) && canRunInParallel(source)
+    case PropertyPrefetchPipe(source, _, _) => canRunInParallel(source)
+    case _ => false
+  }
+
+  private def canRunInParallel(expression: Expression): Boolean = !expression.exists {
+    case _: Identifier | _: Literal | _: Null | _: Collection | _: ParameterExpression | _: Property | _: KeyToken |
+         _: CachedExpression |
+         _: IdFunction | _: LabelsFunction | _: ToIntFunction | _: ToFloatFunction |
+         _: Add | _: Subtract | _: Multiply | _: Divide | _: Modulo | _: Pow |
+         _: Equals | _: ComparablePredicate | _: Not | _: And | _: Ands | _: Or | _: Ors | _: Xor | _: IsNull |
+         _: True | _: HasLabel | _: PropertyExists | _: CoercedPredicate |
+         _: CountStar | _: Count | _: Sum | _: Min | _: Max | _: Avg => false
+    case _ => true
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import scala.collection.mutable
+
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.KeyToken
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+
+/*
+Finds the node properties that the filters and projections above a node scan need, and reads them with
+PropertyPrefetchPipes, one call per row instead of one lookup per property expression. The property expressions are
+replaced by reads of the prefetched values.
+
+Properties read by the lowest filter, and by the extracts below it, are read right above the scan, since they are
+needed for every scanned row. Properties that only the projection or aggregation on top reads are read right below
+it, so that rows the filters discard never decode them. Properties that only the other filters and extracts read are
+left to their property expressions. Without filters, everything is read right above the scan.
+
+Only chains of filters and extracts that end in a projection or an aggregation are rewritten, since those produce new
+rows and so the prefetched values never leave the chain. Only property keys that were resolved at planning time are
+prefetched. Must only be used for read-only plans.
+ */
+object pushDownPropertyReads extends (Pipe => Pipe) {
+
+  def apply(pipe: Pipe): Pipe = pipe match {
+    case p@ProjectionNewPipe(source, expressions) =>
+      prefetch(source, expressions.values.toSeq).map {
+        case (newSource, rewriter) =>
+          p.copy(source = newSource, expressions = expressions.mapValues(_.rewrite(rewriter)).toMap)(p.monitor)
+      }.getOrElse(rewriteSources(pipe))
+
+    case p@EagerAggregationPipe(source, keyExpressions, aggregations) =>
+      prefetch(source, (keyExpressions.values ++ aggregations.values).toSeq).map {
+        case (newSource, rewriter) =>
+          EagerAggregationPipe(newSource,
+            keyExpressions.mapValues(_.rewrite(rewriter)).toMap,
+            aggregations.mapValues(_.rewrite(rewriter).asInstanceOf[AggregationExpression]).toMap)(p.monitor)
+      }.getOrElse(rewriteSources(pipe))
+
+    case _ =>
+      rewriteSources(pipe)
+  }
+
+  private def rewriteSources(pipe: Pipe): Pipe = {
+    val sources = pipe.sources.map(apply)
+    if (sources.corresponds(pipe.sources)(_ eq _)) pipe else pipe.dup(sources.toList)
+  }
+
+  /*
+  Returns the chain with prefetches inserted, and the rewriter for the expressions of the pipe on top of the chain, or
+  None if there is nothing to prefetch.
+   */
+  private def prefetch(chain: Pipe, topExpressions: Seq[Expression]): Option[(Pipe, Expression => Expression)] =
+    scanOf(chain).flatMap {
+      ident =>
+        val pipes = pipesOf(chain)
+        val chainExpressions = pipes.flatMap(expressionsOf)
+
+        val everyRowExpressions = pipes.indexWhere(_.isInstanceOf[FilterPipe]) match {
+          case -1 => chainExpressions ++ topExpressions
+          case lowestFilter => pipes.take(lowestFilter + 1).flatMap(expressionsOf)
+        }
+        val aboveScan = propertiesOf(ident, everyRowExpressions)
+        val belowTop = propertiesOf(ident, topExpressions).filterNot(aboveScan.contains)
+
+        if ((aboveScan.isEmpty && belowTop.isEmpty) || (chainExpressions ++ topExpressions).exists(introducesIdentifiers))
+          None
+        else {
+          val newChain = withPrefetch(rewriteChain(chain, ident, aboveScan), ident, belowTop)
+          Some(newChain -> rewriterFor(ident, aboveScan ++ belowTop))
+        }
+    }
+
+  private def propertiesOf(ident: String, expressions: Seq[Expression]): Seq[(String, Int)] = {
+    val properties = mutable.LinkedHashSet[(String, Int)]()
+    expressions.foreach(_.visit {
+      case Property(Identifier(`ident`), KeyToken.Resolved(name, id, _)) => properties += name -> id
+    })
+    properties.toSeq
+  }
+
+  private def rewriterFor(ident: String, properties: Seq[(String, Int)]): Expression => Expression = {
+    val names = properties.map(_._1).toSet
+    val rewriter: Expression => Expression = {
+      case Property(Identifier(`ident`), KeyToken.Resolved(name, _, _)) if names(name) =>
+        CachedExpression(PropertyPrefetchPipe.cacheKey(ident, name), CTAny)
+      case e =>
+        e
+    }
+    rewriter
+  }
+
+  private def withPrefetch(pipe: Pipe, ident: String, properties: Seq[(String, Int)]): Pipe =
+    if (properties.isEmpty) pipe else PropertyPrefetchPipe(pipe, ident, properties)(pipe.monitor)
+
+  // Expressions with their own identifiers could shadow the identifier of the scan
+  private def introducesIdentifiers(expression: Expression): Boolean = expression.exists {
+    case _: Closure | _: ReduceFunction => true
+    case _ => false
+  }
+
+  private def scanOf(chain: Pipe): Option[String] = chain match {
+    case AllNodesScanPipe(ident) => Some(ident)
+    case NodeByLabelScanPipe(ident, _) => Some(ident)
+    case FilterPipe(source, _) => scanOf(source)
+    case ExtractPipe(source, expressions, _) =>
+      scanOf(source).filterNot(expressions.contains)
+    case _ => None
+  }
+
+  // The filters and extracts of the chain, lowest first
+  private def pipesOf(chain: Pipe): Seq[Pipe] = chain match {
+    case p@FilterPipe(source, _) => pipesOf(source) :+ p
+    case p@ExtractPipe(source, _, _) => pipesOf(source) :+ p
+    case _ => Seq.empty
+  }
+
+  private def expressionsOf(pipe: Pipe): Seq[Expression] = pipe match {
+    case FilterPipe(_, predicate) => Seq(predicate)
+    case ExtractPipe(_, expressions, _) => expressions.values.toSeq
+  }
+
+  private def rewriteChain(chain: Pipe, ident: String, properties: Seq[(String, Int)]): Pipe = {
+    val rewriter = rewriterFor(ident, properties)
+
+    def rewrite(pipe: Pipe): Pipe = pipe match {
+      case p@FilterPipe(source, predicate) =>
+        p.copy(source = rewrite(source), predicate = predicate.rewriteAsPredicate(rewriter))(p.monitor)
+
+      case p@ExtractPipe(source, expressions, _) =>
+        p.copy(source = rewrite(source), expressions = expressions.mapValues(_.rewrite(rewriter)).toMap)(p.monitor)
+
+      case scan =>
+        withPrefetch(scan, ident, properties)
+    }
+
+    rewrite(chain)
+  }
+}
@@ -32,11 +32,16 @@ trait Clauses extends Parser
 
   def LoadCSV: Rule1[ast.LoadCSV] = rule("LOAD CSV") {
       keyword("LOAD CSV") ~~
-      group(keyword("WITH HEADERS") ~ push(true) | push(false)) ~~
+      group(
+        keyword("WITH TYPED HEADERS") ~ push(true) ~ push(true)
+        | keyword("WITH HEADERS") ~ push(true) ~ push(false)
+        | push(false) ~ push(false)
+      ) ~~
       keyword("FROM") ~~ (StringLiteral | Parameter) ~~
       keyword("AS") ~~ Identifier ~~
       optional(keyword("FIELDTERMINATOR") ~~ StringLiteral) ~~>>
-      (ast.LoadCSV(_, _, _, _))
+      ((withHeaders, typedHeaders, url, identifier, fieldTerminator) =>
+        ast.LoadCSV(withHeaders, url, identifier, fieldTerminator, typedHeaders))
   }
 
   def Start: Rule1[ast.Start] = rule("START") {
@@ -48,12 +48,34 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
     SymbolTable(keyIdentifiers ++ aggrIdentifiers)
   }
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
-    // This is the temporary storage used while the aggregation is going on
-    val result = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]()
-    val keyNames: Seq[String] = keyExpressions.map(_._1).toSeq
-    val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
+  // Groups on a single node, relationship or integer without building a NiceHasher per row, when possible
+  private val primitiveGrouping = PrimitiveGrouping.forAggregation(keyExpressions, aggregations, source.symbols)
 
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = primitiveGrouping match {
+    case Some(grouping) =>
+      grouping.aggregate(input)(state)
+
+    case None =>
+      val table = newAggregationTable
+      input.foreach(ctx => aggregate(table, ctx)(state))
+      results(table, state)
+  }
+
+  // This is the temporary storage used while the aggregation is going on
+  private[pipes] type AggregationTable = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]
+
+  private val keyNames: Seq[String] = keyExpressions.map(_._1).toSeq
+  private val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
+
+  private[pipes] def newAggregationTable: AggregationTable = MutableMap()
+
+  private[pipes] def aggregate(table: AggregationTable, ctx: ExecutionContext)(implicit state: QueryState) {
+    val groupValues: NiceHasher = new NiceHasher(keyNames.map(ctx))
+    val (_, functions) = table.getOrElseUpdate(groupValues, (ctx, aggregations.map(_._2.createAggregationFunction).toSeq))
+    functions.foreach(func => func(ctx)(state))
+  }
+
+  private[pipes] def results(table: AggregationTable, state: QueryState): Iterator[ExecutionContext] = {
     def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext = {
       val newMap = MutableMaps.empty
 
@@ -75,17 +97,10 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       Iterator.single(ExecutionContext(newMap))
     }
 
-    input.foreach(ctx => {
-      val groupValues: NiceHasher = new NiceHasher(keyNames.map(ctx))
-      val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
-      val (_, functions) = result.getOrElseUpdate(groupValues, (ctx, aggregateFunctions))
-      functions.foreach(func => func(ctx)(state))
-    })
-
-    if (result.isEmpty && keyNames.isEmpty) {
+    if (table.isEmpty && keyNames.isEmpty) {
       createEmptyResult(state.params)
     } else {
-      result.map {
+      table.map {
         case (key, (ctx, aggregator)) => createResults(key, aggregator, ctx)
       }.toIterator
     }
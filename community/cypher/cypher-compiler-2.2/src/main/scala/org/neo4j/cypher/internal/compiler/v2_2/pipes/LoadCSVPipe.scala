@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.pipes
 
 import java.net.URL
 
-import org.neo4j.cypher.LoadExternalResourceException
+import org.neo4j.cypher.{CypherTypeException, LoadExternalResourceException}
 import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
 import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Expression
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
@@ -32,8 +32,45 @@ import org.neo4j.cypher.internal.compiler.v2_2.symbols.{AnyType, CollectionType,
 
 sealed trait CSVFormat
 case object HasHeaders extends CSVFormat
+case object HasTypedHeaders extends CSVFormat
 case object NoHeaders extends CSVFormat
 
+/*
+With LOAD CSV WITH TYPED HEADERS, a header may end with a type hint, as in "age:int", in which case the values of that
+column are converted to that type once when the row is read, instead of by toInt() and friends in every expression that
+uses them. The hint is not part of the key. Empty values become null. Plain WITH HEADERS keeps headers as they are.
+ */
+case class CSVHeader(key: String, convert: String => Any)
+
+object CSVHeader {
+  private val typeHints: Map[String, String => Any] = Map(
+    "string" -> ((value: String) => value),
+    "int" -> ((value: String) => value.trim.toLong),
+    "long" -> ((value: String) => value.trim.toLong),
+    "float" -> ((value: String) => value.trim.toDouble),
+    "double" -> ((value: String) => value.trim.toDouble),
+    "boolean" -> ((value: String) => value.trim.toBoolean)
+  )
+
+  def parse(header: String): CSVHeader = header.lastIndexOf(':') match {
+    case -1 => CSVHeader(header, identity[String])
+    case colon => typeHints.get(header.substring(colon + 1).trim.toLowerCase) match {
+      case Some(typeConversion) =>
+        val key = header.substring(0, colon)
+        val hint = header.substring(colon + 1)
+        CSVHeader(key, value =>
+          if (value == null || value.isEmpty) null
+          else try {
+            typeConversion(value)
+          } catch {
+            case e: IllegalArgumentException =>
+              throw new CypherTypeException(s"Can't convert '$value' in column '$key' to $hint", e)
+          })
+      case None => CSVHeader(header, identity[String])
+    }
+  }
+}
+
 case class LoadCSVPipe(source: Pipe,
                   format: CSVFormat,
                   urlExpression: Expression,
@@ -71,6 +108,11 @@ case class LoadCSVPipe(source: Pipe,
         case HasHeaders =>
           val headers = iterator.next().toSeq
           (row: Array[String]) => (headers zip row).toMap
+        case HasTypedHeaders =>
+          val headers = iterator.next().map(CSVHeader.parse).toSeq
+          (row: Array[String]) => (headers zip row).map {
+            case (header, value) => header.key -> header.convert(value)
+          }.toMap
         case NoHeaders =>
           (row: Array[String]) => row.toSeq
       }
@@ -85,7 +127,7 @@ case class LoadCSVPipe(source: Pipe,
     source.planDescription.andThen(this, "LoadCSV", IntroducedIdentifier(identifier))
 
   def symbols: SymbolTable = format match {
-    case HasHeaders => source.symbols.add(identifier, MapType.instance)
+    case HasHeaders | HasTypedHeaders => source.symbols.add(identifier, MapType.instance)
     case NoHeaders => source.symbols.add(identifier, CollectionType(AnyType.instance))
   }
 
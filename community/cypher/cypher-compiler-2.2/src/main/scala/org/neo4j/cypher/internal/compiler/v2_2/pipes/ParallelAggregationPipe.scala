@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util
+import java.util.concurrent.{Callable, ExecutionException, Future, FutureTask}
+
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.{AggregationExpression, Expression}
+import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.aggregation.MergeableAggregationFunction
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.PlanDescription.Arguments
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.{NoChildren, PlanDescriptionImpl}
+import org.neo4j.cypher.internal.compiler.v2_2.spi.QueryContext
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.graphdb.Node
+
+object ParallelAggregationPipe {
+  val MORSEL_SIZE: Int = 10000
+}
+
+/*
+Does the same as EagerAggregationPipe, but splits the node scan at the bottom of its source into morsels of at most
+MORSEL_SIZE nodes, and runs the source pipes for each morsel on the workers of the query context, which run on the
+database's job scheduler. Every morsel is aggregated into a table of its own, and the tables are merged as the morsels
+complete. Each morsel reads the graph through a worker context of its own, since statements and transaction state
+must not be shared between threads.
+
+All nodes scans are split into node id ranges, which the workers read on their own. Label scans are read on the
+query thread, which hands out the nodes it finds a morsel at a time.
+
+Only read-only plans where the source pipes and all expressions get their data through the query context may be run
+like this, see parallelizeAggregation. Profiled queries, queries running this pipe for each row of another one, and
+queries in transactions that have changed the graph, which the worker contexts wouldn't see, are aggregated on the
+query thread as usual.
+ */
+case class ParallelAggregationPipe(source: Pipe, keyExpressions: Map[String, Expression], aggregations: Map[String, AggregationExpression])
+                                  (implicit val monitor: PipeMonitor) extends Pipe {
+
+  import ParallelAggregationPipe._
+
+  private val serial = EagerAggregationPipe(source, keyExpressions, aggregations)
+
+  val symbols = serial.symbols
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    if (state.decorator != NullPipeDecorator || state.initialContext.isDefined || !state.query.canReadOnWorkers)
+      serial.createResults(state)
+    else
+      serial.results(aggregateInParallel(state), state)
+
+  private def aggregateInParallel(implicit state: QueryState): serial.AggregationTable = {
+    val table = serial.newAggregationTable
+    val pending = new util.ArrayDeque[Future[serial.AggregationTable]]()
+    val maxPending = Runtime.getRuntime.availableProcessors() * 2
+
+    def mergeNext() {
+      mergeInto(table, await(pending.poll()))
+    }
+
+    try {
+      morsels.foreach { morsel =>
+        if (pending.size >= maxPending)
+          mergeNext()
+        val task = new FutureTask(aggregateMorsel(morsel))
+        state.query.workers.execute(task)
+        pending.add(task)
+      }
+      while (!pending.isEmpty)
+        mergeNext()
+    } finally {
+      while (!pending.isEmpty)
+        pending.poll().cancel(false)
+    }
+    table
+  }
+
+  private def morsels(implicit state: QueryState): Iterator[QueryContext => Iterator[Node]] = leaf match {
+    case AllNodesScanPipe(_) =>
+      val end = state.query.highestNodeIdInUse + 1
+      Iterator.iterate(0L)(_ + MORSEL_SIZE).takeWhile(_ < end).map {
+        start => (query: QueryContext) => query.nodesInIdRange(start, math.min(start + MORSEL_SIZE, end))
+      }
+
+    case scan: NodeByLabelScanPipe =>
+      val nodes = scan.createResults(state).map(_(scan.ident).asInstanceOf[Node])
+      nodes.grouped(MORSEL_SIZE).map(morsel => (_: QueryContext) => morsel.iterator)
+  }
+
+  private def aggregateMorsel(morsel: QueryContext => Iterator[Node])(implicit state: QueryState) = new Callable[serial.AggregationTable] {
+    def call() = state.query.inWorkerContext { query =>
+      val table = serial.newAggregationTable
+      val pipe = withLeaf(source, NodeMorselPipe(leafIdentifier, () => morsel(query)))
+      pipe.createResults(state.copy(query = query)).foreach(ctx => serial.aggregate(table, ctx))
+      table
+    }
+  }
+
+  private def mergeInto(table: serial.AggregationTable, other: serial.AggregationTable)(implicit state: QueryState) {
+    other.foreach {
+      case (key, (ctx, functions)) => table.get(key) match {
+        case Some((_, existing)) =>
+          (existing zip functions).foreach {
+            case (mergeable: MergeableAggregationFunction, function) => mergeable.merge(function)
+          }
+        case None =>
+          table(key) = (ctx, functions)
+      }
+    }
+  }
+
+  private def await(morsel: Future[serial.AggregationTable]): serial.AggregationTable = try {
+    morsel.get()
+  } catch {
+    case e: ExecutionException => throw e.getCause
+  }
+
+  private def leaf: Pipe = {
+    def leafOf(pipe: Pipe): Pipe = if (pipe.sources.isEmpty) pipe else leafOf(pipe.sources.head)
+    leafOf(source)
+  }
+
+  private def leafIdentifier = leaf match {
+    case AllNodesScanPipe(ident) => ident
+    case NodeByLabelScanPipe(ident, _) => ident
+  }
+
+  private def withLeaf(pipe: Pipe, newLeaf: Pipe): Pipe =
+    if (pipe.sources.isEmpty) newLeaf else pipe.dup(pipe.sources.map(withLeaf(_, newLeaf)).toList)
+
+  def exists(pred: Pipe => Boolean) = pred(this) || source.exists(pred)
+
+  def planDescription = source.planDescription.andThen(this, "EagerAggregation", Arguments.KeyNames(keyExpressions.keys.toSeq))
+
+  def sources: Seq[Pipe] = Seq(source)
+
+  override def effects = Effects.NONE
+
+  override def localEffects = serial.localEffects
+
+  def dup(sources: List[Pipe]): Pipe = {
+    val (source :: Nil) = sources
+    copy(source = source)
+  }
+}
+
+/*
+Produces the nodes of one morsel of a ParallelAggregationPipe, in place of the scan it was split from.
+ */
+private case class NodeMorselPipe(ident: String, nodes: () => Iterator[Node])(implicit val monitor: PipeMonitor) extends Pipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    nodes().map(n => ExecutionContext.empty += (ident -> n))
+
+  def exists(predicate: Pipe => Boolean): Boolean = predicate(this)
+
+  def planDescription = PlanDescriptionImpl(this, "NodeMorsel", NoChildren, Seq(Arguments.IntroducedIdentifier(ident)))
+
+  def symbols = SymbolTable(Map(ident -> CTNode))
+
+  override def localEffects = Effects.READS_NODES
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+}
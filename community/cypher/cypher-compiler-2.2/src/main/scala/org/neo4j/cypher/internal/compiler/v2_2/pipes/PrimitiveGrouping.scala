@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util.Arrays
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongIntMap}
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.cypher.{CypherTypeException, SyntaxException}
+import org.neo4j.graphdb.{Node, Relationship}
+
+import scala.collection.mutable.{Map => MutableMap}
+
+object PrimitiveGrouping {
+  private val INITIAL_CAPACITY = 16
+
+  // Returned by keyOf for values that can't be grouped on in the primitive map. This is also the value that the map
+  // uses for missing keys, so it can't be a key in it anyway.
+  private val NO_KEY = -1L
+
+  private val nodeId: Any => Long = {
+    case n: Node => n.getId
+    case _ => NO_KEY
+  }
+
+  private val relationshipId: Any => Long = {
+    case r: Relationship => r.getId
+    case _ => NO_KEY
+  }
+
+  private val integerValue: Any => Long = {
+    case i @ (_: java.lang.Long | _: java.lang.Integer | _: java.lang.Short | _: java.lang.Byte) =>
+      i.asInstanceOf[Number].longValue()
+    case _ => NO_KEY
+  }
+
+  /**
+   * @return a grouping for the given aggregation, if it groups on a single node, relationship or integer, and only
+   *         uses aggregation functions that PrimitiveGrouping has columns for.
+   */
+  def forAggregation(keyExpressions: Map[String, Expression], aggregations: Map[String, AggregationExpression],
+                     symbols: SymbolTable): Option[PrimitiveGrouping] = keyExpressions.toSeq match {
+    case Seq((keyName, keyExpression)) if aggregations.values.forall(hasColumn) =>
+      val keyType = keyExpression.getType(symbols)
+      val keyOf: Option[Any => Long] =
+        if (keyType == CTNode) Some(nodeId)
+        else if (keyType == CTRelationship) Some(relationshipId)
+        else if (keyType == CTInteger) Some(integerValue)
+        else None
+      keyOf.map(new PrimitiveGrouping(keyName, keyExpression, _, aggregations.toSeq))
+
+    case _ =>
+      None
+  }
+
+  private def hasColumn(aggregation: AggregationExpression) = aggregation match {
+    case _: CountStar | _: Count | _: Sum | _: Avg | _: Min | _: Max => true
+    case _ => false
+  }
+}
+
+/*
+Groups rows on a single node, relationship or integer key, by mapping the id or value of the key to the index of its
+group in a primitive map. The few keys that can't be put in that map, like null, go in a generic map instead.
+
+The state of each aggregation is kept in primitive arrays indexed by group, instead of in a sequence of
+AggregationFunction objects per group, so that adding a row to an existing group allocates nothing.
+
+Sums are kept as a long for integer values and a double for floating point values, and given the type of the widest
+value seen when done, like SumFunction would.
+ */
+class PrimitiveGrouping(keyName: String, key: Expression, keyOf: Any => Long,
+                        aggregations: Seq[(String, AggregationExpression)]) {
+
+  import PrimitiveGrouping._
+
+  def aggregate(input: Iterator[ExecutionContext])(implicit state: QueryState): Iterator[ExecutionContext] = {
+    val groups: PrimitiveLongIntMap = Primitive.longIntMap()
+    // groups for null, for keys of other types than expected and for keys that happen to be NO_KEY
+    val otherGroups = MutableMap[NiceHasher, Int]()
+
+    var capacity = INITIAL_CAPACITY
+    var groupCount = 0
+    var keys = new Array[Any](capacity)
+    var contexts = new Array[ExecutionContext](capacity)
+    val columns = aggregations.map { case (_, aggregation) => column(aggregation) }
+
+    def newGroup(keyValue: Any, ctx: ExecutionContext): Int = {
+      if (groupCount == capacity) {
+        capacity *= 2
+        keys = Arrays.copyOf(keys.asInstanceOf[Array[AnyRef]], capacity).asInstanceOf[Array[Any]]
+        contexts = Arrays.copyOf(contexts, capacity)
+        columns.foreach(_.grow(capacity))
+      }
+      keys(groupCount) = keyValue
+      contexts(groupCount) = ctx
+      groupCount += 1
+      groupCount - 1
+    }
+
+    input.foreach { ctx =>
+      val keyValue = key(ctx)
+      val id = if (keyValue == null) NO_KEY else keyOf(keyValue)
+      val group = if (id == NO_KEY) {
+        otherGroups.getOrElseUpdate(new NiceHasher(Seq(keyValue)), newGroup(keyValue, ctx))
+      } else {
+        val existing = groups.get(id)
+        if (existing != -1) existing
+        else {
+          val created = newGroup(keyValue, ctx)
+          groups.put(id, created)
+          created
+        }
+      }
+      columns.foreach(_.add(group, ctx))
+    }
+
+    val aggregationNames = aggregations.map(_._1)
+    (0 until groupCount).iterator.map { group =>
+      val newMap = MutableMaps.empty
+      newMap += keyName -> keys(group)
+      (aggregationNames zip columns).foreach {
+        case (name, aggregationColumn) => newMap += name -> aggregationColumn.result(group)
+      }
+      contexts(group).newFrom(newMap)
+    }
+  }
+
+  private def column(aggregation: AggregationExpression): AggregationColumn = aggregation match {
+    case CountStar() => new CountColumn(None)
+    case Count(value) => new CountColumn(Some(value))
+    case Sum(value) => new SumColumn(value, "SUM")
+    case Avg(value) => new AvgColumn(value)
+    case Min(value) => new MinMaxColumn(value, _ > 0)
+    case Max(value) => new MinMaxColumn(value, _ < 0)
+  }
+
+  private abstract class AggregationColumn {
+    def grow(capacity: Int)
+
+    def add(group: Int, ctx: ExecutionContext)(implicit state: QueryState)
+
+    def result(group: Int): Any
+  }
+
+  private class CountColumn(value: Option[Expression]) extends AggregationColumn {
+    private var counts = new Array[Long](INITIAL_CAPACITY)
+
+    def grow(capacity: Int) {
+      counts = Arrays.copyOf(counts, capacity)
+    }
+
+    def add(group: Int, ctx: ExecutionContext)(implicit state: QueryState) {
+      if (value.forall(_(ctx) != null))
+        counts(group) += 1
+    }
+
+    def result(group: Int): Any = counts(group)
+  }
+
+  private class SumColumn(value: Expression, name: String) extends AggregationColumn {
+    // the widest type of value seen: 0 for none, then 1 for integers, 2 for longs, 3 for floats and 4 for doubles
+    protected var types = new Array[Byte](INITIAL_CAPACITY)
+    protected var longSums = new Array[Long](INITIAL_CAPACITY)
+    protected var doubleSums = new Array[Double](INITIAL_CAPACITY)
+
+    def grow(capacity: Int) {
+      types = Arrays.copyOf(types, capacity)
+      longSums = Arrays.copyOf(longSums, capacity)
+      doubleSums = Arrays.copyOf(doubleSums, capacity)
+    }
+
+    def add(group: Int, ctx: ExecutionContext)(implicit state: QueryState) {
+      value(ctx) match {
+        case null =>
+        case x @ (_: java.lang.Integer | _: java.lang.Short | _: java.lang.Byte) =>
+          longSums(group) += x.asInstanceOf[Number].longValue()
+          widen(group, 1)
+        case x: java.lang.Long =>
+          longSums(group) += x.longValue()
+          widen(group, 2)
+        case x: java.lang.Float =>
+          doubleSums(group) += x.doubleValue()
+          widen(group, 3)
+        case x: Number =>
+          doubleSums(group) += x.doubleValue()
+          widen(group, 4)
+        case _ =>
+          throw new CypherTypeException("%s(%s) can only handle numerical values, or null.".format(name, value))
+      }
+    }
+
+    private def widen(group: Int, valueType: Byte) {
+      if (types(group) < valueType)
+        types(group) = valueType
+      added(group)
+    }
+
+    protected def added(group: Int) {}
+
+    def result(group: Int): Any = types(group) match {
+      case 0 => 0
+      case 1 => longSums(group).toInt
+      case 2 => longSums(group)
+      case 3 => (longSums(group) + doubleSums(group)).toFloat
+      case _ => longSums(group) + doubleSums(group)
+    }
+  }
+
+  private class AvgColumn(value: Expression) extends SumColumn(value, "AVG") {
+    private var counts = new Array[Int](INITIAL_CAPACITY)
+
+    override def grow(capacity: Int) {
+      super.grow(capacity)
+      counts = Arrays.copyOf(counts, capacity)
+    }
+
+    override protected def added(group: Int) {
+      counts(group) += 1
+    }
+
+    override def result(group: Int): Any =
+      if (counts(group) == 0) null
+      else (longSums(group) + doubleSums(group)) / counts(group).toDouble
+  }
+
+  private class MinMaxColumn(value: Expression, keep: Int => Boolean) extends AggregationColumn with Comparer {
+    private var extremes = new Array[Any](INITIAL_CAPACITY)
+
+    def grow(capacity: Int) {
+      extremes = Arrays.copyOf(extremes.asInstanceOf[Array[AnyRef]], capacity).asInstanceOf[Array[Any]]
+    }
+
+    def add(group: Int, ctx: ExecutionContext)(implicit state: QueryState) {
+      value(ctx) match {
+        case null =>
+        case x: Comparable[_] =>
+          if (extremes(group) == null || keep(compare(extremes(group), x)))
+            extremes(group) = x
+        case _ =>
+          throw new SyntaxException("MIN/MAX can only handle values of Comparable type, or null. This was a :" + value)
+      }
+    }
+
+    def result(group: Int): Any = extremes(group)
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.EntityNotFoundException
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.PlanDescription.Arguments.KeyNames
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.graphdb.Node
+
+object PropertyPrefetchPipe {
+  /*
+  The row key that the value of a prefetched property is stored under. Starts with spaces, like other names that can
+  not be written in a query.
+   */
+  def cacheKey(ident: String, propertyKeyName: String) = s"  PREFETCHED $ident.$propertyKeyName"
+}
+
+/*
+Reads the given properties of the node in ident for each row, all at once, and stores them in the row under their
+cache keys. Placed right above a node scan by pushDownPropertyReads, so that the filters and projections above read
+the already fetched values instead of looking up one property at a time.
+ */
+case class PropertyPrefetchPipe(source: Pipe, ident: String, properties: Seq[(String, Int)])
+                               (implicit pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) {
+
+  private val cacheKeys: Array[String] = properties.map {
+    case (name, _) => PropertyPrefetchPipe.cacheKey(ident, name)
+  }.toArray
+
+  private val propertyKeyIds: Array[Int] = properties.map(_._2).toArray
+
+  val symbols = source.symbols.add(cacheKeys.map(_ -> CTAny).toMap)
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
+    input.map {
+      ctx =>
+        val values = ctx(ident) match {
+          case n: Node =>
+            try {
+              state.query.nodeOps.getProperties(n.getId, propertyKeyIds)
+            } catch {
+              case _: EntityNotFoundException => new Array[Any](propertyKeyIds.length)
+            }
+          case _ =>
+            new Array[Any](propertyKeyIds.length)
+        }
+
+        var i = 0
+        while (i < cacheKeys.length) {
+          ctx += cacheKeys(i) -> values(i)
+          i += 1
+        }
+        ctx
+    }
+
+  def planDescription =
+    source.planDescription.andThen(this, "PropertyPrefetch", KeyNames(properties.map { case (name, _) => s"$ident.$name" }))
+
+  def dup(sources: List[Pipe]): Pipe = {
+    val (source :: Nil) = sources
+    copy(source = source)
+  }
+
+  override def localEffects = Effects.READS_NODES
+}
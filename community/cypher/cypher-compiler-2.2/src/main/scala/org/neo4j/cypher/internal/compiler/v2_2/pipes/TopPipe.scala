@@ -19,8 +19,6 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.pipes
 
-import java.util.Comparator
-
 import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.commands.SortItem
 import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Expression
@@ -32,6 +30,10 @@ import scala.math._
 /*
  * TopPipe is used when a query does a ORDER BY ... LIMIT query. Instead of ordering the whole result set and then
  * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier
+ *
+ * The kept rows are a bounded max heap with the worst kept row on top, so that each incoming row is either rejected
+ * after one comparison, or replaces the worst row in log(LIMIT) steps. Sort keys are evaluated once per row into an
+ * array of their own, and rows that are rejected only cost that array, which is reused for the next row.
  */
 case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Expression)
              (implicit pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) with Comparer {
@@ -39,71 +41,130 @@ case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpressio
   val sortItems = sortDescription.toArray
   val sortItemsCount = sortItems.size
 
-  type SortDataWithContext = (Array[Any],ExecutionContext)
+  // Not allocated up front in full, since the limit is often a generous page size or a parameter
+  private val INITIAL_CAPACITY = 64
+
+  protected def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+    if (input.isEmpty)
+      Iterator.empty
+    else if (sortDescription.isEmpty)
+      input
+    else {
+      val first = input.next()
+      val count = countExpression(first).asInstanceOf[Number].intValue()
+      if (count <= 0)
+        Iterator.empty
+      else {
+        val top = new TopRows(count)
+        top.offer(first)
+        input.foreach(top.offer)
+        top.sorted
+      }
+    }
+  }
+
+  private class TopRows(limit: Int)(implicit qtx: QueryState) {
+    private var keys = new Array[Array[Any]](math.min(limit, INITIAL_CAPACITY))
+    private var rows = new Array[ExecutionContext](keys.length)
+    // arrival order of the kept rows, so that rows with equal sort keys keep their order like in SortPipe
+    private var arrivals = new Array[Long](keys.length)
+    private var size = 0
+    private var arrived = 0L
+    private var nextKeys = new Array[Any](sortItemsCount)
 
-  class LessThanComparator(comparer: Comparer)(implicit qtx : QueryState) extends Ordering[SortDataWithContext] {
-    override def compare(a: SortDataWithContext, b: SortDataWithContext): Int = {
-      val v1 = a._1
-      val v2 = b._1
+    def offer(ctx: ExecutionContext) {
       var i = 0
       while (i < sortItemsCount) {
-        val res = signum(comparer.compare(v1(i), v2(i)))
-        if (res != 0) {
-          val sortItem = sortItems(i)
-          return if (sortItem.ascending) res else -res
-        }
+        nextKeys(i) = sortItems(i)(ctx)
         i += 1
       }
-      0
+
+      if (size < limit) {
+        if (size == keys.length)
+          grow()
+        set(size, nextKeys, ctx, arrived)
+        size += 1
+        siftUp(size - 1)
+        nextKeys = new Array[Any](sortItemsCount)
+      } else if (compareKeys(nextKeys, keys(0)) < 0) {
+        // the new row sorts before the worst kept row, and arrived after it if they are equal
+        val replaced = keys(0)
+        set(0, nextKeys, ctx, arrived)
+        siftDown(0, size)
+        nextKeys = replaced
+      }
+      arrived += 1
     }
-  }
 
-  def binarySearch(array: Array[SortDataWithContext], comparator: Comparator[SortDataWithContext])(key: SortDataWithContext) = {
-    java.util.Arrays.binarySearch(array.asInstanceOf[Array[SortDataWithContext]],key, comparator)
-  }
+    def sorted: Iterator[ExecutionContext] = {
+      // heap sort in place, moving the worst remaining row to the end each time
+      var end = size
+      while (end > 1) {
+        end -= 1
+        swap(0, end)
+        siftDown(0, end)
+      }
+      rows.iterator.take(size)
+    }
 
-  def arrayEntry(ctx : ExecutionContext)(implicit qtx : QueryState) : SortDataWithContext = (sortItems.map(_(ctx)),ctx)
+    private def grow() {
+      val capacity = math.min(limit.toLong, keys.length * 2L).toInt
+      keys = java.util.Arrays.copyOf(keys, capacity)
+      rows = java.util.Arrays.copyOf(rows, capacity)
+      arrivals = java.util.Arrays.copyOf(arrivals, capacity)
+    }
 
-  protected def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    implicit val s = state
-    if (input.isEmpty)
-      Iterator.empty
-    else if (sortDescription.isEmpty)
-      input
-    else {
+    private def set(i: Int, rowKeys: Array[Any], ctx: ExecutionContext, arrival: Long) {
+      keys(i) = rowKeys
+      rows(i) = ctx
+      arrivals(i) = arrival
+    }
+
+    private def swap(i: Int, j: Int) {
+      val k = keys(i); keys(i) = keys(j); keys(j) = k
+      val r = rows(i); rows(i) = rows(j); rows(j) = r
+      val a = arrivals(i); arrivals(i) = arrivals(j); arrivals(j) = a
+    }
 
-      val lessThan = new LessThanComparator(this)
+    private def compareKeys(a: Array[Any], b: Array[Any]): Int = {
+      var i = 0
+      while (i < sortItemsCount) {
+        val res = signum(TopPipe.this.compare(a(i), b(i)))
+        if (res != 0)
+          return if (sortItems(i).ascending) res else -res
+        i += 1
+      }
+      0
+    }
 
-      val first = input.next()
-      val count = countExpression(first).asInstanceOf[Number].intValue()
-      var result = new Array[SortDataWithContext](count)
-      result(0) = arrayEntry(first)
-      var last : Int = 0
+    // positive if the row at i sorts after the row at j
+    private def compareRows(i: Int, j: Int): Int = {
+      val res = compareKeys(keys(i), keys(j))
+      if (res != 0) res else java.lang.Long.compare(arrivals(i), arrivals(j))
+    }
 
-      while ( last < count - 1 && input.hasNext ) {
-        last += 1
-        result(last) = arrayEntry(input.next())
+    private def siftUp(from: Int) {
+      var child = from
+      while (child > 0) {
+        val parent = (child - 1) / 2
+        if (compareRows(child, parent) <= 0)
+          return
+        swap(child, parent)
+        child = parent
       }
+    }
 
-      if (input.isEmpty) {
-        result.slice(0,last + 1).sorted(lessThan).iterator.map(_._2)
-      } else {
-        result = result.sorted(lessThan)
-
-        val search = binarySearch(result, lessThan) _
-        input.foreach {
-          ctx =>
-            val next = arrayEntry(ctx)
-            if (lessThan.compare(next, result(last)) < 0) {
-              val idx = search(next)
-              val insertPosition = if (idx < 0 )  - idx - 1 else idx + 1
-              if (insertPosition >= 0 && insertPosition < count) {
-                Array.copy(result, insertPosition, result, insertPosition + 1, count - insertPosition - 1)
-                result(insertPosition) = next
-              }
-            }
-        }
-        result.toIterator.map(_._2)
+    private def siftDown(from: Int, end: Int) {
+      var parent = from
+      while (2 * parent + 1 < end) {
+        var child = 2 * parent + 1
+        if (child + 1 < end && compareRows(child + 1, child) > 0)
+          child += 1
+        if (compareRows(child, parent) <= 0)
+          return
+        swap(child, parent)
+        parent = child
       }
     }
   }
@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.pipes
 
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongSet}
 import org.neo4j.cypher.InternalException
 import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
@@ -28,30 +29,88 @@ import org.neo4j.graphdb.{Direction, Node, Relationship}
 
 import scala.collection.mutable
 
+/*
+Expands breadth first, one path at a time. A path is represented by its last step, sharing all previous steps with
+the other paths expanded from the same prefix, so that expanding a path does not copy its relationships.
+
+With distinctEndpoints, only the first path found to each end node is produced, and no node is expanded more than
+once. This is only correct when nothing but the end nodes are used, the pattern is directed and the minimum length
+is at most one, since any node reachable by a longer path with unique relationships is then also reachable by the
+shortest one.
+ */
 case class VarLengthExpandPipe(source: Pipe, fromName: String, relName: String, toName: String, dir: Direction,
-                               types: Seq[String], min: Int, max: Option[Int])(implicit pipeMonitor: PipeMonitor)
+                               types: Seq[String], min: Int, max: Option[Int], distinctEndpoints: Boolean = false)
+                              (implicit pipeMonitor: PipeMonitor)
   extends PipeWithSource(source, pipeMonitor) {
 
-  private def varLengthExpand(node: Node, state: QueryState, maxDepth: Option[Int]): Iterator[(Node, Seq[Relationship])] = {
-    val stack = new mutable.Stack[(Node, Seq[Relationship])]
-    stack.push((node, Seq.empty))
-
-    new Iterator[(Node, Seq[Relationship])] {
-      def next(): (Node, Seq[Relationship]) = {
-        val (node, rels) = stack.pop()
-        if (rels.length < maxDepth.getOrElse(Int.MaxValue)) {
-          val relationships: Iterator[Relationship] = state.query.getRelationshipsFor(node, dir, types)
-          relationships.foreach { rel =>
-            val otherNode = rel.getOtherNode(node)
-            if (!rels.contains(rel)) {
-              stack.push((otherNode, rels :+ rel))
-            }
-          }
-        }
-        (node, rels)
+  if (distinctEndpoints && (min > 1 || dir == Direction.BOTH))
+    throw new InternalException(s"Can not expand to distinct end nodes only with direction $dir and min length $min")
+
+  private val maxDepth = max.getOrElse(Int.MaxValue)
+
+  private final class PathStep(val node: Node, val rel: Relationship, val relId: Long, val prefix: PathStep,
+                               val length: Int) {
+    def contains(id: Long): Boolean = {
+      var step = this
+      while (step.length > 0) {
+        if (step.relId == id)
+          return true
+        step = step.prefix
+      }
+      false
+    }
+
+    def relationships: List[Relationship] = {
+      var result: List[Relationship] = Nil
+      var step = this
+      while (step.length > 0) {
+        result = step.rel :: result
+        step = step.prefix
+      }
+      result
+    }
+  }
+
+  private def varLengthExpand(node: Node, state: QueryState): Iterator[PathStep] = new Iterator[PathStep] {
+    private val frontier = new mutable.Queue[PathStep]
+    private val reached: PrimitiveLongSet = if (distinctEndpoints) Primitive.longSet() else null
+    frontier.enqueue(new PathStep(node, null, -1, null, 0))
+    if (reached != null && min == 0)
+      reached.add(node.getId)
+    private var nextStep: PathStep = fetchNext()
+
+    def hasNext: Boolean = nextStep != null
+
+    def next(): PathStep = {
+      if (nextStep == null)
+        Iterator.empty.next()
+      val step = nextStep
+      nextStep = fetchNext()
+      step
+    }
+
+    private def fetchNext(): PathStep = {
+      while (frontier.nonEmpty) {
+        val step = frontier.dequeue()
+        if (step.length < maxDepth)
+          expand(step)
+        if (step.length >= min)
+          return step
       }
+      null
+    }
 
-      def hasNext: Boolean = stack.nonEmpty
+    private def expand(step: PathStep) {
+      val relationships = state.query.getRelationshipsFor(step.node, dir, types)
+      while (relationships.hasNext) {
+        val rel = relationships.next()
+        val relId = rel.getId
+        if (!step.contains(relId)) {
+          val otherNode = rel.getOtherNode(step.node)
+          if (reached == null || reached.add(otherNode.getId))
+            frontier.enqueue(new PathStep(otherNode, rel, relId, step, step.length + 1))
+        }
+      }
     }
   }
 
@@ -61,10 +120,8 @@ case class VarLengthExpandPipe(source: Pipe, fromName: String, relName: String,
         val fromNode: Any = getFromNode(row)
         fromNode match {
           case n: Node =>
-            val paths = varLengthExpand(n, state, max)
-            paths.collect {
-              case (node, rels) if rels.length >= min =>
-                row.newWith(Seq(relName -> rels, toName -> node))
+            varLengthExpand(n, state).map {
+              step => row.newWith(Seq(relName -> step.relationships, toName -> step.node))
             }
 
           case value => throw new InternalException(s"Expected to find a node at $fromName but found $value instead")
@@ -39,3 +39,16 @@ abstract class AggregationFunction {
   def result: Any
 }
 
+/**
+ * An aggregation function that can aggregate parts of the rows separately, with one function per part, and then
+ * combine the results of the parts.
+ */
+trait MergeableAggregationFunction {
+  self: AggregationFunction =>
+
+  /**
+   * Adds what another function of the same kind has aggregated to the aggregated total of this one.
+   */
+  def merge(other: AggregationFunction)(implicit state: QueryState)
+}
+
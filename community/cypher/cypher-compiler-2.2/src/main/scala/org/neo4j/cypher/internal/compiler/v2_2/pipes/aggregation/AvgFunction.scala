@@ -27,7 +27,8 @@ import org.neo4j.cypher.internal.helpers._
 class AvgFunction(val value: Expression)
   extends AggregationFunction
   with TypeSafeMathSupport
-  with NumericExpressionOnly {
+  with NumericExpressionOnly
+  with MergeableAggregationFunction {
 
   def name = "AVG"
 
@@ -46,4 +47,10 @@ class AvgFunction(val value: Expression)
       sofar = plus(sofar, number)
     })
   }
+
+  def merge(other: AggregationFunction)(implicit state: QueryState) {
+    val that = other.asInstanceOf[AvgFunction]
+    count += that.count
+    sofar = plus(sofar, that.sofar)
+  }
 }
@@ -22,13 +22,17 @@ package org.neo4j.cypher.internal.compiler.v2_2.pipes.aggregation
 import org.neo4j.cypher.internal.compiler.v2_2._
 import pipes.QueryState
 
-class CountStarFunction extends AggregationFunction {
+class CountStarFunction extends AggregationFunction with MergeableAggregationFunction {
   var count:Long = 0
 
   def apply(data: ExecutionContext)(implicit state: QueryState) {
     count += 1
   }
 
+  def merge(other: AggregationFunction)(implicit state: QueryState) {
+    count += other.asInstanceOf[CountStarFunction].count
+  }
+
   def result: Long = count
 }
 
@@ -24,7 +24,7 @@ import commands.expressions.Expression
 import pipes.QueryState
 import org.neo4j.cypher.SyntaxException
 
-trait MinMax extends AggregationFunction with Comparer {
+trait MinMax extends AggregationFunction with MergeableAggregationFunction with Comparer {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
 
@@ -40,6 +40,13 @@ trait MinMax extends AggregationFunction with Comparer {
     }
   }
 
+  def merge(other: AggregationFunction)(implicit state: QueryState) {
+    other.asInstanceOf[MinMax].biggestSeen match {
+      case null =>
+      case x => checkIfLargest(x)
+    }
+  }
+
   private def checkIfLargest(value: Any)(implicit qtx: QueryState) {
     if (biggestSeen == null) {
       biggestSeen = value
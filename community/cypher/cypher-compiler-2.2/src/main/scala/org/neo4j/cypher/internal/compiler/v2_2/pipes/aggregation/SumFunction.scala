@@ -27,7 +27,8 @@ import org.neo4j.cypher.internal.helpers._
 class SumFunction(val value: Expression)
   extends AggregationFunction
   with TypeSafeMathSupport
-  with NumericExpressionOnly {
+  with NumericExpressionOnly
+  with MergeableAggregationFunction {
 
   def name = "SUM"
 
@@ -38,4 +39,8 @@ class SumFunction(val value: Expression)
       result = plus(result, number)
     })
   }
+
+  def merge(other: AggregationFunction)(implicit state: QueryState) {
+    result = plus(result, other.result)
+  }
 }
@@ -28,19 +28,25 @@ import org.neo4j.cypher.internal.compiler.v2_2.ast.PatternExpression
 class GreedyQueryGraphSolver(config: PlanningStrategyConfiguration = PlanningStrategyConfiguration.default)
   extends QueryGraphSolver {
 
-  def plan(queryGraph: QueryGraph)(implicit context: LogicalPlanningContext, leafPlan: Option[QueryPlan] = None) = {
-  import CandidateGenerator._
+  def plan(queryGraph: QueryGraph)(implicit context: LogicalPlanningContext, leafPlan: Option[QueryPlan] = None) =
+    planFrom(leafPlanTable(queryGraph), queryGraph)
 
+  def leafPlanTable(queryGraph: QueryGraph)(implicit context: LogicalPlanningContext, leafPlan: Option[QueryPlan]): PlanTable = {
     val select = config.applySelections.asFunctionInContext
     val pickBest = config.pickBestCandidate.asFunctionInContext
 
-    def generateLeafPlanTable(): PlanTable = {
-      val leafPlanCandidateLists = config.leafPlanners.candidateLists(queryGraph)
-      val leafPlanCandidateListsWithSelections = leafPlanCandidateLists.map(_.map(select(_, queryGraph)))
-      val bestLeafPlans: Iterable[QueryPlan] = leafPlanCandidateListsWithSelections.flatMap(pickBest(_))
-      val startTable: PlanTable = leafPlan.foldLeft(PlanTable.empty)(_ + _)
-      bestLeafPlans.foldLeft(startTable)(_ + _)
-    }
+    val leafPlanCandidateLists = config.leafPlanners.candidateLists(queryGraph)
+    val leafPlanCandidateListsWithSelections = leafPlanCandidateLists.map(_.map(select(_, queryGraph)))
+    val bestLeafPlans: Iterable[QueryPlan] = leafPlanCandidateListsWithSelections.flatMap(pickBest(_))
+    val startTable: PlanTable = leafPlan.foldLeft(PlanTable.empty)(_ + _)
+    bestLeafPlans.foldLeft(startTable)(_ + _)
+  }
+
+  def planFrom(startTable: PlanTable, queryGraph: QueryGraph)(implicit context: LogicalPlanningContext): QueryPlan = {
+  import CandidateGenerator._
+
+    val select = config.applySelections.asFunctionInContext
+    val pickBest = config.pickBestCandidate.asFunctionInContext
 
     def findBestPlan(planGenerator: CandidateGenerator[PlanTable]): PlanTable => PlanTable = {
       (planTable: PlanTable) =>
@@ -51,8 +57,7 @@ class GreedyQueryGraphSolver(config: PlanningStrategyConfiguration = PlanningStr
         best.fold(planTable)(planTable + _)
     }
 
-    val leaves: PlanTable = generateLeafPlanTable()
-    val afterExpandOrJoin = iterateUntilConverged(findBestPlan(expandsOrJoins))(leaves)
+    val afterExpandOrJoin = iterateUntilConverged(findBestPlan(expandsOrJoins))(startTable)
     val afterOptionalApplies = iterateUntilConverged(findBestPlan(optionalMatches))(afterExpandOrJoin)
     val afterCartesianProduct = iterateUntilConverged(findBestPlan(cartesianProduct))(afterOptionalApplies)
 
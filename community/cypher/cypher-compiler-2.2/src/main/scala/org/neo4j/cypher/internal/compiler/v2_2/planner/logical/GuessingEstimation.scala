@@ -25,6 +25,8 @@ import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
 import org.neo4j.cypher.internal.compiler.v2_2.RelTypeId
 import org.neo4j.graphdb.Direction
 import org.neo4j.cypher.internal.compiler.v2_2.planner.SemanticTable
+import org.neo4j.cypher.internal.compiler.v2_2.commands.{QueryExpression, SingleQueryExpression}
+import org.neo4j.kernel.api.index.IndexDescriptor
 
 object GuessingEstimation {
   val LABEL_NOT_FOUND_SELECTIVITY = Multiplier(0.0)
@@ -55,8 +57,11 @@ class StatisticsBackedCardinalityModel(statistics: GraphStatistics,
     case NodeByIdSeek(_, EntityByIdExprs(exprs), _) =>
       Cardinality(exprs.size)
 
-    case NodeIndexSeek(_, _, _, _, _) =>
-      statistics.nodesCardinality * INDEX_SEEK_SELECTIVITY
+    case NodeIndexSeek(_, label, propertyKey, valueExpr, _) =>
+      indexSeekSelectivity(label, propertyKey, valueExpr) match {
+        case Some(selectivity) => statistics.nodesWithLabelCardinality(label.nameId) * selectivity
+        case None              => statistics.nodesCardinality * INDEX_SEEK_SELECTIVITY
+      }
 
     case NodeIndexUniqueSeek(_, _, _, _, _) =>
       Cardinality(1)
@@ -67,7 +72,7 @@ class StatisticsBackedCardinalityModel(statistics: GraphStatistics,
     case OuterHashJoin(_, left, right) =>
       Cardinality(math.min(cardinality(left).amount, cardinality(right).amount))
 
-    case expand @ Expand(left, _, dir, types, _, _, length) =>
+    case expand @ Expand(left, _, dir, types, _, _, length, _) =>
       val degree = degreeByRelationshipTypesAndDirection(types, dir).coefficient
       cardinality(left) * Multiplier(math.pow(degree, averagePathLength(length)))
 
@@ -190,6 +195,17 @@ class StatisticsBackedCardinalityModel(statistics: GraphStatistics,
     else
       types.foldLeft(Multiplier(0))((sum, t) => sum + degreeByRelationshipTypeAndDirection(t.id, dir))
 
+  private def indexSeekSelectivity(label: ast.LabelToken, propertyKey: ast.PropertyKeyToken,
+                                   valueExpr: QueryExpression[ast.Expression]): Option[Multiplier] = {
+    val index = new IndexDescriptor(label.nameId.id, propertyKey.nameId.id)
+    valueExpr match {
+      case SingleQueryExpression(literal: ast.Literal) if literal.value != null =>
+        statistics.indexPropertyValueSelectivity(index, literal.value)
+      case _ =>
+        statistics.indexSelectivity(index)
+    }
+  }
+
   private def predicateSelectivity(predicates: Seq[ast.Expression]): Multiplier =
     predicates.map(selectivity).foldLeft(Multiplier(1))(_ * _)
 
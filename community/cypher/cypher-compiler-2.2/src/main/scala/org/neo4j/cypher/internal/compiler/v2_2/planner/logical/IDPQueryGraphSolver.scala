@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical
+
+import org.neo4j.cypher.internal.compiler.v2_2.planner.QueryGraph
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.{PatternRelationship, QueryPlan}
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.{expand, join}
+
+/*
+Plans the pattern relationships of a query graph by dynamic programming, instead of always picking the locally
+cheapest candidate. The best plan for every connected set of pattern relationships is built from the best plans of
+its subsets, either by expanding one of them with one more relationship or by joining two of them on a shared node.
+
+Sets of up to dynamicProgrammingLimit relationships are planned like this. The best plan for the largest sets is then
+handed to the greedy solver, which plans the rest of the query graph from there.
+ */
+class IDPQueryGraphSolver(config: PlanningStrategyConfiguration = PlanningStrategyConfiguration.dynamicProgramming)
+  extends QueryGraphSolver {
+
+  private val greedy = new GreedyQueryGraphSolver(config)
+
+  def plan(queryGraph: QueryGraph)(implicit context: LogicalPlanningContext, leafPlan: Option[QueryPlan] = None) = {
+    val leaves = greedy.leafPlanTable(queryGraph)
+    val startTable = planRelationships(leaves, queryGraph).foldLeft(leaves)(_ + _)
+    greedy.planFrom(startTable, queryGraph)
+  }
+
+  private def planRelationships(leaves: PlanTable, queryGraph: QueryGraph)
+                               (implicit context: LogicalPlanningContext): Option[QueryPlan] = {
+    val select = config.applySelections.asFunctionInContext
+    val pickBest = config.pickBestCandidate.asFunctionInContext
+    val maxSize = math.min(config.dynamicProgrammingLimit, queryGraph.patternRelationships.size)
+
+    def solvedBy(plan: QueryPlan): Set[PatternRelationship] = plan.solved.graph.patternRelationships
+
+    def tableOf(plans: Iterable[QueryPlan]) = PlanTable(plans.map(plan => plan.availableSymbols -> plan).toMap)
+
+    def bestPerSet(candidates: Seq[QueryPlan], size: Int): Map[Set[PatternRelationship], QueryPlan] =
+      candidates.map(select(_, queryGraph)).groupBy(solvedBy).collect {
+        case (relationships, plans) if relationships.size == size => pickBest(CandidateList(plans)).map(relationships -> _)
+      }.flatten.toMap
+
+    // bestPlans(n - 1) holds the best plan for each connected set of n pattern relationships
+    var bestPlans = Vector(bestPerSet(expand(leaves, queryGraph).plans, 1))
+    while (bestPlans.size < maxSize && bestPlans.last.nonEmpty) {
+      val size = bestPlans.size + 1
+      val expansions = expand(tableOf(bestPlans.last.values), queryGraph).plans
+      val joins = for {
+        leftSize <- 1 until size
+        (leftRelationships, left) <- bestPlans(leftSize - 1)
+        (rightRelationships, right) <- bestPlans(size - leftSize - 1)
+        if (leftRelationships & rightRelationships).isEmpty
+        joined <- join(tableOf(Seq(left, right)), queryGraph).plans
+      } yield joined
+      bestPlans = bestPlans :+ bestPerSet(expansions ++ joins, size)
+    }
+
+    bestPlans.reverse.find(_.nonEmpty).flatMap(largest => pickBest(CandidateList(largest.values.toSeq)))
+  }
+}
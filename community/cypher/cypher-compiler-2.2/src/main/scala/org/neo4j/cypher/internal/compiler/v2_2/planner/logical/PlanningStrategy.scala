@@ -30,3 +30,11 @@ trait PlanningStrategy {
 trait QueryGraphSolver {
   def plan(queryGraph: QueryGraph)(implicit context: LogicalPlanningContext, leafPlan: Option[QueryPlan] = None): QueryPlan
 }
+
+object QueryGraphSolver {
+  def apply(config: PlanningStrategyConfiguration = PlanningStrategyConfiguration.default): QueryGraphSolver =
+    if (config.dynamicProgrammingLimit > 0)
+      new IDPQueryGraphSolver(config)
+    else
+      new GreedyQueryGraphSolver(config)
+}
@@ -25,7 +25,10 @@ import org.neo4j.cypher.internal.compiler.v2_2.planner.QueryGraph
 case class PlanningStrategyConfiguration(
   leafPlanners: LeafPlannerList,
   applySelections: PlanTransformer[QueryGraph],
-  pickBestCandidate: CandidateSelector
+  pickBestCandidate: CandidateSelector,
+
+  // Pattern relationships solved exhaustively, by dynamic programming, before planning greedily. 0 means greedy only.
+  dynamicProgrammingLimit: Int = 0
 )
 
 object PlanningStrategyConfiguration {
@@ -51,6 +54,7 @@ object PlanningStrategyConfiguration {
       allNodesLeafPlanner
     )
   )
-}
-
 
+  // Used when dynamic programming is asked for without saying how much of it. Tables for larger sets get too big.
+  val dynamicProgramming = default.copy(dynamicProgrammingLimit = 8)
+}
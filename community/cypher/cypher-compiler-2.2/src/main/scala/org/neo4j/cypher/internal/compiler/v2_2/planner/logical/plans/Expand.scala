@@ -28,9 +28,22 @@ case class Expand(left: LogicalPlan,
                   types: Seq[RelTypeName],
                   to: IdName,
                   relName: IdName,
-                  length: PatternLength) extends LogicalPlan {
+                  length: PatternLength,
+                  mode: ExpansionMode = ExpandAll) extends LogicalPlan {
   val lhs = Some(left)
   def rhs = None
 
   def availableSymbols: Set[IdName] = left.availableSymbols + relName + to
 }
+
+trait ExpansionMode
+
+/*
+Produces every path matching the pattern
+ */
+case object ExpandAll extends ExpansionMode
+
+/*
+Produces each reachable end node once, for var length patterns where nothing but the end nodes is used afterwards
+ */
+case object ExpandDistinctEndpoints extends ExpansionMode
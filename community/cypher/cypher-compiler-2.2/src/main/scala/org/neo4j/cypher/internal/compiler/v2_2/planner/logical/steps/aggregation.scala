@@ -19,16 +19,20 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps
 
-import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.{IdName, QueryPlan}
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.LogicalPlanningContext
 import org.neo4j.cypher.internal.compiler.v2_2.planner.AggregatingQueryProjection
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.QueryPlanProducer._
 import org.neo4j.cypher.internal.compiler.v2_2.ast.{Identifier, Expression}
+import org.neo4j.graphdb.Direction
 
 object aggregation {
-  def apply(plan: QueryPlan, aggregation: AggregatingQueryProjection)(implicit context: LogicalPlanningContext): QueryPlan = {
+  def apply(in: QueryPlan, aggregation: AggregatingQueryProjection)(implicit context: LogicalPlanningContext): QueryPlan = {
 
     val aggregationProjections: Map[String, Expression] = aggregation.groupingKeys
+    val plan =
+      if (aggregation.aggregationExpressions.isEmpty) expandDistinctEndpoints(in, aggregationProjections)
+      else in
     val availableSymbolProjections: Map[String, Identifier] = plan.plan.availableSymbols.map {
       case IdName(x) => x -> Identifier(x)(null)
     }.toMap
@@ -39,4 +43,18 @@ object aggregation {
     val projectedPlan = projection(plan, expressionsMap)
     planAggregation(projectedPlan, aggregationProjections, aggregation.aggregationExpressions)
   }
+
+  // A DISTINCT over the end nodes of a var length expansion does not need every path to them. Only done when the
+  // expansion is the last thing planned, so that no predicate or later pattern depends on its relationships.
+  private def expandDistinctEndpoints(plan: QueryPlan, groupingKeys: Map[String, Expression]): QueryPlan = plan.plan match {
+    case expand @ Expand(_, _, dir, _, _, relName, VarPatternLength(min, _), ExpandAll)
+      if dir != Direction.BOTH && min <= 1 && groupingKeys.values.forall {
+        case Identifier(name) => name != relName.name
+        case _ => false
+      } =>
+      plan.copy(plan = expand.copy(mode = ExpandDistinctEndpoints))
+
+    case _ =>
+      plan
+  }
 }
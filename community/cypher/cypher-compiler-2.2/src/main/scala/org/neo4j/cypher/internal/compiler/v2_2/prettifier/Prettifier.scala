@@ -77,7 +77,8 @@ class PrettifierParser extends Parser with Base with Strings {
 
   def nonBreakingKeyword: Rule1[NonBreakingKeywords] = rule("nonBreakingKeywords") {
     group (
-      keyword("WITH HEADERS") |
+      keyword("WITH TYPED HEADERS") |
+        keyword("WITH HEADERS") |
         keyword("IS UNIQUE") |
         keyword("ALL") |
         keyword("NULL") |
@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.spi
 
 import java.net.{CookieHandler, CookieManager, CookiePolicy, URL}
 import java.io._
-import au.com.bytecode.opencsv.CSVReader
+import java.util.concurrent.Executor
 import org.neo4j.cypher.internal.compiler.v2_2.TaskCloser
 import org.neo4j.cypher.LoadExternalResourceException
 import org.neo4j.cypher.internal.compiler.v2_2.pipes.ExternalResource
@@ -30,29 +30,20 @@ object CSVResources {
   val DEFAULT_FIELD_TERMINATOR: Char = ','
 }
 
-class CSVResources(cleaner: TaskCloser) extends ExternalResource {
+// parsers is only evaluated when a file is opened, the query context that provides them is set after this is created
+class CSVResources(cleaner: TaskCloser, parsers: => Executor) extends ExternalResource {
 
   def getCsvIterator(url: URL, fieldTerminator: Option[String] = None): Iterator[Array[String]] = {
     val inputStream = openStream(url)
     val reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"))
-    val csvReader = new CSVReader(reader, fieldTerminator.map(_.charAt(0)).getOrElse(CSVResources.DEFAULT_FIELD_TERMINATOR))
+    val separator = fieldTerminator.map(_.charAt(0)).getOrElse(CSVResources.DEFAULT_FIELD_TERMINATOR)
+    val csvReader = new ParallelCSVReader(reader, separator, parsers)
 
     cleaner.addTask(_ => {
       csvReader.close()
     })
 
-    new Iterator[Array[String]] {
-      var nextRow: Array[String] = csvReader.readNext()
-
-      def hasNext: Boolean = nextRow != null
-
-      def next(): Array[String] = {
-        if (!hasNext) Iterator.empty.next()
-        val row = nextRow
-        nextRow = csvReader.readNext()
-        row
-      }
-    }
+    csvReader
   }
 
   private def openStream(url: URL, connectionTimeout: Int = 2000, readTimeout: Int = 10 * 60 * 1000): InputStream = {
@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.spi
 
+import java.util.concurrent.Executor
+
 import org.neo4j.graphdb.{Relationship, PropertyContainer, Direction, Node}
 import org.neo4j.kernel.api.index.IndexDescriptor
 
@@ -54,6 +56,10 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def getRelationshipsFor(node: Node, dir: Direction, types: Seq[String]): Iterator[Relationship] = manyDbHits(inner.getRelationshipsFor(node, dir, types))
 
+  def expand(node: Long, dir: Direction, types: Array[Int])(visitor: (Long, Long) => Unit) {
+    singleDbHit(inner.expand(node, dir, types)(visitor))
+  }
+
   def nodeOps = inner.nodeOps
 
   def relationshipOps = inner.relationshipOps
@@ -77,6 +83,16 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def getNodesByLabel(id: Int): Iterator[Node] = manyDbHits(inner.getNodesByLabel(id))
 
+  def highestNodeIdInUse: Long = inner.highestNodeIdInUse
+
+  def nodesInIdRange(start: Long, end: Long): Iterator[Node] = manyDbHits(inner.nodesInIdRange(start, end))
+
+  def workers: Executor = inner.workers
+
+  def canReadOnWorkers: Boolean = inner.canReadOnWorkers
+
+  def inWorkerContext[T](work: QueryContext => T): T = inner.inWorkerContext(work)
+
   def upgrade(context: QueryContext): LockingQueryContext = inner.upgrade(context)
 
   def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V = singleDbHit(inner.getOrCreateFromSchemaState(key, creator))
@@ -119,6 +135,8 @@ class DelegatingOperations[T <: PropertyContainer](protected val inner: Operatio
 
   def getProperty(obj: Long, propertyKeyId: Int): Any = singleDbHit(inner.getProperty(obj, propertyKeyId))
 
+  def getProperties(obj: Long, propertyKeyIds: Array[Int]): Array[Any] = singleDbHit(inner.getProperties(obj, propertyKeyIds))
+
   def hasProperty(obj: Long, propertyKeyId: Int): Boolean = singleDbHit(inner.hasProperty(obj, propertyKeyId))
 
   def propertyKeyIds(obj: Long): Iterator[Int] = singleDbHit(inner.propertyKeyIds(obj))
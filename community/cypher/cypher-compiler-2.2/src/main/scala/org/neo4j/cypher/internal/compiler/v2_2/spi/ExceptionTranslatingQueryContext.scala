@@ -58,6 +58,10 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
   override def getRelationshipsFor(node: Node, dir: Direction, types: Seq[String]): Iterator[Relationship] =
     translateException(super.getRelationshipsFor(node, dir, types))
 
+  override def expand(node: Long, dir: Direction, types: Array[Int])(visitor: (Long, Long) => Unit) {
+    translateException(super.expand(node, dir, types)(visitor))
+  }
+
   override def nodeOps: Operations[Node] =
     new ExceptionTranslatingOperations[Node](super.nodeOps)
 
@@ -91,6 +95,18 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
   override def getNodesByLabel(id: Int): Iterator[Node] =
     translateException(super.getNodesByLabel(id))
 
+  override def highestNodeIdInUse: Long =
+    translateException(super.highestNodeIdInUse)
+
+  override def nodesInIdRange(start: Long, end: Long): Iterator[Node] =
+    translateException(super.nodesInIdRange(start, end))
+
+  override def inWorkerContext[T](work: QueryContext => T): T =
+    super.inWorkerContext(qc =>
+      translateException(
+        work(new ExceptionTranslatingQueryContext(qc))
+      ))
+
   override def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V =
     translateException(super.getOrCreateFromSchemaState(key, creator))
 
@@ -147,6 +163,9 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
     override def getProperty(id: Long, propertyKeyId: Int): Any =
       translateException(super.getProperty(id, propertyKeyId))
 
+    override def getProperties(id: Long, propertyKeyIds: Array[Int]): Array[Any] =
+      translateException(super.getProperties(id, propertyKeyIds))
+
     override def hasProperty(id: Long, propertyKeyId: Int): Boolean =
       translateException(super.hasProperty(id, propertyKeyId))
 
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.spi
 
 import org.neo4j.cypher.internal.compiler.v2_2.{RelTypeId, LabelId}
 import org.neo4j.graphdb.Direction
+import org.neo4j.kernel.api.index.IndexDescriptor
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Multiplier, Cardinality}
 
 trait GraphStatistics {
@@ -30,4 +31,16 @@ trait GraphStatistics {
   def relationshipsWithTypeSelectivity(relTypeId: RelTypeId): Multiplier
   def degreeByRelationshipTypeAndDirection(relTypeId: RelTypeId, direction: Direction): Multiplier
   def degreeByLabelRelationshipTypeAndDirection(labelId: LabelId, relTypeId: RelTypeId, direction: Direction): Multiplier
+
+  /*
+      Fraction of the nodes in the index that an equality lookup of an average value finds,
+      or None if the index hasn't been sampled
+   */
+  def indexSelectivity(index: IndexDescriptor): Option[Multiplier]
+
+  /*
+      Fraction of the nodes in the index that an equality lookup of the given value finds,
+      or None if the index hasn't been sampled
+   */
+  def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Multiplier]
 }
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.spi
+
+import java.io.{Closeable, Reader, StringReader}
+import java.util
+import java.util.concurrent.{Callable, ExecutionException, Executor, Future, FutureTask}
+
+import au.com.bytecode.opencsv.CSVReader
+
+object ParallelCSVReader {
+  val DEFAULT_CHUNK_SIZE: Int = 256 * 1024
+  val DEFAULT_CHUNKS_AHEAD: Int = Runtime.getRuntime.availableProcessors()
+
+  private val QUOTE = '"'
+  private val ESCAPE = '\\'
+}
+
+/*
+Reads CSV records from a reader in chunks of about chunkSize characters, each of which ends on a record boundary,
+and parses up to chunksAhead chunks on the executor ahead of consumption. Records are returned in the order they
+appear in the input.
+
+Record boundaries are line breaks outside of quoted fields, so records that span several lines are never split.
+Line breaks are \n, \r\n or a lone \r, the same as for BufferedReader.readLine, which CSVReader reads lines with.
+Each chunk is parsed by a CSVReader of its own, with the same quoting and escaping rules as reading the whole input
+with a single CSVReader.
+ */
+class ParallelCSVReader(reader: Reader, separator: Char, executor: Executor,
+                        chunkSize: Int = ParallelCSVReader.DEFAULT_CHUNK_SIZE,
+                        chunksAhead: Int = ParallelCSVReader.DEFAULT_CHUNKS_AHEAD)
+  extends Iterator[Array[String]] with Closeable {
+
+  import ParallelCSVReader._
+
+  private val buffer = new Array[Char](chunkSize)
+  private val pending = new util.ArrayDeque[Future[Array[Array[String]]]]()
+  private val unparsed = new java.lang.StringBuilder
+
+  // quoting state of unparsed, which always starts on a record boundary
+  private var scanned = 0
+  private var inQuotes = false
+  private var lastBoundary = -1
+  private var endOfInput = false
+
+  private var records: Array[Array[String]] = Array.empty
+  private var position = 0
+
+  def hasNext: Boolean = {
+    while (position >= records.length) {
+      readAhead()
+      if (pending.isEmpty)
+        return false
+      records = await(pending.poll())
+      position = 0
+    }
+    true
+  }
+
+  def next(): Array[String] = {
+    if (!hasNext) Iterator.empty.next()
+    val record = records(position)
+    position += 1
+    record
+  }
+
+  def close() {
+    while (!pending.isEmpty)
+      pending.poll().cancel(false)
+    reader.close()
+  }
+
+  private def readAhead() {
+    while (!endOfInput && pending.size < chunksAhead) {
+      val chunk = readChunk()
+      if (chunk.nonEmpty) {
+        val task = new FutureTask(parse(chunk))
+        executor.execute(task)
+        pending.add(task)
+      }
+    }
+  }
+
+  private def readChunk(): String = {
+    while (lastBoundary < 0 && !endOfInput) {
+      val read = reader.read(buffer)
+      if (read == -1)
+        endOfInput = true
+      else {
+        unparsed.append(buffer, 0, read)
+        scan()
+      }
+    }
+
+    val end = if (endOfInput) unparsed.length else lastBoundary + 1
+    val chunk = unparsed.substring(0, end)
+    unparsed.delete(0, end)
+    scanned = 0
+    inQuotes = false
+    lastBoundary = -1
+    if (!endOfInput)
+      scan()
+    chunk
+  }
+
+  private def scan() {
+    // the last character may be an escape that needs the next one, which is not read yet
+    val limit = unparsed.length - 1
+    while (scanned < limit) {
+      unparsed.charAt(scanned) match {
+        case ESCAPE if isEscapable(unparsed.charAt(scanned + 1)) => scanned += 1
+        case QUOTE => inQuotes = !inQuotes
+        case '\n' if !inQuotes => lastBoundary = scanned
+        // a \r followed by \n ends the record at the \n, a lone \r ends it right away
+        case '\r' if !inQuotes && unparsed.charAt(scanned + 1) != '\n' => lastBoundary = scanned
+        case _ =>
+      }
+      scanned += 1
+    }
+  }
+
+  private def isEscapable(c: Char) = c == QUOTE || c == ESCAPE
+
+  private def parse(chunk: String) = new Callable[Array[Array[String]]] {
+    def call() = {
+      val csvReader = new CSVReader(new StringReader(chunk), separator)
+      try {
+        csvReader.readAll().toArray(Array.empty[Array[String]])
+      } finally {
+        csvReader.close()
+      }
+    }
+  }
+
+  private def await(chunk: Future[Array[Array[String]]]): Array[Array[String]] = try {
+    chunk.get()
+  } catch {
+    case e: ExecutionException => throw e.getCause
+  }
+}
@@ -20,6 +20,8 @@
 
 package org.neo4j.cypher.internal.compiler.v2_2.spi
 
+import java.util.concurrent.Executor
+
 import org.neo4j.graphdb._
 import org.neo4j.kernel.api.constraints.UniquenessConstraint
 import org.neo4j.kernel.api.index.IndexDescriptor
@@ -48,6 +50,12 @@ trait QueryContext extends TokenContext {
 
   def getRelationshipsFor(node: Node, dir: Direction, types: Seq[String]): Iterator[Relationship]
 
+  /**
+   * Visits the relationships of a node by id, without creating node or relationship objects. The visitor gets the id
+   * of each relationship and of the node at its other end. No types means relationships of all types.
+   */
+  def expand(node: Long, dir: Direction, types: Array[Int])(visitor: (Long, Long) => Unit)
+
   def getOrCreateLabelId(labelName: String): Int
 
   def getLabelsForNode(node: Long): Iterator[Int]
@@ -76,6 +84,34 @@ trait QueryContext extends TokenContext {
 
   def getNodesByLabel(id: Int): Iterator[Node]
 
+  /**
+   * Highest id that a node may have, including nodes created in this transaction, or -1 if there are no nodes.
+   */
+  def highestNodeIdInUse: Long
+
+  /**
+   * All nodes with ids from start until end.
+   */
+  def nodesInIdRange(start: Long, end: Long): Iterator[Node]
+
+  /**
+   * Runs parts of the query in parallel with the thread that runs the query, on threads that are stopped when the
+   * database shuts down. Work run there must read the graph through inWorkerContext.
+   */
+  def workers: Executor
+
+  /**
+   * Whether the graph may be read on the workers, which is not the case once the transaction of the query has changed
+   * anything, since only this query context sees those changes.
+   */
+  def canReadOnWorkers: Boolean
+
+  /**
+   * Runs work against a query context of its own, with a read-only transaction and a statement that only the calling
+   * thread uses. For work running on the workers, and only while canReadOnWorkers.
+   */
+  def inWorkerContext[T](work: QueryContext => T): T
+
   def upgradeToLockingQueryContext: LockingQueryContext = upgrade(this)
 
   def upgrade(context: QueryContext): LockingQueryContext
@@ -115,6 +151,11 @@ trait Operations[T <: PropertyContainer] {
 
   def getProperty(obj: Long, propertyKeyId: Int): Any
 
+  /**
+   * Reads several properties of the same entity at once, in the order of the given keys. Missing properties are null.
+   */
+  def getProperties(obj: Long, propertyKeyIds: Array[Int]): Array[Any]
+
   def hasProperty(obj: Long, propertyKeyId: Int): Boolean
 
   def propertyKeyIds(obj: Long): Iterator[Int]
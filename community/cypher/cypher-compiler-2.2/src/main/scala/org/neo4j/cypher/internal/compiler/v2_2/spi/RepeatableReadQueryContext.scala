@@ -69,6 +69,12 @@ final class RepeatableReadQueryContext(inner: QueryContext, locker: Locker) exte
       inner.getProperty(id, propertyKeyId)
     }
 
+    override def getProperties(id: Long, propertyKeyIds: Array[Int]) = {
+      val obj = inner.getById(id)
+      locker.acquireLock(obj)
+      inner.getProperties(id, propertyKeyIds)
+    }
+
     override def hasProperty(id: Long, propertyKeyId: Int) = {
       val obj = inner.getById(id)
       locker.acquireLock(obj)
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.commands.expressions
+
+import org.mockito.Mockito.{never, verify, when}
+import org.neo4j.cypher.ArithmeticException
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.commands._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.{KeyToken, TokenType}
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.QueryStateHelper
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{Operations, QueryContext}
+import org.neo4j.graphdb.Node
+
+class ExpressionCompilerTest extends CypherFunSuite {
+
+  private val values: Seq[Any] = Seq(null, 1, 2L, 2.0, "a", "b", true, false)
+
+  test("compiled comparisons agree with interpreted comparisons") {
+    val state = QueryStateHelper.empty
+    for (l <- values; r <- values if comparable(l, r)) {
+      val ctx = ExecutionContext.empty.newWith(Map("l" -> l, "r" -> r))
+      val predicates = Seq(
+        Equals(Identifier("l"), Identifier("r")),
+        LessThan(Identifier("l"), Identifier("r")),
+        GreaterThanOrEqual(Identifier("l"), Identifier("r")),
+        Not(Equals(Identifier("l"), Literal(2))),
+        IsNull(Identifier("l")))
+
+      predicates.foreach { predicate =>
+        withClue(s"$predicate with l = $l and r = $r: ") {
+          ExpressionCompiler.compile(predicate).isMatch(ctx)(state) should equal(predicate.isMatch(ctx)(state))
+        }
+      }
+    }
+  }
+
+  test("compiled boolean logic agrees with interpreted boolean logic") {
+    val state = QueryStateHelper.empty
+    val truthValues = Seq(null, true, false)
+    for (a <- truthValues; b <- truthValues; c <- truthValues) {
+      val ctx = ExecutionContext.empty.newWith(Map("a" -> a, "b" -> b, "c" -> c))
+      def p(name: String): Predicate = CoercedPredicate(Identifier(name))
+      val predicates = Seq(
+        And(p("a"), p("b")),
+        Ands(List(p("a"), p("b"), p("c"))),
+        Or(p("a"), p("b")),
+        Ors(List(p("a"), p("b"), p("c"))),
+        Not(And(p("a"), Or(p("b"), p("c")))))
+
+      predicates.foreach { predicate =>
+        withClue(s"$predicate with a = $a, b = $b and c = $c: ") {
+          ExpressionCompiler.compile(predicate).isMatch(ctx)(state) should equal(predicate.isMatch(ctx)(state))
+        }
+      }
+    }
+  }
+
+  test("compiled division by zero fails like interpreted division by zero") {
+    val state = QueryStateHelper.empty
+    for (zero <- Seq(0, 0L, 0.0); dividend <- Seq(null, 1, 2L, 2.0)) {
+      val ctx = ExecutionContext.empty.newWith(Map("a" -> dividend, "b" -> zero))
+      val divide = Divide(Identifier("a"), Identifier("b"))
+
+      withClue(s"$dividend / $zero: ") {
+        intercept[ArithmeticException](divide(ctx)(state))
+        intercept[ArithmeticException](ExpressionCompiler.compile(divide)(ctx)(state))
+      }
+    }
+  }
+
+  test("compiled arithmetics agree with interpreted arithmetics") {
+    val state = QueryStateHelper.empty
+    val numbers = Seq(null, 1, 2L, 2.5)
+    for (l <- numbers; r <- numbers) {
+      val ctx = ExecutionContext.empty.newWith(Map("l" -> l, "r" -> r))
+      val expressions = Seq(
+        Divide(Identifier("l"), Identifier("r")),
+        Modulo(Identifier("l"), Identifier("r")),
+        Multiply(Identifier("l"), Identifier("r")),
+        Subtract(Identifier("l"), Identifier("r")))
+
+      expressions.foreach { expression =>
+        withClue(s"$expression with l = $l and r = $r: ") {
+          ExpressionCompiler.compile(expression)(ctx)(state) should equal(expression(ctx)(state))
+        }
+      }
+    }
+  }
+
+  test("compiled property lookups on nodes go straight to the property key id") {
+    // given
+    val node = mock[Node]
+    when(node.getId).thenReturn(7L)
+    val nodeOps = mock[Operations[Node]]
+    when(nodeOps.getProperty(7L, 3)).thenReturn(42)
+    val query = mock[QueryContext]
+    when(query.nodeOps).thenReturn(nodeOps)
+    val state = QueryStateHelper.emptyWith(query = query)
+    val ctx = ExecutionContext.empty.newWith(Map("n" -> node))
+
+    val property = Property(Identifier("n"), KeyToken.Resolved("age", 3, TokenType.PropertyKey))
+    val predicate = GreaterThan(Add(property, Literal(1)), Literal(40))
+
+    // when
+    val compiled = ExpressionCompiler.compile(predicate)
+
+    // then
+    compiled.isMatch(ctx)(state) should equal(Some(true))
+    ExpressionCompiler.compile(property)(ctx)(state) should equal(42)
+    verify(query, never()).getOptPropertyKeyId("age")
+  }
+
+  test("leaves expressions that don't compile alone") {
+    val expression = Identifier("n")
+    ExpressionCompiler.compile(expression) should be theSameInstanceAs expression
+  }
+
+  test("compiled expressions describe themselves like the expressions they were compiled from") {
+    val predicate = Equals(Property(Identifier("n"), KeyToken.Unresolved("name", TokenType.PropertyKey)), Literal("x"))
+    val compiled = ExpressionCompiler.compile(predicate)
+
+    compiled.toString should equal(predicate.toString)
+    compiled.symbolTableDependencies should equal(predicate.symbolTableDependencies)
+    compiled should equal(ExpressionCompiler.compile(predicate))
+  }
+
+  // booleans can only be compared for equality, and numbers only with numbers
+  private def comparable(l: Any, r: Any) = (l, r) match {
+    case (null, _) | (_, null) => true
+    case (_: Number, _: Number) | (_: String, _: String) => true
+    case _ => false
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.compiler.v2_2.commands.{GreaterThan, HasLabel}
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.UnresolvedLabel
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+import org.neo4j.graphdb.Direction
+
+class ParallelizeAggregationTest extends CypherFunSuite {
+  implicit val monitor = mock[PipeMonitor]
+
+  test("should parallelize aggregation over a filtered label scan") {
+    val scan = FilterPipe(NodeByLabelScanPipe("n", Left("Person")),
+      GreaterThan(Property(Identifier("n"), PropertyKey("age")), Literal(18)))
+    val aggregation = EagerAggregationPipe(scan, Map.empty, Map("sum" -> Sum(Property(Identifier("n"), PropertyKey("age")))))
+
+    parallelizeAggregation(aggregation) should equal(ParallelAggregationPipe(scan, aggregation.keyExpressions, aggregation.aggregations))
+  }
+
+  test("should parallelize aggregation below other pipes") {
+    val aggregation = EagerAggregationPipe(AllNodesScanPipe("n"), Map.empty, Map("count" -> CountStar()))
+    val top = FilterPipe(aggregation, GreaterThan(Identifier("count"), Literal(0)))
+
+    parallelizeAggregation(top) should equal(
+      FilterPipe(ParallelAggregationPipe(AllNodesScanPipe("n"), Map.empty, aggregation.aggregations), top.predicate))
+  }
+
+  test("should not parallelize aggregation over pipes that use the core API") {
+    val expand = ExpandPipe(AllNodesScanPipe("a"), "a", "r", "b", Direction.OUTGOING, Seq.empty)
+    val aggregation = EagerAggregationPipe(expand, Map.empty, Map("count" -> CountStar()))
+
+    parallelizeAggregation(aggregation) should be theSameInstanceAs aggregation
+  }
+
+  test("should parallelize expressions that read through the query context") {
+    val filter = FilterPipe(AllNodesScanPipe("n"), HasLabel(Identifier("n"), UnresolvedLabel("Person")))
+    val aggregation = EagerAggregationPipe(filter, Map("labels" -> LabelsFunction(Identifier("n"))), Map("count" -> CountStar()))
+
+    parallelizeAggregation(aggregation) shouldBe a [ParallelAggregationPipe]
+  }
+
+  test("should not parallelize expressions that are not known to read through the query context") {
+    val projection = ProjectionNewPipe(AllNodesScanPipe("n"),
+      Map("n" -> Identifier("n"), "ids" -> ExtractFunction(Collection(Identifier("n")), "x", IdFunction(Identifier("x")))))
+    val aggregation = EagerAggregationPipe(projection, Map("ids" -> Identifier("ids")), Map("count" -> CountStar()))
+
+    parallelizeAggregation(aggregation) should be theSameInstanceAs aggregation
+  }
+
+  test("should not parallelize aggregations that can't be merged") {
+    val aggregation = EagerAggregationPipe(AllNodesScanPipe("n"), Map.empty, Map("collect" -> Collect(Identifier("n"))))
+
+    parallelizeAggregation(aggregation) should be theSameInstanceAs aggregation
+  }
+}
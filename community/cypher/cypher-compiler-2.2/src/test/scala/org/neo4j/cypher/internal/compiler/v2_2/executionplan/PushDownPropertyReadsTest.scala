@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.KeyToken
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.compiler.v2_2.commands.{Equals, GreaterThan}
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+
+class PushDownPropertyReadsTest extends CypherFunSuite {
+  implicit val monitor = mock[PipeMonitor]
+
+  private val name = Property(Identifier("n"), KeyToken.Resolved("name", 0, PropertyKey))
+  private val age = Property(Identifier("n"), KeyToken.Resolved("age", 1, PropertyKey))
+
+  private def cached(key: String) = CachedExpression(PropertyPrefetchPipe.cacheKey("n", key), CTAny)
+
+  test("should prefetch what the filter reads above the scan and what only the projection reads above the filter") {
+    val filter = FilterPipe(NodeByLabelScanPipe("n", Left("Person")), Equals(name, Literal("Bob")))
+    val projection = ProjectionNewPipe(filter, Map("age" -> age, "n" -> Identifier("n")))
+
+    pushDownPropertyReads(projection) should equal(
+      ProjectionNewPipe(
+        PropertyPrefetchPipe(
+          FilterPipe(
+            PropertyPrefetchPipe(NodeByLabelScanPipe("n", Left("Person")), "n", Seq("name" -> 0)),
+            Equals(cached("name"), Literal("Bob"))),
+          "n", Seq("age" -> 1)),
+        Map("age" -> cached("age"), "n" -> Identifier("n"))))
+  }
+
+  test("should reuse the properties prefetched for the filter in an aggregation above a node scan") {
+    val filter = FilterPipe(AllNodesScanPipe("n"), GreaterThan(age, Literal(18)))
+    val aggregation = EagerAggregationPipe(filter, Map("name" -> name), Map("sum" -> Sum(age)))
+
+    pushDownPropertyReads(aggregation) should equal(
+      EagerAggregationPipe(
+        PropertyPrefetchPipe(
+          FilterPipe(
+            PropertyPrefetchPipe(AllNodesScanPipe("n"), "n", Seq("age" -> 1)),
+            GreaterThan(cached("age"), Literal(18))),
+          "n", Seq("name" -> 0)),
+        Map("name" -> cached("name")),
+        Map("sum" -> Sum(cached("age")))))
+  }
+
+  test("should prefetch everything above the scan when nothing is filtered") {
+    val projection = ProjectionNewPipe(AllNodesScanPipe("n"), Map("name" -> name, "age" -> age))
+
+    pushDownPropertyReads(projection) should equal(
+      ProjectionNewPipe(
+        PropertyPrefetchPipe(AllNodesScanPipe("n"), "n", Seq("name" -> 0, "age" -> 1)),
+        Map("name" -> cached("name"), "age" -> cached("age"))))
+  }
+
+  test("should leave properties that only higher filters read to their property expressions") {
+    val lowerFilter = FilterPipe(AllNodesScanPipe("n"), GreaterThan(age, Literal(18)))
+    val upperFilter = FilterPipe(lowerFilter, Equals(name, Literal("Bob")))
+    val projection = ProjectionNewPipe(upperFilter, Map("n" -> Identifier("n")))
+
+    pushDownPropertyReads(projection) should equal(
+      ProjectionNewPipe(
+        FilterPipe(
+          FilterPipe(
+            PropertyPrefetchPipe(AllNodesScanPipe("n"), "n", Seq("age" -> 1)),
+            GreaterThan(cached("age"), Literal(18))),
+          Equals(name, Literal("Bob"))),
+        Map("n" -> Identifier("n"))))
+  }
+
+  test("should not prefetch property keys that were not resolved at planning time") {
+    val projection = ProjectionNewPipe(AllNodesScanPipe("n"), Map("x" -> Property(Identifier("n"), PropertyKey("x"))))
+
+    pushDownPropertyReads(projection) should be theSameInstanceAs projection
+  }
+
+  test("should not prefetch when an expression could shadow the identifier of the scan") {
+    val projection = ProjectionNewPipe(AllNodesScanPipe("n"), Map(
+      "name" -> name,
+      "names" -> ExtractFunction(Collection(Identifier("n")), "n", name)))
+
+    pushDownPropertyReads(projection) should be theSameInstanceAs projection
+  }
+
+  test("should not prefetch above pipes other than node scans") {
+    val projection = ProjectionNewPipe(NodeStartPipe(NullPipe(), "n", null), Map("name" -> name))
+
+    pushDownPropertyReads(projection) should be theSameInstanceAs projection
+  }
+}
@@ -3062,6 +3062,15 @@ class CypherParserTest extends CypherFunSuite {
     )
   }
 
+  test("should handle load with typed headers") {
+    expectQuery(
+      "LOAD CSV WITH TYPED HEADERS FROM 'file:///tmp/file.cvs' AS line RETURN line.key",
+      Query.
+        start(LoadCSV(withHeaders = true, new Literal("file:///tmp/file.cvs"), "line", None, typedHeaders = true)).
+        returns(ReturnItem(Property(Identifier("line"), PropertyKey("key")), "line.key"))
+    )
+  }
+
   test("should handle LOAD CSV with the file URL specified as a parameter") {
     expectQuery(
       "LOAD CSV WITH HEADERS FROM {path} AS line RETURN line.key",
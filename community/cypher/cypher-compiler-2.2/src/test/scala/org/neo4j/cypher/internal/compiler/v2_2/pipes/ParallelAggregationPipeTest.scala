@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util.concurrent.Executors
+
+import org.mockito.Matchers.{any, anyLong}
+import org.mockito.Mockito.{never, verify, when}
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.NoChildren
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{Operations, QueryContext}
+import org.neo4j.graphdb.Node
+import org.scalatest.BeforeAndAfterAll
+
+class ParallelAggregationPipeTest extends CypherFunSuite with BeforeAndAfterAll {
+
+  private implicit val monitor = mock[PipeMonitor]
+
+  private val workers = Executors.newFixedThreadPool(3)
+
+  override protected def afterAll() {
+    workers.shutdown()
+  }
+
+  // every node id maps to one of ten nodes, so that the nodes can be set up up front
+  private val nodes = (0 until 10).map { id =>
+    val node = mock[Node]
+    when(node.getId).thenReturn(id.toLong)
+    node
+  }
+
+  private def queryWithWorkers = {
+    val query = mock[QueryContext]
+    when(query.canReadOnWorkers).thenReturn(true)
+    when(query.workers).thenReturn(workers)
+    query
+  }
+
+  test("should aggregate morsels of all nodes in parallel and merge the results") {
+    // given
+    val nodeCount = ParallelAggregationPipe.MORSEL_SIZE * 2 + 10
+    val query = queryWithWorkers
+    val workerQuery = mock[QueryContext]
+    when(query.highestNodeIdInUse).thenReturn(nodeCount - 1L)
+    when(query.inWorkerContext[Any](any())).thenAnswer(new Answer[Any] {
+      def answer(invocation: InvocationOnMock) =
+        invocation.getArguments()(0).asInstanceOf[QueryContext => Any](workerQuery)
+    })
+    when(workerQuery.nodesInIdRange(anyLong(), anyLong())).thenAnswer(new Answer[Iterator[Node]] {
+      def answer(invocation: InvocationOnMock) = {
+        val Array(start: java.lang.Long, end: java.lang.Long) = invocation.getArguments
+        (start.longValue() until end.longValue()).iterator.map(id => nodes((id % 10).toInt))
+      }
+    })
+
+    val pipe = ParallelAggregationPipe(AllNodesScanPipe("n"),
+      Map("id" -> IdFunction(Identifier("n"))),
+      Map("count" -> CountStar(), "sum" -> Sum(IdFunction(Identifier("n"))), "max" -> Max(IdFunction(Identifier("n")))))
+
+    // when
+    val result = pipe.createResults(QueryStateHelper.emptyWith(query = query)).map(_.toMap).toList
+
+    // then
+    val perNode = nodeCount / 10
+    result should contain theSameElementsAs (0 until 10).map(id =>
+      Map("id" -> id, "count" -> perNode, "sum" -> id * perNode, "max" -> id))
+  }
+
+  test("should return zero for no nodes") {
+    // given
+    val query = queryWithWorkers
+    when(query.highestNodeIdInUse).thenReturn(-1L)
+
+    val pipe = ParallelAggregationPipe(AllNodesScanPipe("n"), Map.empty, Map("count" -> CountStar()))
+
+    // when
+    val result = pipe.createResults(QueryStateHelper.emptyWith(query = query)).map(_.toMap).toList
+
+    // then
+    result should equal(List(Map("count" -> 0)))
+  }
+
+  test("should aggregate on the query thread when the transaction has changed the graph") {
+    // given
+    val query = mock[QueryContext]
+    when(query.canReadOnWorkers).thenReturn(false)
+    val nodeOps = mock[Operations[Node]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(nodeOps.all).thenReturn(nodes.iterator)
+
+    val pipe = ParallelAggregationPipe(AllNodesScanPipe("n"), Map.empty, Map("count" -> CountStar()))
+
+    // when
+    val result = pipe.createResults(QueryStateHelper.emptyWith(query = query)).map(_.toMap).toList
+
+    // then
+    result should equal(List(Map("count" -> 10)))
+    verify(query, never()).workers
+    verify(query, never()).inWorkerContext[Any](any())
+  }
+
+  test("should describe morsels like the scans they replace") {
+    val description = NodeMorselPipe("n", () => Iterator.empty).planDescription
+
+    description.name should equal("NodeMorsel")
+    description.children should equal(NoChildren)
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.graphdb.Node
+
+class PrimitiveGroupingTest extends CypherFunSuite {
+
+  private implicit val monitor = mock[PipeMonitor]
+
+  test("should group on integers, null and -1") {
+    // given
+    val source = new FakePipe(List(
+      Map("x" -> 1, "y" -> 10),
+      Map("x" -> -1, "y" -> 20),
+      Map("x" -> null, "y" -> 30),
+      Map("x" -> 1L, "y" -> null),
+      Map("x" -> -1, "y" -> 40),
+      Map("x" -> 2, "y" -> 50)), "x" -> CTInteger, "y" -> CTInteger)
+
+    val aggregations = Map(
+      "count(*)" -> CountStar(),
+      "count(y)" -> Count(Identifier("y")),
+      "sum(y)" -> Sum(Identifier("y")),
+      "avg(y)" -> Avg(Identifier("y")),
+      "min(y)" -> Min(Identifier("y")),
+      "max(y)" -> Max(Identifier("y")))
+
+    // when
+    val result = aggregate(source, "x" -> Identifier("x"), aggregations)
+
+    // then
+    result should contain theSameElementsAs List(
+      Map("x" -> 1, "count(*)" -> 2, "count(y)" -> 1, "sum(y)" -> 10, "avg(y)" -> 10.0, "min(y)" -> 10, "max(y)" -> 10),
+      Map("x" -> -1, "count(*)" -> 2, "count(y)" -> 2, "sum(y)" -> 60, "avg(y)" -> 30.0, "min(y)" -> 20, "max(y)" -> 40),
+      Map("x" -> null, "count(*)" -> 1, "count(y)" -> 1, "sum(y)" -> 30, "avg(y)" -> 30.0, "min(y)" -> 30, "max(y)" -> 30),
+      Map("x" -> 2, "count(*)" -> 1, "count(y)" -> 1, "sum(y)" -> 50, "avg(y)" -> 50.0, "min(y)" -> 50, "max(y)" -> 50))
+  }
+
+  test("should give sums the type of the widest value summed") {
+    // given
+    val source = new FakePipe(List(
+      Map("x" -> 1, "y" -> 1),
+      Map("x" -> 1, "y" -> 2),
+      Map("x" -> 2, "y" -> 1),
+      Map("x" -> 2, "y" -> 2L),
+      Map("x" -> 3, "y" -> 1),
+      Map("x" -> 3, "y" -> 0.5),
+      Map("x" -> 4, "y" -> null)), "x" -> CTInteger, "y" -> CTNumber)
+
+    // when
+    val result = aggregate(source, "x" -> Identifier("x"), Map("sum(y)" -> Sum(Identifier("y"))))
+      .map(row => row("x") -> row("sum(y)")).toMap
+
+    // then
+    result(1) shouldBe an[java.lang.Integer]
+    result(1) should equal(3)
+    result(2) shouldBe a[java.lang.Long]
+    result(2) should equal(3L)
+    result(3) shouldBe a[java.lang.Double]
+    result(3) should equal(1.5)
+    result(4) should equal(0)
+  }
+
+  test("should group nodes on their ids") {
+    // given
+    val a = nodeWithId(0)
+    val b = nodeWithId(1)
+    val source = new FakePipe(List(
+      Map("n" -> a, "y" -> 1),
+      Map("n" -> b, "y" -> 2),
+      Map("n" -> nodeWithId(0), "y" -> 3)), "n" -> CTNode, "y" -> CTInteger)
+
+    // when
+    val result = aggregate(source, "n" -> Identifier("n"), Map("max(y)" -> Max(Identifier("y"))))
+
+    // then
+    result should contain theSameElementsAs List(Map("n" -> a, "max(y)" -> 3), Map("n" -> b, "max(y)" -> 2))
+  }
+
+  test("should only be used for a single node, relationship or integer key and supported aggregations") {
+    val symbols = SymbolTable(Map("n" -> CTNode, "s" -> CTString, "y" -> CTInteger))
+    val count = Map("count(*)" -> CountStar())
+
+    PrimitiveGrouping.forAggregation(Map("n" -> Identifier("n")), count, symbols) should not be empty
+    PrimitiveGrouping.forAggregation(Map("y" -> Identifier("y")), count, symbols) should not be empty
+    PrimitiveGrouping.forAggregation(Map("s" -> Identifier("s")), count, symbols) shouldBe empty
+    PrimitiveGrouping.forAggregation(Map("n" -> Identifier("n"), "y" -> Identifier("y")), count, symbols) shouldBe empty
+    PrimitiveGrouping.forAggregation(Map.empty, count, symbols) shouldBe empty
+    PrimitiveGrouping.forAggregation(Map("n" -> Identifier("n")), Map("c" -> Collect(Identifier("y"))), symbols) shouldBe empty
+  }
+
+  private def aggregate(source: Pipe, key: (String, Expression), aggregations: Map[String, AggregationExpression]) = {
+    val grouping = PrimitiveGrouping.forAggregation(Map(key), aggregations, source.symbols).get
+    grouping.aggregate(source.createResults(QueryStateHelper.empty))(QueryStateHelper.empty).map(_.toMap).toList
+  }
+
+  private def nodeWithId(id: Long) = {
+    val node = mock[Node]
+    when(node.getId).thenReturn(id)
+    node
+  }
+}
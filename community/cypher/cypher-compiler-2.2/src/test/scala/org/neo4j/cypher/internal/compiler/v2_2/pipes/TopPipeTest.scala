@@ -110,6 +110,37 @@ class TopPipeTest extends CypherFunSuite {
     result should equal(List(10,null))
   }
 
+  test("zeroLimitReturnsNothing") {
+    val input = createFakePipeWith(5)
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(0))
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("a")).toList
+
+    result should equal(List.empty)
+  }
+
+  test("rowsWithEqualSortKeysKeepTheirOrder") {
+    val in = (0 until 100).map(i => Map("a" -> i % 3, "b" -> i))
+    val input = new FakePipe(in, "a" -> CTInteger, "b" -> CTInteger)
+
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(4))
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("b")).toList
+
+    result should equal(List(0, 3, 6, 9))
+  }
+
+  test("topOfManyRowsSortsOnAllSortItems") {
+    val r = new Random(1337)
+    val in = (0 until 10000).map(i => Map("a" -> r.nextInt(10), "b" -> r.nextInt(1000)))
+    val input = new FakePipe(in, "a" -> CTInteger, "b" -> CTInteger)
+
+    val pipe = new TopPipe(input,
+      List(SortItem(Identifier("a"), ascending = false), SortItem(Identifier("b"), ascending = true)), Literal(150))
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => (ctx("a"), ctx("b"))).toList
+
+    val expected = in.map(m => (m("a").asInstanceOf[Int], m("b").asInstanceOf[Int])).sortBy { case (a, b) => (-a, b) }
+    result should equal(expected.take(150))
+  }
+
   private def createFakePipeWith(count: Int): FakePipe = {
 
     val r = new Random(1337)
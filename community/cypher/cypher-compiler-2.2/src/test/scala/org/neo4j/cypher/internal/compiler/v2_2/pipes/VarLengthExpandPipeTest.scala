@@ -122,16 +122,16 @@ class VarLengthExpandPipeTest extends CypherFunSuite {
     // then
     val (first :: second :: third :: fourth :: Nil) = result
     first("a") should equal(startNode)
-    first("r") should equal(List(leftRelationship2))
+    first("r") should equal(List(leftRelationship1))
     first("b") should equal(middleNode)
     second("a") should equal(startNode)
-    second("r") should equal(List(leftRelationship2, rightRelationship))
-    second("b") should equal(endNode)
+    second("r") should equal(List(leftRelationship2))
+    second("b") should equal(middleNode)
     third("a") should equal(startNode)
-    third("r") should equal(List(leftRelationship1))
-    third("b") should equal(middleNode)
+    third("r") should equal(List(leftRelationship1, rightRelationship))
+    third("b") should equal(endNode)
     fourth("a") should equal(startNode)
-    fourth("r") should equal(List(leftRelationship1, rightRelationship))
+    fourth("r") should equal(List(leftRelationship2, rightRelationship))
     fourth("b") should equal(endNode)
   }
 
@@ -163,10 +163,10 @@ class VarLengthExpandPipeTest extends CypherFunSuite {
     // then
     val (first :: second :: Nil) = result
     first("a") should equal(startNode)
-    first("r") should equal(List(leftRelationship2))
+    first("r") should equal(List(leftRelationship1))
     first("b") should equal(middleNode)
     second("a") should equal(startNode)
-    second("r") should equal(List(leftRelationship1))
+    second("r") should equal(List(leftRelationship2))
     second("b") should equal(middleNode)
   }
 
@@ -198,10 +198,10 @@ class VarLengthExpandPipeTest extends CypherFunSuite {
     // then
     val (first :: second :: Nil) = result
     first("a") should equal(startNode)
-    first("r") should equal(List(leftRelationship2, rightRelationship))
+    first("r") should equal(List(leftRelationship1, rightRelationship))
     first("b") should equal(endNode)
     second("a") should equal(startNode)
-    second("r") should equal(List(leftRelationship1, rightRelationship))
+    second("r") should equal(List(leftRelationship2, rightRelationship))
     second("b") should equal(endNode)
   }
 
@@ -237,19 +237,54 @@ class VarLengthExpandPipeTest extends CypherFunSuite {
     // then
     val (first :: second :: third :: fourth :: Nil) = result
     first("a") should equal(firstNode)
-    first("r") should equal(List(initialRelationship, leftRelationship2))
+    first("r") should equal(List(initialRelationship, leftRelationship1))
     first("b") should equal(middleNode)
     second("a") should equal(firstNode)
-    second("r") should equal(List(initialRelationship, leftRelationship2, rightRelationship))
-    second("b") should equal(endNode)
+    second("r") should equal(List(initialRelationship, leftRelationship2))
+    second("b") should equal(middleNode)
     third("a") should equal(firstNode)
-    third("r") should equal(List(initialRelationship, leftRelationship1))
-    third("b") should equal(middleNode)
+    third("r") should equal(List(initialRelationship, leftRelationship1, rightRelationship))
+    third("b") should equal(endNode)
     fourth("a") should equal(firstNode)
-    fourth("r") should equal(List(initialRelationship, leftRelationship1, rightRelationship))
+    fourth("r") should equal(List(initialRelationship, leftRelationship2, rightRelationship))
     fourth("b") should equal(endNode)
   }
 
+  test("should only expand to each end node once when expanding to distinct end nodes") {
+    // given
+    val startNode = newMockedNode(1)
+    val leftNode = newMockedNode(2)
+    val rightNode = newMockedNode(3)
+    val endNode = newMockedNode(4)
+    val startLeft = newMockedRealtionship(1, startNode, leftNode)
+    val startRight = newMockedRealtionship(2, startNode, rightNode)
+    val leftEnd = newMockedRealtionship(3, leftNode, endNode)
+    val rightEnd = newMockedRealtionship(4, rightNode, endNode)
+    val endStart = newMockedRealtionship(5, endNode, startNode)
+
+    val query = mock[QueryContext]
+    replyWithMap(query, Map(
+        (startNode, Direction.OUTGOING) -> Seq(startLeft, startRight),
+        (leftNode, Direction.OUTGOING) -> Seq(leftEnd),
+        (rightNode, Direction.OUTGOING) -> Seq(rightEnd),
+        (endNode, Direction.OUTGOING) -> Seq(endStart)
+      ).withDefaultValue(Seq.empty)
+    )
+    val queryState = QueryStateHelper.emptyWith(query = query)
+
+    val left = newMockedPipe(SymbolTable(Map("a" -> CTNode)))
+    when(left.createResults(queryState)).thenReturn(Iterator(row("a" -> startNode)))
+
+    // when
+    val result = VarLengthExpandPipe(left, "a", "r", "b", Direction.OUTGOING, Seq.empty, 1, None,
+      distinctEndpoints = true).createResults(queryState).toList
+
+    // then
+    result.map(_("b")) should equal(List(leftNode, rightNode, endNode, startNode))
+    result.map(_("r")) should equal(List(
+      List(startLeft), List(startRight), List(startLeft, leftEnd), List(startLeft, leftEnd, endStart)))
+  }
+
   private def row(values: (String, Any)*) = ExecutionContext.from(values: _*)
 
   private def newMockedNode(id: Int) = {
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.planner.{LogicalPlanningTestSupport2, SemanticPlan}
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
+
+class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  val fiveNodeChain = "MATCH (a:A)-[r1]->(b)-[r2]->(c:Rare)-[r3]->(d)-[r4]->(e:A) RETURN a, e"
+  val fiveNodeChainLabels = Map("A" -> Cardinality(1000), "Rare" -> Cardinality(1))
+
+  test("should start a pattern of five nodes from its most selective node") {
+    implicit val semanticPlan = planWith(new IDPQueryGraphSolver())(fiveNodeChain, fiveNodeChainLabels)
+    val plan = semanticPlan.plan
+
+    plan.solved.graph.patternRelationships.map(_.name) should equal(Set[IdName]("r1", "r2", "r3", "r4"))
+    leaves(plan.plan).foreach {
+      leaf => leaf should equal(NodeByLabelScan("c", Right(labelId("Rare")), Set.empty))
+    }
+  }
+
+  test("should plan the relationships beyond the table limit greedily") {
+    for (limit <- 1 to 3) {
+      val config = PlanningStrategyConfiguration.default.copy(dynamicProgrammingLimit = limit)
+      val plan = planWith(new IDPQueryGraphSolver(config))(fiveNodeChain, fiveNodeChainLabels).plan
+
+      plan.solved.graph.patternRelationships.map(_.name) should equal(Set[IdName]("r1", "r2", "r3", "r4"))
+    }
+  }
+
+  test("should use the greedy solver when no table limit is configured") {
+    QueryGraphSolver(PlanningStrategyConfiguration.default) shouldBe a [GreedyQueryGraphSolver]
+    QueryGraphSolver(PlanningStrategyConfiguration.dynamicProgramming) shouldBe an [IDPQueryGraphSolver]
+  }
+
+  test("should find the same plans as the greedy solver for small patterns") {
+    val queries = Seq(
+      "MATCH (a:A) RETURN a",
+      "MATCH (a:A)-[r]->(b) RETURN b",
+      "MATCH (a:A)-[r1]->(b)-[r2]->(c) RETURN c"
+    )
+    val labels = Map("A" -> Cardinality(10))
+
+    for (query <- queries) {
+      val idpPlan = planWith(new IDPQueryGraphSolver())(query, labels).plan.plan
+      val greedyPlan = planWith(new GreedyQueryGraphSolver())(query, labels).plan.plan
+
+      withClue(query) {
+        idpPlan should equal(greedyPlan)
+      }
+    }
+  }
+
+  private def planWith(solver: QueryGraphSolver)(query: String, labels: Map[String, Cardinality]): SemanticPlan = {
+    queryGraphSolver = solver
+    new given {
+      labelCardinality = labels
+    } planFor query
+  }
+
+  private def leaves(plan: LogicalPlan): Seq[LogicalPlan] = (plan.lhs, plan.rhs) match {
+    case (None, None) => Seq(plan)
+    case (lhs, rhs)   => lhs.toSeq.flatMap(leaves) ++ rhs.toSeq.flatMap(leaves)
+  }
+}
@@ -23,8 +23,8 @@ import org.neo4j.cypher.internal.commons.CypherFunSuite
 import org.neo4j.cypher.internal.compiler.v2_2.planner._
 import org.neo4j.cypher.internal.compiler.v2_2.ast._
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.QueryPlanProducer._
-import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.Projection
-import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.QueryPlan
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
+import org.neo4j.graphdb.Direction
 
 class AggregationTest extends CypherFunSuite with LogicalPlanningTestSupport {
   val aggregatingMap: Map[String, Expression] = Map("count(*)" -> CountStar()(pos))
@@ -84,4 +84,47 @@ class AggregationTest extends CypherFunSuite with LogicalPlanningTestSupport {
         aggregation = aggregatingMap)
     )
   }
+
+  test("RETURN DISTINCT b over a var length expansion => expand to distinct end nodes only") {
+    val projection = AggregatingQueryProjection(
+      groupingKeys = Map("b" -> Identifier("b")(pos)),
+      aggregationExpressions = Map.empty
+    )
+
+    val context = newMockedLogicalPlanningContext(
+      planContext = newMockedPlanContext
+    )
+
+    val result = aggregation(varLengthExpand(), projection)(context)
+
+    expansionModes(result.plan) should equal(Seq(ExpandDistinctEndpoints))
+  }
+
+  test("RETURN DISTINCT r over a var length expansion => expand all paths") {
+    val projection = AggregatingQueryProjection(
+      groupingKeys = Map("r" -> Identifier("r")(pos)),
+      aggregationExpressions = Map.empty
+    )
+
+    val context = newMockedLogicalPlanningContext(
+      planContext = newMockedPlanContext
+    )
+
+    val result = aggregation(varLengthExpand(), projection)(context)
+
+    expansionModes(result.plan) should equal(Seq(ExpandAll))
+  }
+
+  private def varLengthExpand() = {
+    val startPlan = newMockedQueryPlan("a")
+    QueryPlan(
+      Expand(startPlan.plan, IdName("a"), Direction.OUTGOING, Seq.empty, IdName("b"), IdName("r"), VarPatternLength(1, Some(6))),
+      startPlan.solved
+    )
+  }
+
+  private def expansionModes(plan: LogicalPlan): Seq[ExpansionMode] = plan match {
+    case expand: Expand => Seq(expand.mode)
+    case _ => plan.lhs.toSeq.flatMap(expansionModes)
+  }
 }
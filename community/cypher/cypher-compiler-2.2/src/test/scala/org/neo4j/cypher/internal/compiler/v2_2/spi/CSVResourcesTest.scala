@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_2.spi
 
 import java.net.URL
+import java.util.concurrent.Executor
 import org.mockito.Mockito._
 import org.mockito.Matchers._
 import org.neo4j.cypher.internal.commons.{CreateTempFileTestSupport, CypherFunSuite}
@@ -33,7 +34,11 @@ class CSVResourcesTest extends CypherFunSuite with CreateTempFileTestSupport {
 
   override def beforeEach() {
     cleaner = mock[TaskCloser]
-    resources = new CSVResources(cleaner)
+    resources = new CSVResources(cleaner, new Executor {
+      def execute(job: Runnable) {
+        job.run()
+      }
+    })
   }
 
   test("should handle strings") {
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.spi
+
+import java.io.StringReader
+import java.util.concurrent.{Executor, Executors}
+
+import au.com.bytecode.opencsv.CSVReader
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.scalatest.BeforeAndAfterAll
+
+class ParallelCSVReaderTest extends CypherFunSuite with BeforeAndAfterAll {
+
+  val executor = Executors.newFixedThreadPool(3)
+
+  override protected def afterAll() {
+    executor.shutdown()
+  }
+
+  test("should read the same records as a single CSVReader regardless of chunk size") {
+    // given
+    val input = (1 to 200).map {
+      case i if i % 7 == 0 => s""""quoted, with
+                               |a line break $i",$i""".stripMargin
+      case i if i % 5 == 0 => s""""escaped \\" quote $i",$i"""
+      case i if i % 3 == 0 => s""""doubled "" quote $i",$i"""
+      case i => s"plain $i,$i"
+    }.mkString("\n")
+
+    for (chunkSize <- Seq(1, 2, 7, 64, 1024)) {
+      // when
+      val reader = new ParallelCSVReader(new StringReader(input), ',', executor, chunkSize, 4)
+
+      // then
+      reader.map(_.toSeq).toList should equal(expected(input))
+      reader.close()
+    }
+  }
+
+  test("should split chunks on \\r\\n and lone \\r line breaks") {
+    for (lineBreak <- Seq("\r\n", "\r")) {
+      // given
+      val input = (1 to 50).map(i => s"value $i,$i").mkString(lineBreak)
+      var chunks = 0
+      val countingExecutor = new Executor {
+        def execute(command: Runnable) {
+          chunks += 1
+          executor.execute(command)
+        }
+      }
+
+      // when
+      val reader = new ParallelCSVReader(new StringReader(input), ',', countingExecutor, 64, 4)
+
+      // then
+      reader.map(_.toSeq).toList should equal(expected(input))
+      chunks should be > 1
+      reader.close()
+    }
+  }
+
+  test("should read nothing from empty input") {
+    new ParallelCSVReader(new StringReader(""), ',', executor).toList should equal(List.empty)
+  }
+
+  private def expected(input: String): List[Seq[String]] = {
+    val csvReader = new CSVReader(new StringReader(input), ',')
+    Iterator.continually(csvReader.readNext()).takeWhile(_ != null).map(_.toSeq).toList
+  }
+}
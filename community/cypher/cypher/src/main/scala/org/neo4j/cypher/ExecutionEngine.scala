@@ -52,6 +52,9 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
 
   private val parsedQueries = new LRUCache[String, ParsedQuery](getPlanCacheSize)
 
+  // Queries whose plans only read, and which can therefore be planned and run in read-only transactions
+  private val readOnlyQueries = new LRUCache[String, Boolean](getPlanCacheSize)
+
   @throws(classOf[SyntaxException])
   def profile(query: String): ExtendedExecutionResult = profile(query, Map[String, Any]())
 
@@ -88,7 +91,7 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
       // create transaction and query context
       var touched = false
       val isTopLevelTx = !txBridge.hasTransaction
-      val tx = graph.beginTx()
+      val tx = if (isTopLevelTx && readOnlyQueries.containsKey(queryText)) graphAPI.beginReadOnlyTx() else graph.beginTx()
       val kernelStatement = txBridge.instance()
       val (plan, extractedParameters) = try {
         // fetch plan cache
@@ -111,6 +114,9 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
           throw t
       }
 
+      if (plan.isReadOnly)
+        readOnlyQueries.put(queryText, true)
+
       if (touched) {
         kernelStatement.close()
         tx.success()
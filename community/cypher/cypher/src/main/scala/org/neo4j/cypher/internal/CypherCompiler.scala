@@ -40,11 +40,14 @@ class CypherCompiler(graph: GraphDatabaseService,
                      defaultVersion: CypherVersion = CypherVersion.vDefault,
                      optionParser: CypherOptionParser) {
   private val queryCacheSize: Int = getQueryCacheSize
+  private val compiledExpressions: Boolean = getCompiledExpressions
+  private val dynamicProgrammingLimit: Int = getDynamicProgrammingLimit
+  private val parallelAggregation: Boolean = getParallelAggregation
   private val compatibilityFor1_9 = CompatibilityFor1_9(graph, queryCacheSize)
   private val compatibilityFor2_0 = CompatibilityFor2_0(graph, queryCacheSize)
   private val compatibilityFor2_1 = CompatibilityFor2_1(graph, queryCacheSize, kernelMonitors, kernelAPI)
-  private val compatibilityFor2_2Legacy = CompatibilityFor2_2Legacy(graph, queryCacheSize, kernelMonitors, kernelAPI)
-  private val compatibilityFor2_2Experimental = CompatibilityFor2_2Experimental(graph, queryCacheSize, kernelMonitors, kernelAPI)
+  private val compatibilityFor2_2Legacy = CompatibilityFor2_2Legacy(graph, queryCacheSize, kernelMonitors, kernelAPI, compiledExpressions, parallelAggregation)
+  private val compatibilityFor2_2Experimental = CompatibilityFor2_2Experimental(graph, queryCacheSize, kernelMonitors, kernelAPI, compiledExpressions, dynamicProgrammingLimit, parallelAggregation)
 
   @throws(classOf[SyntaxException])
   def parseQuery(queryText: String): ParsedQuery = {
@@ -109,6 +112,33 @@ class CypherCompiler(graph: GraphDatabaseService,
     })
       .applyOrElse(graph, (_: GraphDatabaseService) => CypherCompiler.DEFAULT_QUERY_CACHE_SIZE)
 
+  private def getCompiledExpressions: Boolean =
+    optGraphAs[InternalAbstractGraphDatabase]
+      .andThen(_.getConfig.get(GraphDatabaseSettings.cypher_compiled_expressions))
+      .andThen({
+      case v: java.lang.Boolean => v.booleanValue()
+      case _                    => true
+    })
+      .applyOrElse(graph, (_: GraphDatabaseService) => true)
+
+  private def getDynamicProgrammingLimit: Int =
+    optGraphAs[InternalAbstractGraphDatabase]
+      .andThen(_.getConfig.get(GraphDatabaseSettings.cypher_dynamic_programming_limit))
+      .andThen({
+      case v: java.lang.Integer => v.intValue()
+      case _                    => 0
+    })
+      .applyOrElse(graph, (_: GraphDatabaseService) => 0)
+
+  private def getParallelAggregation: Boolean =
+    optGraphAs[InternalAbstractGraphDatabase]
+      .andThen(_.getConfig.get(GraphDatabaseSettings.cypher_parallel_aggregation))
+      .andThen({
+      case v: java.lang.Boolean => v.booleanValue()
+      case _                    => true
+    })
+      .applyOrElse(graph, (_: GraphDatabaseService) => true)
+
   private def optGraphAs[T <: GraphDatabaseService : Manifest]: PartialFunction[GraphDatabaseService, T] = {
     case (db: T) => db
   }
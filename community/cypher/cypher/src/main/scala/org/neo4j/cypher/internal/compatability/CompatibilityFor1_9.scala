@@ -54,5 +54,7 @@ case class CompatibilityFor1_9(graph: GraphDatabaseService, queryCacheSize: Int)
       LegacyExecutionResultWrapper(inner.execute(queryContext(graph), txInfo.tx, params), planDescriptionRequested = false)
 
     def isPeriodicCommit = false
+
+    def isReadOnly = false
   }
 }
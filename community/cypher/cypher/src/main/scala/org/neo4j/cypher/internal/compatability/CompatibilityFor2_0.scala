@@ -57,5 +57,7 @@ case class CompatibilityFor2_0(graph: GraphDatabaseService, queryCacheSize: Int)
       LegacyExecutionResultWrapper(inner.execute(queryContext(graph, txInfo), params), planDescriptionRequested = false)
 
     def isPeriodicCommit = false
+
+    def isReadOnly = false
   }
 }
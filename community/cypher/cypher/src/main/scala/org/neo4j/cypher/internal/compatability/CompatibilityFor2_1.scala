@@ -62,5 +62,7 @@ case class CompatibilityFor2_1(graph: GraphDatabaseService, queryCacheSize: Int,
       LegacyExecutionResultWrapper(inner.execute(queryContext(graph, txInfo), params), planDescriptionRequested = false)
 
     def isPeriodicCommit = inner.isPeriodicCommit
+
+    def isReadOnly = false
   }
 }
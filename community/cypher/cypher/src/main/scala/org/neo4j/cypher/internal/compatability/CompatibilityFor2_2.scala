@@ -70,6 +70,8 @@ trait CompatibilityFor2_2 {
       ExecutionResultWrapperFor2_2(inner.execute(queryContext(graph, txInfo), params))
 
     def isPeriodicCommit = inner.isPeriodicCommit
+
+    def isReadOnly = inner.isReadOnly
   }
 }
 
@@ -104,12 +106,19 @@ case class ExecutionResultWrapperFor2_2(inner: InternalExecutionResult) extends
 case class CompatibilityFor2_2Experimental(graph: GraphDatabaseService,
                                            queryCacheSize: Int,
                                            kernelMonitors: KernelMonitors,
-                                           kernelAPI: KernelAPI) extends CompatibilityFor2_2 {
-  protected val compiler = CypherCompilerFactory.ronjaCompiler(graph, queryCacheSize, kernelMonitors)
+                                           kernelAPI: KernelAPI,
+                                           compiledExpressions: Boolean = true,
+                                           dynamicProgrammingLimit: Int = 0,
+                                           parallelAggregation: Boolean = true) extends CompatibilityFor2_2 {
+  protected val compiler = CypherCompilerFactory.ronjaCompiler(graph, queryCacheSize, kernelMonitors, compiledExpressions,
+    dynamicProgrammingLimit, parallelAggregation)
 }
 case class CompatibilityFor2_2Legacy(graph: GraphDatabaseService,
                                            queryCacheSize: Int,
                                            kernelMonitors: KernelMonitors,
-                                           kernelAPI: KernelAPI) extends CompatibilityFor2_2 {
-  protected val compiler = CypherCompilerFactory.legacyCompiler(graph, queryCacheSize, kernelMonitors)
+                                           kernelAPI: KernelAPI,
+                                           compiledExpressions: Boolean = true,
+                                           parallelAggregation: Boolean = true) extends CompatibilityFor2_2 {
+  protected val compiler = CypherCompilerFactory.legacyCompiler(graph, queryCacheSize, kernelMonitors, compiledExpressions,
+    parallelAggregation)
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.spi.v2_2
+
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.Multiplier
+import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
+import org.neo4j.kernel.api.ReadOperations
+import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+import org.neo4j.kernel.api.index.{IndexDescriptor, IndexSample}
+
+/*
+    Index selectivities from the samples that the kernel takes of schema indexes in the background
+ */
+trait IndexSampleStatistics extends GraphStatistics {
+  protected def readOperations: ReadOperations
+
+  override def indexSelectivity(index: IndexDescriptor): Option[Multiplier] =
+    sample(index).map(sample => Multiplier(sample.selectivity()))
+
+  override def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Multiplier] =
+    sample(index).map(sample => Multiplier(sample.selectivity(value)))
+
+  private def sample(index: IndexDescriptor): Option[IndexSample] =
+    try {
+      Option(readOperations.indexGetSample(index))
+    } catch {
+      case _: IndexNotFoundKernelException => None
+    }
+}
@@ -23,6 +23,7 @@ import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
 import org.neo4j.cypher.internal.compiler.v2_2.{RelTypeId, LabelId}
 import org.neo4j.graphdb.Direction
 import org.neo4j.kernel.api.heuristics.StatisticsData
+import org.neo4j.kernel.api.index.IndexDescriptor
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Multiplier, Cardinality}
 
 class TransactionBoundGraphStatistics(statistics: StatisticsData) extends GraphStatistics {
@@ -43,4 +44,9 @@ class TransactionBoundGraphStatistics(statistics: StatisticsData) extends GraphS
 
   def degreeByLabelRelationshipTypeAndDirection(labelId: LabelId, relTypeId: RelTypeId, direction: Direction) =
     Multiplier(statistics.degree( labelId.id, relTypeId.id, direction ))
+
+  // Index samples are read through IndexSampleStatistics
+  def indexSelectivity(index: IndexDescriptor): Option[Multiplier] = None
+
+  def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Multiplier] = None
 }
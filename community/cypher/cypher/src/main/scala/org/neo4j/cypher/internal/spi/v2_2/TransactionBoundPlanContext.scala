@@ -26,6 +26,7 @@ import org.neo4j.kernel.api.constraints.UniquenessConstraint
 import org.neo4j.kernel.api.exceptions.KernelException
 import org.neo4j.kernel.api.{KernelAPI, Statement}
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException
+import org.neo4j.cypher.internal.compiler.v2_2.HardcodedGraphStatisticsValues
 import org.neo4j.cypher.internal.compiler.v2_2.spi.{GraphStatistics, PlanContext}
 
 final class TransactionBoundPlanContext(statement: Statement, kernelAPI: KernelAPI, gdb: GraphDatabaseService)
@@ -84,5 +85,7 @@ final class TransactionBoundPlanContext(statement: Statement, kernelAPI: KernelA
     statement.readOperations().schemaStateGetOrCreate(key, javaCreator)
   }
 
-  def statistics: GraphStatistics = HardcodedGraphStatistics
+  def statistics: GraphStatistics = new HardcodedGraphStatisticsValues with IndexSampleStatistics {
+    protected val readOperations = statement.readOperations()
+  }
 }
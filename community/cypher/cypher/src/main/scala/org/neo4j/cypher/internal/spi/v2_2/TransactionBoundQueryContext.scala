@@ -19,8 +19,10 @@
  */
 package org.neo4j.cypher.internal.spi.v2_2
 
+import java.util.concurrent.Executor
+
 import org.neo4j.graphdb._
-import org.neo4j.kernel.impl.api.KernelStatement
+import org.neo4j.kernel.impl.api.{RelationshipVisitor, KernelStatement}
 import org.neo4j.kernel.{InternalAbstractGraphDatabase, GraphDatabaseAPI}
 import collection.JavaConverters._
 import collection.mutable
@@ -37,7 +39,10 @@ import org.neo4j.kernel.api.index.{IndexDescriptor, InternalIndexState}
 import org.neo4j.helpers.collection.IteratorUtil
 import org.neo4j.cypher.internal.compiler.v2_2.spi._
 import org.neo4j.collection.primitive.PrimitiveLongIterator
-import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge
+import org.neo4j.kernel.impl.core.{NodeManager, ThreadToStatementContextBridge}
+import org.neo4j.kernel.impl.util.JobScheduler
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider
+import org.neo4j.kernel.impl.api.store.StorePropertyReader
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
 
 final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
@@ -48,6 +53,9 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
 
   private var open = true
   private val txBridge = graph.getDependencyResolver.resolveDependency(classOf[ThreadToStatementContextBridge])
+  private lazy val nodeManager = graph.getDependencyResolver.resolveDependency(classOf[NodeManager])
+  private lazy val storePropertyReader =
+    new StorePropertyReader(graph.getDependencyResolver.resolveDependency(classOf[NeoStoreProvider]))
 
   def isOpen = open
 
@@ -114,6 +122,27 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     case _     => node.getRelationships(dir, types.map(withName): _*).iterator().asScala
   }
 
+  def expand(node: Long, dir: Direction, types: Array[Int])(visitor: (Long, Long) => Unit) {
+    val readOperations = statement.readOperations()
+    val relationships =
+      if (types.isEmpty) readOperations.nodeGetRelationships(node, dir)
+      else readOperations.nodeGetRelationships(node, dir, types: _*)
+    val otherNode = new RelationshipVisitor[RuntimeException] {
+      def visit(relId: Long, startNode: Long, endNode: Long, typ: Int) {
+        visitor(relId, if (startNode == node) endNode else startNode)
+      }
+    }
+
+    while (relationships.hasNext) {
+      try {
+        readOperations.relationshipVisit(relationships.next(), otherNode)
+      } catch {
+        // Deleted since the relationships of the node were listed
+        case _: exceptions.EntityNotFoundException =>
+      }
+    }
+  }
+
   def exactIndexSearch(index: IndexDescriptor, value: Any) =
     mapToScala(statement.readOperations().nodesGetFromIndexLookup(index, value))(nodeOps.getById)
 
@@ -134,6 +163,44 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
   def getNodesByLabel(id: Int): Iterator[Node] =
     mapToScala(statement.readOperations().nodesGetForLabel(id))(nodeOps.getById)
 
+  def highestNodeIdInUse: Long =
+    graph.getDependencyResolver.resolveDependency(classOf[NeoStoreProvider]).evaluate().getNodeStore.getHighestPossibleIdInUse
+
+  def nodesInIdRange(start: Long, end: Long): Iterator[Node] = {
+    val readOperations = statement.readOperations()
+    (start until end).iterator.filter(readOperations.nodeExists).map(nodeManager.newNodeProxyById)
+  }
+
+  def workers: Executor = new Executor {
+    private val scheduler = graph.getDependencyResolver.resolveDependency(classOf[JobScheduler])
+
+    def execute(job: Runnable) {
+      scheduler.schedule(JobScheduler.Group.cypherWorker, job)
+    }
+  }
+
+  // Without any changes in this transaction, other transactions see the same graph as this one does
+  def canReadOnWorkers: Boolean = statement match {
+    case s: KernelStatement => !s.hasTxStateWithChanges
+    case _ => false
+  }
+
+  def inWorkerContext[T](work: QueryContext => T): T = {
+    val workerTx = graph.beginReadOnlyTx()
+    try {
+      val workerStatement = txBridge.instance()
+      try {
+        work(new TransactionBoundQueryContext(graph, workerTx, true, workerStatement))
+      }
+      finally {
+        workerStatement.close()
+      }
+    }
+    finally {
+      workerTx.close()
+    }
+  }
+
   private def kernelStatement: KernelStatement =
     txBridge
       .getKernelTransactionBoundToThisThread(true)
@@ -152,6 +219,15 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
       statement.readOperations().nodeGetProperty(id, propertyKeyId).value(null)
     }
 
+    def getProperties(id: Long, propertyKeyIds: Array[Int]): Array[Any] = try {
+      if (readsCommittedState)
+        storePropertyReader.nodeProperties(id, propertyKeyIds).asInstanceOf[Array[Any]]
+      else
+        propertyKeyIds.map(getProperty(id, _))
+    } catch {
+      case e: exceptions.EntityNotFoundException => throw new EntityNotFoundException(s"Node with id $id", e)
+    }
+
     def hasProperty(id: Long, propertyKey: Int) =
       statement.readOperations().nodeGetProperty(id, propertyKey).isDefined
 
@@ -193,6 +269,15 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     def getProperty(id: Long, propertyKeyId: Int): Any =
       statement.readOperations().relationshipGetProperty(id, propertyKeyId).value(null)
 
+    def getProperties(id: Long, propertyKeyIds: Array[Int]): Array[Any] = try {
+      if (readsCommittedState)
+        storePropertyReader.relationshipProperties(id, propertyKeyIds).asInstanceOf[Array[Any]]
+      else
+        propertyKeyIds.map(getProperty(id, _))
+    } catch {
+      case e: exceptions.EntityNotFoundException => throw new EntityNotFoundException(s"Relationship with id $id", e)
+    }
+
     def hasProperty(id: Long, propertyKey: Int) =
       statement.readOperations().relationshipGetProperty(id, propertyKey).isDefined
 
@@ -235,6 +320,9 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
   })
 
   abstract class BaseOperations[T <: PropertyContainer] extends Operations[T] {
+    // Properties can be read straight from the store as long as this transaction hasn't changed anything
+    protected def readsCommittedState: Boolean = canReadOnWorkers
+
     def primitiveLongIteratorToScalaIterator(primitiveIterator: PrimitiveLongIterator): Iterator[Long] =
       new Iterator[Long] {
         def hasNext: Boolean = primitiveIterator.hasNext
@@ -144,6 +144,17 @@ class ExecutionEngineTest extends ExecutionEngineFunSuite with QueryStatisticsTe
     }
   }
 
+  test("should find nodes by index lookup when the cached query runs in a read only transaction") {
+    val n = createNode()
+    indexNode(n, "idxName", "key", "andres")
+
+    val query = "start n=node:idxName(key = 'andres') return n"
+
+    // the second run of a read only query gets a read only transaction
+    execute(query).toList should equal(List(Map("n" -> n)))
+    execute(query).toList should equal(List(Map("n" -> n)))
+  }
+
   test("shouldFindNodesByIndexParameters") {
     val n = createNode()
     val idxName = "idxName"
@@ -98,6 +98,31 @@ class LoadCsvAcceptanceTest
     assert(result.toList === List(Map("line.x" -> "0"), Map("line.x" -> null), Map("line.x" -> "1")))
   }
 
+  test("import rows with typed headers") {
+    val url = createCSVTempFileURL({
+      writer =>
+        writer.println("id:int,name,score:float,active:boolean")
+        writer.println("1,Aadvark,0.5,true")
+        writer.println("2,Babs,,false")
+    }).cypherEscape
+
+    val result = execute(s"LOAD CSV WITH TYPED HEADERS FROM '${url}' AS line RETURN line.id, line.name, line.score, line.active")
+    assert(result.toList === List(
+      Map("line.id" -> 1L, "line.name" -> "Aadvark", "line.score" -> 0.5, "line.active" -> true),
+      Map("line.id" -> 2L, "line.name" -> "Babs", "line.score" -> null, "line.active" -> false)))
+  }
+
+  test("keeps type hints in the keys of untyped headers") {
+    val url = createCSVTempFileURL({
+      writer =>
+        writer.println("id:int,name")
+        writer.println("1,Aadvark")
+    }).cypherEscape
+
+    val result = execute(s"LOAD CSV WITH HEADERS FROM '${url}' AS line RETURN line")
+    assert(result.toList === List(Map("line" -> Map("id:int" -> "1", "name" -> "Aadvark"))))
+  }
+
   test("should handle quotes") {
     val url = createCSVTempFileURL()({
       writer =>
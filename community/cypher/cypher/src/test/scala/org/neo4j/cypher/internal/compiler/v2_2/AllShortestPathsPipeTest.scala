@@ -25,18 +25,19 @@ import org.neo4j.cypher.internal.compiler.v2_2.pipes.{FakePipe, PipeMonitor, Sho
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
 import org.neo4j.graphdb.{Direction, Node, Path}
 
+import scala.collection.JavaConverters._
 import scala.collection.mutable.Map
 
-class AllShortestPathsPipeTest extends GraphDatabaseFunSuite {
+class AllShortestPathsPipeTest extends GraphDatabaseFunSuite with QueryStateTestSupport {
 
   private implicit val monitor = mock[PipeMonitor]
 
-  def runThroughPipeAndGetPath(a: Node, b: Node) = {
+  def runThroughPipeAndGetPath(a: Node, b: Node, dir: Direction = Direction.BOTH, maxDepth: Int = 15) = {
     val source = new FakePipe(List(Map("a" -> a, "b" -> b)), "a" -> CTNode, "b" -> CTNode)
 
-    val pipe = new ShortestPathPipe(source, ShortestPath("p", SingleNode("a"), SingleNode("b"), Seq(), Direction.BOTH,
-      Some(15), single = false, relIterator = None))
-    graph.inTx(pipe.createResults(QueryStateHelper.empty).toList.map(m => m("p").asInstanceOf[Path]))
+    val pipe = new ShortestPathPipe(source, ShortestPath("p", SingleNode("a"), SingleNode("b"), Seq(), dir,
+      Some(maxDepth), single = false, relIterator = None))
+    withQueryState(state => pipe.createResults(state).toList.map(m => m("p").asInstanceOf[Path]))
   }
 
   test("should return the shortest path between two nodes") {
@@ -54,4 +55,41 @@ class AllShortestPathsPipeTest extends GraphDatabaseFunSuite {
       resultPath.endNode() should equal(d)
     })
   }
+
+  test("should return a path per parallel relationship and follow the given direction") {
+    val (a, b, _, d) = createDiamond()
+    relate(a, b)
+    relate(d, a) // would be the shortest path if the direction was ignored
+
+    val resultPaths = runThroughPipeAndGetPath(a, d, Direction.OUTGOING)
+
+    resultPaths should have size 3
+    resultPaths.map(_.length()).toSet should equal(Set(2))
+  }
+
+  test("should find all paths of the same length between nodes further apart than one step from each side") {
+    val start = createNode()
+    val end = createNode()
+    val middles = (1 to 3).map { _ =>
+      val first = createNode()
+      val second = createNode()
+      relate(start, first)
+      relate(first, second)
+      relate(second, end)
+      second
+    }
+    relate(middles.head, middles.last) // doesn't make any path shorter
+
+    val resultPaths = runThroughPipeAndGetPath(start, end)
+
+    resultPaths should have size 3
+    resultPaths.map(_.length()).toSet should equal(Set(3))
+    resultPaths.map(_.nodes().asScala.toList).toSet should have size 3
+  }
+
+  test("should not return paths longer than the max depth") {
+    val (a, _, _, d) = createDiamond()
+
+    runThroughPipeAndGetPath(a, d, maxDepth = 1) shouldBe empty
+  }
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2
 
+import java.util.concurrent.Executor
+
 import org.neo4j.cypher.GraphDatabaseFunSuite
 import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Literal
 import org.neo4j.cypher.internal.compiler.v2_2.commands.values.{KeyToken, TokenType}
@@ -98,6 +100,8 @@ class SnitchingQueryContext extends QueryContext {
 
   def getRelationshipsFor(node: Node, dir: Direction, types: Seq[String]) = ???
 
+  def expand(node: Long, dir: Direction, types: Array[Int])(visitor: (Long, Long) => Unit) = ???
+
   def nodeOps = ???
 
   def relationshipOps = ???
@@ -120,6 +124,16 @@ class SnitchingQueryContext extends QueryContext {
 
   def getNodesByLabel(id: Int): Iterator[Node] = ???
 
+  def highestNodeIdInUse: Long = ???
+
+  def nodesInIdRange(start: Long, end: Long): Iterator[Node] = ???
+
+  def canReadOnWorkers: Boolean = ???
+
+  def inWorkerContext[T](work: QueryContext => T): T = ???
+
+  def workers: Executor = ???
+
   def upgrade(context: QueryContext): LockingQueryContext = ???
 
   def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V = ???
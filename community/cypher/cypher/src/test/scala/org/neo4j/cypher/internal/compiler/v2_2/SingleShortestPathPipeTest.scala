@@ -25,7 +25,9 @@ import org.neo4j.cypher.internal.compiler.v2_2.pipes.{FakePipe, PipeMonitor, Sho
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
 import org.neo4j.graphdb.{Direction, Node, Path}
 
-class SingleShortestPathPipeTest extends GraphDatabaseFunSuite {
+import scala.collection.JavaConverters._
+
+class SingleShortestPathPipeTest extends GraphDatabaseFunSuite with QueryStateTestSupport {
   private implicit val monitor = mock[PipeMonitor]
   private val path = ShortestPath("p", SingleNode("a"), SingleNode("b"), Seq(), Direction.BOTH, Some(15), single = true, relIterator = None)
 
@@ -45,10 +47,43 @@ class SingleShortestPathPipeTest extends GraphDatabaseFunSuite {
     resultPath.endNode() should equal(b)
   }
 
+  test("should find the shortest of several paths when searching from both ends") {
+    val a = createNode("a")
+    val b = createNode("b")
+    relate(a, createNode(), createNode(), createNode(), b)
+    val middle = createNode()
+    relate(a, middle)
+    relate(middle, b)
+
+    val resultPath = runThroughPipeAndGetPath(a, b, path)
+
+    resultPath.length() should equal(2)
+    resultPath.startNode() should equal(a)
+    resultPath.nodes().asScala.toList(1) should equal(middle)
+    resultPath.endNode() should equal(b)
+  }
+
+  test("should return a path of length zero from a node to itself") {
+    val a = createNode("a")
+
+    runThroughPipeAndGetPath(a, a, path).length() should equal(0)
+  }
+
+  test("should not find paths over relationship types that don't exist") {
+    val a = createNode("a")
+    val b = createNode("b")
+    relate(a, b, "rel")
+
+    val source = new FakePipe(List(Map("a" -> a, "b" -> b)), "a"->CTNode, "b"->CTNode)
+    val pipe = new ShortestPathPipe(source, path.copy(relTypes = Seq("MISSING")))
+
+    withQueryState(state => pipe.createResults(state).toList) shouldBe empty
+  }
+
   private def runThroughPipeAndGetPath(a: Node, b: Node, path: ShortestPath): Path = {
     val source = new FakePipe(List(Map("a" -> a, "b" -> b)), "a"->CTNode, "b"->CTNode)
 
     val pipe = new ShortestPathPipe(source, path)
-    graph.inTx(pipe.createResults(QueryStateHelper.empty).next()("p").asInstanceOf[Path])
+    withQueryState(state => pipe.createResults(state).next()("p").asInstanceOf[Path])
   }
 }
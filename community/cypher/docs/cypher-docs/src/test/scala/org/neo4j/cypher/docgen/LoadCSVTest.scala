@@ -48,6 +48,14 @@ class LoadCSVTest extends DocumentingTestBase with QueryStatisticsTestSupport {
     Seq("4", "The Cardigans", "1992")
   )
 
+  private val artistWithTypedHeaders = new CsvFile("artists-with-typed-headers.csv").withContentsF(
+    Seq("Id:int", "Name", "Year:int"),
+    Seq("1", "ABBA", "1992"),
+    Seq("2", "Roxette", "1986"),
+    Seq("3", "Europe", "1979"),
+    Seq("4", "The Cardigans", "1992")
+  )
+
   private val artistFieldTerminator = new CsvFile("artists-fieldterminator.csv", ';').withContentsF(
     Seq("1", "ABBA", "1992"),
     Seq("2", "Roxette", "1986"),
@@ -62,6 +70,7 @@ class LoadCSVTest extends DocumentingTestBase with QueryStatisticsTestSupport {
   filePaths = Map(
     "%ARTIST%" -> CsvFile.urify(artist),
     "%ARTIS_WITH_HEADER%" -> CsvFile.urify(artistWithHeaders),
+    "%ARTIST_WITH_TYPED_HEADERS%" -> CsvFile.urify(artistWithTypedHeaders),
     "%ARTIST_WITH_FIELD_DELIMITER%" -> CsvFile.urify(artistFieldTerminator),
     "%ARTIST_WITH_ESCAPE_CHAR%" -> CsvFile.urify(artistsWithEscapeChar)
   )
@@ -69,6 +78,7 @@ class LoadCSVTest extends DocumentingTestBase with QueryStatisticsTestSupport {
   urls = Map(
     "%ARTIST%" -> (baseUrl + artist.getName),
     "%ARTIS_WITH_HEADER%" -> (baseUrl + artistWithHeaders.getName),
+    "%ARTIST_WITH_TYPED_HEADERS%" -> (baseUrl + artistWithTypedHeaders.getName),
     "%ARTIST_WITH_FIELD_DELIMITER%" -> (baseUrl + artistFieldTerminator.getName),
     "%ARTIST_WITH_ESCAPE_CHAR%" -> (baseUrl + artistsWithEscapeChar.getName)
   )
@@ -113,6 +123,32 @@ Indicate this using +WITH HEADERS+ and you can access specific fields by their c
       assertions = (p) => assertStats(p, nodesCreated = 4, propertiesSet = 8, labelsAdded = 4))
   }
 
+  @Test def should_import_data_from_a_csv_file_with_typed_headers() {
+    testQuery(
+      title = "Import data from a CSV file with typed headers",
+      text = """
+Column names can end with a type hint, which saves converting the values of that column in the query.
+The hints are `:int`, `:long`, `:float`, `:double`, `:boolean` and `:string`.
+
+.artists-with-typed-headers.csv
+[source]
+----
+include::csv-files/artists-with-typed-headers.csv[]
+----
+""",
+      queryText = s"LOAD CSV WITH TYPED HEADERS FROM '%ARTIST_WITH_TYPED_HEADERS%' AS line CREATE (a:Artist {name: line.Name, year: line.Year}) RETURN a.name AS name, a.year AS year",
+      optionalResultExplanation = """
+Use +WITH TYPED HEADERS+ instead of +WITH HEADERS+ to have the hints applied.
+The hint is not part of the column name, so the year is available as +line.Year+, and it is already an integer.
+Empty values in a typed column become `null`, and values that can't be converted fail the query.
+With +WITH HEADERS+, the column names are used as they are, including any `:int` and the like.""",
+      assertions = (p) => assertEquals(List(
+        Map("name" -> "ABBA", "year" -> 1992),
+        Map("name" -> "Roxette", "year" -> 1986),
+        Map("name" -> "Europe", "year" -> 1979),
+        Map("name" -> "The Cardigans", "year" -> 1992)), p.toList))
+  }
+
   @Test def should_import_data_from_a_csv_file_with_custom_field_terminator() {
     testQuery(
       title = "Import data from a CSV file with a custom field delimiter",
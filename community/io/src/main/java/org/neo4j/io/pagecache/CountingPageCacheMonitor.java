@@ -19,108 +19,214 @@
  */
 package org.neo4j.io.pagecache;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Counts page cache events, both in total and per mapped file. Counters are striped so that threads
+ * working with the page cache do not contend on them.
+ */
 public class CountingPageCacheMonitor implements PageCacheMonitor
 {
-    private final AtomicInteger faults = new AtomicInteger();
-    private final AtomicInteger evictions = new AtomicInteger();
-    private final AtomicInteger pins = new AtomicInteger();
-    private final AtomicInteger unpins = new AtomicInteger();
-    private final AtomicInteger takenExclusiveLocks = new AtomicInteger();
-    private final AtomicInteger takenSharedLocks = new AtomicInteger();
-    private final AtomicInteger releasedExclusiveLocks = new AtomicInteger();
-    private final AtomicInteger releasedSharedLocks = new AtomicInteger();
-    private final AtomicInteger flushes = new AtomicInteger();
+    private static final int FAULTS = 0;
+    private static final int EVICTIONS = 1;
+    private static final int PINS = 2;
+    private static final int UNPINS = 3;
+    private static final int TAKEN_EXCLUSIVE_LOCKS = 4;
+    private static final int TAKEN_SHARED_LOCKS = 5;
+    private static final int RELEASED_EXCLUSIVE_LOCKS = 6;
+    private static final int RELEASED_SHARED_LOCKS = 7;
+    private static final int FLUSHES = 8;
+    private static final int COUNTERS = 9;
+
+    private final StripedCounters counters = new StripedCounters( COUNTERS );
+    private final ConcurrentMap<String, PagedFileStatistics> fileStatistics = new ConcurrentHashMap<>();
+    private final ThreadLocal<PinTimes> pinTimes = new ThreadLocal<PinTimes>()
+    {
+        @Override
+        protected PinTimes initialValue()
+        {
+            return new PinTimes();
+        }
+    };
 
     @Override
     public void pageFaulted(long filePageId, PageSwapper swapper)
     {
-        faults.getAndIncrement();
+        counters.increment( FAULTS );
+        statisticsOf( swapper ).pageFaulted( swapper.filePageSize() );
     }
 
     @Override
     public void evicted(long filePageId, PageSwapper swapper)
     {
-        evictions.getAndIncrement();
+        counters.increment( EVICTIONS );
+        statisticsOf( swapper ).evicted();
     }
 
     @Override
     public void pinned(boolean exclusiveLock, long filePageId, PageSwapper swapper)
     {
-        pins.getAndIncrement();
-        if ( exclusiveLock )
-        {
-            takenExclusiveLocks.getAndIncrement();
-        }
-        else
-        {
-            takenSharedLocks.getAndIncrement();
-        }
+        counters.increment( PINS );
+        counters.increment( exclusiveLock ? TAKEN_EXCLUSIVE_LOCKS : TAKEN_SHARED_LOCKS );
+        statisticsOf( swapper ).pinned();
+        pinTimes.get().pinned( filePageId, swapper );
     }
 
     @Override
     public void unpinned(boolean exclusiveLock, long filePageId, PageSwapper swapper)
     {
-        unpins.getAndIncrement();
-        if ( exclusiveLock )
-        {
-            releasedExclusiveLocks.getAndIncrement();
-        }
-        else
+        counters.increment( UNPINS );
+        counters.increment( exclusiveLock ? RELEASED_EXCLUSIVE_LOCKS : RELEASED_SHARED_LOCKS );
+        long pinDuration = pinTimes.get().unpinned( filePageId, swapper );
+        if ( pinDuration >= 0 )
         {
-            releasedSharedLocks.getAndIncrement();
+            statisticsOf( swapper ).unpinned( pinDuration );
         }
     }
 
     @Override
     public void flushed(long filePageId, PageSwapper swapper)
     {
-        flushes.getAndIncrement();
+        counters.increment( FLUSHES );
+        statisticsOf( swapper ).flushed( swapper.filePageSize() );
+    }
+
+    private PagedFileStatistics statisticsOf( PageSwapper swapper )
+    {
+        String fileName = swapper.fileName();
+        PagedFileStatistics statistics = fileStatistics.get( fileName );
+        if ( statistics == null )
+        {
+            statistics = new PagedFileStatistics( fileName );
+            PagedFileStatistics existing = fileStatistics.putIfAbsent( fileName, statistics );
+            if ( existing != null )
+            {
+                statistics = existing;
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of every file that has been mapped while this monitor was listening, including files
+     * that have since been unmapped.
+     */
+    public Collection<PagedFileStatistics> fileStatistics()
+    {
+        return new ArrayList<>( fileStatistics.values() );
+    }
+
+    /**
+     * @return the statistics of the file with the given name, or {@code null} if there have been no events for it.
+     */
+    public PagedFileStatistics fileStatistics( String fileName )
+    {
+        return fileStatistics.get( fileName );
     }
 
     public int countFaults()
     {
-        return faults.get();
+        return (int) counters.sum( FAULTS );
     }
 
     public int countEvictions()
     {
-        return evictions.get();
+        return (int) counters.sum( EVICTIONS );
     }
 
     public int countPins()
     {
-        return pins.get();
+        return (int) counters.sum( PINS );
     }
 
     public int countUnpins()
     {
-        return unpins.get();
+        return (int) counters.sum( UNPINS );
     }
 
     public int countTakenExclusiveLocks()
     {
-        return takenExclusiveLocks.get();
+        return (int) counters.sum( TAKEN_EXCLUSIVE_LOCKS );
     }
 
     public int countTakenSharedLocks()
     {
-        return takenSharedLocks.get();
+        return (int) counters.sum( TAKEN_SHARED_LOCKS );
     }
 
     public int countReleasedExclusiveLocks()
     {
-        return releasedExclusiveLocks.get();
+        return (int) counters.sum( RELEASED_EXCLUSIVE_LOCKS );
     }
 
     public int countReleasedSharedLocks()
     {
-        return releasedSharedLocks.get();
+        return (int) counters.sum( RELEASED_SHARED_LOCKS );
     }
 
     public int countFlushes()
     {
-        return flushes.get();
+        return (int) counters.sum( FLUSHES );
+    }
+
+    /**
+     * The pages a thread currently has pinned, and when it pinned them. A thread rarely has more than a few pages
+     * pinned at the same time, so they are kept in plain arrays that are searched linearly.
+     */
+    private static class PinTimes
+    {
+        private static final int MAX_PINS = 1024;
+
+        private PageSwapper[] swappers = new PageSwapper[4];
+        private long[] filePageIds = new long[4];
+        private long[] startTimes = new long[4];
+        private int size;
+
+        void pinned( long filePageId, PageSwapper swapper )
+        {
+            if ( size == swappers.length )
+            {
+                if ( size == MAX_PINS )
+                {
+                    // Unpins that we have missed somehow; forget about them rather than growing without bounds
+                    size = 0;
+                }
+                else
+                {
+                    swappers = Arrays.copyOf( swappers, size * 2 );
+                    filePageIds = Arrays.copyOf( filePageIds, size * 2 );
+                    startTimes = Arrays.copyOf( startTimes, size * 2 );
+                }
+            }
+            swappers[size] = swapper;
+            filePageIds[size] = filePageId;
+            startTimes[size] = System.nanoTime();
+            size++;
+        }
+
+        /**
+         * @return the number of nanoseconds the given page was pinned, or -1 if this thread didn't pin it.
+         */
+        long unpinned( long filePageId, PageSwapper swapper )
+        {
+            for ( int i = size - 1; i >= 0; i-- )
+            {
+                if ( filePageIds[i] == filePageId && swappers[i] == swapper )
+                {
+                    long duration = System.nanoTime() - startTimes[i];
+                    size--;
+                    swappers[i] = swappers[size];
+                    filePageIds[i] = filePageIds[size];
+                    startTimes[i] = startTimes[size];
+                    swappers[size] = null;
+                    return duration;
+                }
+            }
+            return -1;
+        }
     }
 }
@@ -58,6 +58,11 @@ public interface PageSwapper
      */
     String fileName();
 
+    /**
+     * Get the size, in bytes, of the file-pages that this PageSwapper reads and writes.
+     */
+    int filePageSize();
+
     /**
      * Close and release all resources associated with the file underlying this
      * PageSwapper.
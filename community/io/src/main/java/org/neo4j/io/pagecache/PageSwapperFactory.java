@@ -47,4 +47,10 @@ public interface PageSwapperFactory
             File file,
             int filePageSize,
             PageEvictionCallback onEviction ) throws IOException;
+
+    /**
+     * Get the alignment, in bytes, that the memory of pages given to the PageSwappers of this factory should have.
+     * This is 1 unless the PageSwappers do direct I/O.
+     */
+    public int requiredBufferAlignment();
 }
@@ -21,6 +21,8 @@ package org.neo4j.io.pagecache;
 
 import java.io.IOException;
 
+import org.neo4j.collection.primitive.PrimitiveLongVisitor;
+
 /**
  * The representation of a file that has been mapped into the associated page
  * cache.
@@ -157,4 +159,11 @@ public interface PagedFile
      * This will return -1 if the file is completely empty.
      */
     long getLastPageId() throws IOException;
+
+    /**
+     * Visit the file-page-ids of the pages of this file that are currently in memory, in no particular order.
+     *
+     * This is only a snapshot: pages can be faulted in or evicted while, or right after, they are visited.
+     */
+    void visitResidentPages( PrimitiveLongVisitor visitor );
 }
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+/**
+ * Page cache statistics of a single mapped file, as gathered by {@link CountingPageCacheMonitor}.
+ */
+public class PagedFileStatistics
+{
+    /**
+     * Number of buckets in the {@link #pinDurationHistogram() pin duration histogram}.
+     */
+    public static final int PIN_DURATION_BUCKETS = 40;
+
+    private static final int FAULTS = 0;
+    private static final int PINS = 1;
+    private static final int EVICTIONS = 2;
+    private static final int FLUSHES = 3;
+    private static final int BYTES_READ = 4;
+    private static final int BYTES_WRITTEN = 5;
+    private static final int COUNTERS = 6;
+
+    private final String fileName;
+    private final StripedCounters counters = new StripedCounters( COUNTERS );
+    private final StripedCounters pinDurations = new StripedCounters( PIN_DURATION_BUCKETS );
+
+    public PagedFileStatistics( String fileName )
+    {
+        this.fileName = fileName;
+    }
+
+    public String fileName()
+    {
+        return fileName;
+    }
+
+    void pageFaulted( int filePageSize )
+    {
+        counters.increment( FAULTS );
+        counters.add( BYTES_READ, filePageSize );
+    }
+
+    void pinned()
+    {
+        counters.increment( PINS );
+    }
+
+    void unpinned( long pinDurationNanos )
+    {
+        pinDurations.increment( pinDurationBucket( pinDurationNanos ) );
+    }
+
+    void evicted()
+    {
+        counters.increment( EVICTIONS );
+    }
+
+    void flushed( int filePageSize )
+    {
+        counters.increment( FLUSHES );
+        counters.add( BYTES_WRITTEN, filePageSize );
+    }
+
+    public long countFaults()
+    {
+        return counters.sum( FAULTS );
+    }
+
+    /**
+     * @return the number of pins of pages that were already in memory.
+     */
+    public long countHits()
+    {
+        return Math.max( 0, counters.sum( PINS ) - counters.sum( FAULTS ) );
+    }
+
+    public long countPins()
+    {
+        return counters.sum( PINS );
+    }
+
+    public long countEvictions()
+    {
+        return counters.sum( EVICTIONS );
+    }
+
+    public long countFlushes()
+    {
+        return counters.sum( FLUSHES );
+    }
+
+    public long bytesRead()
+    {
+        return counters.sum( BYTES_READ );
+    }
+
+    public long bytesWritten()
+    {
+        return counters.sum( BYTES_WRITTEN );
+    }
+
+    /**
+     * @return the number of pins per duration, where bucket {@code i} counts the pins that lasted at least
+     * {@code 2^i} and less than {@code 2^(i+1)} nanoseconds. The first bucket also counts pins shorter than that,
+     * and the last bucket also counts pins longer than that.
+     */
+    public long[] pinDurationHistogram()
+    {
+        return pinDurations.sums();
+    }
+
+    static int pinDurationBucket( long nanos )
+    {
+        int bucket = 63 - Long.numberOfLeadingZeros( nanos );
+        return Math.min( Math.max( bucket, 0 ), PIN_DURATION_BUCKETS - 1 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PagedFileStatistics{fileName=" + fileName + ", faults=" + countFaults() + ", hits=" + countHits() +
+               ", evictions=" + countEvictions() + ", flushes=" + countFlushes() + ", bytesRead=" + bytesRead() +
+               ", bytesWritten=" + bytesWritten() + "}";
+    }
+}
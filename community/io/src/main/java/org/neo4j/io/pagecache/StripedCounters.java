@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of counters that many threads can increment without contending with each other. Each thread increments
+ * the counters in a stripe of its own, chosen by its thread id, and reading a counter sums it over all stripes.
+ * Sums are not atomic snapshots, which is fine for statistics.
+ */
+class StripedCounters
+{
+    private static final int STRIPES = stripes();
+    // Counters of different stripes are kept at least a cache line apart
+    private static final int MIN_STRIPE_WIDTH = 8;
+
+    private final int counters;
+    private final int stripeWidth;
+    private final AtomicLongArray cells;
+
+    StripedCounters( int counters )
+    {
+        this.counters = counters;
+        this.stripeWidth = Math.max( counters, MIN_STRIPE_WIDTH );
+        this.cells = new AtomicLongArray( STRIPES * stripeWidth );
+    }
+
+    void add( int counter, long delta )
+    {
+        int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        cells.getAndAdd( stripe * stripeWidth + counter, delta );
+    }
+
+    void increment( int counter )
+    {
+        add( counter, 1 );
+    }
+
+    long sum( int counter )
+    {
+        long sum = 0;
+        for ( int stripe = 0; stripe < STRIPES; stripe++ )
+        {
+            sum += cells.get( stripe * stripeWidth + counter );
+        }
+        return sum;
+    }
+
+    long[] sums()
+    {
+        long[] sums = new long[counters];
+        for ( int counter = 0; counter < counters; counter++ )
+        {
+            sums[counter] = sum( counter );
+        }
+        return sums;
+    }
+
+    private static int stripes()
+    {
+        // Twice the number of processors, rounded up to a power of two so that a mask picks the stripe
+        return Integer.highestOneBit( Runtime.getRuntime().availableProcessors() * 2 - 1 ) << 1;
+    }
+}
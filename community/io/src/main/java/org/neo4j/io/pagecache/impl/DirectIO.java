@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+
+/**
+ * Direct I/O, i.e. reading and writing files without going through the file cache of the operating system, for
+ * file pages that are already cached by the page cache. This uses the {@code DIRECT} open option of the JDK where
+ * it is available, which requires file positions, lengths and the memory of direct buffers to be aligned to
+ * {@link #BLOCK_SIZE}. Channels from {@link #open(File)} take care of that for file pages of any size.
+ */
+public final class DirectIO
+{
+    /**
+     * The alignment that this class uses for direct I/O. A multiple of the block size of any common file system.
+     */
+    public static final int BLOCK_SIZE = 4096;
+
+    private static final OpenOption DIRECT = directOpenOption();
+    private static final Field BUFFER_ADDRESS = bufferAddressField();
+
+    private DirectIO()
+    {
+    }
+
+    /**
+     * @return true if this JVM can open files for direct I/O, and allocate aligned direct buffers.
+     */
+    public static boolean isSupported()
+    {
+        return DIRECT != null && BUFFER_ADDRESS != null;
+    }
+
+    /**
+     * Open the given file for direct I/O, creating it if it doesn't exist.
+     *
+     * @throws IOException if the file can't be opened, for instance if the file system doesn't support direct I/O.
+     */
+    public static StoreChannel open( File file ) throws IOException
+    {
+        if ( !isSupported() )
+        {
+            throw new IOException( "Direct I/O is not supported by this JVM" );
+        }
+        return new DirectIOStoreChannel( FileChannel.open( file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, DIRECT ) );
+    }
+
+    /**
+     * Allocate a buffer that can be read into, and written from, with direct I/O. This is a direct buffer whose
+     * memory is aligned to the given alignment if possible, and otherwise a heap buffer, which the JDK copies
+     * through aligned memory of its own.
+     */
+    public static ByteBuffer allocateAligned( int size, int alignment )
+    {
+        if ( BUFFER_ADDRESS == null )
+        {
+            return ByteBuffer.allocate( size );
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect( size + alignment );
+        try
+        {
+            long address = BUFFER_ADDRESS.getLong( buffer );
+            int misalignment = (int) (address % alignment);
+            buffer.position( misalignment == 0 ? 0 : alignment - misalignment );
+            buffer.limit( buffer.position() + size );
+            return buffer.slice();
+        }
+        catch ( IllegalAccessException e )
+        {
+            return ByteBuffer.allocate( size );
+        }
+    }
+
+    private static OpenOption directOpenOption()
+    {
+        try
+        {
+            Class<?> extendedOptions = Class.forName( "com.sun.nio.file.ExtendedOpenOption" );
+            for ( Object option : extendedOptions.getEnumConstants() )
+            {
+                if ( "DIRECT".equals( ((Enum<?>) option).name() ) )
+                {
+                    return (OpenOption) option;
+                }
+            }
+        }
+        catch ( ClassNotFoundException e )
+        {
+            // Not a JDK that we know of
+        }
+        return null;
+    }
+
+    private static Field bufferAddressField()
+    {
+        try
+        {
+            Field address = java.nio.Buffer.class.getDeclaredField( "address" );
+            address.setAccessible( true );
+            return address;
+        }
+        catch ( Exception e )
+        {
+            // Not allowed, or not a JDK that we know of
+            return null;
+        }
+    }
+
+    /**
+     * Direct I/O can only read and write whole blocks, from and to aligned memory. Record store pages generally
+     * aren't a whole number of blocks, so reads and writes that aren't aligned go through an aligned buffer covering
+     * the blocks they touch. Such writes first read the blocks at the edges of the range, which they share with
+     * neighbouring pages, and are serialised so that two of them can't both write back a block they share. A write
+     * that goes past the end of the file has to write the whole last block, so the file is then truncated back to
+     * the end of what was written.
+     */
+    private static class DirectIOStoreChannel extends StoreFileChannel
+    {
+        private static final ThreadLocal<ByteBuffer> bounceBuffers = new ThreadLocal<>();
+
+        private final Object unalignedWriteLock = new Object();
+
+        DirectIOStoreChannel( FileChannel channel )
+        {
+            super( channel );
+        }
+
+        @Override
+        public int read( ByteBuffer dst, long position ) throws IOException
+        {
+            int length = dst.remaining();
+            if ( isAligned( position, length, dst ) )
+            {
+                return super.read( dst, position );
+            }
+            long start = alignDown( position );
+            ByteBuffer bounce = bounceBuffer( (int) (alignUp( position + length ) - start) );
+            int available = (int) Math.min( length, start + readBlocks( bounce, start ) - position );
+            if ( available <= 0 )
+            {
+                return -1;
+            }
+            bounce.position( (int) (position - start) );
+            bounce.limit( bounce.position() + available );
+            dst.put( bounce );
+            return available;
+        }
+
+        @Override
+        public int write( ByteBuffer src, long position ) throws IOException
+        {
+            int length = src.remaining();
+            if ( isAligned( position, length, src ) && position + length <= size() )
+            {
+                return super.write( src, position );
+            }
+            synchronized ( unalignedWriteLock )
+            {
+                long size = size();
+                long start = alignDown( position );
+                long end = alignUp( position + length );
+                ByteBuffer bounce = bounceBuffer( (int) (end - start) );
+                if ( position > start )
+                {
+                    readBlock( bounce, start, start );
+                }
+                if ( position + length < end && (end - BLOCK_SIZE > start || position == start) )
+                {
+                    readBlock( bounce, start, end - BLOCK_SIZE );
+                }
+                bounce.position( (int) (position - start) );
+                bounce.put( src );
+                bounce.clear();
+                bounce.limit( (int) (end - start) );
+                writeBlocks( bounce, start );
+
+                long written = Math.max( size, position + length );
+                if ( end > written )
+                {
+                    super.truncate( written );
+                }
+                return length;
+            }
+        }
+
+        /**
+         * Reads as much of the given aligned range as there is in the file, and zero-fills the rest.
+         *
+         * @return the number of bytes read.
+         */
+        private int readBlocks( ByteBuffer bounce, long start ) throws IOException
+        {
+            int read;
+            int totalRead = 0;
+            do
+            {
+                read = super.read( bounce, start + totalRead );
+            }
+            while ( read > 0 && (totalRead += read) % BLOCK_SIZE == 0 && bounce.hasRemaining() );
+            while ( bounce.hasRemaining() )
+            {
+                bounce.put( (byte) 0 );
+            }
+            return totalRead;
+        }
+
+        private void writeBlocks( ByteBuffer bounce, long start ) throws IOException
+        {
+            long position = start;
+            while ( bounce.hasRemaining() )
+            {
+                int written = super.write( bounce, position );
+                if ( written <= 0 )
+                {
+                    throw new IOException( "Unable to write to disk, reported bytes written was " + written );
+                }
+                position += written;
+            }
+        }
+
+        private void readBlock( ByteBuffer bounce, long start, long block ) throws IOException
+        {
+            ByteBuffer blockBuffer = bounce.duplicate();
+            blockBuffer.position( (int) (block - start) );
+            blockBuffer.limit( blockBuffer.position() + BLOCK_SIZE );
+            readBlocks( blockBuffer.slice(), block );
+        }
+
+        private static ByteBuffer bounceBuffer( int size )
+        {
+            ByteBuffer buffer = bounceBuffers.get();
+            if ( buffer == null || buffer.capacity() < size )
+            {
+                buffer = allocateAligned( size, BLOCK_SIZE );
+                bounceBuffers.set( buffer );
+            }
+            buffer.clear();
+            buffer.limit( size );
+            return buffer;
+        }
+
+        private static boolean isAligned( long position, int length, ByteBuffer buffer )
+        {
+            if ( position % BLOCK_SIZE != 0 || length % BLOCK_SIZE != 0 )
+            {
+                return false;
+            }
+            if ( !buffer.isDirect() )
+            {
+                return true; // The JDK copies heap buffers through aligned memory of its own
+            }
+            try
+            {
+                return (BUFFER_ADDRESS.getLong( buffer ) + buffer.position()) % BLOCK_SIZE == 0;
+            }
+            catch ( IllegalAccessException e )
+            {
+                return false;
+            }
+        }
+
+        private static long alignDown( long position )
+        {
+            return position - position % BLOCK_SIZE;
+        }
+
+        private static long alignUp( long position )
+        {
+            return alignDown( position + BLOCK_SIZE - 1 );
+        }
+    }
+}
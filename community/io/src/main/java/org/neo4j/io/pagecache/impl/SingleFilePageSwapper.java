@@ -76,6 +76,12 @@ public class SingleFilePageSwapper implements PageSwapper
         return file.getName();
     }
 
+    @Override
+    public int filePageSize()
+    {
+        return filePageSize;
+    }
+
     private long pageIdToPosition( long pageId )
     {
         return filePageSize * pageId;
@@ -22,6 +22,7 @@ package org.neo4j.io.pagecache.impl;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.PageEvictionCallback;
@@ -31,11 +32,43 @@ import org.neo4j.io.pagecache.impl.SingleFilePageSwapper;
 
 public class SingleFilePageSwapperFactory implements PageSwapperFactory
 {
+    /**
+     * Told about files that are read and written through the file cache of the operating system, although
+     * direct I/O was asked for.
+     */
+    public interface Monitor
+    {
+        Monitor NULL = new Monitor()
+        {
+            @Override
+            public void directIOFailed( File file, IOException cause )
+            {
+            }
+        };
+
+        void directIOFailed( File file, IOException cause );
+    }
+
     private final FileSystemAbstraction fs;
+    private final boolean directIO;
+    private final Monitor monitor;
 
     public SingleFilePageSwapperFactory( FileSystemAbstraction fs )
+    {
+        this( fs, false, Monitor.NULL );
+    }
+
+    /**
+     * @param directIO whether to read and write the files with {@link DirectIO direct I/O} where possible. This is
+     * only possible for files on the default file system, and on JVMs where {@link DirectIO#isSupported()}. Pages
+     * that aren't a multiple of {@link DirectIO#BLOCK_SIZE} are read and written as the blocks that cover them.
+     * @param monitor told about files that can't be opened for direct I/O.
+     */
+    public SingleFilePageSwapperFactory( FileSystemAbstraction fs, boolean directIO, Monitor monitor )
     {
         this.fs = fs;
+        this.directIO = directIO && DirectIO.isSupported() && fs instanceof DefaultFileSystemAbstraction;
+        this.monitor = monitor;
     }
 
     @Override
@@ -44,7 +77,29 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
             int filePageSize,
             PageEvictionCallback onEviction ) throws IOException
     {
-        StoreChannel channel = fs.open( file, "rw" );
+        StoreChannel channel = null;
+        if ( directIO )
+        {
+            try
+            {
+                channel = DirectIO.open( file );
+            }
+            catch ( IOException e )
+            {
+                // Not supported by this file system, so fall back to going through the file cache
+                monitor.directIOFailed( file, e );
+            }
+        }
+        if ( channel == null )
+        {
+            channel = fs.open( file, "rw" );
+        }
         return new SingleFilePageSwapper( file, channel, filePageSize, onEviction );
     }
+
+    @Override
+    public int requiredBufferAlignment()
+    {
+        return directIO ? DirectIO.BLOCK_SIZE : 1;
+    }
 }
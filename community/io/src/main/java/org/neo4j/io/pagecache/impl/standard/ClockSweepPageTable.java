@@ -20,8 +20,9 @@
 package org.neo4j.io.pagecache.impl.standard;
 
 import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.io.pagecache.PageCacheMonitor;
@@ -37,7 +38,8 @@ import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
  *
  * It uses a background thread to run eviction, trying to optimize for allowing new page-ins
  * to immediately have free pages available to be populated, while still keeping as many pages
- * as possible live in RAM.
+ * as possible live in RAM. Page faults that find no free pages yield to the eviction thread,
+ * rather than spinning on the free-list.
  */
 public class ClockSweepPageTable implements PageTable, Runnable
 {
@@ -59,7 +61,7 @@ public class ClockSweepPageTable implements PageTable, Runnable
         return Double.parseDouble( property );
     }
 
-    private final AtomicReference<StandardPinnablePage> freeList;
+    private final Queue<StandardPinnablePage> freeList;
     private final StandardPinnablePage[] pages;
     private final int pageSize;
     private final PageCacheMonitor monitor;
@@ -68,18 +70,26 @@ public class ClockSweepPageTable implements PageTable, Runnable
     private volatile IOException sweeperException;
 
     public ClockSweepPageTable( int maxPages, int pageSize, PageCacheMonitor monitor )
+    {
+        this( maxPages, pageSize, 1, monitor );
+    }
+
+    /**
+     * @param bufferAlignment alignment of the page memory, see
+     * {@link org.neo4j.io.pagecache.PageSwapperFactory#requiredBufferAlignment()}.
+     */
+    public ClockSweepPageTable( int maxPages, int pageSize, int bufferAlignment, PageCacheMonitor monitor )
     {
         this.pageSize = pageSize;
         this.monitor = monitor;
-        freeList = new AtomicReference<>();
+        freeList = new ConcurrentLinkedQueue<>();
         pages = new StandardPinnablePage[maxPages];
 
         for ( int i = 0; i < maxPages; i++ )
         {
-            StandardPinnablePage page = new StandardPinnablePage( pageSize );
+            StandardPinnablePage page = new StandardPinnablePage( pageSize, bufferAlignment );
             pages[i] = page;
-            page.next = freeList.get();
-            freeList.compareAndSet( page.next, page );
+            freeList.offer( page );
         }
     }
 
@@ -89,8 +99,7 @@ public class ClockSweepPageTable implements PageTable, Runnable
         StandardPinnablePage page = nextFreePage();
         if ( page.pin( null, UNBOUND_PAGE_ID, pf_flags ) )
         {
-            page.reset( io, pageId );
-            page.load();
+            page.load( io, pageId );
             monitor.pageFaulted(pageId, io);
         }
         else
@@ -105,17 +114,15 @@ public class ClockSweepPageTable implements PageTable, Runnable
     private StandardPinnablePage nextFreePage() throws IOException
     {
         StandardPinnablePage page;
-        do {
-            page = freeList.get();
-            if ( page == null )
+        while ( (page = freeList.poll()) == null )
+        {
+            if ( sweeperException != null )
             {
-                if ( sweeperException != null )
-                {
-                    throw new IOException( sweeperException );
-                }
-                LockSupport.unpark( sweeperThread );
+                throw new IOException( sweeperException );
             }
-        } while ( page == null || !freeList.compareAndSet( page, page.next ));
+            LockSupport.unpark( sweeperThread );
+            Thread.yield();
+        }
         return page;
     }
 
@@ -270,14 +277,20 @@ public class ClockSweepPageTable implements PageTable, Runnable
         long pageId = page.pageId();
         PageSwapper swapper = page.swapper();
 
-        page.flush( monitor );
-        page.setAllBytesToZero();
-        page.evicted();
-        page.reset( null, UNBOUND_PAGE_ID );
-        page.loaded = false;
-        do {
-            page.next = freeList.get();
-        } while ( !freeList.compareAndSet( page.next, page ) );
+        page.beginEviction();
+        try
+        {
+            page.flush( monitor );
+            page.setAllBytesToZero();
+            page.evicted();
+            page.reset( null, UNBOUND_PAGE_ID );
+            page.loaded = false;
+        }
+        finally
+        {
+            page.endEviction();
+        }
+        freeList.offer( page );
         monitor.evicted(pageId, swapper);
     }
 
@@ -287,7 +300,7 @@ public class ClockSweepPageTable implements PageTable, Runnable
         outerLoop: do
         {
             LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 10 ) );
-            if(Thread.currentThread().isInterrupted() || freeList.get() == null)
+            if(Thread.currentThread().isInterrupted() || freeList.isEmpty())
             {
                 return;
             }
@@ -298,7 +311,7 @@ public class ClockSweepPageTable implements PageTable, Runnable
                 if ( page.loaded )
                 {
                     loadedPages++;
-                    if( freeList.get() == null )
+                    if( freeList.isEmpty() )
                     {
                         // Bail out immediately if the free list is empty.
                         break outerLoop;
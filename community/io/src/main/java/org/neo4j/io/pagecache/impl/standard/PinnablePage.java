@@ -45,6 +45,22 @@ public interface PinnablePage extends Page
      */
     void unpin( int pf_flags );
 
+    /**
+     * Pin the given page for reading, without locking it. This neither blocks, nor blocks anyone else, and so the
+     * page can be written to or evicted while it is being read. Whatever is read is only consistent if
+     * {@link #validate(long)} returns true for the returned stamp once the reading is done.
+     *
+     * Returns a negative number if the page could not be pinned like this, either because it is currently pinned for
+     * writing or because it has been replaced.
+     */
+    long tryOptimisticPin( PageSwapper assertIO, long assertPageId, int pf_flags );
+
+    /**
+     * Returns true if the page has not been pinned for writing, or evicted, since the given stamp was handed out by
+     * {@link #tryOptimisticPin(PageSwapper, long, int)}.
+     */
+    boolean validate( long stamp );
+
     /**
      * The PageId that this page is <strong>currently</strong> pinned with.
      *
@@ -61,7 +61,8 @@ public class StandardPageCache implements RunnablePageCache
     {
         this.swapperFactory = swapperFactory;
         this.monitor = monitor;
-        this.table = new ClockSweepPageTable( maxPages, pageSize, monitor );
+        this.table = new ClockSweepPageTable(
+                maxPages, pageSize, swapperFactory.requiredBufferAlignment(), monitor );
     }
 
     @Override
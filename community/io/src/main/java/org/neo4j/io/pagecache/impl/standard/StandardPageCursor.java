@@ -29,6 +29,8 @@ public class StandardPageCursor extends OffsetTrackingCursor
     StandardPageCursor nextFree; // for the free-list chain
 
     private PageLock lockTypeHeld;
+    /** Stamp to validate reads against, if the page is pinned optimistically, otherwise negative. */
+    private long optimisticStamp = -1;
     private StandardPagedFile pagedFile;
     private long pageId;
     private long nextPageId;
@@ -56,11 +58,23 @@ public class StandardPageCursor extends OffsetTrackingCursor
     public int flags() { return pf_flags; }
 
     public void reset( PinnablePage page, PageLock lockTypeHeld )
+    {
+        reset( page, lockTypeHeld, -1 );
+    }
+
+    public void reset( PinnablePage page, PageLock lockTypeHeld, long optimisticStamp )
     {
         this.lockTypeHeld = lockTypeHeld;
+        this.optimisticStamp = optimisticStamp;
         super.reset( page );
     }
 
+    /** Whether the cursor has pinned its page for reading without locking it */
+    public boolean isOptimistic()
+    {
+        return optimisticStamp >= 0;
+    }
+
     public void assertNotInUse() throws IOException
     {
         if ( lockTypeHeld != null )
@@ -133,7 +147,7 @@ public class StandardPageCursor extends OffsetTrackingCursor
         nextPageId++;
         try
         {
-            pagedFile.pin( this, pf_flags, currentPageId );
+            pagedFile.pin( this, pf_flags, currentPageId, true );
         }
         catch ( IOException e )
         {
@@ -157,9 +171,26 @@ public class StandardPageCursor extends OffsetTrackingCursor
     }
 
     @Override
-    public boolean shouldRetry()
+    public boolean shouldRetry() throws IOException
     {
-        return false;
+        if ( !isOptimistic() || page().validate( optimisticStamp ) )
+        {
+            return false;
+        }
+
+        // The page was written to or evicted while we read it. Read it again, this time under a read lock, which
+        // makes sure that it stays the same until we're done with it.
+        unpinCurrentPage();
+        try
+        {
+            pagedFile.pin( this, pf_flags, currentPageId, false );
+        }
+        catch ( IOException e )
+        {
+            unpinCurrentPage();
+            throw e;
+        }
+        return true;
     }
 
     @Override
@@ -21,12 +21,14 @@ package org.neo4j.io.pagecache.impl.standard;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.collection.primitive.PrimitiveLongVisitor;
 import org.neo4j.io.pagecache.PageCacheMonitor;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -103,7 +105,11 @@ public class StandardPagedFile implements PagedFile
         return cursor;
     }
 
-    void pin( StandardPageCursor cursor, int pf_flags, long pageId ) throws IOException
+    /**
+     * Pin the given page to the cursor. Pages that are in memory are pinned for reading optimistically if allowed, in
+     * which case the cursor has to {@link PinnablePage#validate(long) validate} what it has read.
+     */
+    void pin( StandardPageCursor cursor, int pf_flags, long pageId, boolean optimistic ) throws IOException
     {
         cursor.assertNotInUse();
         PageLock lock = getLockType(pf_flags);
@@ -145,6 +151,17 @@ public class StandardPagedFile implements PagedFile
             {
                 // happy case where we have a page id
                 PinnablePage page = (PinnablePage) pageRef;
+                if ( optimistic && lock == PageLock.SHARED )
+                {
+                    long stamp = page.tryOptimisticPin( swapper, pageId, pf_flags );
+                    if ( stamp >= 0 )
+                    {
+                        cursor.reset( page, lock, stamp );
+                        monitor.pinned( false, pageId, swapper );
+                        return; // yay!
+                    }
+                    // Being written to or replaced, let the pessimistic pin below sort it out
+                }
                 if ( page.pin( swapper, pageId, pf_flags ) )
                 {
                     cursor.reset( page, lock );
@@ -160,8 +177,11 @@ public class StandardPagedFile implements PagedFile
     {
         PageLock lock = cursor.lockType();
         PinnablePage page = cursor.page();
-        long pageId = page.pageId();
-        page.unpin( cursor.flags() );
+        long pageId = cursor.getCurrentPageId();
+        if ( !cursor.isOptimistic() )
+        {
+            page.unpin( cursor.flags() );
+        }
         monitor.unpinned(lock == PageLock.EXCLUSIVE, pageId, swapper);
         cursor.reset( null, null );
     }
@@ -172,6 +192,18 @@ public class StandardPagedFile implements PagedFile
         return filePageSize;
     }
 
+    @Override
+    public void visitResidentPages( PrimitiveLongVisitor visitor )
+    {
+        for ( Map.Entry<Long, Object> entry : filePages.entrySet() )
+        {
+            if ( entry.getValue() instanceof PinnablePage )
+            {
+                visitor.visited( entry.getKey() );
+            }
+        }
+    }
+
     public int numberOfCachedPages()
     {
         return filePages.size();
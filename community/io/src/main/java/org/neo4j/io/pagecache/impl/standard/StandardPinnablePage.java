@@ -20,13 +20,19 @@
 package org.neo4j.io.pagecache.impl.standard;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.neo4j.io.pagecache.PageCacheMonitor;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.DirectIO;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EXCLUSIVE_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_LOCK;
@@ -35,21 +41,37 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
 {
     static final byte MAX_USAGE_COUNT = 5;
 
-    /** Used when the page is part of the free-list, points to next free page */
-    public volatile StandardPinnablePage next;
+    private static final AtomicLongFieldUpdater<StandardPinnablePage> SEQUENCE =
+            AtomicLongFieldUpdater.newUpdater( StandardPinnablePage.class, "sequence" );
+    /** Unsafe.loadFence(), bound to the Unsafe instance, or null if the JVM doesn't have it, like Java 7. */
+    private static final MethodHandle LOAD_FENCE = lookUpLoadFence();
+
     public volatile byte usageStamp;
     public volatile boolean loaded = false;
 
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Incremented when the page is exclusively locked, and again when it is unlocked, which makes it odd for as long
+     * as the page is exclusively locked, or is being evicted or loaded. Optimistic readers validate their reads
+     * against this. Only ever written to by the holder of the exclusive lock, or the thread loading the page.
+     */
+    private volatile long sequence;
     private PageSwapper swapper;
     private long pageId = PageCursor.UNBOUND_PAGE_ID;
     private boolean dirty;
     private int pageSize;
+    private final int bufferAlignment;
 
     public StandardPinnablePage( int pageSize )
+    {
+        this( pageSize, 1 );
+    }
+
+    public StandardPinnablePage( int pageSize, int bufferAlignment )
     {
         super( null );
         this.pageSize = pageSize;
+        this.bufferAlignment = bufferAlignment;
         dirty = false;
     }
 
@@ -60,12 +82,7 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
 
         if( verifyPageBindings( assertSwapper, assertPageId ) )
         {
-            byte stamp = usageStamp;
-            if ( stamp < MAX_USAGE_COUNT && (pf_flags & PagedFile.PF_TRANSIENT) == 0)
-            {
-                // Racy, but we don't care
-                usageStamp = (byte) (stamp + 1);
-            }
+            markUsed( pf_flags );
             return true;
         }
         else
@@ -75,6 +92,65 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
         return false;
     }
 
+    @Override
+    public long tryOptimisticPin( PageSwapper assertSwapper, long assertPageId, int pf_flags )
+    {
+        long stamp = sequence;
+        if ( (stamp & 1) == 0 && verifyPageBindings( assertSwapper, assertPageId ) && validate( stamp ) )
+        {
+            markUsed( pf_flags );
+            return stamp;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean validate( long stamp )
+    {
+        // The reads being validated are plain reads, which a volatile read of the sequence doesn't keep from being
+        // reordered after it. A load fence does, as in StampedLock. Without one, a compare-and-set that leaves the
+        // sequence as it is has the same effect, at the cost of writing to the cache line of the page.
+        if ( LOAD_FENCE == null )
+        {
+            return SEQUENCE.compareAndSet( this, stamp, stamp );
+        }
+        try
+        {
+            LOAD_FENCE.invokeExact();
+        }
+        catch ( Throwable e )
+        {
+            throw new LinkageError( "Unable to fence loads", e );
+        }
+        return sequence == stamp;
+    }
+
+    private static MethodHandle lookUpLoadFence()
+    {
+        try
+        {
+            Field theUnsafe = Class.forName( "sun.misc.Unsafe" ).getDeclaredField( "theUnsafe" );
+            theUnsafe.setAccessible( true );
+            Object unsafe = theUnsafe.get( null );
+            return MethodHandles.lookup().findVirtual(
+                    unsafe.getClass(), "loadFence", MethodType.methodType( void.class ) ).bindTo( unsafe );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
+    private void markUsed( int pf_flags )
+    {
+        byte stamp = usageStamp;
+        if ( stamp < MAX_USAGE_COUNT && (pf_flags & PagedFile.PF_TRANSIENT) == 0)
+        {
+            // Racy, but we don't care
+            usageStamp = (byte) (stamp + 1);
+        }
+    }
+
     @Override
     public void unpin( int pf_flags)
     {
@@ -87,6 +163,7 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
         {
             case PF_EXCLUSIVE_LOCK:
                 lock.writeLock().lock();
+                sequence++;
                 dirty = true;
                 return;
             case PF_SHARED_LOCK:
@@ -104,6 +181,7 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
         switch ( pf_flags & (PF_EXCLUSIVE_LOCK | PF_SHARED_LOCK) )
         {
             case PF_EXCLUSIVE_LOCK:
+                sequence++;
                 this.lock.writeLock().unlock();
                 return;
             case PF_SHARED_LOCK:
@@ -118,7 +196,7 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
 
     /**
      * Must be called while holding either a SHARED or an EXCLUSIVE lock, in order to prevent
-     * racing with eviction.
+     * racing with eviction, or be validated against an optimistic stamp afterwards.
      */
     private boolean verifyPageBindings( PageSwapper assertSwapper, long assertPageId )
     {
@@ -142,7 +220,9 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
         {
             try
             {
-                buffer = ByteBuffer.allocateDirect( pageSize );
+                buffer = bufferAlignment > 1 ?
+                        DirectIO.allocateAligned( pageSize, bufferAlignment ) :
+                        ByteBuffer.allocateDirect( pageSize );
             }
             catch( OutOfMemoryError e )
             {
@@ -175,6 +255,26 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
         lock.writeLock().unlock();
     }
 
+    /**
+     * Must be called under the lock from {@link #tryExclusiveLock()}, before evicting the page. Taking that lock
+     * alone doesn't stop optimistic readers, since the page table takes it for house keeping that doesn't change
+     * the page.
+     */
+    void beginEviction()
+    {
+        assertLocked();
+        sequence++;
+    }
+
+    /**
+     * Must be call under lock, once the page has been evicted
+     */
+    void endEviction()
+    {
+        assertLocked();
+        sequence++;
+    }
+
     /**
      * Must be call under lock
      */
@@ -191,14 +291,25 @@ public class StandardPinnablePage extends ByteBufferPage implements PinnablePage
     }
 
     /**
-     * Must be call under lock
+     * Must be call under lock, on a page taken from the free list. Binds the page to the given file page and reads
+     * it in. The page is bound before its contents are read, so the sequence is kept odd meanwhile, to stop
+     * optimistic readers that still hold on to this page from an earlier binding to the same file page.
      */
-    void load() throws IOException
+    void load( PageSwapper swapper, long pageId ) throws IOException
     {
         assertLocked();
-        buffer();
-        swapper.read( pageId, this );
-        loaded = true;
+        sequence++;
+        try
+        {
+            reset( swapper, pageId );
+            buffer();
+            swapper.read( pageId, this );
+            loaded = true;
+        }
+        finally
+        {
+            sequence++;
+        }
     }
 
     /**
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CountingPageCacheMonitorTest
+{
+    private final PageSwapper relationships = new SingleFilePageSwapper( new File( "relationships" ), null, 100, null );
+    private final PageSwapper strings = new SingleFilePageSwapper( new File( "strings" ), null, 10, null );
+
+    @Test
+    public void shouldCountEventsPerMappedFile() throws Exception
+    {
+        // GIVEN
+        CountingPageCacheMonitor monitor = new CountingPageCacheMonitor();
+
+        // WHEN
+        monitor.pageFaulted( 1, relationships );
+        monitor.pinned( false, 1, relationships );
+        monitor.unpinned( false, 1, relationships );
+        monitor.pinned( true, 1, relationships );
+        monitor.unpinned( true, 1, relationships );
+        monitor.flushed( 1, relationships );
+        monitor.evicted( 1, relationships );
+        monitor.pageFaulted( 7, strings );
+        monitor.pageFaulted( 8, strings );
+
+        // THEN
+        PagedFileStatistics relationshipStatistics = monitor.fileStatistics( "relationships" );
+        assertEquals( 1, relationshipStatistics.countFaults() );
+        assertEquals( 1, relationshipStatistics.countHits() );
+        assertEquals( 1, relationshipStatistics.countEvictions() );
+        assertEquals( 1, relationshipStatistics.countFlushes() );
+        assertEquals( 100, relationshipStatistics.bytesRead() );
+        assertEquals( 100, relationshipStatistics.bytesWritten() );
+        assertEquals( 2, sum( relationshipStatistics.pinDurationHistogram() ) );
+
+        PagedFileStatistics stringStatistics = monitor.fileStatistics( "strings" );
+        assertEquals( 2, stringStatistics.countFaults() );
+        assertEquals( 20, stringStatistics.bytesRead() );
+        assertEquals( 0, stringStatistics.bytesWritten() );
+
+        assertEquals( 3, monitor.countFaults() );
+        assertEquals( 2, monitor.fileStatistics().size() );
+        assertNull( monitor.fileStatistics( "nodes" ) );
+    }
+
+    @Test
+    public void shouldMatchUnpinsWithPinsOfTheSamePage() throws Exception
+    {
+        // GIVEN
+        CountingPageCacheMonitor monitor = new CountingPageCacheMonitor();
+        monitor.pinned( false, 1, relationships );
+        monitor.pinned( false, 1, strings );
+        monitor.pinned( false, 2, relationships );
+
+        // WHEN
+        monitor.unpinned( false, 1, strings );
+        monitor.unpinned( false, 3, relationships );
+
+        // THEN
+        assertEquals( 1, sum( monitor.fileStatistics( "strings" ).pinDurationHistogram() ) );
+        assertEquals( 0, sum( monitor.fileStatistics( "relationships" ).pinDurationHistogram() ) );
+        assertEquals( 2, monitor.countUnpins() );
+    }
+
+    @Test
+    public void shouldBucketPinDurationsByPowersOfTwo() throws Exception
+    {
+        assertEquals( 0, PagedFileStatistics.pinDurationBucket( 0 ) );
+        assertEquals( 0, PagedFileStatistics.pinDurationBucket( 1 ) );
+        assertEquals( 1, PagedFileStatistics.pinDurationBucket( 3 ) );
+        assertEquals( 10, PagedFileStatistics.pinDurationBucket( 1024 ) );
+        assertEquals( PagedFileStatistics.PIN_DURATION_BUCKETS - 1,
+                PagedFileStatistics.pinDurationBucket( Long.MAX_VALUE ) );
+    }
+
+    private long sum( long[] histogram )
+    {
+        long sum = 0;
+        for ( long count : histogram )
+        {
+            sum += count;
+        }
+        return sum;
+    }
+}
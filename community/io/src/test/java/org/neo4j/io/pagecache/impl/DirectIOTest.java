@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.impl.standard.ByteBufferPage;
+import org.neo4j.test.TargetDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import static org.neo4j.test.ByteArrayMatcher.byteArray;
+
+public class DirectIOTest
+{
+    private static final int PAGE_SIZE = DirectIO.BLOCK_SIZE * 2;
+    private static final int RECORD_PAGE_SIZE = PAGE_SIZE - PAGE_SIZE % 15; // As for the node store
+
+    @Rule
+    public final TargetDirectory.TestDirectory testdir = TargetDirectory.testDirForTest( DirectIOTest.class );
+
+    private final FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+    private final SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory( fs, true,
+            SingleFilePageSwapperFactory.Monitor.NULL );
+    private File file;
+
+    @Before
+    public void setUp()
+    {
+        file = new File( testdir.directory(), "file" );
+    }
+
+    @Test
+    public void shouldAllocateBuffersOfTheRequestedSize() throws Exception
+    {
+        ByteBuffer buffer = DirectIO.allocateAligned( PAGE_SIZE, DirectIO.BLOCK_SIZE );
+
+        assertEquals( PAGE_SIZE, buffer.capacity() );
+        assertEquals( PAGE_SIZE, buffer.remaining() );
+    }
+
+    @Test
+    public void shouldOpenFilesForDirectIOWhereSupported() throws Exception
+    {
+        assumeTrue( DirectIO.isSupported() );
+        try
+        {
+            DirectIO.open( file ).close();
+        }
+        catch ( IOException e )
+        {
+            assumeTrue( false ); // The file system of the test directory doesn't support direct I/O
+        }
+    }
+
+    @Test
+    public void swappedOutPagesMustBeSwappedInAgain() throws Exception
+    {
+        // GIVEN
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, null );
+        ByteBufferPage page = newPage();
+        for ( int i = 0; i < PAGE_SIZE; i++ )
+        {
+            page.putByte( (byte) i, i );
+        }
+
+        // WHEN
+        swapper.write( 1, page );
+        ByteBufferPage readPage = newPage();
+        swapper.read( 1, readPage );
+        swapper.close();
+
+        // THEN
+        assertThat( bytesOf( readPage ), byteArray( bytesOf( page ) ) );
+        assertEquals( PAGE_SIZE * 2, fs.getFileSize( file ) );
+    }
+
+    @Test
+    public void mustZeroFillPageBeyondEndOfFileThatIsNotAligned() throws Exception
+    {
+        // GIVEN a file that ends a little way into its second page
+        byte[] bytes = new byte[PAGE_SIZE + 100];
+        Arrays.fill( bytes, (byte) 7 );
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( bytes ) );
+        }
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, null );
+
+        // WHEN
+        ByteBufferPage page = newPage();
+        swapper.read( 1, page );
+        swapper.close();
+
+        // THEN
+        byte[] expected = new byte[PAGE_SIZE];
+        Arrays.fill( expected, 0, 100, (byte) 7 );
+        assertThat( bytesOf( page ), byteArray( expected ) );
+    }
+
+    @Test
+    public void pagesThatAreNotAlignedMustNotOverwriteTheirNeighbours() throws Exception
+    {
+        // GIVEN pages that share blocks with their neighbours, written out of order and past the end of the file
+        PageSwapper swapper = factory.createPageSwapper( file, RECORD_PAGE_SIZE, null );
+        ByteBufferPage[] pages = new ByteBufferPage[4];
+        for ( int pageId = 0; pageId < pages.length; pageId++ )
+        {
+            pages[pageId] = newPage( RECORD_PAGE_SIZE );
+            for ( int i = 0; i < RECORD_PAGE_SIZE; i++ )
+            {
+                pages[pageId].putByte( (byte) (i + pageId), i );
+            }
+        }
+
+        // WHEN
+        swapper.write( 2, pages[2] );
+        swapper.write( 0, pages[0] );
+        swapper.write( 3, pages[3] );
+        swapper.write( 1, pages[1] );
+
+        // THEN
+        for ( int pageId = 0; pageId < pages.length; pageId++ )
+        {
+            ByteBufferPage readPage = newPage( RECORD_PAGE_SIZE );
+            swapper.read( pageId, readPage );
+            assertThat( bytesOf( readPage, RECORD_PAGE_SIZE ),
+                    byteArray( bytesOf( pages[pageId], RECORD_PAGE_SIZE ) ) );
+        }
+        swapper.close();
+        assertEquals( RECORD_PAGE_SIZE * pages.length, fs.getFileSize( file ) );
+    }
+
+    private ByteBufferPage newPage()
+    {
+        return newPage( PAGE_SIZE );
+    }
+
+    private ByteBufferPage newPage( int pageSize )
+    {
+        return new ByteBufferPage( DirectIO.allocateAligned( pageSize, factory.requiredBufferAlignment() ) );
+    }
+
+    private byte[] bytesOf( ByteBufferPage page )
+    {
+        return bytesOf( page, PAGE_SIZE );
+    }
+
+    private byte[] bytesOf( ByteBufferPage page, int pageSize )
+    {
+        byte[] bytes = new byte[pageSize];
+        page.getBytes( bytes, 0 );
+        return bytes;
+    }
+}
@@ -317,6 +317,74 @@ public class ClockSweepPageTableTest
         pinForExclusive.join();
     }
 
+    @Test( timeout = 1000 )
+    public void optimistic_readers_must_not_validate_against_page_being_reloaded() throws Exception
+    {
+        // If we have a page that an optimistic reader holds on to ...
+        final CountDownLatch reading = new CountDownLatch( 1 );
+        final CountDownLatch finishReading = new CountDownLatch( 1 );
+        final AtomicBoolean blockReads = new AtomicBoolean();
+        final BufferPageSwapper io = new BufferPageSwapper( bytesA )
+        {
+            @Override
+            public void read( long filePageId, Page page ) throws IOException
+            {
+                if ( blockReads.get() )
+                {
+                    reading.countDown();
+                    try
+                    {
+                        finishReading.await();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        throw new IOException( e );
+                    }
+                }
+                super.read( filePageId, page );
+            }
+        };
+        final long pageId = 12;
+        PinnablePage page = table.load( io, pageId, PagedFile.PF_SHARED_LOCK );
+        monitor.observe( Fault.class );
+        page.unpin( PagedFile.PF_SHARED_LOCK );
+
+        // ... which then gets evicted
+        monitor.observe( Evict.class );
+
+        // ... and loaded again for the same file page
+        blockReads.set( true );
+        Thread loader = fork( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    table.load( io, pageId, PagedFile.PF_SHARED_LOCK ).unpin( PagedFile.PF_SHARED_LOCK );
+                }
+                catch ( IOException e )
+                {
+                    e.printStackTrace();
+                }
+            }
+        } );
+        reading.await();
+
+        // ... then the optimistic reader must not get a stamp while the page is still being read in
+        assertThat( page.tryOptimisticPin( io, pageId, PagedFile.PF_SHARED_LOCK ), is( -1L ) );
+
+        // ... but can once the page is loaded
+        finishReading.countDown();
+        loader.join();
+        long stamp = page.tryOptimisticPin( io, pageId, PagedFile.PF_SHARED_LOCK );
+        assertTrue( stamp != -1 );
+        byte[] actual = new byte[bytesA.length];
+        page.getBytes( actual, 0 );
+        assertTrue( page.validate( stamp ) );
+        assertThat( actual, equalTo( bytesA ) );
+    }
+
     @Test
     public void flushing_pages_with_specific_pageio_must_not_race_with_eviction() throws Exception
     {
@@ -390,8 +458,10 @@ public class ClockSweepPageTableTest
                 @Override
                 public int read( ByteBuffer dst, long position ) throws IOException
                 {
+                    ByteBuffer contents = buffer.duplicate();
+                    contents.position( 0 );
                     dst.position( 0 );
-                    dst.put( buffer );
+                    dst.put( contents );
                     return buffer.limit();
                 }
 
@@ -428,6 +498,12 @@ public class ClockSweepPageTableTest
             return buffer.toString();
         }
 
+        @Override
+        public int filePageSize()
+        {
+            return buffer.limit();
+        }
+
         @Override
         public void close() throws IOException
         {
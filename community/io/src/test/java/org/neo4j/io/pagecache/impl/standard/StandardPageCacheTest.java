@@ -20,10 +20,13 @@
 package org.neo4j.io.pagecache.impl.standard;
 
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.CountingPageCacheMonitor;
 import org.neo4j.io.pagecache.PageCacheMonitor;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
@@ -32,7 +35,12 @@ import org.neo4j.io.pagecache.PagedFile;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_EXCLUSIVE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_LOCK;
 
 public class StandardPageCacheTest extends PageCacheTest<StandardPageCache>
 {
@@ -77,4 +85,121 @@ public class StandardPageCacheTest extends PageCacheTest<StandardPageCache>
                 allOf( greaterThanOrEqualTo( pagesKeptInUse ), lessThanOrEqualTo( pagesInCache ) ) );
         cache.unmap( file );
     }
+
+    @Test( timeout = 10000 )
+    public void optimisticReadMustBeRetriedUnderReadLockWhenRacingWithExclusiveWriter() throws Exception
+    {
+        // Given
+        StandardPageCache cache = getPageCache( fs, maxPages, pageCachePageSize, PageCacheMonitor.NULL );
+        final PagedFile pagedFile = cache.map( file, pageCachePageSize );
+        writeLong( pagedFile, 0, 1 );
+
+        try ( PageCursor reader = pagedFile.io( 0, PF_SHARED_LOCK ) )
+        {
+            assertTrue( reader.next() );
+            assertTrue( ((StandardPageCursor) reader).isOptimistic() );
+            assertThat( reader.getLong(), is( 1L ) );
+
+            // When a writer changes the page while it is being read, which it doesn't have to wait for
+            executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws IOException
+                {
+                    writeLong( pagedFile, 0, 2 );
+                    return null;
+                }
+            } ).get( 5, TimeUnit.SECONDS );
+
+            // Then the read must be retried, under a read lock
+            assertTrue( reader.shouldRetry() );
+            assertFalse( ((StandardPageCursor) reader).isOptimistic() );
+            reader.setOffset( 0 );
+            assertThat( reader.getLong(), is( 2L ) );
+            assertFalse( reader.shouldRetry() );
+        }
+        cache.unmap( file );
+    }
+
+    @Test( timeout = 30000 )
+    public void optimisticReadMustBeRetriedUnderReadLockWhenRacingWithEviction() throws Exception
+    {
+        // Given
+        StandardPageCache cache = getPageCache( fs, maxPages, pageCachePageSize, PageCacheMonitor.NULL );
+        PagedFile pagedFile = cache.map( file, pageCachePageSize );
+        writeLong( pagedFile, 0, 1 );
+
+        try ( PageCursor reader = pagedFile.io( 0, PF_SHARED_LOCK ) )
+        {
+            assertTrue( reader.next() );
+            assertTrue( ((StandardPageCursor) reader).isOptimistic() );
+            PinnablePage page = ((StandardPageCursor) reader).page();
+
+            // When the page is evicted while it is being read, which eviction doesn't have to wait for
+            for ( long pageId = 1; page.pageId() == 0; pageId = pageId % (maxPages * 2) + 1 )
+            {
+                writeLong( pagedFile, pageId, pageId );
+            }
+            reader.getLong();
+
+            // Then the read must be retried, under a read lock on the page faulted back in
+            assertTrue( reader.shouldRetry() );
+            assertFalse( ((StandardPageCursor) reader).isOptimistic() );
+            reader.setOffset( 0 );
+            assertThat( reader.getLong(), is( 1L ) );
+            assertFalse( reader.shouldRetry() );
+        }
+        cache.unmap( file );
+    }
+
+    @Test( timeout = 10000 )
+    public void optimisticCursorsMustBalancePinsAndUnpinsWithoutHoldingLocks() throws Exception
+    {
+        // Given
+        CountingPageCacheMonitor monitor = new CountingPageCacheMonitor();
+        StandardPageCache cache = getPageCache( fs, maxPages, pageCachePageSize, monitor );
+        final PagedFile pagedFile = cache.map( file, pageCachePageSize );
+        writeLong( pagedFile, 0, 1 );
+
+        // When reading optimistically, once with and once without a retry under a read lock
+        for ( int i = 0; i < 2; i++ )
+        {
+            try ( PageCursor reader = pagedFile.io( 0, PF_SHARED_LOCK ) )
+            {
+                assertTrue( reader.next() );
+                assertTrue( ((StandardPageCursor) reader).isOptimistic() );
+                reader.getLong();
+                if ( i == 0 )
+                {
+                    writeLong( pagedFile, 0, 2 );
+                    assertTrue( reader.shouldRetry() );
+                    reader.getLong();
+                }
+                assertFalse( reader.shouldRetry() );
+            }
+        }
+
+        // Then every pin has been matched by an unpin, and no lock is left on the page
+        assertThat( monitor.countUnpins(), is( monitor.countPins() ) );
+        assertThat( monitor.countReleasedSharedLocks(), is( monitor.countTakenSharedLocks() ) );
+        executor.submit( new Callable<Void>()
+        {
+            @Override
+            public Void call() throws IOException
+            {
+                writeLong( pagedFile, 0, 3 );
+                return null;
+            }
+        } ).get( 5, TimeUnit.SECONDS );
+        cache.unmap( file );
+    }
+
+    private void writeLong( PagedFile pagedFile, long pageId, long value ) throws IOException
+    {
+        try ( PageCursor writer = pagedFile.io( pageId, PF_EXCLUSIVE_LOCK ) )
+        {
+            assertTrue( writer.next() );
+            writer.putLong( value );
+        }
+    }
 }
@@ -57,6 +57,12 @@ public class StandardPagedFileTest
         {
             return swapper;
         }
+
+        @Override
+        public int requiredBufferAlignment()
+        {
+            return 1;
+        }
     };
 
     @Test
@@ -37,6 +37,7 @@ import org.neo4j.kernel.impl.cache.MonitorGc;
 import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.BYTES;
+import static org.neo4j.helpers.Settings.DURATION;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.INTEGER;
 import static org.neo4j.helpers.Settings.NO_DEFAULT;
@@ -103,6 +104,20 @@ public abstract class GraphDatabaseSettings
             "value to false will cause Neo4j to fail LOAD CSV queries that import data from the file system")
     public static Setting<Boolean> allow_file_urls = setting( "allow_file_urls", BOOLEAN, TRUE );
 
+    @Description("Determines if Cypher compiles the expressions of filters and projections into specialised " +
+            "evaluators when planning a query. Setting this value to false makes Cypher interpret all expressions.")
+    public static Setting<Boolean> cypher_compiled_expressions = setting( "cypher_compiled_expressions", BOOLEAN, TRUE );
+
+    @Description("The number of pattern relationships the cost based Cypher planner plans exhaustively, by dynamic " +
+            "programming, before planning the rest of a pattern greedily. The default, 0, plans patterns greedily only.")
+    public static Setting<Integer> cypher_dynamic_programming_limit = setting( "cypher_dynamic_programming_limit",
+            INTEGER, "0", min( 0 ) );
+
+    @Description("Set this to specify whether read-only Cypher queries that aggregate over all nodes or the nodes of " +
+            "a label may split the scan and aggregate the parts in parallel. Setting this value to false makes " +
+            "Cypher aggregate on the thread running the query only.")
+    public static Setting<Boolean> cypher_parallel_aggregation = setting( "cypher_parallel_aggregation", BOOLEAN, TRUE );
+
     // Store files
     @Description("The directory where the database files are located.")
     public static final Setting<File> store_dir = setting("store_dir", PATH, NO_DEFAULT );
@@ -144,6 +159,12 @@ public abstract class GraphDatabaseSettings
             "Relationships only.")
     public static final Setting<String> relationship_keys_indexable = setting("relationship_keys_indexable", STRING, NO_DEFAULT, illegalValueMessage( "Must be a comma-separated list of keys to be indexed", matches( ANY ) ) );
 
+    @Description("How often the values in schema indexes are sampled in the background, to give the Cypher " +
+            "planner estimates of how selective index lookups are. Sampling an index reads all of its values, but " +
+            "indexes that haven't changed since they were last sampled are skipped. 0 disables background sampling.")
+    public static final Setting<Long> index_sampling_interval = setting( "index_sampling_interval", DURATION, "60m",
+            min( 0L ) );
+
     // Lucene settings
     @Description("Integer value that sets the maximum number of open lucene index searchers.")
     public static Setting<Integer> lucene_searcher_cache_size = setting("lucene_searcher_cache_size",INTEGER, Integer.toString( Integer.MAX_VALUE ), min( 1 ));
@@ -166,10 +187,22 @@ public abstract class GraphDatabaseSettings
                   "Default is 25M" )
     public static final Setting<Long> logical_log_rotation_threshold = setting( "logical_log_rotation_threshold", BYTES, "25M" );
 
+    @Description( "Whether or not to preallocate logical logs up to the rotation threshold when they are created, " +
+                  "and to reuse a pruned logical log for the next one instead of deleting it. Appending to a " +
+                  "preallocated log doesn't change its size, which makes forcing it to disk cheaper on many " +
+                  "file systems." )
+    public static final Setting<Boolean> logical_log_preallocation = setting( "logical_log_preallocation", BOOLEAN, FALSE );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     public static final Setting<Boolean> rebuild_idgenerators_fast = setting("rebuild_idgenerators_fast", BOOLEAN, TRUE );
 
+    @Description("Number of threads to use for applying transactions recovered from the logical log after an " +
+            "unclean shutdown. With more than one thread, consecutive transactions that only change nodes, " +
+            "relationships and properties are applied in batches, where the record changes are spread over the " +
+            "threads by store page. 1 means that transactions are recovered one at a time.")
+    public static final Setting<Integer> recovery_threads = setting( "recovery_threads", INTEGER, "1", min( 1 ) );
+
     // NeoStore memory settings
     /**
      * @deprecated This configuration has been obsoleted. Neo4j no longer relies on the memory-mapping capabilities of the operating system.
@@ -191,6 +224,20 @@ public abstract class GraphDatabaseSettings
             " that less than 2GB of memory is free when it starts.")
     public static final Setting<Long> mapped_memory_total_size = setting("mapped_memory_total_size", directMemoryUsage(), "50%" );
 
+    @Description("Whether to read and write store files directly, rather than through the file cache of the " +
+            "operating system, so that the pages in mapped memory aren't cached twice. This requires a file system " +
+            "that supports direct I/O, and Java 10 or later, with the java.nio package open to Neo4j; on older " +
+            "JVMs a warning is logged and the setting has no effect. Direct I/O reads and writes whole 4096 " +
+            "byte blocks, so writing a page of a record store also reads the blocks it shares with its " +
+            "neighbouring pages.")
+    public static final Setting<Boolean> mapped_memory_direct_io = setting( "mapped_memory_direct_io", BOOLEAN, FALSE );
+
+    @Description("How often to record which pages of the store files are in mapped memory. The pages recorded last " +
+            "are loaded back into mapped memory in the background when the database starts, so that it doesn't " +
+            "start out cold. 0 disables both recording and loading.")
+    public static final Setting<Long> mapped_memory_warmup_profiling_interval = setting(
+            "mapped_memory_warmup_profiling_interval", DURATION, "1m", min( 0L ) );
+
     @Description("Tell Neo4j to regularly log memory mapping statistics.")
     public static final Setting<Boolean> log_mapped_memory_stats = setting("log_mapped_memory_stats", BOOLEAN, FALSE );
 
@@ -274,6 +321,13 @@ public abstract class GraphDatabaseSettings
             "i.e., 8 bytes.")
     public static final Setting<Integer> label_block_size = setting("label_block_size", INTEGER, "60",min(1));
 
+    @Description("Compress string and integer array property values that are too big to be inlined in the property " +
+            "store before writing them to the dynamic string and array stores. Strings are deflated and integer " +
+            "arrays are stored as deltas between consecutive items. Values are only compressed if that makes them " +
+            "smaller. Existing values are readable either way, but a store with compressed values can not be read " +
+            "by versions of Neo4j without support for them.")
+    public static final Setting<Boolean> compress_property_values = setting("compress_property_values", BOOLEAN, FALSE );
+
     @Description("An identifier that uniquely identifies this graph database instance within this JVM. " +
             "Defaults to an auto-generated number depending on how many instance are started in this JVM.")
     public static final Setting<String> forced_kernel_id = setting("forced_kernel_id", STRING, NO_DEFAULT, illegalValueMessage( "invalid kernel identifier", matches( "[a-zA-Z0-9]*" ) ));
@@ -21,6 +21,7 @@ package org.neo4j.kernel;
 
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
 
 /**
@@ -37,6 +38,14 @@ public interface GraphDatabaseAPI extends GraphDatabaseService
      */
     DependencyResolver getDependencyResolver();
 
+    /**
+     * Starts a transaction that can only read. It is cheaper to begin and finish than one from {@link #beginTx()},
+     * see {@link org.neo4j.kernel.api.KernelAPI#newReadOnlyTransaction()}. Attempts to write in it fail.
+     * If there already is a transaction for the current thread, that transaction is joined, just like
+     * {@link #beginTx()} does.
+     */
+    Transaction beginReadOnlyTx();
+
     /** Provides the unique id assigned to this database. */
     StoreId storeId();
 
@@ -20,6 +20,7 @@
 package org.neo4j.kernel;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -64,6 +65,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.CountingPageCacheMonitor;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheMonitor;
+import org.neo4j.io.pagecache.impl.DirectIO;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -147,6 +149,7 @@ import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.pagecache.LifecycledPageCache;
 import org.neo4j.kernel.impl.pagecache.PageCacheFactory;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.pagecache.StandardPageCacheFactory;
 import org.neo4j.kernel.impl.storemigration.ConfigMapUpgradeConfiguration;
 import org.neo4j.kernel.impl.storemigration.StoreMigrator;
@@ -469,6 +472,11 @@ public abstract class InternalAbstractGraphDatabase
         // Anyways please fix this.
         dataSourceManager = life.add( new DataSourceManager() );
 
+        // Started after, and stopped before, the data source, so that it sees the store files mapped
+        life.add( new PageCacheWarmer( pageCache, fileSystem, storeDir, jobScheduler,
+                config.get( GraphDatabaseSettings.mapped_memory_warmup_profiling_interval ),
+                logging.getMessagesLog( PageCacheWarmer.class ) ) );
+
         createTxHook();
 
         guard = config.get( Configuration.execution_guard_enabled ) ? new Guard( msgLog ) : null;
@@ -670,7 +678,24 @@ public abstract class InternalAbstractGraphDatabase
             }
         }
 
-        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory( fileSystem );
+        boolean directIO = config.get( GraphDatabaseSettings.mapped_memory_direct_io );
+        final StringLogger pageCacheLog = logging.getMessagesLog( PageCache.class );
+        if ( directIO && !DirectIO.isSupported() )
+        {
+            pageCacheLog.warn( GraphDatabaseSettings.mapped_memory_direct_io.name() + " is enabled, but this JVM " +
+                    "doesn't support direct I/O, which requires Java 10 or later, with the java.nio package open to " +
+                    "Neo4j. Store files will be read and written through the file cache of the operating system." );
+        }
+        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory( fileSystem, directIO,
+                new SingleFilePageSwapperFactory.Monitor()
+                {
+                    @Override
+                    public void directIOFailed( File file, IOException cause )
+                    {
+                        pageCacheLog.warn( "Unable to open " + file + " for direct I/O, so it will be read and " +
+                                "written through the file cache of the operating system", cause );
+                    }
+                } );
         LifecycledPageCache lifecycledPageCache = new LifecycledPageCache(
                 factory, swapperFactory, jobScheduler, config, pageCacheMonitor );
 
@@ -900,6 +925,17 @@ public abstract class InternalAbstractGraphDatabase
 
     @Override
     public Transaction beginTx()
+    {
+        return beginTx( false );
+    }
+
+    @Override
+    public Transaction beginReadOnlyTx()
+    {
+        return beginTx( true );
+    }
+
+    private Transaction beginTx( boolean readOnly )
     {
         availabilityGuard.checkAvailability( accessTimeout, TransactionFailureException.class );
 
@@ -913,7 +949,7 @@ public abstract class InternalAbstractGraphDatabase
 
         try
         {
-            KernelTransaction transaction = kernel.newTransaction();
+            KernelTransaction transaction = readOnly ? kernel.newReadOnlyTransaction() : kernel.newTransaction();
             topLevelTransaction = new TopLevelTransaction( transaction, threadToTransactionBridge );
             threadToTransactionBridge.bindTransactionToCurrentThread( topLevelTransaction );
             return topLevelTransaction;
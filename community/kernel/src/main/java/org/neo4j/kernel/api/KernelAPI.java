@@ -39,6 +39,14 @@ public interface KernelAPI
      */
     KernelTransaction newTransaction() throws TransactionFailureException;
 
+    /**
+     * Creates and returns a new {@link KernelTransaction} that can only read the underlying graph. It skips
+     * the layers that only writes need and never keeps any transaction state, which makes it cheaper
+     * to start, use and close than one from {@link #newTransaction()}. Attempts to write in it will fail
+     * with an {@link org.neo4j.kernel.api.exceptions.InvalidTransactionTypeKernelException}.
+     */
+    KernelTransaction newReadOnlyTransaction() throws TransactionFailureException;
+
     /**
      * Registers a {@link TransactionHook} that will receive notifications about committing transactions
      * and the changes they commit.
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.api;
 
+import org.neo4j.kernel.impl.locking.LockBatch;
+
 import static org.neo4j.kernel.impl.locking.Locks.ResourceType;
 
 public interface Locking
@@ -26,6 +28,11 @@ public interface Locking
     void acquireExclusive( ResourceType type, long ... id );
     void acquireShared(    ResourceType type, long ... id );
 
+    /** Acquire all exclusive locks in the batch at once, see {@link LockBatch}. */
+    void acquireExclusive( LockBatch batch );
+    /** Acquire all shared locks in the batch at once, see {@link LockBatch}. */
+    void acquireShared(    LockBatch batch );
+
     void releaseExclusive( ResourceType type, long ... id );
     void releaseShared(    ResourceType type, long ... id );
 }
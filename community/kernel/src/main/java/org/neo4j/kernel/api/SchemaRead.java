@@ -26,6 +26,7 @@ import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 
 interface SchemaRead
 {
@@ -55,6 +56,9 @@ interface SchemaRead
     /** Returns the failure description of a failed index. */
     String indexGetFailure( IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
 
+    /** Returns the last sample of the values in an index, or {@code null} if the index hasn't been sampled. */
+    IndexSample indexGetSample( IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
+
     /**
      * Get all constraints applicable to label and propertyKey. There are only {@link
      * org.neo4j.kernel.api.constraints.UniquenessConstraint}
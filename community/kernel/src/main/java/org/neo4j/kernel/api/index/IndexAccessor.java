@@ -86,6 +86,20 @@ public interface IndexAccessor extends Closeable
      */
     ResourceIterator<File> snapshotFiles() throws IOException;
 
+    /**
+     * Return a sampler over the values in this index as they are right now. Changes made to the index after this
+     * call are not seen by the sampler.
+     *
+     * @throws IOException if there was a problem opening the index.
+     */
+    IndexSampler newSampler() throws IOException;
+
+    /**
+     * @return the sample from the last {@link IndexSampler#sampleIndex()} of this index, or {@code null} if this
+     * index has never been sampled.
+     */
+    IndexSample lastSample();
+
     class Adapter implements IndexAccessor
     {
         @Override
@@ -142,5 +156,29 @@ public interface IndexAccessor extends Closeable
         {
             return emptyIterator();
         }
+
+        @Override
+        public IndexSampler newSampler()
+        {
+            return new IndexSampler()
+            {
+                @Override
+                public IndexSample sampleIndex()
+                {
+                    return new IndexSample.Builder().build();
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public IndexSample lastSample()
+        {
+            return null;
+        }
     }
 }
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Summary of the values in an index, as seen when the index was last sampled: the number of entries, the number of
+ * distinct values and the frequencies of the most frequent values. Used for estimating how many entries a lookup
+ * will find.
+ *
+ * Values are identified by their {@link #valueKey(Object) value key}, which is the same for values that the index
+ * considers equal, e.g. {@code 1} and {@code 1.0}.
+ */
+public final class IndexSample
+{
+    /**
+     * Number of most frequent values to keep frequencies for.
+     */
+    public static final int FREQUENT_VALUES = 32;
+
+    private final long indexSize;
+    private final long distinctValues;
+    private final Map<String, Long> frequentValues;
+
+    public IndexSample( long indexSize, long distinctValues, Map<String, Long> frequentValues )
+    {
+        this.indexSize = indexSize;
+        this.distinctValues = distinctValues;
+        this.frequentValues = Collections.unmodifiableMap( new HashMap<>( frequentValues ) );
+    }
+
+    public long indexSize()
+    {
+        return indexSize;
+    }
+
+    public long distinctValues()
+    {
+        return distinctValues;
+    }
+
+    /**
+     * @return number of entries per value key, for the {@link #FREQUENT_VALUES most frequent} values.
+     */
+    public Map<String, Long> frequentValues()
+    {
+        return frequentValues;
+    }
+
+    /**
+     * @return the fraction of all entries that a lookup of an average value will find.
+     */
+    public double selectivity()
+    {
+        return distinctValues == 0 ? 0d : 1d / distinctValues;
+    }
+
+    /**
+     * @return the fraction of all entries that a lookup of the given value will find. Frequent values are looked up
+     * in the sampled frequencies, other values are assumed to share the remaining entries evenly.
+     */
+    public double selectivity( Object value )
+    {
+        if ( indexSize == 0 )
+        {
+            return 0d;
+        }
+
+        Long frequency = frequentValues.get( valueKey( value ) );
+        if ( frequency != null )
+        {
+            return (double) frequency / indexSize;
+        }
+
+        long remainingEntries = indexSize, remainingValues = distinctValues - frequentValues.size();
+        for ( long frequentValueCount : frequentValues.values() )
+        {
+            remainingEntries -= frequentValueCount;
+        }
+        return remainingValues <= 0 ? 0d : (double) remainingEntries / remainingValues / indexSize;
+    }
+
+    /**
+     * @return the key that the given property value has in {@link #frequentValues()}.
+     */
+    public static String valueKey( Object value )
+    {
+        if ( value instanceof Number )
+        {
+            return "n" + ((Number) value).doubleValue();
+        }
+        if ( value instanceof Boolean )
+        {
+            return "b" + value;
+        }
+        if ( value.getClass().isArray() )
+        {
+            return encodedArrayValueKey( ArrayEncoder.encode( value ) );
+        }
+        return "s" + value;
+    }
+
+    /**
+     * @return the {@link #valueKey(Object) value key} of an array encoded by {@link ArrayEncoder}.
+     */
+    public static String encodedArrayValueKey( String encodedArray )
+    {
+        return "a" + encodedArray;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        IndexSample that = (IndexSample) o;
+        return indexSize == that.indexSize && distinctValues == that.distinctValues &&
+                frequentValues.equals( that.frequentValues );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (int) (indexSize ^ (indexSize >>> 32));
+        result = 31 * result + (int) (distinctValues ^ (distinctValues >>> 32));
+        return 31 * result + frequentValues.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[indexSize:" + indexSize + ", distinctValues:" + distinctValues +
+                ", frequentValues:" + frequentValues + "]";
+    }
+
+    /**
+     * Builds a sample from the distinct values of an index and their frequencies, keeping only the frequencies of
+     * the most frequent values.
+     */
+    public static class Builder
+    {
+        private final PriorityQueue<Map.Entry<String, Long>> mostFrequent =
+                new PriorityQueue<>( FREQUENT_VALUES + 1, new Comparator<Map.Entry<String, Long>>()
+                {
+                    @Override
+                    public int compare( Map.Entry<String, Long> o1, Map.Entry<String, Long> o2 )
+                    {
+                        return Long.compare( o1.getValue(), o2.getValue() );
+                    }
+                } );
+        private long indexSize;
+        private long distinctValues;
+
+        /**
+         * @param valueKey {@link IndexSample#valueKey(Object) key} of a distinct value in the index.
+         * @param frequency number of entries with that value.
+         */
+        public Builder addValue( String valueKey, long frequency )
+        {
+            indexSize += frequency;
+            distinctValues++;
+            mostFrequent.add( new AbstractMap.SimpleImmutableEntry<>( valueKey, frequency ) );
+            if ( mostFrequent.size() > FREQUENT_VALUES )
+            {
+                mostFrequent.poll();
+            }
+            return this;
+        }
+
+        public IndexSample build()
+        {
+            Map<String, Long> frequentValues = new HashMap<>();
+            for ( Map.Entry<String, Long> entry : mostFrequent )
+            {
+                frequentValues.put( entry.getKey(), entry.getValue() );
+            }
+            return new IndexSample( indexSize, distinctValues, frequentValues );
+        }
+    }
+}
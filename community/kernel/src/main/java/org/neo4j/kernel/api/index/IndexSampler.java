@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.io.IOException;
+
+import org.neo4j.graphdb.Resource;
+
+/**
+ * Samples an {@link IndexAccessor index} as it was when the sampler was created. Sampling reads every value in the
+ * index, so callers that guard the index with a lock only need to hold it while creating the sampler.
+ * Must be closed when done, to release the snapshot.
+ */
+public interface IndexSampler extends Resource
+{
+    /**
+     * Samples the values in this snapshot of the index. The sample is kept along with the index, so that it is
+     * available from {@link IndexAccessor#lastSample()} also after a restart.
+     *
+     * @return the new sample, or {@code null} if the index can't be sampled in its current state.
+     * @throws IOException if there was a problem reading the index.
+     */
+    IndexSample sampleIndex() throws IOException;
+
+    /**
+     * Sampler for indexes that can't be sampled, returns {@code null} samples.
+     */
+    IndexSampler NONE = new IndexSampler()
+    {
+        @Override
+        public IndexSample sampleIndex()
+        {
+            return null;
+        }
+
+        @Override
+        public void close()
+        {   // Nothing to close
+        }
+    };
+}
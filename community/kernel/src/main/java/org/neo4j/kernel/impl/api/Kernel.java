@@ -88,6 +88,15 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
         return transaction;
     }
 
+    @Override
+    public KernelTransaction newReadOnlyTransaction() throws TransactionFailureException
+    {
+        health.assertHealthy( TransactionFailureException.class );
+        KernelTransaction transaction = transactions.newReadOnlyInstance();
+        transactionMonitor.transactionStarted();
+        return transaction;
+    }
+
     @Override
     public void registerTransactionHook( TransactionHook hook )
     {
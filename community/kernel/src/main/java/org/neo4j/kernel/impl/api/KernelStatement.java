@@ -34,6 +34,7 @@ import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.labelscan.LabelScanReader;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.impl.api.state.LegacyIndexTransactionState;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.nioneo.xa.TransactionRecordState;
 
@@ -46,6 +47,7 @@ public class KernelStatement implements TxState.Holder, Statement
     protected final LabelScanStore labelScanStore;
     private final TransactionRecordState recordState;
     private final LegacyIndexTransactionState legacyIndexTransactionState;
+    private final LockBatch deferredExclusiveLocks = new LockBatch();
 
     private LabelScanReader labelScanReader;
     private int referenceCount;
@@ -129,14 +131,27 @@ public class KernelStatement implements TxState.Holder, Statement
     {
         if ( !closed && release() )
         {
-            closed = true;
-            indexReaderFactory.close();
-            if ( null != labelScanReader )
+            try
             {
-                labelScanReader.close();
+                acquireDeferredLocks();
             }
-            transaction.releaseStatement( this );
+            finally
+            {
+                doClose();
+            }
+        }
+    }
+
+    private void doClose()
+    {
+        closed = true;
+        deferredExclusiveLocks.clear();
+        indexReaderFactory.close();
+        if ( null != labelScanReader )
+        {
+            labelScanReader.close();
         }
+        transaction.releaseStatement( this );
     }
 
     void assertOpen()
@@ -156,6 +171,41 @@ public class KernelStatement implements TxState.Holder, Statement
         return locks;
     }
 
+    /**
+     * Notes that this statement needs the given exclusive locks, without acquiring them yet. They are acquired,
+     * together with any other deferred locks of this statement, by {@link #acquireDeferredLocks()}, which at the
+     * latest happens when this statement closes.
+     */
+    void deferExclusiveLock( Locks.ResourceType type, long... resourceIds )
+    {
+        deferredExclusiveLocks.add( type, resourceIds );
+    }
+
+    /**
+     * Acquires all exclusive locks deferred so far by this statement as one {@link LockBatch}. If that fails,
+     * changes have been made without holding the locks they needed, so the transaction is marked as failed.
+     */
+    void acquireDeferredLocks()
+    {
+        if ( deferredExclusiveLocks.isEmpty() )
+        {
+            return;
+        }
+        try
+        {
+            locks.acquireExclusive( deferredExclusiveLocks );
+        }
+        catch ( RuntimeException e )
+        {
+            transaction.failure();
+            throw e;
+        }
+        finally
+        {
+            deferredExclusiveLocks.clear();
+        }
+    }
+
     public IndexReader getIndexReader( long indexId ) throws IndexNotFoundKernelException
     {
         return indexReaderFactory.newReader( indexId );
@@ -185,9 +235,16 @@ public class KernelStatement implements TxState.Holder, Statement
         return --referenceCount == 0;
     }
 
+    /**
+     * Closes this statement regardless of how many are still using it. Deferred locks are not acquired here,
+     * the transaction does that with {@link #acquireDeferredLocks()} first if it is about to commit.
+     */
     final void forceClose()
     {
         referenceCount = 0;
-        close();
+        if ( !closed )
+        {
+            doClose();
+        }
     }
 }
@@ -74,12 +74,13 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final UpdateableSchemaState schemaState;
     private final StatementOperationParts operations;
     private final boolean readOnly;
+    private final boolean readOnlyTransaction;
     private final Locks.Client locks;
 
     // State
     private final TransactionRecordState recordState;
     private TxStateImpl txState;
-    private TransactionType transactionType = TransactionType.ANY;
+    private TransactionType transactionType;
     private TransactionHooks.TransactionHooksState hooksState;
     private boolean closing, closed;
     private boolean failure, success;
@@ -112,10 +113,13 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                                             PersistenceCache persistenceCache,
                                             StoreReadLayer storeLayer,
                                             LegacyIndexTransactionState legacyIndexTransaction,
-                                            Clock clock )
+                                            Clock clock,
+                                            boolean readOnlyTransaction )
     {
         this.operations = operations;
         this.readOnly = readOnly;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.transactionType = readOnlyTransaction ? TransactionType.READ_ONLY : TransactionType.ANY;
         this.schemaWriteGuard = schemaWriteGuard;
         this.labelScanStore = labelScanStore;
         this.indexService = indexService;
@@ -135,16 +139,26 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.schemaStorage = new SchemaStorage( neoStore.getSchemaStore() );
     }
 
-    /** Reset this transaction to a vanilla state, turning it into a logically new transaction. */
+    /**
+     * Reset this transaction to a vanilla state, turning it into a logically new transaction. A read-only
+     * transaction never gets any record changes, so those are left as they are.
+     */
     public KernelTransactionImplementation initialize( TransactionHeaderInformation txHeader, long lastCommittedTx )
     {
         this.headerInformation = txHeader;
         this.terminated = closing = closed = failure = success = false;
-        this.transactionType = TransactionType.ANY;
         this.hooksState = null;
         this.txState = null; // TODO: Implement txState.clear() instead, to re-use data structures
         this.legacyIndexTransactionState.initialize();
-        this.recordState.initialize( lastCommittedTx );
+        if ( readOnlyTransaction )
+        {
+            this.transactionType = TransactionType.READ_ONLY;
+        }
+        else
+        {
+            this.transactionType = TransactionType.ANY;
+            this.recordState.initialize( lastCommittedTx );
+        }
         this.startTimeMillis = clock.currentTimeMillis();
         this.lastTransactionIdWhenStarted = lastCommittedTx;
         return this;
@@ -318,6 +332,27 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         }
     }
 
+    /**
+     * A statement still open at this point may have deferred locks for changes it made. They are needed to commit
+     * those changes, but not worth acquiring for a rollback.
+     */
+    private RuntimeException acquireDeferredLocksIfCommitting()
+    {
+        if ( currentStatement != null && success && !failure )
+        {
+            try
+            {
+                currentStatement.acquireDeferredLocks();
+            }
+            catch ( RuntimeException e )
+            {
+                // The statement has marked this transaction as failed, so it will be rolled back
+                return e;
+            }
+        }
+        return null;
+    }
+
     private void assertTransactionNotClosing()
     {
         if ( closing )
@@ -512,6 +547,22 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private enum TransactionType
     {
         ANY,
+        READ_ONLY
+                {
+                    @Override
+                    TransactionType upgradeToSchemaTransaction() throws InvalidTransactionTypeKernelException
+                    {
+                        throw new InvalidTransactionTypeKernelException(
+                                "Cannot perform schema updates in a read-only transaction." );
+                    }
+
+                    @Override
+                    TransactionType upgradeToDataTransaction() throws InvalidTransactionTypeKernelException
+                    {
+                        throw new InvalidTransactionTypeKernelException(
+                                "Cannot perform data updates in a read-only transaction." );
+                    }
+                },
         DATA
                 {
                     @Override
@@ -547,6 +598,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     {
         assertTransactionOpen();
         assertTransactionNotClosing();
+        RuntimeException deferredLocksFailure = acquireDeferredLocksIfCommitting();
         closeCurrentStatementIfAny();
         closing = true;
         try
@@ -554,6 +606,10 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             if ( failure || !success )
             {
                 rollback();
+                if ( deferredLocksFailure != null )
+                {
+                    throw deferredLocksFailure;
+                }
                 if ( success )
                 {
                     // Success was called, but also failure which means that the client code using this
@@ -697,9 +753,19 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         }
     }
 
-    /** Release resources held up by this transaction & return it to the transaction pool. */
+    /**
+     * Release resources held up by this transaction & return it to the transaction pool. Read-only transactions
+     * are pooled together with their locks client, so only let go of the locks held.
+     */
     private void release()
     {
-        locks.close();
+        if ( readOnlyTransaction )
+        {
+            locks.releaseAll();
+        }
+        else
+        {
+            locks.close();
+        }
     }
 }
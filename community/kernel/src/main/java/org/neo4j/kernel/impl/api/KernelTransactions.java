@@ -21,8 +21,10 @@ package org.neo4j.kernel.impl.api;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.neo4j.function.Factory;
 import org.neo4j.graphdb.DatabaseShutdownException;
@@ -55,6 +57,9 @@ import static java.util.Collections.newSetFromMap;
  * This class maintains references to all transactions, a pool of passive kernel transactions, and provides capabilities
  * for enumerating all running transactions. During normal operation, acquiring new transactions and enumerating live
  * ones requires no synchronization (although the live list is not guaranteed to be exact).
+ *
+ * Read-only transactions are handed out from a pool of their own. They run on a cheaper set of statement operations,
+ * never get transaction state and are returned to the pool when closed, keeping their locks client and record state.
  */
 public class KernelTransactions extends LifecycleAdapter implements Factory<KernelTransaction>
 {
@@ -68,6 +73,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
     private final IndexingService indexingService;
     private final LabelScanStore labelScanStore;
     private final StatementOperationParts statementOperations;
+    private final StatementOperationParts readOnlyStatementOperations;
     private final UpdateableSchemaState updateableSchemaState;
     private final SchemaWriteGuard schemaWriteGuard;
     private final SchemaIndexProviderMap providerMap;
@@ -98,6 +104,16 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
     private final Set<KernelTransactionImplementation> allTransactions = newSetFromMap(
             new ConcurrentHashMap<KernelTransactionImplementation, Boolean>() );
 
+    /**
+     * Read-only transactions that have been closed, ready to be handed out again.
+     */
+    private final Queue<KernelTransactionImplementation> readOnlyPool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Set by {@link #disposeAll()}, after which closed read-only transactions are no longer pooled.
+     */
+    private volatile boolean disposed;
+
     /**
      * This is the factory that actually builds brand-new instances.
      */
@@ -106,38 +122,63 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
         @Override
         public KernelTransactionImplementation newInstance()
         {
-            NeoStoreTransactionContext context = neoStoreTransactionContextSupplier.acquire();
-            Locks.Client locksClient = locks.newClient();
-            context.bind( locksClient );
-            TransactionRecordState neoStoreTransaction = new TransactionRecordState(
-                    neoStore.getLastCommittedTransactionId(), neoStore, integrityValidator, context );
-            LegacyIndexTransactionState legacyIndexTransactionState =
-                    new LegacyIndexTransactionState( indexConfigStore, legacyIndexProviderLookup );
-            KernelTransactionImplementation tx = new KernelTransactionImplementation(
-                    statementOperations, readOnly, schemaWriteGuard,
-                    labelScanStore, indexingService, updateableSchemaState, neoStoreTransaction, providerMap,
-                    neoStore, locksClient, hooks, constraintIndexCreator, transactionHeaderInformationFactory.create(),
-                    transactionCommitProcess, transactionMonitor, persistenceCache, storeLayer,
-                    legacyIndexTransactionState, Clock.SYSTEM_CLOCK )
+            return newTransaction( statementOperations, false );
+        }
+    };
+
+    private final Factory<KernelTransactionImplementation> readOnlyFactory = new Factory<KernelTransactionImplementation>()
+    {
+        @Override
+        public KernelTransactionImplementation newInstance()
+        {
+            KernelTransactionImplementation tx = readOnlyPool.poll();
+            return tx != null ? tx : newTransaction( readOnlyStatementOperations, true );
+        }
+    };
+
+    private KernelTransactionImplementation newTransaction( StatementOperationParts operations,
+                                                            final boolean readOnlyTransaction )
+    {
+        NeoStoreTransactionContext context = neoStoreTransactionContextSupplier.acquire();
+        Locks.Client locksClient = locks.newClient();
+        context.bind( locksClient );
+        TransactionRecordState neoStoreTransaction = new TransactionRecordState(
+                neoStore.getLastCommittedTransactionId(), neoStore, integrityValidator, context );
+        LegacyIndexTransactionState legacyIndexTransactionState =
+                new LegacyIndexTransactionState( indexConfigStore, legacyIndexProviderLookup );
+        KernelTransactionImplementation tx = new KernelTransactionImplementation(
+                operations, readOnly, schemaWriteGuard,
+                labelScanStore, indexingService, updateableSchemaState, neoStoreTransaction, providerMap,
+                neoStore, locksClient, hooks, constraintIndexCreator, transactionHeaderInformationFactory.create(),
+                transactionCommitProcess, transactionMonitor, persistenceCache, storeLayer,
+                legacyIndexTransactionState, Clock.SYSTEM_CLOCK, readOnlyTransaction )
+        {
+            @Override
+            protected void dispose()
             {
-                @Override
-                protected void dispose()
+                if ( readOnlyTransaction && !disposed )
                 {
-                    allTransactions.remove( this );
+                    readOnlyPool.offer( this );
+                    if ( !disposed || !readOnlyPool.remove( this ) )
+                    {
+                        return;
+                    }
                 }
-            };
+                allTransactions.remove( this );
+            }
+        };
 
-            allTransactions.add( tx );
+        allTransactions.add( tx );
 
-            return tx;
-        }
-    };
+        return tx;
+    }
 
     public KernelTransactions( NeoStoreTransactionContextSupplier neoStoreTransactionContextSupplier,
                                NeoStore neoStore, Locks locks, IntegrityValidator integrityValidator,
                                ConstraintIndexCreator constraintIndexCreator,
                                IndexingService indexingService, LabelScanStore labelScanStore,
                                StatementOperationParts statementOperations,
+                               StatementOperationParts readOnlyStatementOperations,
                                UpdateableSchemaState updateableSchemaState, SchemaWriteGuard schemaWriteGuard,
                                SchemaIndexProviderMap providerMap, TransactionHeaderInformationFactory txHeaderFactory,
                                PersistenceCache persistenceCache, StoreReadLayer storeLayer,
@@ -153,6 +194,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
         this.indexingService = indexingService;
         this.labelScanStore = labelScanStore;
         this.statementOperations = statementOperations;
+        this.readOnlyStatementOperations = readOnlyStatementOperations;
         this.updateableSchemaState = updateableSchemaState;
         this.schemaWriteGuard = schemaWriteGuard;
         this.providerMap = providerMap;
@@ -177,6 +219,17 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
                 neoStore.getLastCommittedTransactionId() );
     }
 
+    /**
+     * @return a transaction that can only read, see {@link org.neo4j.kernel.api.KernelAPI#newReadOnlyTransaction()}.
+     */
+    public KernelTransaction newReadOnlyInstance()
+    {
+        assertDatabaseIsRunning();
+        return readOnlyFactory.newInstance().initialize(
+                transactionHeaderInformationFactory.create(),
+                neoStore.getLastCommittedTransactionId() );
+    }
+
     /**
      * Give an approximate list of all transactions currently running. This is not guaranteed to be exact, as
      * transactions may stop and start while this list is gathered.
@@ -201,6 +254,11 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
      */
     public void disposeAll()
     {
+        disposed = true;
+        for ( KernelTransactionImplementation tx; (tx = readOnlyPool.poll()) != null; )
+        {
+            allTransactions.remove( tx );
+        }
         for ( KernelTransactionImplementation tx : allTransactions )
         {
             if(tx.isOpen())
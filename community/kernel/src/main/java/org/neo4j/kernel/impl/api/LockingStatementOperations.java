@@ -35,6 +35,7 @@ import org.neo4j.kernel.api.exceptions.schema.DropConstraintFailureException;
 import org.neo4j.kernel.api.exceptions.schema.DropIndexFailureException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -44,6 +45,7 @@ import org.neo4j.kernel.impl.api.operations.LockOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaReadOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaStateOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaWriteOperations;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStorage;
@@ -77,6 +79,14 @@ public class LockingStatementOperations implements
         this.schemaStateDelegate = schemaStateDelegate;
     }
 
+    /*
+     * Exclusive entity locks for changes that only go into transaction state (labels and properties) are deferred
+     * and acquired as one batch when the statement closes, or together with the locks of the next change that
+     * updates records directly (node delete, relationship create and delete), whichever comes first. A statement
+     * touching many entities, like an UNWIND over a batch of nodes, then asks a master for its locks in one request
+     * instead of one request per entity.
+     */
+
     @Override
     public boolean nodeAddLabel( KernelStatement state, long nodeId, int labelId )
             throws EntityNotFoundException, ConstraintValidationKernelException
@@ -94,14 +104,14 @@ public class LockingStatementOperations implements
         // by ConstraintEnforcingEntityOperations included the full cake, with locking included.
         state.locks().acquireShared( ResourceTypes.SCHEMA, schemaResource() );
 
-        state.locks().acquireExclusive( ResourceTypes.NODE, nodeId );
+        state.deferExclusiveLock( ResourceTypes.NODE, nodeId );
         return entityWriteDelegate.nodeAddLabel( state, nodeId, labelId );
     }
 
     @Override
     public boolean nodeRemoveLabel( KernelStatement state, long nodeId, int labelId ) throws EntityNotFoundException
     {
-        state.locks().acquireExclusive( ResourceTypes.NODE, nodeId );
+        state.deferExclusiveLock( ResourceTypes.NODE, nodeId );
         return entityWriteDelegate.nodeRemoveLabel( state, nodeId, labelId );
     }
 
@@ -202,7 +212,8 @@ public class LockingStatementOperations implements
     @Override
     public void nodeDelete( KernelStatement state, long nodeId )
     {
-        state.locks().acquireExclusive( ResourceTypes.NODE, nodeId );
+        state.deferExclusiveLock( ResourceTypes.NODE, nodeId );
+        state.acquireDeferredLocks();
         entityWriteDelegate.nodeDelete( state, nodeId );
     }
 
@@ -215,8 +226,9 @@ public class LockingStatementOperations implements
     @Override
     public long relationshipCreate( KernelStatement state, int relationshipTypeId, long startNodeId, long endNodeId )
     {   // TODO 2.2-future Don't lock it, it's a new relationship so it isn't seen by anyone else anyway
-        state.locks().acquireExclusive( ResourceTypes.NODE, startNodeId );
-        state.locks().acquireExclusive( ResourceTypes.NODE, endNodeId );
+        // Lock both end points in one go, lowest id first, so that concurrent creators can't deadlock on them
+        state.deferExclusiveLock( ResourceTypes.NODE, startNodeId, endNodeId );
+        state.acquireDeferredLocks();
         return entityWriteDelegate.relationshipCreate( state, relationshipTypeId, startNodeId, endNodeId );
     }
 
@@ -230,8 +242,7 @@ public class LockingStatementOperations implements
                 @Override
                 public void visit( long relId, long startNode, long endNode, int type )
                 {
-                    state.locks().acquireExclusive( ResourceTypes.NODE, startNode );
-                    state.locks().acquireExclusive( ResourceTypes.NODE, endNode );
+                    state.deferExclusiveLock( ResourceTypes.NODE, startNode, endNode );
                 }
             });
         }
@@ -239,7 +250,8 @@ public class LockingStatementOperations implements
         {
             throw new IllegalStateException( "Unable to delete relationship[" + relationshipId+ "] since it is already deleted." );
         }
-        state.locks().acquireExclusive( ResourceTypes.RELATIONSHIP, relationshipId );
+        state.deferExclusiveLock( ResourceTypes.RELATIONSHIP, relationshipId );
+        state.acquireDeferredLocks();
         entityWriteDelegate.relationshipDelete( state, relationshipId );
     }
 
@@ -297,7 +309,7 @@ public class LockingStatementOperations implements
         // by ConstraintEnforcingEntityOperations included the full cake, with locking included.
         state.locks().acquireShared( ResourceTypes.SCHEMA, schemaResource() );
 
-        state.locks().acquireExclusive( ResourceTypes.NODE, nodeId );
+        state.deferExclusiveLock( ResourceTypes.NODE, nodeId );
         return entityWriteDelegate.nodeSetProperty( state, nodeId, property );
     }
 
@@ -305,7 +317,7 @@ public class LockingStatementOperations implements
     public Property nodeRemoveProperty( KernelStatement state, long nodeId, int propertyKeyId )
             throws EntityNotFoundException
     {
-        state.locks().acquireExclusive( ResourceTypes.NODE, nodeId );
+        state.deferExclusiveLock( ResourceTypes.NODE, nodeId );
         return entityWriteDelegate.nodeRemoveProperty( state, nodeId, propertyKeyId );
     }
 
@@ -313,7 +325,7 @@ public class LockingStatementOperations implements
     public Property relationshipSetProperty( KernelStatement state, long relationshipId, DefinedProperty property )
             throws EntityNotFoundException
     {
-        state.locks().acquireExclusive( ResourceTypes.RELATIONSHIP, relationshipId );
+        state.deferExclusiveLock( ResourceTypes.RELATIONSHIP, relationshipId );
         return entityWriteDelegate.relationshipSetProperty( state, relationshipId, property );
     }
 
@@ -321,7 +333,7 @@ public class LockingStatementOperations implements
     public Property relationshipRemoveProperty( KernelStatement state, long relationshipId, int propertyKeyId )
             throws EntityNotFoundException
     {
-        state.locks().acquireExclusive( ResourceTypes.RELATIONSHIP, relationshipId );
+        state.deferExclusiveLock( ResourceTypes.RELATIONSHIP, relationshipId );
         return entityWriteDelegate.relationshipRemoveProperty( state, relationshipId, propertyKeyId );
     }
 
@@ -351,6 +363,18 @@ public class LockingStatementOperations implements
         state.locks().acquireShared( resourceType, resourceId );
     }
 
+    @Override
+    public void acquireExclusive( KernelStatement state, LockBatch batch )
+    {
+        state.locks().acquireExclusive( batch );
+    }
+
+    @Override
+    public void acquireShared( KernelStatement state, LockBatch batch )
+    {
+        state.locks().acquireShared( batch );
+    }
+
     @Override
     public void releaseExclusive( KernelStatement state, Locks.ResourceType type, long[] resourceId )
     {
@@ -370,4 +394,11 @@ public class LockingStatementOperations implements
     {
         return schemaReadDelegate.indexGetFailure( state, descriptor );
     }
+
+    @Override
+    public IndexSample indexGetSample( Statement state, IndexDescriptor descriptor )
+            throws IndexNotFoundKernelException
+    {
+        return schemaReadDelegate.indexGetSample( state, descriptor );
+    }
 }
@@ -52,6 +52,7 @@ import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -65,6 +66,7 @@ import org.neo4j.kernel.impl.api.operations.LockOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaReadOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaStateOperations;
 import org.neo4j.kernel.impl.core.Token;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.util.register.NeoRegister;
 import org.neo4j.register.Register;
@@ -405,6 +407,13 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         return schemaRead().indexGetFailure( statement, descriptor );
     }
 
+    @Override
+    public IndexSample indexGetSample( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        statement.assertOpen();
+        return schemaRead().indexGetSample( statement, descriptor );
+    }
+
     @Override
     public Iterator<UniquenessConstraint> constraintsGetForLabelAndPropertyKey( int labelId, int propertyKeyId )
     {
@@ -661,6 +670,20 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         locking().acquireShared( statement, type, id );
     }
 
+    @Override
+    public void acquireExclusive( LockBatch batch )
+    {
+        statement.assertOpen();
+        locking().acquireExclusive( statement, batch );
+    }
+
+    @Override
+    public void acquireShared( LockBatch batch )
+    {
+        statement.assertOpen();
+        locking().acquireShared( statement, batch );
+    }
+
     @Override
     public void releaseExclusive( Locks.ResourceType type, long... id )
     {
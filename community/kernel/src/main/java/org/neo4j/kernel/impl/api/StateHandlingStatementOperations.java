@@ -54,6 +54,7 @@ import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -269,13 +270,23 @@ public class StateHandlingStatementOperations implements
     @Override
     public PrimitiveLongIterator nodesGetAll( KernelStatement state )
     {
-        return state.txState().augmentNodesGetAll( storeLayer.nodesGetAll() );
+        if ( state.hasTxStateWithChanges() )
+        {
+            return state.txState().augmentNodesGetAll( storeLayer.nodesGetAll() );
+        }
+
+        return storeLayer.nodesGetAll();
     }
 
     @Override
     public PrimitiveLongIterator relationshipsGetAll( KernelStatement state )
     {
-        return state.txState().augmentRelationshipsGetAll( storeLayer.relationshipsGetAll() );
+        if ( state.hasTxStateWithChanges() )
+        {
+            return state.txState().augmentRelationshipsGetAll( storeLayer.relationshipsGetAll() );
+        }
+
+        return storeLayer.relationshipsGetAll();
     }
 
     @Override
@@ -1131,6 +1142,13 @@ public class StateHandlingStatementOperations implements
         return storeLayer.indexGetFailure( descriptor );
     }
 
+    @Override
+    public IndexSample indexGetSample( Statement state, IndexDescriptor descriptor )
+            throws IndexNotFoundKernelException
+    {
+        return storeLayer.indexGetSample( descriptor );
+    }
+
     @Override
     public int labelGetForName( Statement state, String labelName )
     {
@@ -1261,28 +1279,28 @@ public class StateHandlingStatementOperations implements
     public LegacyIndexHits nodeLegacyIndexGet( KernelStatement statement, String indexName, String key, Object value )
             throws LegacyIndexNotFoundKernelException
     {
-        return statement.txState().getNodeLegacyIndexChanges( indexName ).get( key, value );
+        return nodeLegacyIndexChanges( statement, indexName ).get( key, value );
     }
 
     @Override
     public LegacyIndexHits nodeLegacyIndexQuery( KernelStatement statement, String indexName, String key,
             Object queryOrQueryObject ) throws LegacyIndexNotFoundKernelException
     {
-        return statement.txState().getNodeLegacyIndexChanges( indexName ).query( key, queryOrQueryObject );
+        return nodeLegacyIndexChanges( statement, indexName ).query( key, queryOrQueryObject );
     }
 
     @Override
     public LegacyIndexHits nodeLegacyIndexQuery( KernelStatement statement, String indexName, Object queryOrQueryObject )
             throws LegacyIndexNotFoundKernelException
     {
-        return statement.txState().getNodeLegacyIndexChanges( indexName ).query( queryOrQueryObject );
+        return nodeLegacyIndexChanges( statement, indexName ).query( queryOrQueryObject );
     }
 
     @Override
     public LegacyIndexHits relationshipLegacyIndexGet( KernelStatement statement, String indexName, String key,
             Object value, long startNode, long endNode ) throws LegacyIndexNotFoundKernelException
     {
-        LegacyIndex index = statement.txState().getRelationshipLegacyIndexChanges( indexName );
+        LegacyIndex index = relationshipLegacyIndexChanges( statement, indexName );
         if ( startNode != -1 || endNode != -1 )
         {
             return index.get( key, value, startNode, endNode );
@@ -1294,7 +1312,7 @@ public class StateHandlingStatementOperations implements
     public LegacyIndexHits relationshipLegacyIndexQuery( KernelStatement statement, String indexName, String key,
             Object queryOrQueryObject, long startNode, long endNode ) throws LegacyIndexNotFoundKernelException
     {
-        LegacyIndex index = statement.txState().getRelationshipLegacyIndexChanges( indexName );
+        LegacyIndex index = relationshipLegacyIndexChanges( statement, indexName );
         if ( startNode != -1 || endNode != -1 )
         {
             return index.query( key, queryOrQueryObject, startNode, endNode );
@@ -1306,7 +1324,7 @@ public class StateHandlingStatementOperations implements
     public LegacyIndexHits relationshipLegacyIndexQuery( KernelStatement statement, String indexName,
             Object queryOrQueryObject, long startNode, long endNode ) throws LegacyIndexNotFoundKernelException
     {
-        LegacyIndex index = statement.txState().getRelationshipLegacyIndexChanges( indexName );
+        LegacyIndex index = relationshipLegacyIndexChanges( statement, indexName );
         if ( startNode != -1 || endNode != -1 )
         {
             return index.query( queryOrQueryObject, startNode, endNode );
@@ -1314,6 +1332,24 @@ public class StateHandlingStatementOperations implements
         return index.query( queryOrQueryObject );
     }
 
+    /*
+     * Reads go straight to the legacy index transaction state when there is no transaction state, since
+     * creating one just for reading is wasted work, not least in read-only transactions.
+     */
+    private LegacyIndex nodeLegacyIndexChanges( KernelStatement statement, String indexName )
+            throws LegacyIndexNotFoundKernelException
+    {
+        return statement.hasTxState() ? statement.txState().getNodeLegacyIndexChanges( indexName ) :
+                statement.legacyIndexTransactionState().nodeChanges( indexName );
+    }
+
+    private LegacyIndex relationshipLegacyIndexChanges( KernelStatement statement, String indexName )
+            throws LegacyIndexNotFoundKernelException
+    {
+        return statement.hasTxState() ? statement.txState().getRelationshipLegacyIndexChanges( indexName ) :
+                statement.legacyIndexTransactionState().relationshipChanges( indexName );
+    }
+
     @Override
     public void nodeLegacyIndexCreateLazily( KernelStatement statement, String indexName,
             Map<String, String> customConfig )
@@ -20,6 +20,12 @@
 package org.neo4j.kernel.impl.api;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.impl.api.LegacyIndexApplier.ProviderLookup;
@@ -29,6 +35,7 @@ import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.xa.PropertyLoader;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command;
 import org.neo4j.kernel.impl.nioneo.xa.command.HighIdTracker;
 import org.neo4j.kernel.impl.nioneo.xa.command.NeoTransactionIndexApplier;
 import org.neo4j.kernel.impl.nioneo.xa.command.NeoTransactionStoreApplier;
@@ -80,7 +87,120 @@ public class TransactionRepresentationStoreApplier
             representation.accept( applier );
         }
     }
-    
+
+    /**
+     * Applies the record commands of a batch of recovered transactions. The commands have already been split
+     * into partitions such that all changes to any given record, including its dynamic records, are in the same
+     * partition and in log order. The partitions are applied to the stores concurrently, without taking any
+     * locks. The label scan store and schema index updates are then applied one transaction at a time, in log
+     * order, once all store changes are in place. While recovering, the indexing service only notes which nodes
+     * changed and reindexes them from the recovered store when recovery completes, so it doesn't see that the
+     * stores are already at the end of the batch.
+     *
+     * @param transactions the commands of each transaction of the batch, in log order.
+     * @param partitions the same commands, partitioned.
+     */
+    public void applyRecoveredBatch( List<List<Command>> transactions, List<List<Command>> partitions,
+            ExecutorService executor ) throws IOException
+    {
+        List<Future<Void>> storeUpdates = new ArrayList<>( partitions.size() );
+        for ( final List<Command> partition : partitions )
+        {
+            if ( partition.isEmpty() )
+            {
+                continue;
+            }
+            storeUpdates.add( executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws IOException
+                {
+                    NeoTransactionStoreApplier storeApplier = new NeoTransactionStoreApplier( neoStore,
+                            indexingService, cacheAccess, LockService.NO_LOCK_SERVICE, -1, highIdTrackerFactory,
+                            true );
+                    try
+                    {
+                        for ( Command command : partition )
+                        {
+                            command.handle( storeApplier );
+                        }
+                        storeApplier.apply();
+                    }
+                    finally
+                    {
+                        storeApplier.close();
+                    }
+                    return null;
+                }
+            } ) );
+        }
+
+        // Gather the index updates of each transaction while the stores are being updated, none of this reads
+        // from the stores
+        List<NeoTransactionIndexApplier> indexAppliers = new ArrayList<>( transactions.size() );
+        for ( List<Command> transaction : transactions )
+        {
+            NeoTransactionIndexApplier indexApplier = new NeoTransactionIndexApplier( indexingService,
+                    labelScanStore, neoStore.getNodeStore(), neoStore.getPropertyStore(), cacheAccess,
+                    propertyLoader );
+            for ( Command command : transaction )
+            {
+                command.handle( indexApplier );
+            }
+            indexAppliers.add( indexApplier );
+        }
+        awaitAll( storeUpdates );
+        for ( NeoTransactionIndexApplier indexApplier : indexAppliers )
+        {
+            try
+            {
+                indexApplier.apply();
+            }
+            finally
+            {
+                indexApplier.close();
+            }
+        }
+    }
+
+    private static void awaitAll( List<Future<Void>> futures ) throws IOException
+    {
+        Throwable failure = null;
+        for ( Future<Void> future : futures )
+        {
+            try
+            {
+                future.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            }
+            catch ( ExecutionException e )
+            {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+
+        if ( failure instanceof IOException )
+        {
+            throw (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        if ( failure != null )
+        {
+            throw new IOException( "Unable to apply recovered transactions", failure );
+        }
+    }
+
     public interface HighIdTrackerFactory
     {
         HighIdTracker create( boolean recovery );
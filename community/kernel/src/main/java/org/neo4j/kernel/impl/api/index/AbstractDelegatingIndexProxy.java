@@ -29,6 +29,8 @@ import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
@@ -127,4 +129,16 @@ public abstract class AbstractDelegatingIndexProxy implements IndexProxy
     {
         return getDelegate().snapshotFiles();
     }
+
+    @Override
+    public IndexSampler newSampler() throws IOException
+    {
+        return getDelegate().newSampler();
+    }
+
+    @Override
+    public IndexSample getSample()
+    {
+        return getDelegate().getSample();
+    }
 }
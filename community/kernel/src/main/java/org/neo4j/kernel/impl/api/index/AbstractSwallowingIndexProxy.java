@@ -23,6 +23,8 @@ import java.util.concurrent.Future;
 
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 
@@ -89,4 +91,16 @@ public abstract class AbstractSwallowingIndexProxy implements IndexProxy
     {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public IndexSampler newSampler()
+    {
+        return IndexSampler.NONE;
+    }
+
+    @Override
+    public IndexSample getSample()
+    {
+        return null;
+    }
 }
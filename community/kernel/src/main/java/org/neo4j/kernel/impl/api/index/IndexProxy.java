@@ -32,6 +32,8 @@ import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
@@ -101,4 +103,16 @@ public interface IndexProxy
     void validate() throws ConstraintVerificationFailedKernelException, IndexPopulationFailedKernelException;
 
     ResourceIterator<File> snapshotFiles() throws IOException;
+
+    /**
+     * Returns a sampler over the values in this index as they are right now, see
+     * {@link IndexAccessor#newSampler()}. Indexes that can't be sampled in their current state return
+     * {@link IndexSampler#NONE}.
+     */
+    IndexSampler newSampler() throws IOException;
+
+    /**
+     * @return the last sample of this index, or {@code null} if it has never been sampled or isn't online.
+     */
+    IndexSample getSample();
 }
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+/**
+ * Periodically samples all online indexes in the background, see {@link IndexingService#sampleIndexes()}.
+ */
+public class IndexSamplingController extends LifecycleAdapter
+{
+    private final IndexingService indexingService;
+    private final JobScheduler scheduler;
+    private final long intervalMillis;
+    private volatile JobScheduler.JobHandle jobHandle;
+
+    /**
+     * @param intervalMillis time between samplings, or 0 for not sampling at all.
+     */
+    public IndexSamplingController( IndexingService indexingService, JobScheduler scheduler, long intervalMillis )
+    {
+        this.indexingService = indexingService;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( intervalMillis <= 0 )
+        {
+            return;
+        }
+
+        jobHandle = scheduler.scheduleRecurring( JobScheduler.Group.indexSampling, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                indexingService.sampleIndexes();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        JobScheduler.JobHandle handle = jobHandle;
+        if ( handle != null )
+        {
+            handle.cancel( false );
+            jobHandle = null;
+        }
+    }
+}
@@ -42,6 +42,8 @@ import org.neo4j.kernel.api.index.IndexConfiguration;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
@@ -637,6 +639,39 @@ public class IndexingService extends LifecycleAdapter
         getProxyForRule( indexId ).validate();
     }
 
+    /**
+     * @return the last sample of the given index, or {@code null} if it hasn't been sampled since it came online.
+     */
+    public IndexSample indexSample( long indexId ) throws IndexNotFoundKernelException
+    {
+        return getProxyForRule( indexId ).getSample();
+    }
+
+    /**
+     * Samples all online indexes. Each index stores its new sample right away, the Lucene indexes in a file next to
+     * their index files, so that it survives a restart.
+     */
+    public void sampleIndexes()
+    {
+        for ( IndexProxy index : indexMapReference.getAllIndexProxies() )
+        {
+            if ( index.getState() != InternalIndexState.ONLINE )
+            {
+                continue;
+            }
+
+            try ( IndexSampler sampler = index.newSampler() )
+            {
+                sampler.sampleIndex();
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                logger.warn( format( "Unable to sample index on %s",
+                        index.getDescriptor().userDescription( tokenNameLookup ) ), e );
+            }
+        }
+    }
+
     public void flushAll()
     {
         for ( IndexProxy index : indexMapReference.getAllIndexProxies() )
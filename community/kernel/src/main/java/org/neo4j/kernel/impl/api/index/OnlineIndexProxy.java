@@ -28,6 +28,8 @@ import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelExceptio
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
@@ -134,6 +136,18 @@ public class OnlineIndexProxy implements IndexProxy
         return accessor.snapshotFiles();
     }
 
+    @Override
+    public IndexSampler newSampler() throws IOException
+    {
+        return accessor.newSampler();
+    }
+
+    @Override
+    public IndexSample getSample()
+    {
+        return accessor.lastSample();
+    }
+
     @Override
     public String toString()
     {
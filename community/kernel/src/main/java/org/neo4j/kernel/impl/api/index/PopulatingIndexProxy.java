@@ -32,6 +32,8 @@ import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
@@ -176,6 +178,18 @@ public class PopulatingIndexProxy implements IndexProxy
         return emptyIterator();
     }
 
+    @Override
+    public IndexSampler newSampler()
+    {
+        return IndexSampler.NONE;
+    }
+
+    @Override
+    public IndexSample getSample()
+    {
+        return null;
+    }
+
     @Override
     public IndexPopulationFailure getPopulationFailure() throws IllegalStateException
     {
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.api.operations;
 
 import org.neo4j.kernel.impl.api.KernelStatement;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 
 public interface LockOperations
@@ -27,6 +28,9 @@ public interface LockOperations
     void acquireExclusive( KernelStatement state, Locks.ResourceType resourceType, long[] resourceId );
     void acquireShared( KernelStatement state, Locks.ResourceType resourceType, long[] resourceId );
 
+    void acquireExclusive( KernelStatement state, LockBatch batch );
+    void acquireShared( KernelStatement state, LockBatch batch );
+
     void releaseExclusive( KernelStatement statement, Locks.ResourceType type, long[] id );
     void releaseShared( KernelStatement statement, Locks.ResourceType type, long[] id );
 }
@@ -28,6 +28,7 @@ import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStorage;
 
 public interface SchemaReadOperations
@@ -69,6 +70,11 @@ public interface SchemaReadOperations
      */
     String indexGetFailure( Statement state, IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the last sample of the values in an index, or {@code null} if the index hasn't been sampled.
+     */
+    IndexSample indexGetSample( Statement state, IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
+
     /**
      * Get all constraints applicable to label and propertyKey. There are only {@link UniquenessConstraint}
      * for the time being.
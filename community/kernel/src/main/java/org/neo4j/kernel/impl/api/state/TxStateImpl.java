@@ -21,19 +21,22 @@ package org.neo4j.kernel.impl.api.state;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
+import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveIntCollections;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Function;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.helpers.collection.IteratorUtil;
+import org.neo4j.helpers.collection.PrefetchingIterator;
 import org.neo4j.kernel.api.LegacyIndex;
 import org.neo4j.kernel.api.TxState;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
@@ -43,6 +46,7 @@ import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.RelationshipVisitor;
 import org.neo4j.kernel.impl.util.DiffSets;
+import org.neo4j.kernel.impl.util.LongDiffSets;
 
 import static org.neo4j.helpers.collection.Iterables.map;
 
@@ -87,9 +91,9 @@ public final class TxStateImpl implements TxState
         }
     };
 
-    private Map<Long/*Node ID*/, NodeState> nodeStatesMap;
-    private Map<Long/*Relationship ID*/, RelationshipState> relationshipStatesMap;
-    private Map<Long/*Label ID*/, LabelState> labelStatesMap;
+    private PrimitiveLongObjectMap<NodeState> nodeStatesMap;
+    private PrimitiveLongObjectMap<RelationshipState> relationshipStatesMap;
+    private PrimitiveLongObjectMap<LabelState> labelStatesMap;
 
     private GraphState graphState;
     private DiffSets<IndexDescriptor> indexChanges;
@@ -107,8 +111,8 @@ public final class TxStateImpl implements TxState
     // This is temporary. It is needed until we've removed nodes and rels from the global cache, to tell
     // that they were created and then deleted in the same tx. This is here just to set a save point to
     // get a large set of changes in, and is meant to be removed in the coming days in a follow-up commit.
-    private final Set<Long> nodesCreatedAndDeletedInTx = new HashSet<>();
-    private final Set<Long> relsCreatedAndDeletedInTx = new HashSet<>();
+    private final PrimitiveLongSet nodesCreatedAndDeletedInTx = Primitive.longSet();
+    private final PrimitiveLongSet relsCreatedAndDeletedInTx = Primitive.longSet();
 
     private Map<UniquenessConstraint, Long> createdConstraintIndexesByConstraint;
 
@@ -272,7 +276,7 @@ public final class TxStateImpl implements TxState
     @Override
     public Iterable<NodeState> modifiedNodes()
     {
-        return hasNodeStatesMap() ? nodeStatesMap().values() : Iterables.<NodeState>empty();
+        return hasNodeStatesMap() ? values( nodeStatesMap() ) : Iterables.<NodeState>empty();
     }
 
     @Override
@@ -705,7 +709,7 @@ public final class TxStateImpl implements TxState
     {
         if ( !hasNodesAddedOrRemoved() )
         {
-            nodes = new DiffSets<>();
+            nodes = new LongDiffSets();
         }
         return nodes;
     }
@@ -795,7 +799,7 @@ public final class TxStateImpl implements TxState
     {
         if ( !hasDeletedRelationshipsDiffSets() )
         {
-            relationships = new DiffSets<>();
+            relationships = new LongDiffSets();
         }
         return relationships;
     }
@@ -803,7 +807,7 @@ public final class TxStateImpl implements TxState
     @Override
     public Iterable<RelationshipState> modifiedRelationships()
     {
-        return relationshipStatesMap != null ? relationshipStatesMap.values() : Iterables.<RelationshipState>empty();
+        return relationshipStatesMap != null ? values( relationshipStatesMap ) : Iterables.<RelationshipState>empty();
     }
 
     private boolean hasDeletedRelationshipsDiffSets()
@@ -840,7 +844,7 @@ public final class TxStateImpl implements TxState
         STATE newState( long id );
     }
 
-    private <STATE> STATE getState( Map<Long, STATE> states, long id, StateCreator<STATE> creator )
+    private <STATE> STATE getState( PrimitiveLongObjectMap<STATE> states, long id, StateCreator<STATE> creator )
     {
         STATE result = states.get( id );
         if ( result != null )
@@ -981,11 +985,31 @@ public final class TxStateImpl implements TxState
         return hasNodeStatesMap() && nodeStatesMap().containsKey( nodeId );
     }
 
-    private Map<Long, NodeState> nodeStatesMap()
+    private static <STATE> Iterable<STATE> values( final PrimitiveLongObjectMap<STATE> states )
+    {
+        return new Iterable<STATE>()
+        {
+            @Override
+            public Iterator<STATE> iterator()
+            {
+                final PrimitiveLongIterator ids = states.iterator();
+                return new PrefetchingIterator<STATE>()
+                {
+                    @Override
+                    protected STATE fetchNextOrNull()
+                    {
+                        return ids.hasNext() ? states.get( ids.next() ) : null;
+                    }
+                };
+            }
+        };
+    }
+
+    private PrimitiveLongObjectMap<NodeState> nodeStatesMap()
     {
         if ( !hasNodeStatesMap() )
         {
-            nodeStatesMap = new HashMap<>();
+            nodeStatesMap = Primitive.longObjectMap();
         }
         return nodeStatesMap;
     }
@@ -995,11 +1019,11 @@ public final class TxStateImpl implements TxState
         return null != nodeStatesMap;
     }
 
-    private Map<Long, RelationshipState> relationshipStatesMap()
+    private PrimitiveLongObjectMap<RelationshipState> relationshipStatesMap()
     {
         if ( !hasRelationshipsStatesMap() )
         {
-            relationshipStatesMap = new HashMap<>();
+            relationshipStatesMap = Primitive.longObjectMap();
         }
         return relationshipStatesMap;
     }
@@ -1009,11 +1033,11 @@ public final class TxStateImpl implements TxState
         return null != relationshipStatesMap;
     }
 
-    private Map<Long, LabelState> labelStatesMap()
+    private PrimitiveLongObjectMap<LabelState> labelStatesMap()
     {
         if ( !hasLabelStatesMap() )
         {
-            labelStatesMap = new HashMap<>();
+            labelStatesMap = Primitive.longObjectMap();
         }
         return labelStatesMap;
     }
@@ -56,6 +56,7 @@ import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -368,6 +369,12 @@ public class CacheLayer implements StoreReadLayer
         return diskLayer.indexGetFailure( descriptor );
     }
 
+    @Override
+    public IndexSample indexGetSample( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        return indexingService.indexSample( schemaCache.indexId( descriptor ) );
+    }
+
     @Override
     public int labelGetForName( String labelName )
     {
@@ -49,6 +49,7 @@ import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -431,6 +432,12 @@ public class DiskLayer implements StoreReadLayer
         return indexService.getProxyForRule( indexId( descriptor ) ).getPopulationFailure().asString();
     }
 
+    @Override
+    public IndexSample indexGetSample( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        return indexService.indexSample( indexId( descriptor ) );
+    }
+
     private long indexId( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
     {
         try
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.store;
+
+import org.neo4j.helpers.Thunk;
+import org.neo4j.kernel.api.EntityType;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.PrimitiveRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+
+/**
+ * Reads a chosen set of properties of a node or relationship straight from the property store, in one walk of its
+ * property record chain. Unlike going through the {@link PersistenceCache}, which loads all properties of an entity,
+ * only the blocks of the requested keys are decoded, and the walk stops as soon as all of them have been found.
+ *
+ * This only sees committed state, so callers need to make sure the entity isn't changed in their own transaction.
+ */
+public class StorePropertyReader
+{
+    private final Thunk<NeoStore> neoStore;
+
+    public StorePropertyReader( Thunk<NeoStore> neoStore )
+    {
+        this.neoStore = neoStore;
+    }
+
+    /**
+     * @return the values of the given property keys, in the same order, with {@code null} for keys the node doesn't
+     * have.
+     */
+    public Object[] nodeProperties( long nodeId, int[] propertyKeyIds ) throws EntityNotFoundException
+    {
+        NeoStore store = neoStore.evaluate();
+        PrimitiveRecord record;
+        try
+        {
+            record = store.getNodeStore().getRecord( nodeId );
+        }
+        catch ( InvalidRecordException e )
+        {
+            throw new EntityNotFoundException( EntityType.NODE, nodeId, e );
+        }
+        return properties( store.getPropertyStore(), record.getNextProp(), propertyKeyIds );
+    }
+
+    /**
+     * @return the values of the given property keys, in the same order, with {@code null} for keys the relationship
+     * doesn't have.
+     */
+    public Object[] relationshipProperties( long relationshipId, int[] propertyKeyIds )
+            throws EntityNotFoundException
+    {
+        NeoStore store = neoStore.evaluate();
+        PrimitiveRecord record;
+        try
+        {
+            record = store.getRelationshipStore().getRecord( relationshipId );
+        }
+        catch ( InvalidRecordException e )
+        {
+            throw new EntityNotFoundException( EntityType.RELATIONSHIP, relationshipId, e );
+        }
+        return properties( store.getPropertyStore(), record.getNextProp(), propertyKeyIds );
+    }
+
+    private Object[] properties( PropertyStore propertyStore, long nextProp, int[] propertyKeyIds )
+    {
+        Object[] values = new Object[propertyKeyIds.length];
+        boolean[] found = new boolean[propertyKeyIds.length];
+        int remaining = propertyKeyIds.length;
+        while ( remaining > 0 && nextProp != Record.NO_NEXT_PROPERTY.intValue() )
+        {
+            PropertyRecord propertyRecord = propertyStore.getRecord( nextProp );
+            for ( PropertyBlock block : propertyRecord.getPropertyBlocks() )
+            {
+                int keyId = block.getKeyIndexId();
+                for ( int i = 0; i < propertyKeyIds.length; i++ )
+                {
+                    if ( !found[i] && propertyKeyIds[i] == keyId )
+                    {
+                        values[i] = block.getType().getValue( block, propertyStore );
+                        found[i] = true;
+                        remaining--;
+                    }
+                }
+            }
+            nextProp = propertyRecord.getNextProp();
+        }
+        return values;
+    }
+}
@@ -35,6 +35,7 @@ import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -136,6 +137,8 @@ public interface StoreReadLayer
 
     String indexGetFailure( IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
 
+    IndexSample indexGetSample( IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
+
     int labelGetForName( String labelName );
 
     String labelGetName( int labelId ) throws LabelNotFoundKernelException;
@@ -28,6 +28,7 @@ import org.neo4j.graphdb.index.RelationshipIndex;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.InvalidTransactionTypeKernelException;
 import org.neo4j.kernel.api.exceptions.ReadOnlyDatabaseKernelException;
+import org.neo4j.kernel.api.exceptions.legacyindex.LegacyIndexNotFoundKernelException;
 import org.neo4j.kernel.impl.core.ReadOnlyDbException;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 
@@ -47,6 +48,10 @@ public class IndexProviderImpl implements IndexProvider
     {
         try ( Statement statement = transactionBridge.instance() )
         {
+            if ( customConfiguration == null && nodeIndexExists( statement, indexName ) )
+            {
+                return new LegacyIndexProxy<>( indexName, LegacyIndexProxy.Type.NODE, lookup, transactionBridge );
+            }
             // TODO 2.2-future there's a sub-o-meta thing here where we create index config,
             // and the index will itself share the same IndexConfigStore as us and pick up and use
             // that. We should pass along config somehow with calls.
@@ -69,6 +74,10 @@ public class IndexProviderImpl implements IndexProvider
     {
         try ( Statement statement = transactionBridge.instance() )
         {
+            if ( customConfiguration == null && relationshipIndexExists( statement, indexName ) )
+            {
+                return new RelationshipLegacyIndexProxy( indexName, lookup, transactionBridge );
+            }
             // TODO 2.2-future there's a sub-o-meta thing here where we create index config,
             // and the index will itself share the same IndexConfigStore as us and pick up and use
             // that. We should pass along config somehow with calls.
@@ -84,4 +93,34 @@ public class IndexProviderImpl implements IndexProvider
             throw new ReadOnlyDbException();
         }
     }
+
+    /*
+     * Looking up an index that already exists must not upgrade the statement to a data write one,
+     * since that isn't allowed in read only transactions.
+     */
+    private boolean nodeIndexExists( Statement statement, String indexName )
+    {
+        try
+        {
+            statement.readOperations().nodeLegacyIndexGetConfiguration( indexName );
+            return true;
+        }
+        catch ( LegacyIndexNotFoundKernelException e )
+        {
+            return false;
+        }
+    }
+
+    private boolean relationshipIndexExists( Statement statement, String indexName )
+    {
+        try
+        {
+            statement.readOperations().relationshipLegacyIndexGetConfiguration( indexName );
+            return true;
+        }
+        catch ( LegacyIndexNotFoundKernelException e )
+        {
+            return false;
+        }
+    }
 }
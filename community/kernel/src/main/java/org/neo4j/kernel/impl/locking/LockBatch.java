@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.Arrays;
+
+/**
+ * A set of resources, possibly of different {@link Locks.ResourceType resource types}, that should be locked
+ * together. Batching locks like this allows lock clients that coordinate with some remote party, like the slave
+ * lock client in HA, to acquire all of them in a single round trip.
+ *
+ * Resources are always visited in a deterministic order, by {@link Locks.ResourceType#typeId() type id} first and
+ * resource id second, with duplicates removed. Two clients acquiring overlapping batches will therefore grab the
+ * overlapping locks in the same order, which avoids deadlocks between them.
+ */
+public class LockBatch
+{
+    public interface Visitor
+    {
+        /**
+         * Visits all resources of one type in this batch. Ids are sorted and unique.
+         */
+        void visit( Locks.ResourceType type, long[] resourceIds );
+    }
+
+    private Locks.ResourceType[] types = new Locks.ResourceType[ResourceTypes.values().length];
+    private long[][] ids = new long[types.length][];
+    private int[] counts = new int[types.length];
+    private boolean normalized = true;
+
+    public LockBatch add( Locks.ResourceType type, long... resourceIds )
+    {
+        int typeId = type.typeId();
+        ensureTypeCapacity( typeId );
+        if ( types[typeId] == null )
+        {
+            types[typeId] = type;
+            ids[typeId] = new long[Math.max( 4, resourceIds.length )];
+        }
+        else if ( types[typeId] != type )
+        {
+            throw new IllegalArgumentException( "Resource type " + type + " has the same type id as " +
+                    types[typeId] );
+        }
+
+        int count = counts[typeId];
+        long[] typeIds = ids[typeId];
+        if ( count + resourceIds.length > typeIds.length )
+        {
+            typeIds = ids[typeId] = Arrays.copyOf( typeIds, Math.max( typeIds.length * 2, count + resourceIds.length ) );
+        }
+        System.arraycopy( resourceIds, 0, typeIds, count, resourceIds.length );
+        counts[typeId] = count + resourceIds.length;
+        normalized = false;
+        return this;
+    }
+
+    public boolean isEmpty()
+    {
+        for ( int count : counts )
+        {
+            if ( count > 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of distinct resources in this batch.
+     */
+    public int size()
+    {
+        normalize();
+        int size = 0;
+        for ( int count : counts )
+        {
+            size += count;
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of distinct resource types in this batch.
+     */
+    public int numberOfTypes()
+    {
+        int result = 0;
+        for ( int count : counts )
+        {
+            if ( count > 0 )
+            {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    public void accept( Visitor visitor )
+    {
+        normalize();
+        for ( int typeId = 0; typeId < types.length; typeId++ )
+        {
+            if ( counts[typeId] > 0 )
+            {
+                visitor.visit( types[typeId], Arrays.copyOf( ids[typeId], counts[typeId] ) );
+            }
+        }
+    }
+
+    /**
+     * Acquires the shared locks in this batch using one call per resource type. This is what lock clients
+     * without any cheaper way of acquiring a whole batch should do.
+     */
+    public void acquireSharedPerType( final Locks.Client client )
+    {
+        accept( new Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                client.acquireShared( type, resourceIds );
+            }
+        } );
+    }
+
+    /**
+     * Acquires the exclusive locks in this batch using one call per resource type. This is what lock clients
+     * without any cheaper way of acquiring a whole batch should do.
+     */
+    public void acquireExclusivePerType( final Locks.Client client )
+    {
+        accept( new Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                client.acquireExclusive( type, resourceIds );
+            }
+        } );
+    }
+
+    public void clear()
+    {
+        Arrays.fill( counts, 0 );
+        normalized = true;
+    }
+
+    private void normalize()
+    {
+        if ( normalized )
+        {
+            return;
+        }
+        for ( int typeId = 0; typeId < types.length; typeId++ )
+        {
+            int count = counts[typeId];
+            if ( count > 1 )
+            {
+                long[] typeIds = ids[typeId];
+                Arrays.sort( typeIds, 0, count );
+                int unique = 1;
+                for ( int i = 1; i < count; i++ )
+                {
+                    if ( typeIds[i] != typeIds[unique - 1] )
+                    {
+                        typeIds[unique++] = typeIds[i];
+                    }
+                }
+                counts[typeId] = unique;
+            }
+        }
+        normalized = true;
+    }
+
+    private void ensureTypeCapacity( int typeId )
+    {
+        if ( typeId >= types.length )
+        {
+            int length = typeId + 1;
+            types = Arrays.copyOf( types, length );
+            ids = Arrays.copyOf( ids, length );
+            counts = Arrays.copyOf( counts, length );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder( "LockBatch[" );
+        accept( new Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                builder.append( type ).append( Arrays.toString( resourceIds ) );
+            }
+        } );
+        return builder.append( "]" ).toString();
+    }
+}
@@ -86,6 +86,18 @@ public interface Locks extends Lifecycle
          */
         void acquireExclusive(ResourceType resourceType, long ... resourceIds) throws AcquireLockTimeoutException;
 
+        /**
+         * Grabs shared locks on all resources in the given batch, possibly of several resource types, in the
+         * deterministic order defined by {@link LockBatch}.
+         */
+        void acquireShared( LockBatch batch ) throws AcquireLockTimeoutException;
+
+        /**
+         * Grabs exclusive locks on all resources in the given batch, possibly of several resource types, in the
+         * deterministic order defined by {@link LockBatch}.
+         */
+        void acquireExclusive( LockBatch batch ) throws AcquireLockTimeoutException;
+
         /** Try grabbing exclusive lock, not waiting and returning a boolean indicating if we got the lock. */
         boolean tryExclusiveLock( ResourceType resourceType, long ... resourceIds );
 
@@ -31,6 +31,16 @@ public class NoOpClient implements Locks.Client
     {
     }
 
+    @Override
+    public void acquireShared( LockBatch batch ) throws AcquireLockTimeoutException
+    {
+    }
+
+    @Override
+    public void acquireExclusive( LockBatch batch ) throws AcquireLockTimeoutException
+    {
+    }
+
     @Override
     public boolean tryExclusiveLock( Locks.ResourceType resourceType, long... resourceIds )
     {
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.locking.community;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 
 public class CommunityLockClient implements Locks.Client
@@ -75,6 +76,18 @@ public class CommunityLockClient implements Locks.Client
         }
     }
 
+    @Override
+    public void acquireShared( LockBatch batch )
+    {
+        batch.acquireSharedPerType( this );
+    }
+
+    @Override
+    public void acquireExclusive( LockBatch batch )
+    {
+        batch.acquireExclusivePerType( this );
+    }
+
     @Override
     public boolean tryExclusiveLock( Locks.ResourceType resourceType, long... resourceIds )
     {
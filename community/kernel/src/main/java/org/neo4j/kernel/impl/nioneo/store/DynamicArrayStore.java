@@ -80,6 +80,12 @@ public class DynamicArrayStore extends AbstractDynamicStore
 
     public static void allocateFromNumbers( Collection<DynamicRecord> target, Object array,
             Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator )
+    {
+        allocateFromNumbers( target, array, recordsToUseFirst, recordAllocator, false );
+    }
+
+    private static void allocateFromNumbers( Collection<DynamicRecord> target, Object array,
+            Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator, boolean compress )
     {
         Class<?> componentType = array.getClass().getComponentType();
         boolean isPrimitiveByteArray = componentType.equals( Byte.TYPE );
@@ -93,6 +99,20 @@ public class DynamicArrayStore extends AbstractDynamicStore
         int arrayLength = Array.getLength( array );
         int requiredBits = isByteArray ? Byte.SIZE : type.calculateRequiredBitsForArray( array, arrayLength);
         int totalBits = requiredBits*arrayLength;
+        byte typeId = (byte) type.intValue();
+        boolean deltaEncode = false;
+        if ( compress && arrayLength > 1 && PropertyValueCompression.canDeltaEncode( type ) )
+        {
+            int requiredBitsForDeltas = PropertyValueCompression.requiredBitsForDeltas( array, arrayLength );
+            int totalBitsForDeltas = PropertyValueCompression.totalBitsForDeltas( arrayLength, requiredBitsForDeltas );
+            if ( totalBitsForDeltas < totalBits )
+            {
+                deltaEncode = true;
+                requiredBits = requiredBitsForDeltas;
+                totalBits = totalBitsForDeltas;
+                typeId |= PropertyValueCompression.DELTA_ENCODED;
+            }
+        }
         int numberOfBytes = (totalBits-1)/8+1;
         int bitsUsedInLastByte = totalBits%8;
         bitsUsedInLastByte = bitsUsedInLastByte == 0 ? 8 : bitsUsedInLastByte;
@@ -120,10 +140,17 @@ public class DynamicArrayStore extends AbstractDynamicStore
         else
         {
             Bits bits = Bits.bits( numberOfBytes );
-            bits.put( (byte)type.intValue() );
+            bits.put( typeId );
             bits.put( (byte)bitsUsedInLastByte );
             bits.put( (byte)requiredBits );
-            type.writeAll(array, arrayLength,requiredBits,bits);
+            if ( deltaEncode )
+            {
+                PropertyValueCompression.writeDeltas( array, arrayLength, requiredBits, bits );
+            }
+            else
+            {
+                type.writeAll(array, arrayLength,requiredBits,bits);
+            }
             bytes = bits.asBytes();
         }
         allocateRecordsFromBytes( target, bytes, recordsToUseFirst, recordAllocator );
@@ -160,6 +187,16 @@ public class DynamicArrayStore extends AbstractDynamicStore
 
     public static void allocateRecords( Collection<DynamicRecord> target, Object array,
             Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator )
+    {
+        allocateRecords( target, array, recordsToUseFirst, recordAllocator, false );
+    }
+
+    /**
+     * @param compress whether or not to delta encode integer arrays where that saves space,
+     * see {@link PropertyValueCompression}.
+     */
+    public static void allocateRecords( Collection<DynamicRecord> target, Object array,
+            Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator, boolean compress )
     {
         if ( !array.getClass().isArray() )
         {
@@ -173,7 +210,7 @@ public class DynamicArrayStore extends AbstractDynamicStore
         }
         else
         {
-            allocateFromNumbers( target, array, recordsToUseFirst, recordAllocator );
+            allocateFromNumbers( target, array, recordsToUseFirst, recordAllocator, compress );
         }
     }
 
@@ -200,7 +237,8 @@ public class DynamicArrayStore extends AbstractDynamicStore
         }
         else
         {
-            ShortArray type = ShortArray.typeOf( typeId );
+            boolean deltaEncoded = PropertyValueCompression.isDeltaEncoded( typeId );
+            ShortArray type = ShortArray.typeOf( PropertyValueCompression.withoutDeltaEncoding( typeId ) );
             int bitsUsedInLastByte = header[1];
             int requiredBits = header[2];
             if ( requiredBits == 0 )
@@ -208,7 +246,14 @@ public class DynamicArrayStore extends AbstractDynamicStore
                 return type.createEmptyArray();
             }
             Object result;
-            if ( type == ShortArray.BYTE && requiredBits == Byte.SIZE )
+            if ( deltaEncoded )
+            {
+                Bits bits = Bits.bitsFromBytes( bArray );
+                int length = PropertyValueCompression.lengthOfDeltas(
+                        bArray.length*8-(8-bitsUsedInLastByte), requiredBits );
+                result = PropertyValueCompression.readDeltas( type, length, bits, requiredBits );
+            }
+            else if ( type == ShortArray.BYTE && requiredBits == Byte.SIZE )
             {   // Optimization for byte arrays (probably large ones)
                 result = bArray;
             }
@@ -278,6 +278,18 @@ public class NeoStore extends AbstractStore implements TransactionIdStore, LogVe
         return setRecord( fileSystem, neoStore, STORE_VERSION_POSITION, storeVersion );
     }
 
+    /**
+     * Sets the store id for the given {@code neoStore} file.
+     * Warning: This method only works for stores where there is no database running!
+     * @param neoStore the NeoStore file.
+     * @param storeId the store id to set.
+     */
+    public static void setStoreId( FileSystemAbstraction fileSystem, File neoStore, StoreId storeId )
+    {
+        setRecord( fileSystem, neoStore, TIME_POSITION, storeId.getCreationTime() );
+        setRecord( fileSystem, neoStore, RANDOM_POSITION, storeId.getRandomId() );
+    }
+
     private static long setRecord( FileSystemAbstraction fileSystem, File neoStore, int position, long value )
     {
         try ( StoreChannel channel = fileSystem.open( neoStore, "rw" ) )
@@ -26,6 +26,8 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.neo4j.graphdb.config.Setting;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.helpers.collection.IteratorUtil;
@@ -54,6 +56,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
 {
     public static abstract class Configuration extends AbstractStore.Configuration
     {
+        public static final Setting<Boolean> compress_property_values = GraphDatabaseSettings.compress_property_values;
     }
 
     public static final int DEFAULT_DATA_BLOCK_SIZE = 120;
@@ -72,6 +75,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
     private PropertyKeyTokenStore propertyKeyTokenStore;
     private DynamicArrayStore arrayPropertyStore;
     private final PropertyPhysicalToLogicalConverter physicalToLogicalConverter;
+    private final boolean compressValues;
 
     public PropertyStore(
             File fileName,
@@ -92,6 +96,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         this.propertyKeyTokenStore = propertyKeyTokenStore;
         this.arrayPropertyStore = arrayPropertyStore;
         this.physicalToLogicalConverter = new PropertyPhysicalToLogicalConverter( this );
+        this.compressValues = configuration.get( Configuration.compress_property_values );
     }
 
     @Override
@@ -101,6 +106,14 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         processor.processProperty( this, record );
     }
 
+    /**
+     * @return whether new string and array values that go into the dynamic stores should be compressed.
+     */
+    public boolean compressesValues()
+    {
+        return compressValues;
+    }
+
     public DynamicStringStore getStringStore()
     {
         return stringPropertyStore;
@@ -491,16 +504,33 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
     public static void allocateArrayRecords( Collection<DynamicRecord> target, Object array,
             DynamicRecordAllocator allocator )
     {
-        DynamicArrayStore.allocateRecords( target, array, IteratorUtil.<DynamicRecord>emptyIterator(), allocator );
+        allocateArrayRecords( target, array, allocator, false );
+    }
+
+    public static void allocateArrayRecords( Collection<DynamicRecord> target, Object array,
+            DynamicRecordAllocator allocator, boolean compress )
+    {
+        DynamicArrayStore.allocateRecords( target, array, IteratorUtil.<DynamicRecord>emptyIterator(), allocator,
+                compress );
     }
 
     public void encodeValue( PropertyBlock block, int keyId, Object value )
     {
-        encodeValue( block, keyId, value, stringPropertyStore, arrayPropertyStore );
+        encodeValue( block, keyId, value, stringPropertyStore, arrayPropertyStore, compressValues );
     }
 
     public static void encodeValue( PropertyBlock block, int keyId, Object value,
             DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator )
+    {
+        encodeValue( block, keyId, value, stringAllocator, arrayAllocator, false );
+    }
+
+    /**
+     * @param compress whether or not to compress values that end up in the dynamic stores,
+     * see {@link PropertyValueCompression}.
+     */
+    public static void encodeValue( PropertyBlock block, int keyId, Object value,
+            DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator, boolean compress )
     {
         if ( value instanceof String )
         {   // Try short string first, i.e. inlined in the property block
@@ -512,6 +542,10 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
 
             // Fall back to dynamic string store
             byte[] encodedString = encodeString( string );
+            if ( compress )
+            {
+                encodedString = PropertyValueCompression.compressString( encodedString );
+            }
             Collection<DynamicRecord> valueRecords = new ArrayList<>();
             allocateStringRecords( valueRecords, encodedString, stringAllocator );
             setSingleBlockValue( block, keyId, PropertyType.STRING, first( valueRecords ).getId() );
@@ -572,7 +606,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
 
             // Fall back to dynamic array store
             Collection<DynamicRecord> arrayRecords = new ArrayList<>();
-            allocateArrayRecords( arrayRecords, value, arrayAllocator );
+            allocateArrayRecords( arrayRecords, value, arrayAllocator, compress );
             setSingleBlockValue( block, keyId, PropertyType.ARRAY, first( arrayRecords ).getId() );
             for ( DynamicRecord valueRecord : arrayRecords )
             {
@@ -611,8 +645,8 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
     public String getStringFor( Collection<DynamicRecord> dynamicRecords )
     {
         Pair<byte[], byte[]> source = stringPropertyStore.readFullByteArray( dynamicRecords, PropertyType.STRING );
-        // A string doesn't have a header in the data array
-        return decodeString( source.other() );
+        // A string doesn't have a header in the data array, but may be compressed
+        return decodeString( PropertyValueCompression.decompressString( source.other() ) );
     }
 
     public Object getArrayFor( PropertyBlock propertyBlock )
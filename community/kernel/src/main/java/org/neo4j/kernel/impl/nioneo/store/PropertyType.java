@@ -251,7 +251,7 @@ public enum PropertyType
             {
                 return headOf( recordBytes, DynamicArrayStore.STRING_HEADER_SIZE );
             }
-            else if ( itemType <= DOUBLE.byteValue() )
+            else if ( PropertyValueCompression.withoutDeltaEncoding( itemType ) <= DOUBLE.byteValue() )
             {
                 return headOf( recordBytes, DynamicArrayStore.NUMBER_HEADER_SIZE );
             }
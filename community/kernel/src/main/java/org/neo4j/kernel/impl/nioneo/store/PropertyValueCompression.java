@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.neo4j.kernel.impl.util.Bits;
+
+/**
+ * Compressed encodings of property values that are too big to be inlined in a property record and therefore
+ * end up in the dynamic string or array store.
+ *
+ * Strings are deflated. A compressed string starts with a {@link #COMPRESSED_STRING marker byte} that never occurs
+ * in UTF-8, so values written before compression was enabled, as well as uncompressed values, still decode as
+ * plain UTF-8.
+ *
+ * Integer and long arrays are stored as their first item followed by zig-zag encoded deltas between consecutive
+ * items, bit-packed like the regular number arrays, whenever that takes fewer bits in total. Sorted arrays, like lists of ids or timestamps,
+ * usually shrink a lot. The array type in the header has the {@link #DELTA_ENCODED} flag set for those.
+ */
+class PropertyValueCompression
+{
+    static final byte COMPRESSED_STRING = (byte) 0xFF;
+    static final byte DELTA_ENCODED = 0x40;
+
+    /**
+     * Strings shorter than this are not worth compressing, deflate can't do much with them.
+     */
+    static final int MIN_COMPRESSED_STRING_LENGTH = 64;
+
+    private static final int COMPRESSED_STRING_HEADER_SIZE = 1/*marker*/ + 4/*uncompressed length*/;
+
+    private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<Deflater>()
+    {
+        @Override
+        protected Deflater initialValue()
+        {
+            return new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+        }
+    };
+
+    private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<Inflater>()
+    {
+        @Override
+        protected Inflater initialValue()
+        {
+            return new Inflater( true );
+        }
+    };
+
+    private PropertyValueCompression()
+    {
+        throw new AssertionError( "Not for instantiation!" );
+    }
+
+    /**
+     * @return the compressed form of the UTF-8 encoded string, or the UTF-8 bytes themselves if compressing them
+     * doesn't make them any smaller.
+     */
+    static byte[] compressString( byte[] utf8 )
+    {
+        if ( utf8.length < MIN_COMPRESSED_STRING_LENGTH )
+        {
+            return utf8;
+        }
+
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput( utf8 );
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream( utf8.length );
+        byte[] buffer = new byte[Math.min( utf8.length, 4096 )];
+        while ( !deflater.finished() )
+        {
+            int length = deflater.deflate( buffer );
+            out.write( buffer, 0, length );
+            if ( out.size() + COMPRESSED_STRING_HEADER_SIZE >= utf8.length )
+            {   // Not getting any smaller, don't bother
+                return utf8;
+            }
+        }
+
+        ByteBuffer result = ByteBuffer.allocate( COMPRESSED_STRING_HEADER_SIZE + out.size() );
+        result.put( COMPRESSED_STRING );
+        result.putInt( utf8.length );
+        result.put( out.toByteArray() );
+        return result.array();
+    }
+
+    static boolean isCompressedString( byte[] bytes )
+    {
+        return bytes.length > 0 && bytes[0] == COMPRESSED_STRING;
+    }
+
+    /**
+     * @return the UTF-8 bytes of a string encoded with {@link #compressString(byte[])}.
+     */
+    static byte[] decompressString( byte[] bytes )
+    {
+        if ( !isCompressedString( bytes ) )
+        {
+            return bytes;
+        }
+
+        ByteBuffer header = ByteBuffer.wrap( bytes, 1, 4 );
+        byte[] result = new byte[header.getInt()];
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput( bytes, COMPRESSED_STRING_HEADER_SIZE, bytes.length - COMPRESSED_STRING_HEADER_SIZE );
+        try
+        {
+            int offset = 0;
+            while ( offset < result.length )
+            {
+                int inflated = inflater.inflate( result, offset, result.length - offset );
+                if ( inflated == 0 && (inflater.finished() || inflater.needsInput()) )
+                {
+                    break;
+                }
+                offset += inflated;
+            }
+            if ( offset != result.length )
+            {
+                throw new InvalidRecordException( "Compressed string ended after " + offset + " of " +
+                        result.length + " bytes" );
+            }
+        }
+        catch ( DataFormatException e )
+        {
+            throw new InvalidRecordException( "Unable to decompress string", e );
+        }
+        return result;
+    }
+
+    static boolean canDeltaEncode( ShortArray type )
+    {
+        return type == ShortArray.LONG || type == ShortArray.INT;
+    }
+
+    static boolean isDeltaEncoded( byte typeId )
+    {
+        return (typeId & DELTA_ENCODED) != 0;
+    }
+
+    static byte withoutDeltaEncoding( byte typeId )
+    {
+        return (byte) (typeId & ~DELTA_ENCODED);
+    }
+
+    /**
+     * @return the number of bits required for each zig-zag encoded delta in the array, at least 1.
+     * The first item is always stored in full, see {@link #totalBitsForDeltas(int, int)}.
+     */
+    static int requiredBitsForDeltas( Object array, int arrayLength )
+    {
+        long allBits = 0;
+        long previous = valueAt( array, 0 );
+        for ( int i = 1; i < arrayLength; i++ )
+        {
+            long value = valueAt( array, i );
+            allBits |= zigZag( value - previous );
+            previous = value;
+        }
+        return Math.max( 1, Long.SIZE - Long.numberOfLeadingZeros( allBits ) );
+    }
+
+    static int totalBitsForDeltas( int arrayLength, int requiredBits )
+    {
+        return Long.SIZE + (arrayLength - 1) * requiredBits;
+    }
+
+    static int lengthOfDeltas( int totalBits, int requiredBits )
+    {
+        return (totalBits - Long.SIZE) / requiredBits + 1;
+    }
+
+    static void writeDeltas( Object array, int arrayLength, int requiredBits, Bits result )
+    {
+        long previous = valueAt( array, 0 );
+        result.put( previous, Long.SIZE );
+        for ( int i = 1; i < arrayLength; i++ )
+        {
+            long value = valueAt( array, i );
+            result.put( zigZag( value - previous ), requiredBits );
+            previous = value;
+        }
+    }
+
+    static Object readDeltas( ShortArray type, int length, Bits bits, int requiredBits )
+    {
+        long value = bits.getLong( Long.SIZE );
+        if ( type == ShortArray.LONG )
+        {
+            long[] result = new long[length];
+            result[0] = value;
+            for ( int i = 1; i < length; i++ )
+            {
+                value += unZigZag( bits.getLong( requiredBits ) );
+                result[i] = value;
+            }
+            return result;
+        }
+        if ( type == ShortArray.INT )
+        {
+            int[] result = new int[length];
+            result[0] = (int) value;
+            for ( int i = 1; i < length; i++ )
+            {
+                value += unZigZag( bits.getLong( requiredBits ) );
+                result[i] = (int) value;
+            }
+            return result;
+        }
+        throw new IllegalArgumentException( type + " arrays are never delta encoded" );
+    }
+
+    private static long valueAt( Object array, int index )
+    {
+        if ( array instanceof long[] )
+        {
+            return ((long[]) array)[index];
+        }
+        if ( array instanceof int[] )
+        {
+            return ((int[]) array)[index];
+        }
+        if ( array instanceof Long[] )
+        {
+            return ((Long[]) array)[index];
+        }
+        if ( array instanceof Integer[] )
+        {
+            return ((Integer[]) array)[index];
+        }
+        throw new IllegalArgumentException( array + " can not be delta encoded" );
+    }
+
+    private static long zigZag( long value )
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag( long value )
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
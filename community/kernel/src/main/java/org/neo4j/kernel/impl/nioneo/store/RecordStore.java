@@ -156,6 +156,17 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
         @SafeVarargs
         public final <R extends AbstractBaseRecord> Iterable<R> scan( final RecordStore<R> store,
                 final Predicate<? super R>... filters )
+        {
+            return scan( store, 0, Long.MAX_VALUE, filters );
+        }
+
+        /**
+         * Like {@link #scan(RecordStore, Predicate[])}, but only over the records with ids in the range
+         * {@code [fromId, toId)}, which allows different parts of one store to be processed in parallel.
+         */
+        @SafeVarargs
+        public final <R extends AbstractBaseRecord> Iterable<R> scan( final RecordStore<R> store,
+                final long fromId, final long toId, final Predicate<? super R>... filters )
         {
             return new Iterable<R>()
             {
@@ -164,7 +175,7 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
                 {
                     return new PrefetchingIterator<R>()
                     {
-                        final PrimitiveLongIterator ids = new StoreIdIterator( store );
+                        final PrimitiveLongIterator ids = new StoreIdIterator( store, fromId, toId );
 
                         @Override
                         protected R fetchNextOrNull()
@@ -225,15 +236,21 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
             apply( store, progressListener, filters );
         }
 
-        private <R extends AbstractBaseRecord> void apply( RecordStore<R> store, ProgressListener progressListener,
-                Predicate<? super R>... filters ) throws FAILURE
+        public <R extends AbstractBaseRecord> void applyFiltered( RecordStore<R> store, long fromId, long toId,
+                ProgressListener progressListener, Predicate<? super R>... filters ) throws FAILURE
         {
-            for ( R record : scan( store, filters ) )
+            for ( R record : scan( store, fromId, toId, filters ) )
             {
                 store.accept( this, record );
-                progressListener.set( record.getLongId() );
+                progressListener.set( record.getLongId() - fromId );
             }
             progressListener.done();
         }
+
+        private <R extends AbstractBaseRecord> void apply( RecordStore<R> store, ProgressListener progressListener,
+                Predicate<? super R>... filters ) throws FAILURE
+        {
+            applyFiltered( store, 0, Long.MAX_VALUE, progressListener, filters );
+        }
     }
 }
@@ -28,12 +28,22 @@ import static java.lang.String.format;
 public class StoreIdIterator implements PrimitiveLongIterator
 {
     private final RecordStore<?> store;
+    private final long toId;
     private long highId, id;
 
     public StoreIdIterator( RecordStore<?> store )
+    {
+        this( store, 0, Long.MAX_VALUE );
+    }
+
+    /**
+     * Iterates over the ids in the range {@code [fromId, toId)} that are below the high id of the store.
+     */
+    public StoreIdIterator( RecordStore<?> store, long fromId, long toId )
     {
         this.store = store;
-        this.id = store.getNumberOfReservedLowIds();
+        this.id = Math.max( fromId, store.getNumberOfReservedLowIds() );
+        this.toId = toId;
     }
 
     @Override
@@ -49,7 +59,7 @@ public class StoreIdIterator implements PrimitiveLongIterator
         {
             return true;
         }
-        highId = store.getHighId();
+        highId = Math.min( store.getHighId(), toId );
         return id < highId;
     }
 
@@ -63,6 +63,7 @@ import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionHooks;
 import org.neo4j.kernel.impl.api.TransactionRepresentationStoreApplier;
 import org.neo4j.kernel.impl.api.UpdateableSchemaState;
+import org.neo4j.kernel.impl.api.index.IndexSamplingController;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
@@ -100,6 +101,7 @@ import org.neo4j.kernel.impl.nioneo.store.StoreId;
 import org.neo4j.kernel.impl.nioneo.store.TransactionIdStore;
 import org.neo4j.kernel.impl.storemigration.StoreUpgrader;
 import org.neo4j.kernel.impl.transaction.KernelHealth;
+import org.neo4j.kernel.impl.transaction.xaframework.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.xaframework.LogFile;
 import org.neo4j.kernel.impl.transaction.xaframework.LogFileInformation;
 import org.neo4j.kernel.impl.transaction.xaframework.LogPosition;
@@ -464,8 +466,9 @@ public class NeoStoreXaDataSource implements NeoStoreProvider, Lifecycle, LogRot
                                 }
                             }) );
             
+            boolean preallocateLogs = config.get( GraphDatabaseSettings.logical_log_preallocation );
             LogPruneStrategy logPruneStrategy = LogPruneStrategyFactory.fromConfigValue( fs, logFileInformation,
-                    logFiles, neoStore, config.get( GraphDatabaseSettings.keep_logical_logs ) );
+                    logFiles, neoStore, config.get( GraphDatabaseSettings.keep_logical_logs ), preallocateLogs );
 
             final TransactionRepresentationStoreApplier storeApplier = dependencies.satisfyDependency(
                     new TransactionRepresentationStoreApplier(
@@ -474,13 +477,17 @@ public class NeoStoreXaDataSource implements NeoStoreProvider, Lifecycle, LogRot
                             DEFAULT_HIGH_ID_TRACKING ) );
 
             LoggingLogFileMonitor logMonitor = new LoggingLogFileMonitor( logging.getMessagesLog( getClass() ) );
-            RecoveryVisitor recoveryVisitor = new RecoveryVisitor( neoStore,
-                    storeApplier, recoveredCount, logMonitor );
+            int recoveryThreads = config.get( GraphDatabaseSettings.recovery_threads );
+            Visitor<CommittedTransactionRepresentation, IOException> recoveryVisitor = recoveryThreads > 1 ?
+                    new ParallelRecoveryVisitor( neoStore, storeApplier, recoveredCount, logMonitor, recoveryThreads,
+                            config.get( GraphDatabaseSettings.mapped_memory_page_size ) ) :
+                    new RecoveryVisitor( neoStore, storeApplier, recoveredCount, logMonitor );
             Visitor<ReadableLogChannel, IOException> logFileRecoverer =
                     new LogFileRecoverer( new VersionAwareLogEntryReader(), recoveryVisitor );
             logFile = dependencies.satisfyDependency( new PhysicalLogFile( fs, logFiles,
-                    config.get( GraphDatabaseSettings.logical_log_rotation_threshold ), logPruneStrategy, neoStore,
-                    neoStore, logMonitor, this, transactionMetadataCache, logFileRecoverer ) );
+                    config.get( GraphDatabaseSettings.logical_log_rotation_threshold ), preallocateLogs,
+                    logPruneStrategy, neoStore, neoStore, logMonitor, this, transactionMetadataCache,
+                    logFileRecoverer ) );
 
             final LogicalTransactionStore logicalTransactionStore = dependencies.satisfyDependency(
                     LogicalTransactionStore.class, new PhysicalLogicalTransactionStore( logFile, txIdGenerator,
@@ -511,10 +518,12 @@ public class NeoStoreXaDataSource implements NeoStoreProvider, Lifecycle, LogRot
 
             StatementOperationParts statementOperations = buildStatementOperations( storeLayer, legacyPropertyTrackers,
                     constraintIndexCreator, updateableSchemaState, guard, legacyIndexStore );
+            StatementOperationParts readOnlyStatementOperations = buildReadOnlyStatementOperations( storeLayer,
+                    legacyPropertyTrackers, constraintIndexCreator, updateableSchemaState, guard, legacyIndexStore );
 
             kernelTransactions = life.add(new KernelTransactions( neoStoreTransactionContextSupplier,
                     neoStore, locks, integrityValidator, constraintIndexCreator, indexingService, labelScanStore,
-                    statementOperations, updateableSchemaState, schemaWriteGuard, providerMap,
+                    statementOperations, readOnlyStatementOperations, updateableSchemaState, schemaWriteGuard, providerMap,
                     transactionHeaderInformationFactory, persistenceCache, storeLayer, transactionCommitProcess, indexConfigStore,
                     legacyIndexProviderLookup, hooks, transactionMonitor, life, readOnly ));
 
@@ -543,6 +552,8 @@ public class NeoStoreXaDataSource implements NeoStoreProvider, Lifecycle, LogRot
             } );
             life.add( indexingService );
             life.add( labelScanStore );
+            life.add( new IndexSamplingController( indexingService, scheduler,
+                    config.get( GraphDatabaseSettings.index_sampling_interval ) ) );
 
             kernel.registerTransactionHook( transactionEventHandlers );
             neoStore.setRecoveredStatus( true );
@@ -788,6 +799,41 @@ public class NeoStoreXaDataSource implements NeoStoreProvider, Lifecycle, LogRot
         return parts;
     }
 
+    /**
+     * Read-only transactions can't write, so only the read side of the operations above is needed. Entity reads
+     * go straight to the transaction state handling, schema reads still take the shared schema lock.
+     */
+    private StatementOperationParts buildReadOnlyStatementOperations(
+            StoreReadLayer storeReadLayer, LegacyPropertyTrackers legacyPropertyTrackers,
+            ConstraintIndexCreator constraintIndexCreator, UpdateableSchemaState updateableSchemaState,
+            Guard guard, LegacyIndexStore legacyIndexStore )
+    {
+        // Bottom layer: Read-access to committed data
+        StoreReadLayer storeLayer = storeReadLayer;
+        // + Transaction state handling
+        StateHandlingStatementOperations stateHandlingContext = new StateHandlingStatementOperations( storeLayer,
+                legacyPropertyTrackers, constraintIndexCreator,
+                legacyIndexStore );
+        // + Data integrity, for creating tokens
+        DataIntegrityValidatingStatementOperations dataIntegrityContext = new DataIntegrityValidatingStatementOperations(
+                stateHandlingContext, stateHandlingContext, stateHandlingContext );
+        // + Locking
+        LockingStatementOperations lockingContext = new LockingStatementOperations( stateHandlingContext,
+                null, stateHandlingContext, null, new SchemaStateConcern( updateableSchemaState ) );
+        StatementOperationParts parts = new StatementOperationParts( stateHandlingContext, dataIntegrityContext,
+                stateHandlingContext, null, lockingContext, null, lockingContext, lockingContext,
+                stateHandlingContext, null );
+        // + Guard
+        if ( guard != null )
+        {
+            GuardingStatementOperations guardingOperations = new GuardingStatementOperations(
+                    null, parts.entityReadOperations(), guard );
+            parts = parts.override( null, null, guardingOperations, null, null, null, null, null, null, null );
+        }
+
+        return parts;
+    }
+
     @Override
     public void registerIndexProvider( String name, IndexImplementation index )
     {
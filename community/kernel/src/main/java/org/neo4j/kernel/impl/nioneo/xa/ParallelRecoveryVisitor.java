@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.impl.api.TransactionRepresentationStoreApplier;
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.PropertyCommand;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.RelationshipGroupCommand;
+import org.neo4j.kernel.impl.transaction.xaframework.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.xaframework.TransactionRepresentation;
+
+/**
+ * Recovers transactions like {@link RecoveryVisitor}, but applies consecutive transactions that only change
+ * nodes, relationships, relationship groups and properties in batches, with the record changes applied by
+ * multiple threads. Record commands are partitioned by the store page they live on, so that all changes to a
+ * record end up in the same partition, in log order. Transactions with any other commands, like schema or token
+ * changes, are applied one at a time, in between batches. Label scan store and schema index updates are applied
+ * one transaction at a time, in log order, once the record changes of a batch are in place.
+ *
+ * Dynamic label and property value records are written along with the record owning them, which might end up in
+ * another partition than the record that previously owned them. A transaction reusing a dynamic record that is
+ * already changed by the current batch therefore starts a new batch. Dynamic record ids are never reused within
+ * a single transaction.
+ */
+public class ParallelRecoveryVisitor implements Visitor<CommittedTransactionRepresentation, IOException>, Closeable
+{
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    private static final long LABEL_RECORD = 1L << 60;
+    private static final long PROPERTY_VALUE_RECORD = 2L << 60;
+
+    private final NeoStore neoStore;
+    private final TransactionRepresentationStoreApplier storeApplier;
+    private final AtomicInteger recoveredCount;
+    private final RecoveryVisitor.Monitor monitor;
+    private final int threads;
+    private final long pageSize;
+
+    private final List<Command> batch = new ArrayList<>();
+    private final List<List<Command>> batchedTransactions = new ArrayList<>();
+    private final List<Long> batchedTransactionIds = new ArrayList<>();
+    private final PrimitiveLongSet batchedDynamicRecords = Primitive.longSet();
+    private List<Command> transaction;
+    private final PrimitiveLongSet transactionDynamicRecords = Primitive.longSet();
+    private long lastTransactionIdApplied = -1;
+
+    public ParallelRecoveryVisitor( NeoStore neoStore, TransactionRepresentationStoreApplier storeApplier,
+                                    AtomicInteger recoveredCount, RecoveryVisitor.Monitor monitor,
+                                    int threads, long pageSize )
+    {
+        this.neoStore = neoStore;
+        this.storeApplier = storeApplier;
+        this.recoveredCount = recoveredCount;
+        this.monitor = monitor;
+        this.threads = threads;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean visit( CommittedTransactionRepresentation committed ) throws IOException
+    {
+        long txId = committed.getCommitEntry().getTxId();
+        TransactionRepresentation representation = committed.getTransactionRepresentation();
+        if ( !collectRecordCommands( representation ) )
+        {
+            applyBatch();
+            storeApplier.apply( representation, txId, true );
+            recovered( txId );
+            return true;
+        }
+
+        if ( overlapsWithBatch( transactionDynamicRecords ) )
+        {
+            applyBatch();
+        }
+        batch.addAll( transaction );
+        batchedTransactions.add( transaction );
+        batchedDynamicRecords.addAll( transactionDynamicRecords.iterator() );
+        batchedTransactionIds.add( txId );
+        if ( batch.size() >= MAX_BATCH_SIZE )
+        {
+            applyBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Collects the commands and dynamic record keys of the given transaction.
+     *
+     * @return {@code false} if the transaction contains commands that can't be batched.
+     */
+    private boolean collectRecordCommands( TransactionRepresentation representation ) throws IOException
+    {
+        transaction = new ArrayList<>();
+        transactionDynamicRecords.clear();
+        final boolean[] onlyRecordCommands = {true};
+        representation.accept( new Visitor<Command, IOException>()
+        {
+            @Override
+            public boolean visit( Command command ) throws IOException
+            {
+                if ( command instanceof NodeCommand )
+                {
+                    NodeCommand nodeCommand = (NodeCommand) command;
+                    addDynamicRecords( LABEL_RECORD, nodeCommand.getBefore().getDynamicLabelRecords() );
+                    addDynamicRecords( LABEL_RECORD, nodeCommand.getAfter().getDynamicLabelRecords() );
+                }
+                else if ( command instanceof PropertyCommand )
+                {
+                    PropertyRecord record = ((PropertyCommand) command).getAfter();
+                    for ( PropertyBlock block : record.getPropertyBlocks() )
+                    {
+                        addDynamicRecords( PROPERTY_VALUE_RECORD, block.getValueRecords() );
+                    }
+                    addDynamicRecords( PROPERTY_VALUE_RECORD, record.getDeletedRecords() );
+                }
+                else if ( !(command instanceof RelationshipCommand || command instanceof RelationshipGroupCommand) )
+                {
+                    onlyRecordCommands[0] = false;
+                    return false;
+                }
+                transaction.add( command );
+                return true;
+            }
+        } );
+        return onlyRecordCommands[0];
+    }
+
+    private void addDynamicRecords( long type, Collection<DynamicRecord> records )
+    {
+        for ( DynamicRecord record : records )
+        {
+            transactionDynamicRecords.add( type | record.getId() );
+        }
+    }
+
+    private boolean overlapsWithBatch( PrimitiveLongSet dynamicRecords )
+    {
+        PrimitiveLongIterator keys = dynamicRecords.iterator();
+        while ( keys.hasNext() )
+        {
+            if ( batchedDynamicRecords.contains( keys.next() ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void applyBatch() throws IOException
+    {
+        if ( batchedTransactionIds.isEmpty() )
+        {
+            return;
+        }
+
+        List<List<Command>> partitions = new ArrayList<>( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            partitions.add( new ArrayList<Command>() );
+        }
+        for ( Command command : batch )
+        {
+            partitions.get( partition( command ) ).add( command );
+        }
+        // The threads only live for as long as the batch is applied, so that they go away also when recovery
+        // fails half way through the log, where there's no one around to close this visitor
+        ExecutorService executor = Executors.newFixedThreadPool( threads, new NamedThreadFactory( "Recovery" ) );
+        try
+        {
+            storeApplier.applyRecoveredBatch( batchedTransactions, partitions, executor );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        for ( long txId : batchedTransactionIds )
+        {
+            recovered( txId );
+        }
+        batch.clear();
+        batchedTransactions.clear();
+        batchedTransactionIds.clear();
+        batchedDynamicRecords.clear();
+    }
+
+    int partition( Command command )
+    {
+        RecordStore<?> store;
+        int storeIndex;
+        if ( command instanceof NodeCommand )
+        {
+            store = neoStore.getNodeStore();
+            storeIndex = 0;
+        }
+        else if ( command instanceof RelationshipCommand )
+        {
+            store = neoStore.getRelationshipStore();
+            storeIndex = 1;
+        }
+        else if ( command instanceof RelationshipGroupCommand )
+        {
+            store = neoStore.getRelationshipGroupStore();
+            storeIndex = 2;
+        }
+        else
+        {
+            store = neoStore.getPropertyStore();
+            storeIndex = 3;
+        }
+        long page = command.getKey() * store.getRecordSize() / pageSize;
+        return (int) ((page + storeIndex) % threads);
+    }
+
+    private void recovered( long txId )
+    {
+        recoveredCount.incrementAndGet();
+        lastTransactionIdApplied = txId;
+        monitor.transactionRecovered( txId );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        applyBatch();
+        if ( lastTransactionIdApplied != -1 )
+        {
+            neoStore.setLastCommittedAndClosedTransactionId( lastTransactionIdApplied );
+        }
+    }
+}
@@ -38,19 +38,28 @@ public class PropertyCreator
     private final DynamicRecordAllocator arrayRecordAllocator;
     private final IdSequence propertyRecordIdGenerator;
     private final PropertyTraverser traverser;
+    private final boolean compressValues;
 
     public PropertyCreator( PropertyStore propertyStore, PropertyTraverser traverser )
     {
-        this( propertyStore.getStringStore(), propertyStore.getArrayStore(), propertyStore, traverser );
+        this( propertyStore.getStringStore(), propertyStore.getArrayStore(), propertyStore, traverser,
+                propertyStore.compressesValues() );
     }
 
     public PropertyCreator( DynamicRecordAllocator stringRecordAllocator, DynamicRecordAllocator arrayRecordAllocator,
             IdSequence propertyRecordIdGenerator, PropertyTraverser traverser )
+    {
+        this( stringRecordAllocator, arrayRecordAllocator, propertyRecordIdGenerator, traverser, false );
+    }
+
+    public PropertyCreator( DynamicRecordAllocator stringRecordAllocator, DynamicRecordAllocator arrayRecordAllocator,
+            IdSequence propertyRecordIdGenerator, PropertyTraverser traverser, boolean compressValues )
     {
         this.stringRecordAllocator = stringRecordAllocator;
         this.arrayRecordAllocator = arrayRecordAllocator;
         this.propertyRecordIdGenerator = propertyRecordIdGenerator;
         this.traverser = traverser;
+        this.compressValues = compressValues;
     }
 
     public <P extends PrimitiveRecord> void primitiveChangeProperty(
@@ -109,7 +118,8 @@ public class PropertyCreator
 
     public PropertyBlock encodeValue( PropertyBlock block, int propertyKey, Object value )
     {
-        PropertyStore.encodeValue( block, propertyKey, value, stringRecordAllocator, arrayRecordAllocator );
+        PropertyStore.encodeValue( block, propertyKey, value, stringRecordAllocator, arrayRecordAllocator,
+                compressValues );
         return block;
     }
 
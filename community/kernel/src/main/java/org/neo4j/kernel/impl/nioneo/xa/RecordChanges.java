@@ -19,11 +19,12 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.neo4j.helpers.Predicate;
-import org.neo4j.helpers.collection.Iterables;
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
+import org.neo4j.collection.primitive.PrimitiveLongObjectVisitor;
 import org.neo4j.kernel.impl.util.statistics.IntCounter;
 
 /**
@@ -31,15 +32,18 @@ import org.neo4j.kernel.impl.util.statistics.IntCounter;
  * deciding when to make a record heavy and when to consider it changed for inclusion in the
  * transaction as a command.
  *
+ * Keys are record ids, which are kept unboxed.
+ *
  * @author Mattias Persson
  *
  * @param <KEY>
  * @param <RECORD>
  * @param <ADDITIONAL>
  */
-public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RECORD,ADDITIONAL>
+public class RecordChanges<KEY extends Number,RECORD,ADDITIONAL> implements RecordAccess<KEY,RECORD,ADDITIONAL>
 {
-    private final Map<KEY, RecordChange<KEY,RECORD,ADDITIONAL>> recordChanges = new HashMap<>();
+    private final PrimitiveLongObjectMap<RecordChange<KEY,RECORD,ADDITIONAL>> recordChanges =
+            Primitive.longObjectMap();
     private final Loader<KEY,RECORD,ADDITIONAL> loader;
     private final boolean manageBeforeState;
     private IntCounter changeCounter = new IntCounter();
@@ -52,13 +56,13 @@ public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RE
 
     public RecordChange<KEY, RECORD, ADDITIONAL> getIfLoaded( KEY key )
     {
-        return recordChanges.get( key );
+        return recordChanges.get( key.longValue() );
     }
 
     @Override
     public RecordChange<KEY, RECORD, ADDITIONAL> getOrLoad( KEY key, ADDITIONAL additionalData )
     {
-        RecordChange<KEY, RECORD, ADDITIONAL> result = recordChanges.get( key );
+        RecordChange<KEY, RECORD, ADDITIONAL> result = recordChanges.get( key.longValue() );
         if ( result == null )
         {
             result = new RecordChange<>( recordChanges, changeCounter, key,
@@ -71,7 +75,7 @@ public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RE
     {
         RecordChange<KEY, RECORD, ADDITIONAL> recordChange = new RecordChange<>( recordChanges, changeCounter,
                 key, newRecord, loader, manageBeforeState, false, additionalData );
-        recordChanges.put( key, recordChange );
+        recordChanges.put( key.longValue(), recordChange );
         recordChange.forChangingData();
     }
 
@@ -90,7 +94,7 @@ public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RE
     @Override
     public RecordProxy<KEY, RECORD, ADDITIONAL> create( KEY key, ADDITIONAL additionalData )
     {
-        if ( recordChanges.containsKey( key ) )
+        if ( recordChanges.containsKey( key.longValue() ) )
         {
             throw new IllegalStateException( key + " already exists" );
         }
@@ -98,25 +102,30 @@ public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RE
         RECORD record = loader.newUnused( key, additionalData );
         RecordChange<KEY, RECORD, ADDITIONAL> change = new RecordChange<>(
                 recordChanges, changeCounter, key, record, loader, manageBeforeState, true, additionalData);
-        recordChanges.put( key, change );
+        recordChanges.put( key.longValue(), change );
         return change;
     }
 
     public Iterable<RecordChange<KEY,RECORD,ADDITIONAL>> changes()
     {
-        return Iterables.filter( new Predicate<RecordChange<KEY,RECORD,ADDITIONAL>>()
+        final List<RecordChange<KEY,RECORD,ADDITIONAL>> changes = new ArrayList<>( changeSize() );
+        recordChanges.visitEntries( new PrimitiveLongObjectVisitor<RecordChange<KEY,RECORD,ADDITIONAL>>()
         {
             @Override
-            public boolean accept( RecordChange<KEY, RECORD, ADDITIONAL> item )
+            public void visited( long key, RecordChange<KEY, RECORD, ADDITIONAL> change )
             {
-                return item.isChanged();
+                if ( change.isChanged() )
+                {
+                    changes.add( change );
+                }
             }
-        }, recordChanges.values() );
+        } );
+        return changes;
     }
 
-    public static class RecordChange<KEY,RECORD,ADDITIONAL> implements RecordProxy<KEY, RECORD, ADDITIONAL>
+    public static class RecordChange<KEY extends Number,RECORD,ADDITIONAL> implements RecordProxy<KEY, RECORD, ADDITIONAL>
     {
-        private final Map<KEY, RecordChange<KEY, RECORD, ADDITIONAL>> allChanges;
+        private final PrimitiveLongObjectMap<RecordChange<KEY, RECORD, ADDITIONAL>> allChanges;
         private final IntCounter changeCounter;
         private final Loader<KEY,RECORD,ADDITIONAL> loader;
 
@@ -129,7 +138,7 @@ public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RE
         private RECORD before;
         private boolean changed;
 
-        public RecordChange(Map<KEY, RecordChange<KEY, RECORD, ADDITIONAL>> allChanges, IntCounter changeCounter,
+        public RecordChange(PrimitiveLongObjectMap<RecordChange<KEY, RECORD, ADDITIONAL>> allChanges, IntCounter changeCounter,
                             KEY key, RECORD record,
                             Loader<KEY, RECORD, ADDITIONAL> loader, boolean manageBeforeState, boolean created, ADDITIONAL additionalData)
         {
@@ -167,7 +176,7 @@ public class RecordChanges<KEY,RECORD,ADDITIONAL> implements RecordAccess<KEY,RE
             ensureHasBeforeRecordImage();
             if ( !this.changed )
             {
-                RecordChange<KEY, RECORD, ADDITIONAL> previous = this.allChanges.put( key, this );
+                RecordChange<KEY, RECORD, ADDITIONAL> previous = this.allChanges.put( key.longValue(), this );
 
                 if(previous == null || !previous.changed)
                 {
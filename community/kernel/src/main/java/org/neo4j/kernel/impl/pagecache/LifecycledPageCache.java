@@ -21,6 +21,8 @@ package org.neo4j.kernel.impl.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.neo4j.helpers.Settings;
 import org.neo4j.io.pagecache.PageCache;
@@ -41,6 +43,7 @@ public class LifecycledPageCache extends LifecycleAdapter implements PageCache
     private final RunnablePageCache pageCache;
     private final JobScheduler scheduler;
     private volatile JobScheduler.JobHandle pageEvictionJobHandle;
+    private final Map<File, MappedFile> mappedFiles = new HashMap<>();
 
     public LifecycledPageCache(
             PageCacheFactory pageCacheFactory,
@@ -96,12 +99,47 @@ public class LifecycledPageCache extends LifecycleAdapter implements PageCache
     public void unmap( File fileName ) throws IOException
     {
         pageCache.unmap( fileName );
+        synchronized ( mappedFiles )
+        {
+            MappedFile mappedFile = mappedFiles.get( fileName );
+            if ( mappedFile != null && --mappedFile.references == 0 )
+            {
+                mappedFiles.remove( fileName );
+            }
+        }
     }
 
     @Override
     public PagedFile map( File file, int filePageSize ) throws IOException
     {
-        return pageCache.map( file, filePageSize );
+        PagedFile pagedFile = pageCache.map( file, filePageSize );
+        synchronized ( mappedFiles )
+        {
+            MappedFile mappedFile = mappedFiles.get( file );
+            if ( mappedFile == null || mappedFile.pagedFile != pagedFile )
+            {
+                mappedFile = new MappedFile( pagedFile );
+                mappedFiles.put( file, mappedFile );
+            }
+            mappedFile.references++;
+        }
+        return pagedFile;
+    }
+
+    /**
+     * @return the files that are currently mapped, through this page cache.
+     */
+    public Map<File, PagedFile> mappedFiles()
+    {
+        Map<File, PagedFile> result = new HashMap<>();
+        synchronized ( mappedFiles )
+        {
+            for ( Map.Entry<File, MappedFile> entry : mappedFiles.entrySet() )
+            {
+                result.put( entry.getKey(), entry.getValue().pagedFile );
+            }
+        }
+        return result;
     }
 
     @Override
@@ -138,4 +176,15 @@ public class LifecycledPageCache extends LifecycleAdapter implements PageCache
     {
         return pageCache;
     }
+
+    private static class MappedFile
+    {
+        private final PagedFile pagedFile;
+        private int references;
+
+        MappedFile( PagedFile pagedFile )
+        {
+            this.pagedFile = pagedFile;
+        }
+    }
 }
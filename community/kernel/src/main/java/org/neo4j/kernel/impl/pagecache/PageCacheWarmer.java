@@ -0,0 +1,333 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.collection.primitive.PrimitiveLongVisitor;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_LOCK;
+
+/**
+ * Keeps the page cache from starting out cold. Which pages of the mapped store files are in the page cache is
+ * recorded periodically, and when the database is stopped, in a profile in the store directory. When the database
+ * starts, the pages in the last profile are loaded back into the page cache in the background, in file order.
+ *
+ * This has to be started after, and stopped before, the stores are mapped, see
+ * {@link LifecycledPageCache#mappedFiles()}.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILE_FILE_NAME = "pagecache.profile";
+    private static final byte FORMAT_VERSION = 1;
+
+    private final LifecycledPageCache pageCache;
+    private final FileSystemAbstraction fs;
+    private final File storeDir;
+    private final JobScheduler scheduler;
+    private final long profilingIntervalMillis;
+    private final StringLogger logger;
+    private volatile boolean stopped;
+    private volatile JobScheduler.JobHandle profilingJobHandle;
+
+    /**
+     * @param profilingIntervalMillis time between recording profiles, or 0 for neither recording profiles nor
+     * warming up the page cache.
+     */
+    public PageCacheWarmer( LifecycledPageCache pageCache, FileSystemAbstraction fs, File storeDir,
+            JobScheduler scheduler, long profilingIntervalMillis, StringLogger logger )
+    {
+        this.pageCache = pageCache;
+        this.fs = fs;
+        this.storeDir = storeDir;
+        this.scheduler = scheduler;
+        this.profilingIntervalMillis = profilingIntervalMillis;
+        this.logger = logger;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( profilingIntervalMillis <= 0 )
+        {
+            return;
+        }
+
+        stopped = false;
+        scheduler.schedule( JobScheduler.Group.pageCacheWarmup, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                warmUp();
+            }
+        } );
+        profilingJobHandle = scheduler.scheduleRecurring( JobScheduler.Group.pageCacheWarmup, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                profile();
+            }
+        }, profilingIntervalMillis, profilingIntervalMillis, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        JobScheduler.JobHandle handle = profilingJobHandle;
+        if ( handle == null )
+        {
+            return;
+        }
+        handle.cancel( false );
+        profilingJobHandle = null;
+
+        // A warm-up that is still going notices this between pages, and lets go of the files it has mapped
+        stopped = true;
+        synchronized ( this )
+        {
+            writeProfile();
+        }
+    }
+
+    synchronized void profile()
+    {
+        if ( !stopped )
+        {
+            writeProfile();
+        }
+    }
+
+    /**
+     * Loads the pages in the profile back into the page cache, unless the page cache has been configured with a
+     * different page size since the profile was recorded.
+     *
+     * @return the number of pages that were loaded.
+     */
+    synchronized long warmUp()
+    {
+        File profileFile = new File( storeDir, PROFILE_FILE_NAME );
+        if ( stopped || !fs.fileExists( profileFile ) )
+        {
+            return 0;
+        }
+
+        long startTime = System.currentTimeMillis();
+        long pagesLeft = pageCache.maxCachedPages();
+        int files = 0;
+        try ( DataInputStream in = new DataInputStream( fs.openAsInputStream( profileFile ) ) )
+        {
+            if ( in.readByte() != FORMAT_VERSION || in.readInt() != pageCache.pageSize() )
+            {
+                return 0;
+            }
+            Map<String, File> storeFiles = new HashMap<>();
+            for ( File file : mappedStoreFiles().keySet() )
+            {
+                storeFiles.put( file.getName(), file );
+            }
+            int fileCount = in.readInt();
+            for ( int i = 0; i < fileCount && pagesLeft > 0 && !stopped; i++ )
+            {
+                File file = storeFiles.get( in.readUTF() );
+                int filePageSize = in.readInt();
+                int runCount = in.readInt();
+                long[] runs = new long[runCount * 2];
+                for ( int run = 0; run < runs.length; run++ )
+                {
+                    runs[run] = in.readLong();
+                }
+                // Only files that the stores have mapped, so that files the stores don't use, or haven't opened yet,
+                // are left alone
+                if ( file != null )
+                {
+                    pagesLeft -= warmUp( file, filePageSize, runs, pagesLeft );
+                    files++;
+                }
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // The profile is only a hint, and the pages will be loaded when they're needed anyway
+            logger.warn( "Unable to warm up the page cache from " + profileFile, e );
+        }
+
+        long pages = pageCache.maxCachedPages() - pagesLeft;
+        logger.info( "Warmed up the page cache with " + pages + " pages of " + files + " files in " +
+                (System.currentTimeMillis() - startTime) + "ms" );
+        return pages;
+    }
+
+    private long warmUp( File file, int filePageSize, long[] runs, long maxPages ) throws IOException
+    {
+        long pages = 0;
+        PagedFile pagedFile = pageCache.map( file, filePageSize );
+        try
+        {
+            for ( int run = 0; run < runs.length && pages < maxPages; run += 2 )
+            {
+                long pagesInRun = Math.min( runs[run + 1], maxPages - pages );
+                try ( PageCursor cursor = pagedFile.io( runs[run], PF_SHARED_LOCK ) )
+                {
+                    for ( long page = 0; page < pagesInRun && cursor.next(); page++ )
+                    {
+                        if ( stopped )
+                        {
+                            return pages;
+                        }
+                        pages++;
+                    }
+                }
+            }
+            return pages;
+        }
+        finally
+        {
+            pageCache.unmap( file );
+        }
+    }
+
+    private void writeProfile()
+    {
+        Map<File, PagedFile> storeFiles = mappedStoreFiles();
+        if ( storeFiles.isEmpty() )
+        {
+            // Keep the last profile that actually says something, rather than one recorded after the stores have
+            // been closed
+            return;
+        }
+
+        File profileFile = new File( storeDir, PROFILE_FILE_NAME );
+        File tempFile = new File( storeDir, PROFILE_FILE_NAME + ".tmp" );
+        try
+        {
+            try ( DataOutputStream out = new DataOutputStream( fs.openAsOutputStream( tempFile, false ) ) )
+            {
+                out.writeByte( FORMAT_VERSION );
+                out.writeInt( pageCache.pageSize() );
+                out.writeInt( storeFiles.size() );
+                for ( Map.Entry<File, PagedFile> entry : storeFiles.entrySet() )
+                {
+                    writeResidentPages( out, entry.getKey().getName(), entry.getValue() );
+                }
+            }
+            fs.deleteFile( profileFile );
+            fs.renameFile( tempFile, profileFile );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to record the page cache profile in " + profileFile, e );
+        }
+    }
+
+    /**
+     * @return the files in the store directory that are currently mapped, in file name order.
+     */
+    private Map<File, PagedFile> mappedStoreFiles()
+    {
+        Map<File, PagedFile> storeFiles = new TreeMap<>();
+        for ( Map.Entry<File, PagedFile> entry : pageCache.mappedFiles().entrySet() )
+        {
+            File file = entry.getKey();
+            if ( storeDir.getAbsoluteFile().equals( file.getAbsoluteFile().getParentFile() ) )
+            {
+                storeFiles.put( file, entry.getValue() );
+            }
+        }
+        return storeFiles;
+    }
+
+    private void writeResidentPages( DataOutputStream out, String fileName, PagedFile pagedFile ) throws IOException
+    {
+        ResidentPages residentPages = new ResidentPages();
+        pagedFile.visitResidentPages( residentPages );
+        long[] runs = residentPages.runs();
+
+        out.writeUTF( fileName );
+        out.writeInt( pagedFile.pageSize() );
+        out.writeInt( runs.length / 2 );
+        for ( long value : runs )
+        {
+            out.writeLong( value );
+        }
+    }
+
+    /**
+     * Collects resident page ids, and turns them into runs of consecutive page ids.
+     */
+    private static class ResidentPages implements PrimitiveLongVisitor
+    {
+        private long[] pageIds = new long[1024];
+        private int size;
+
+        @Override
+        public void visited( long pageId )
+        {
+            if ( size == pageIds.length )
+            {
+                pageIds = Arrays.copyOf( pageIds, size * 2 );
+            }
+            pageIds[size++] = pageId;
+        }
+
+        /**
+         * @return the first page id and the number of pages of each run, one after the other.
+         */
+        long[] runs()
+        {
+            Arrays.sort( pageIds, 0, size );
+            long[] runs = new long[16];
+            int runValues = 0;
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( runValues > 0 && runs[runValues - 2] + runs[runValues - 1] == pageIds[i] )
+                {
+                    runs[runValues - 1]++;
+                }
+                else if ( runValues == 0 || runs[runValues - 2] + runs[runValues - 1] < pageIds[i] )
+                {
+                    if ( runValues == runs.length )
+                    {
+                        runs = Arrays.copyOf( runs, runValues * 2 );
+                    }
+                    runs[runValues++] = pageIds[i];
+                    runs[runValues++] = 1;
+                }
+                // else a page id that was visited twice
+            }
+            return Arrays.copyOf( runs, runValues );
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storecompaction;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.logging.SystemOutLogging;
+import org.neo4j.unsafe.impl.batchimport.staging.CoarseUnboundedProgressExecutionMonitor;
+
+/**
+ * Stand alone tool for compacting the relationship chains of a neo4j database that is not running.
+ *
+ * @see RelationshipChainCompactor
+ */
+public class RelationshipChainCompactionTool
+{
+    public static void main( String[] args ) throws IOException
+    {
+        if ( args.length != 1 )
+        {
+            System.err.println( "Usage: " + RelationshipChainCompactionTool.class.getSimpleName() +
+                    " <store directory>" );
+            System.exit( 1 );
+        }
+
+        new RelationshipChainCompactor( new DefaultFileSystemAbstraction(), new Config(), new SystemOutLogging(),
+                new CoarseUnboundedProgressExecutionMonitor( 1_000_000, System.out ) ).compact( new File( args[0] ) );
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storecompaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCacheMonitor;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.kernel.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.index.IndexConfigStore;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.impl.pagecache.LifecycledPageCache;
+import org.neo4j.kernel.impl.pagecache.StandardPageCacheFactory;
+import org.neo4j.kernel.impl.recovery.StoreRecoverer;
+import org.neo4j.kernel.impl.storemigration.LogFiles;
+import org.neo4j.kernel.impl.storemigration.StoreFile;
+import org.neo4j.kernel.impl.storemigration.StoreFileType;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.logging.Logging;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.unsafe.impl.batchimport.BatchImporter;
+import org.neo4j.unsafe.impl.batchimport.Configuration;
+import org.neo4j.unsafe.impl.batchimport.ParallelBatchImporter;
+import org.neo4j.unsafe.impl.batchimport.cache.IdMappers;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArrayFactory;
+import org.neo4j.unsafe.impl.batchimport.input.InputNode;
+import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitor;
+import org.neo4j.unsafe.impl.batchimport.staging.Stage;
+import org.neo4j.unsafe.impl.batchimport.staging.StageExecution;
+
+import static java.util.Arrays.asList;
+
+import static org.neo4j.helpers.Exceptions.launderedException;
+import static org.neo4j.kernel.impl.nioneo.store.StoreFactory.configForStoreDir;
+
+/**
+ * Rewrites the relationship and relationship group stores of a database that is not running, so that the
+ * relationships of each node are stored next to each other. After years of updates the relationship chain of a
+ * node is typically scattered all over the relationship store, making expanding a node touch many pages.
+ *
+ * Relationships get new ids, grouped by start node and ordered by type within each group, see
+ * {@link RelationshipOrder}. The {@link ParallelBatchImporter} then writes nodes, relationships and relationship
+ * groups with the new ids into a separate directory, linking all relationship chains anew, keeping property
+ * chains and labels as they are. Finally the rewritten node, relationship and relationship group stores replace
+ * the current ones, which are kept in a {@link #LEFT_OVERS_DIRECTORY separate directory}.
+ *
+ * Since relationship ids change, the store must not have any legacy relationship indexes, and any relationship
+ * ids kept outside of the database are invalid after compaction. The database must have been shut down cleanly.
+ * For the same reason transactions committed before compaction must never be applied to the compacted store.
+ * The compacted store therefore gets a new store id, so that backups and cluster members of the original store
+ * can't be updated incrementally from it or into it, and the logical logs are moved to the
+ * {@link #LEFT_OVERS_DIRECTORY separate directory} along with the previous store files.
+ */
+public class RelationshipChainCompactor
+{
+    public static final String WORK_DIRECTORY = "compaction";
+    public static final String LEFT_OVERS_DIRECTORY = "compaction_backup";
+
+    private static final Object[] NO_PROPERTIES = new Object[0];
+    private static final String[] NO_LABELS = new String[0];
+    private static final StoreFile[] COMPACTED_STORE_FILES = {
+            StoreFile.NODE_STORE,
+            StoreFile.RELATIONSHIP_STORE,
+            StoreFile.RELATIONSHIP_GROUP_STORE
+    };
+
+    private final FileSystemAbstraction fileSystem;
+    private final Config config;
+    private final Configuration importConfig;
+    private final Logging logging;
+    private final StringLogger logger;
+    private final ExecutionMonitor executionMonitor;
+
+    public RelationshipChainCompactor( FileSystemAbstraction fileSystem, Config config, Logging logging,
+            ExecutionMonitor executionMonitor )
+    {
+        this.fileSystem = fileSystem;
+        this.config = config;
+        this.importConfig = new Configuration.OverrideFromConfig( config );
+        this.logging = logging;
+        this.logger = logging.getMessagesLog( getClass() );
+        this.executionMonitor = executionMonitor;
+    }
+
+    public void compact( File storeDir ) throws IOException
+    {
+        if ( new StoreRecoverer( fileSystem ).recoveryNeededAt( storeDir ) )
+        {
+            throw new IllegalStateException( "The database in " + storeDir + " was not shut down cleanly. " +
+                    "Start and shut down the database to recover it before compacting." );
+        }
+        assertNoRelationshipIndexes( storeDir );
+        File workDir = new File( storeDir, WORK_DIRECTORY );
+        File leftOversDir = new File( storeDir, LEFT_OVERS_DIRECTORY );
+        if ( fileSystem.fileExists( leftOversDir ) )
+        {
+            throw new IllegalStateException( "Store files from a previous compaction remain in " + leftOversDir +
+                    ". Remove that directory before compacting again." );
+        }
+        fileSystem.deleteRecursively( workDir );
+        fileSystem.mkdirs( workDir );
+
+        logger.info( "Compacting relationship chains in " + storeDir );
+        Config storeConfig = configForStoreDir( config, storeDir );
+        Neo4jJobScheduler jobScheduler = new Neo4jJobScheduler();
+        LifecycledPageCache pageCache = new LifecycledPageCache( new StandardPageCacheFactory(),
+                new SingleFilePageSwapperFactory( fileSystem ), jobScheduler, storeConfig, PageCacheMonitor.NULL );
+        jobScheduler.init();
+        pageCache.start();
+        try
+        {
+            NeoStore neoStore = new StoreFactory( storeConfig, new DefaultIdGeneratorFactory(), pageCache,
+                    fileSystem, logger, new Monitors() ).newNeoStore( false );
+            try
+            {
+                neoStore.makeStoreOk();
+                compact( neoStore, workDir );
+            }
+            finally
+            {
+                neoStore.close();
+            }
+        }
+        finally
+        {
+            pageCache.stop();
+            pageCache.close();
+            jobScheduler.shutdown();
+        }
+
+        moveCompactedFiles( workDir, storeDir, leftOversDir );
+        fileSystem.deleteRecursively( workDir );
+        logger.info( "Compaction completed, previous store files are in " + leftOversDir );
+    }
+
+    private void assertNoRelationshipIndexes( File storeDir )
+    {
+        IndexConfigStore indexStore = new IndexConfigStore( storeDir, fileSystem );
+        indexStore.init();
+        String[] indexes = indexStore.getNames( Relationship.class );
+        if ( indexes.length > 0 )
+        {
+            throw new IllegalStateException( "Relationship ids change when compacting, which would invalidate " +
+                    "the relationship indexes " + asList( indexes ) + ". Delete those indexes before compacting." );
+        }
+    }
+
+    private void compact( NeoStore neoStore, File workDir ) throws IOException
+    {
+        NodeStore nodeStore = neoStore.getNodeStore();
+        RelationshipStore relStore = neoStore.getRelationshipStore();
+        try
+        {
+            RelationshipOrder order = new RelationshipOrder( LongArrayFactory.AUTO, nodeStore.getHighId() );
+            executeStages( new CountRelationshipsStage( relStore, order ) );
+            order.prepare();
+            executeStages( new OrderRelationshipsStage( relStore, order ) );
+
+            BatchImporter importer = new ParallelBatchImporter( workDir.getAbsolutePath(), fileSystem,
+                    importConfig, logging, executionMonitor );
+            try
+            {
+                importer.doImport( nodesAsInput( nodeStore ), relationshipsAsInput( relStore, order ),
+                        IdMappers.actualIds() );
+            }
+            finally
+            {
+                importer.shutdown();
+            }
+        }
+        catch ( Throwable t )
+        {
+            logger.error( "Error during compaction", t );
+            throw launderedException( IOException.class, t );
+        }
+    }
+
+    private void executeStages( Stage... stages ) throws Exception
+    {
+        StageExecution[] executions = new StageExecution[stages.length];
+        for ( int i = 0; i < stages.length; i++ )
+        {
+            executions[i] = stages[i].execute();
+        }
+
+        executionMonitor.monitor( executions );
+    }
+
+    private Iterable<InputNode> nodesAsInput( final NodeStore nodeStore )
+    {
+        return new Iterable<InputNode>()
+        {
+            @Override
+            public Iterator<InputNode> iterator()
+            {
+                return new PrefetchingIterator<InputNode>()
+                {
+                    private final long highId = nodeStore.getHighestPossibleIdInUse();
+                    private long id;
+
+                    @Override
+                    protected InputNode fetchNextOrNull()
+                    {
+                        while ( id <= highId )
+                        {
+                            NodeRecord record = nodeStore.loadLightNode( id++ );
+                            if ( record != null )
+                            {
+                                return new InputNode( record.getId(), NO_PROPERTIES, record.getNextProp(),
+                                        NO_LABELS, record.getLabelField() );
+                            }
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+    }
+
+    private Iterable<InputRelationship> relationshipsAsInput( final RelationshipStore relStore,
+            final RelationshipOrder order )
+    {
+        return new Iterable<InputRelationship>()
+        {
+            @Override
+            public Iterator<InputRelationship> iterator()
+            {
+                return new PrefetchingIterator<InputRelationship>()
+                {
+                    private final PrimitiveLongIterator ids = order.relationshipIds();
+                    private long newId;
+
+                    @Override
+                    protected InputRelationship fetchNextOrNull()
+                    {
+                        if ( !ids.hasNext() )
+                        {
+                            return null;
+                        }
+                        RelationshipRecord record = relStore.getRecord( ids.next() );
+                        return new InputRelationship( newId++, NO_PROPERTIES, record.getNextProp(),
+                                record.getFirstNode(), record.getSecondNode(), null, record.getType() );
+                    }
+                };
+            }
+        };
+    }
+
+    private void moveCompactedFiles( File workDir, File storeDir, File leftOversDir ) throws IOException
+    {
+        // Keep the current store and id files
+        fileSystem.mkdirs( leftOversDir );
+        StoreFile.move( fileSystem, storeDir, leftOversDir, asList( COMPACTED_STORE_FILES ),
+                true,   // allow to skip non existent source files
+                false,  // does not allow to overwrite target files
+                StoreFileType.values() );
+
+        // Move the compacted stores in place. The node and relationship id files are left out, to be rebuilt
+        // the next time the store is opened, since the importer doesn't know about ids of deleted nodes.
+        StoreFile.move( fileSystem, workDir, storeDir, asList( COMPACTED_STORE_FILES ),
+                false,  // does not allow to skip non existent source files
+                false,  // does not allow to overwrite target files
+                StoreFileType.STORE );
+        StoreFile.moveFile( fileSystem, StoreFile.RELATIONSHIP_GROUP_STORE.idFileName(), workDir, storeDir,
+                false, false );
+
+        // Transactions committed before compaction address the previous relationship ids, so make sure that
+        // none of them, whether from the logical logs or from another copy of the store, are applied to this one
+        NeoStore.setStoreId( fileSystem, new File( storeDir, NeoStore.DEFAULT_NAME ), new StoreId() );
+        LogFiles.move( fileSystem, storeDir, leftOversDir );
+    }
+
+    private class CountRelationshipsStage extends Stage
+    {
+        CountRelationshipsStage( RelationshipStore relStore, final RelationshipOrder order )
+        {
+            super( logging, "Count relationships", importConfig );
+            input( new RelationshipScanStep( control(), "COUNTER", importConfig.batchSize(), relStore )
+            {
+                @Override
+                protected void visit( RelationshipRecord record )
+                {
+                    order.count( record );
+                }
+            } );
+        }
+    }
+
+    private class OrderRelationshipsStage extends Stage
+    {
+        OrderRelationshipsStage( RelationshipStore relStore, final RelationshipOrder order )
+        {
+            super( logging, "Order relationships", importConfig );
+            input( new RelationshipScanStep( control(), "ORDERER", importConfig.batchSize(), relStore )
+            {
+                @Override
+                protected void visit( RelationshipRecord record )
+                {
+                    order.place( record );
+                }
+            } );
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storecompaction;
+
+import java.util.Arrays;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.kernel.IdType;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArrayFactory;
+
+import static java.lang.Math.min;
+
+/**
+ * Decides the order in which relationships are written by the {@link RelationshipChainCompactor}. Relationships
+ * are grouped by their start node, in node id order, and ordered by type within each group, so that the
+ * relationships of a node end up next to each other in the relationship store.
+ *
+ * Built in two passes over the relationship store: first {@link #count(RelationshipRecord) counting} the
+ * relationships of each start node, then {@link #place(RelationshipRecord) placing} each relationship in its
+ * group. The order is kept as one long per relationship, holding its type and current id.
+ */
+class RelationshipOrder
+{
+    private static final long ID_MASK = IdType.RELATIONSHIP.getMaxValue();
+    private static final int TYPE_SHIFT = Long.bitCount( ID_MASK );
+
+    /**
+     * Groups are sorted in chunks of at most this many relationships, so that sorting the group of a very
+     * dense node doesn't need more than a bounded amount of heap.
+     */
+    private static final int MAX_SORT_CHUNK_SIZE = 1 << 24;
+
+    private final LongArrayFactory arrayFactory;
+    // Relationship count per start node, after prepare() the end of the group of each start node
+    private final LongArray nodeOffsets;
+    private final long highNodeId;
+    private LongArray order;
+    private long relationshipCount;
+
+    RelationshipOrder( LongArrayFactory arrayFactory, long highNodeId )
+    {
+        this.arrayFactory = arrayFactory;
+        this.highNodeId = highNodeId;
+        this.nodeOffsets = arrayFactory.newLongArray( highNodeId );
+        this.nodeOffsets.setAll( 0 );
+    }
+
+    void count( RelationshipRecord record )
+    {
+        long nodeId = record.getFirstNode();
+        nodeOffsets.set( nodeId, nodeOffsets.get( nodeId ) + 1 );
+        relationshipCount++;
+    }
+
+    /**
+     * Called after all relationships have been {@link #count(RelationshipRecord) counted} and before any is
+     * {@link #place(RelationshipRecord) placed}.
+     */
+    void prepare()
+    {
+        long start = 0;
+        for ( long nodeId = 0; nodeId < highNodeId; nodeId++ )
+        {
+            long count = nodeOffsets.get( nodeId );
+            nodeOffsets.set( nodeId, start );
+            start += count;
+        }
+        order = arrayFactory.newLongArray( relationshipCount );
+    }
+
+    void place( RelationshipRecord record )
+    {
+        long nodeId = record.getFirstNode();
+        long index = nodeOffsets.get( nodeId );
+        order.set( index, ((long) record.getType() << TYPE_SHIFT) | record.getId() );
+        nodeOffsets.set( nodeId, index + 1 );
+    }
+
+    long relationshipCount()
+    {
+        return relationshipCount;
+    }
+
+    /**
+     * @return current ids of all relationships, in the order they should be written. Must only be called
+     * after all relationships have been {@link #place(RelationshipRecord) placed}.
+     */
+    PrimitiveLongIterator relationshipIds()
+    {
+        return new PrimitiveLongIterator()
+        {
+            private long nodeId;
+            private long cursor;
+            private long groupEnd;
+            private long[] chunk = new long[0];
+            private int chunkSize;
+            private int chunkIndex;
+
+            @Override
+            public boolean hasNext()
+            {
+                return chunkIndex < chunkSize || nextChunk();
+            }
+
+            @Override
+            public long next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new IllegalStateException( "No more relationships" );
+                }
+                return chunk[chunkIndex++] & ID_MASK;
+            }
+
+            private boolean nextChunk()
+            {
+                while ( cursor == groupEnd )
+                {
+                    if ( nodeId == highNodeId )
+                    {
+                        return false;
+                    }
+                    // After placing, the offset of a node is where the group of the next node starts
+                    groupEnd = nodeOffsets.get( nodeId++ );
+                }
+
+                chunkSize = (int) min( groupEnd - cursor, MAX_SORT_CHUNK_SIZE );
+                if ( chunk.length < chunkSize )
+                {
+                    chunk = new long[chunkSize];
+                }
+                for ( int i = 0; i < chunkSize; i++ )
+                {
+                    chunk[i] = order.get( cursor++ );
+                }
+                Arrays.sort( chunk, 0, chunkSize );
+                chunkIndex = 0;
+                return true;
+            }
+        };
+    }
+}
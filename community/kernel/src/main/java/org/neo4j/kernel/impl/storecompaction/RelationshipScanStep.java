@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storecompaction;
+
+import org.neo4j.kernel.impl.nioneo.store.RecordLoad;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+import org.neo4j.unsafe.impl.batchimport.staging.LonelyProcessingStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+
+/**
+ * Goes through all relationships in use in a {@link RelationshipStore}, in id order.
+ */
+abstract class RelationshipScanStep extends LonelyProcessingStep
+{
+    private final RelationshipStore relStore;
+
+    RelationshipScanStep( StageControl control, String name, int batchSize, RelationshipStore relStore )
+    {
+        super( control, name, batchSize );
+        this.relStore = relStore;
+    }
+
+    @Override
+    protected void process()
+    {
+        long highId = relStore.getHighestPossibleIdInUse();
+        RelationshipRecord heavilyReusedRecord = new RelationshipRecord( -1 );
+        for ( long id = 0; id <= highId; id++ )
+        {
+            RelationshipRecord record = relStore.getRecord( id, heavilyReusedRecord, RecordLoad.CHECK );
+            if ( record != null )
+            {
+                visit( record );
+                itemProcessed();
+            }
+        }
+    }
+
+    protected abstract void visit( RelationshipRecord record );
+}
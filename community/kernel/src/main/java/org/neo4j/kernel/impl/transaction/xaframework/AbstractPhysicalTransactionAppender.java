@@ -32,8 +32,16 @@ abstract class AbstractPhysicalTransactionAppender implements TransactionAppende
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
     private final TransactionIdStore transactionIdStore;
-    private final TransactionLogWriter transactionLogWriter;
+    private final LogEntryWriterv1 logEntryWriter;
     private final LogPositionMarker positionMarker = new LogPositionMarker();
+    private final ThreadLocal<TransactionLogBuffer> encodedTransactions = new ThreadLocal<TransactionLogBuffer>()
+    {
+        @Override
+        protected TransactionLogBuffer initialValue()
+        {
+            return new TransactionLogBuffer();
+        }
+    };
 
     public AbstractPhysicalTransactionAppender( LogFile logFile, TxIdGenerator txIdGenerator,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore )
@@ -44,16 +52,28 @@ abstract class AbstractPhysicalTransactionAppender implements TransactionAppende
         this.txIdGenerator = txIdGenerator;
         this.transactionMetadataCache = transactionMetadataCache;
 
-        LogEntryWriterv1 logEntryWriter = new LogEntryWriterv1( channel, new CommandWriter( channel ) );
-        this.transactionLogWriter = new TransactionLogWriter( logEntryWriter );
+        this.logEntryWriter = new LogEntryWriterv1( channel, new CommandWriter( channel ) );
+    }
+
+    /**
+     * Encodes the start entry and the commands of the transaction, which don't depend on the transaction id.
+     * Called before entering the critical section so that committers can do that work concurrently.
+     */
+    private TransactionLogBuffer encode( TransactionRepresentation transaction ) throws IOException
+    {
+        TransactionLogBuffer encoded = encodedTransactions.get();
+        encoded.encode( transaction );
+        return encoded;
     }
 
-    private void append( TransactionRepresentation transaction, long transactionId ) throws IOException
+    private void append( TransactionRepresentation transaction, TransactionLogBuffer encoded, long transactionId )
+            throws IOException
     {
         channel.getCurrentPosition( positionMarker );
         LogPosition logPosition = positionMarker.newPosition();
 
-        transactionLogWriter.append( transaction, transactionId );
+        encoded.writeTo( channel );
+        logEntryWriter.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
 
         transactionMetadataCache.cacheTransactionMetadata( transactionId, logPosition, transaction.getMasterId(),
                 transaction.getAuthorId(), LogEntryStart.checksum( transaction.additionalHeader(),
@@ -68,6 +88,7 @@ abstract class AbstractPhysicalTransactionAppender implements TransactionAppende
         long transactionId = -1;
         try
         {
+            TransactionLogBuffer encoded = encode( transaction );
             long ticket;
             synchronized ( this )
             {
@@ -75,7 +96,7 @@ abstract class AbstractPhysicalTransactionAppender implements TransactionAppende
                 // we generate the next transaction id
                 logFile.checkRotation();
                 transactionId = txIdGenerator.generate( transaction );
-                append( transaction, transactionId );
+                append( transaction, encoded, transactionId );
                 ticket = getCurrentTicket();
             }
             
@@ -103,6 +124,8 @@ abstract class AbstractPhysicalTransactionAppender implements TransactionAppende
         try
         {
             boolean result = false;
+            TransactionRepresentation transactionRepresentation = transaction.getTransactionRepresentation();
+            TransactionLogBuffer encoded = encode( transactionRepresentation );
             long ticket;
             synchronized ( this )
             {
@@ -111,8 +134,8 @@ abstract class AbstractPhysicalTransactionAppender implements TransactionAppende
                 long candidateTransactionId = transaction.getCommitEntry().getTxId();
                 if ( lastCommittedTxId + 1 == candidateTransactionId )
                 {
-                    transactionId = txIdGenerator.generate( transaction.getTransactionRepresentation() );
-                    append( transaction.getTransactionRepresentation(), transactionId );
+                    transactionId = txIdGenerator.generate( transactionRepresentation );
+                    append( transactionRepresentation, encoded, transactionId );
                     ticket = getCurrentTicket();
                     result = true;
                 }
@@ -20,9 +20,13 @@
 package org.neo4j.kernel.impl.transaction.xaframework;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.neo4j.io.fs.StoreChannel;
 
+import static org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogEntryByteCodes.EMPTY;
+import static org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogHeaderParser.LOG_HEADER_SIZE;
+
 public class LogRecoveryCheck
 {
     private final StoreChannel fileChannel;
@@ -32,8 +36,22 @@ public class LogRecoveryCheck
         this.fileChannel = fileChannel;
     }
 
+    /**
+     * Recovery is required if there's an entry after the header. A log file that was
+     * {@link PhysicalLogFile preallocated} is bigger than its header from the start, but is
+     * filled with {@link org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogEntryByteCodes#EMPTY empty}
+     * entries until written to.
+     */
     public boolean recoveryRequired() throws IOException
     {
-        return fileChannel.size() > 16;
+        if ( fileChannel.size() <= LOG_HEADER_SIZE )
+        {
+            return false;
+        }
+
+        // The first entry is a version byte and a type byte
+        ByteBuffer firstEntry = ByteBuffer.allocate( 2 );
+        fileChannel.read( firstEntry, LOG_HEADER_SIZE );
+        return firstEntry.position() < 2 || firstEntry.get( 0 ) != 0 || firstEntry.get( 1 ) != EMPTY;
     }
 }
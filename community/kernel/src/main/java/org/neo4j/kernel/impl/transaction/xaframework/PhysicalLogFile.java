@@ -22,12 +22,15 @@ package org.neo4j.kernel.impl.transaction.xaframework;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.nioneo.store.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.xaframework.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.xaframework.log.pruning.LogPruneStrategy;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
@@ -40,6 +43,15 @@ import static org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogVersion
 
 /**
  * {@link LogFile} backed by one or more files in a {@link FileSystemAbstraction}.
+ *
+ * Log files can optionally be preallocated, i.e. filled with
+ * {@link org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogEntryByteCodes#EMPTY empty} entries up to the
+ * rotation threshold when created, so that appending transactions doesn't change the size of the file and forcing
+ * it only has to write data. A new log file is then prepared from the
+ * {@link PhysicalLogFiles#getRecycledLogFile() recycled log file} if the prune strategy left one, and moved into
+ * place when complete. Log files are truncated to what was written to them when rotated away from, so that
+ * only the current log file ends with empty entries. Readers of the current log file stop at the position the
+ * writer has flushed up to, since the empty entries after it are being overwritten while they read.
  */
 public class PhysicalLogFile extends LifecycleAdapter implements LogFile
 {
@@ -48,6 +60,7 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     public static final String DEFAULT_VERSION_SUFFIX = ".";
     public static final String REGEX_DEFAULT_VERSION_SUFFIX = "\\.";
     private final long rotateAtSize;
+    private final boolean preallocate;
     private final FileSystemAbstraction fileSystem;
     private final LogPruneStrategy pruneStrategy;
     private final TransactionIdStore transactionIdStore;
@@ -59,7 +72,7 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     private final LogRotationControl logRotationControl;
     private PhysicalWritableLogChannel writer;
     private final LogVersionRepository logVersionRepository;
-    private PhysicalLogVersionedStoreChannel channel;
+    private volatile PhysicalLogVersionedStoreChannel channel;
     private final LogVersionBridge readerLogVersionBridge;
 
     public PhysicalLogFile( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long rotateAtSize,
@@ -68,9 +81,25 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
                             LogRotationControl logRotationControl,
                             TransactionMetadataCache transactionMetadataCache,
                             Visitor<ReadableLogChannel, IOException> recoveredDataVisitor )
+    {
+        this( fileSystem, logFiles, rotateAtSize, false, pruneStrategy, transactionIdStore, logVersionRepository,
+                monitor, logRotationControl, transactionMetadataCache, recoveredDataVisitor );
+    }
+
+    /**
+     * @param preallocate whether or not to preallocate log files up to {@code rotateAtSize}. Ignored if there's
+     * no rotation threshold.
+     */
+    public PhysicalLogFile( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long rotateAtSize,
+                            boolean preallocate, LogPruneStrategy pruneStrategy,
+                            TransactionIdStore transactionIdStore, LogVersionRepository logVersionRepository,
+                            Monitor monitor, LogRotationControl logRotationControl,
+                            TransactionMetadataCache transactionMetadataCache,
+                            Visitor<ReadableLogChannel, IOException> recoveredDataVisitor )
     {
         this.fileSystem = fileSystem;
         this.rotateAtSize = rotateAtSize;
+        this.preallocate = preallocate && rotateAtSize > LOG_HEADER_SIZE && rotateAtSize <= Integer.MAX_VALUE;
         this.pruneStrategy = pruneStrategy;
         this.transactionIdStore = transactionIdStore;
         this.logVersionRepository = logVersionRepository;
@@ -79,7 +108,8 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
         this.transactionMetadataCache = transactionMetadataCache;
         this.recoveredDataVisitor = recoveredDataVisitor;
         this.logFiles = logFiles;
-        this.readerLogVersionBridge = new ReaderLogVersionBridge( fileSystem, logFiles );
+        LogVersionBridge bridge = new ReaderLogVersionBridge( fileSystem, logFiles );
+        this.readerLogVersionBridge = this.preallocate ? new WrittenEndLogVersionBridge( bridge ) : bridge;
     }
 
     @Override
@@ -94,6 +124,11 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     public void start() throws Throwable
     {
         doRecoveryOn( channel, recoveredDataVisitor );
+        if ( preallocate )
+        {
+            // Recovery reads to the end of the file, but the end of a preallocated file isn't where to continue
+            channel.position( endOfEntries( channel ) );
+        }
     }
 
     @Override
@@ -114,12 +149,17 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     public void shutdown() throws Throwable
     {
         writer.close();
+        truncateToWrittenSize( channel );
         channel.close();
     }
 
     private PhysicalLogVersionedStoreChannel openLogChannelForVersion( long forVersion ) throws IOException
     {
         File toOpen = logFiles.getLogFileForVersion( forVersion );
+        if ( preallocate && !fileSystem.fileExists( toOpen ) )
+        {
+            preallocateLogFile( toOpen, forVersion );
+        }
         StoreChannel storeChannel = fileSystem.open( toOpen, "rw" );
         LogHeader header = readLogHeader( headerBuffer, storeChannel, false );
         if ( header == null )
@@ -135,6 +175,69 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
         return new PhysicalLogVersionedStoreChannel( storeChannel, forVersion, formatVersion );
     }
 
+    private void preallocateLogFile( File file, long version ) throws IOException
+    {
+        /*
+         * The file is prepared under the name of the recycled log file and then renamed, so that a log file
+         * for this version either doesn't exist or is complete, even if we crash in the middle of this.
+         */
+        File preparedFile = logFiles.getRecycledLogFile();
+        long lastTxId = transactionIdStore.getLastCommittedTransactionId();
+        try ( StoreChannel storeChannel = fileSystem.open( preparedFile, "rw" ) )
+        {
+            if ( storeChannel.size() > rotateAtSize )
+            {
+                storeChannel.truncate( rotateAtSize );
+            }
+
+            ByteBuffer empty = ByteBuffer.allocate( 64 * 1024 );
+            for ( long position = LOG_HEADER_SIZE; position < rotateAtSize; position += empty.limit() )
+            {
+                empty.clear();
+                empty.limit( (int) Math.min( empty.capacity(), rotateAtSize - position ) );
+                storeChannel.writeAll( empty, position );
+            }
+            storeChannel.position( 0 );
+            writeLogHeader( headerBuffer, version, lastTxId );
+            storeChannel.writeAll( headerBuffer );
+            storeChannel.force( true );
+        }
+        if ( !fileSystem.renameFile( preparedFile, file ) )
+        {
+            throw new IOException( "Unable to move preallocated log file " + preparedFile + " to " + file );
+        }
+        transactionMetadataCache.putHeader( version, lastTxId );
+        monitor.opened( file, version, lastTxId, true );
+    }
+
+    /**
+     * @return the position right after the last entry in the given log, which is where the empty entries of a
+     * preallocated log file begin.
+     */
+    private long endOfEntries( PhysicalLogVersionedStoreChannel log ) throws IOException
+    {
+        log.position( LOG_HEADER_SIZE );
+        // Not closed, since that would close the log channel itself
+        ReadableLogChannel reader = new ReadAheadLogChannel( log, NO_MORE_CHANNELS, DEFAULT_READ_AHEAD_SIZE );
+        LogEntryReader<ReadableLogChannel> entryReader = new VersionAwareLogEntryReader();
+        LogPositionMarker marker = new LogPositionMarker();
+        do
+        {
+            reader.getCurrentPosition( marker );
+        }
+        while ( entryReader.readLogEntry( reader ) != null );
+        return marker.newPosition().getByteOffset();
+    }
+
+    private void truncateToWrittenSize( LogVersionedStoreChannel log ) throws IOException
+    {
+        if ( preallocate && log.size() > log.position() )
+        {
+            log.truncate( log.position() );
+            log.force( true );
+        }
+    }
+
     private void doRecoveryOn( PhysicalLogVersionedStoreChannel toRecover,
                                Visitor<ReadableLogChannel, IOException> recoveredDataVisitor ) throws IOException
     {
@@ -208,6 +311,7 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
          * Note that by this point, rotation is done. The next few lines are
          * "simply overhead" for continuing to work with the new file.
          */
+        truncateToWrittenSize( currentLog );
         PhysicalLogVersionedStoreChannel newLog = openLogChannelForVersion( newLogVersion );
         currentLog.close();
         pruneStrategy.prune();
@@ -225,7 +329,89 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     {
         PhysicalLogVersionedStoreChannel logChannel = openForVersion( logFiles, fileSystem, position.getLogVersion() );
         logChannel.position( position.getByteOffset() );
-        return new ReadAheadLogChannel( logChannel, readerLogVersionBridge, DEFAULT_READ_AHEAD_SIZE );
+        return new ReadAheadLogChannel( preallocate ? new WrittenEndLogChannel( logChannel ) : logChannel,
+                readerLogVersionBridge, DEFAULT_READ_AHEAD_SIZE );
+    }
+
+    /**
+     * @return the position up to which the given log version has been written. For the current log version that is
+     * where the writer has flushed up to, for all other versions it's the end of the file.
+     */
+    private long writtenEnd( LogVersionedStoreChannel log ) throws IOException
+    {
+        PhysicalLogVersionedStoreChannel current = channel;
+        if ( current.getVersion() == log.getVersion() )
+        {
+            try
+            {
+                return current.position();
+            }
+            catch ( ClosedChannelException e )
+            {   // Rotated away from, and so truncated to what was written to it
+            }
+        }
+        return log.size();
+    }
+
+    /**
+     * Reads a preallocated log file only up to what has been written to it.
+     */
+    private class WrittenEndLogChannel extends PhysicalLogVersionedStoreChannel
+    {
+        WrittenEndLogChannel( PhysicalLogVersionedStoreChannel log )
+        {
+            super( log, log.getVersion(), log.getLogFormatVersion() );
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            long readable = writtenEnd( this ) - position();
+            if ( readable <= 0 )
+            {
+                return -1;
+            }
+            if ( dst.remaining() <= readable )
+            {
+                return super.read( dst );
+            }
+            int limit = dst.limit();
+            dst.limit( dst.position() + (int) readable );
+            try
+            {
+                return super.read( dst );
+            }
+            finally
+            {
+                dst.limit( limit );
+            }
+        }
+    }
+
+    /**
+     * Moves readers on to the next log version only when they have read everything written to the one they are at.
+     * A rotation can happen after a reader of the current log version stopped at what had been flushed, and
+     * more can have been written to that version by then.
+     */
+    private class WrittenEndLogVersionBridge implements LogVersionBridge
+    {
+        private final LogVersionBridge bridge;
+
+        WrittenEndLogVersionBridge( LogVersionBridge bridge )
+        {
+            this.bridge = bridge;
+        }
+
+        @Override
+        public LogVersionedStoreChannel next( LogVersionedStoreChannel log ) throws IOException
+        {
+            if ( log.position() < writtenEnd( log ) )
+            {
+                return log;
+            }
+            LogVersionedStoreChannel next = bridge.next( log );
+            return next == log ? log : new WrittenEndLogChannel( (PhysicalLogVersionedStoreChannel) next );
+        }
     }
 
     public static PhysicalLogVersionedStoreChannel openForVersion( PhysicalLogFiles logFiles,
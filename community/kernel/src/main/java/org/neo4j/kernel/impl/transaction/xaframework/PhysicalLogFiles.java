@@ -76,6 +76,15 @@ public class PhysicalLogFiles
         return new File( logBaseName.getPath() + DEFAULT_VERSION_SUFFIX + version );
     }
 
+    /**
+     * @return the file that a pruned log file is kept as, for being reused as the next log version when log
+     * files are preallocated. Its name doesn't match the pattern of versioned log files.
+     */
+    public File getRecycledLogFile()
+    {
+        return new File( logBaseName.getPath() + DEFAULT_VERSION_SUFFIX + "recycled" );
+    }
+
     public boolean versionExists( long version )
     {
         return fileSystem.fileExists( getLogFileForVersion( version ) );
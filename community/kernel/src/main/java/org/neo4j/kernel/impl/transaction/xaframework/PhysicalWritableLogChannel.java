@@ -104,10 +104,23 @@ public class PhysicalWritableLogChannel implements WritableLogChannel
     @Override
     public WritableLogChannel put( byte[] value, int length ) throws IOException
     {
+        if ( length > buffer.remaining() && length >= buffer.capacity() >> 1 )
+        {
+            // Large arrays, like whole encoded transactions, go to the channel as they are instead of through
+            // the buffer, chunk by chunk
+            emptyBufferIntoChannelAndClearIt();
+            ByteBuffer wrapped = ByteBuffer.wrap( value, 0, length );
+            while ( wrapped.hasRemaining() )
+            {
+                channel.write( wrapped );
+            }
+            return this;
+        }
+
         int offset = 0;
         while ( offset < length )
         {
-            int chunkSize = min( length, buffer.capacity() >> 1 );
+            int chunkSize = min( length - offset, buffer.capacity() >> 1 );
             bufferWithGuaranteedSpace( chunkSize ).put( value, offset, chunkSize );
             offset += chunkSize;
         }
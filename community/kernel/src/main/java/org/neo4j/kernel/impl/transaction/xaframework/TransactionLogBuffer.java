@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogEntryWriterv1;
+
+import static java.lang.Math.max;
+
+import static org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogVersions.CURRENT_LOG_VERSION;
+
+/**
+ * Holds the start entry and the command entries of a transaction, encoded ahead of appending it to the log.
+ * Encoding is the bulk of the work of appending a transaction and needs nothing from the log itself, so a
+ * committer can do it before it enters the critical section of the {@link TransactionAppender}, where only
+ * the encoded bytes and the commit entry, which carries the transaction id, are written to the log.
+ *
+ * The buffer grows to fit the largest transaction encoded, but goes back to its initial size after having
+ * held a transaction larger than {@link #MAX_RETAINED_CAPACITY}, so that pooled instances don't hold on to
+ * a lot of memory.
+ */
+class TransactionLogBuffer implements WritableLogChannel
+{
+    static final int INITIAL_CAPACITY = 4 * 1024;
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private final LogEntryWriterv1 entryWriter = new LogEntryWriterv1( this, new CommandWriter( this ) );
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+
+    /**
+     * Clears this buffer and encodes the start entry and the command entries of the given transaction into it.
+     */
+    void encode( TransactionRepresentation transaction ) throws IOException
+    {
+        buffer.clear();
+        entryWriter.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
+                transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
+                transaction.additionalHeader() );
+        entryWriter.serialize( transaction );
+    }
+
+    /**
+     * Writes the encoded transaction to the given channel and releases excess memory.
+     */
+    void writeTo( WritableLogChannel channel ) throws IOException
+    {
+        channel.put( buffer.array(), buffer.position() );
+        if ( buffer.capacity() > MAX_RETAINED_CAPACITY )
+        {
+            buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+        }
+        buffer.clear();
+    }
+
+    int size()
+    {
+        return buffer.position();
+    }
+
+    @Override
+    public byte getLogFormatVersion()
+    {
+        return CURRENT_LOG_VERSION;
+    }
+
+    @Override
+    public void emptyBufferIntoChannelAndClearIt()
+    {   // There's no channel behind this buffer, see writeTo
+    }
+
+    @Override
+    public void force()
+    {
+    }
+
+    @Override
+    public WritableLogChannel put( byte value )
+    {
+        bufferWithGuaranteedSpace( 1 ).put( value );
+        return this;
+    }
+
+    @Override
+    public WritableLogChannel putShort( short value )
+    {
+        bufferWithGuaranteedSpace( 2 ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public WritableLogChannel putInt( int value )
+    {
+        bufferWithGuaranteedSpace( 4 ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public WritableLogChannel putLong( long value )
+    {
+        bufferWithGuaranteedSpace( 8 ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public WritableLogChannel putFloat( float value )
+    {
+        bufferWithGuaranteedSpace( 4 ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public WritableLogChannel putDouble( double value )
+    {
+        bufferWithGuaranteedSpace( 8 ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public WritableLogChannel put( byte[] value, int length )
+    {
+        bufferWithGuaranteedSpace( length ).put( value, 0, length );
+        return this;
+    }
+
+    /**
+     * An encoded transaction has no position in any log until it has been written to one, so the position
+     * is always {@link LogPosition#UNSPECIFIED unspecified}.
+     */
+    @Override
+    public void getCurrentPosition( LogPositionMarker positionMarker )
+    {
+        positionMarker.unspecified();
+    }
+
+    private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes )
+    {
+        if ( buffer.remaining() < spaceInBytes )
+        {
+            ByteBuffer grown = ByteBuffer.allocate( max( buffer.capacity() * 2, buffer.position() + spaceInBytes ) );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -78,6 +78,21 @@ public class LogPruneStrategyFactory
                                                     PhysicalLogFiles files,
                                                     LogVersionRepository versionRepo,
                                                     String configValue )
+    {
+        return fromConfigValue( fileSystem, logFileInformation, files, versionRepo, configValue, false );
+    }
+
+    /**
+     * Like {@link #fromConfigValue(FileSystemAbstraction, LogFileInformation, PhysicalLogFiles,
+     * LogVersionRepository, String)}, but optionally keeps a pruned log file around for being
+     * recycled, see {@link ThresholdBasedPruneStrategy}.
+     */
+    public static LogPruneStrategy fromConfigValue( FileSystemAbstraction fileSystem,
+                                                    LogFileInformation logFileInformation,
+                                                    PhysicalLogFiles files,
+                                                    LogVersionRepository versionRepo,
+                                                    String configValue,
+                                                    boolean recycleLogFiles )
     {
         String[] tokens = configValue.split( " " );
         if ( tokens.length == 0 )
@@ -96,7 +111,7 @@ public class LogPruneStrategyFactory
                 case "false":
                     final TransactionCountThreshold thresholdToUse = new TransactionCountThreshold( 1 );
                     return new ThresholdBasedPruneStrategy( fileSystem, logFileInformation, files, versionRepo,
-                            thresholdToUse );
+                            thresholdToUse, recycleLogFiles );
                 default:
                     throw new IllegalArgumentException( "Invalid log pruning configuration value '" + configValue +
                             "'. The form is 'all' or '<number><unit> <type>' for example '100k txs' " +
@@ -129,7 +144,8 @@ public class LogPruneStrategyFactory
                 throw new IllegalArgumentException( "Invalid log pruning configuration value '" + configValue +
                         "'. Invalid type '" + type + "', valid are files, size, txs, hours, days." );
         }
-        return new ThresholdBasedPruneStrategy( fileSystem, logFileInformation, files, versionRepo, thresholdToUse );
+        return new ThresholdBasedPruneStrategy( fileSystem, logFileInformation, files, versionRepo, thresholdToUse,
+                recycleLogFiles );
     }
 
 }
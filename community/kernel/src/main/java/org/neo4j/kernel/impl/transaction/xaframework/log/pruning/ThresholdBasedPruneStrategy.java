@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.xaframework.log.pruning;
 
 import java.io.File;
+import java.io.IOException;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.xaframework.LogFileInformation;
@@ -35,10 +36,24 @@ public class ThresholdBasedPruneStrategy implements LogPruneStrategy
     private final PhysicalLogFiles files;
     private final LogVersionRepository versionRepo;
     private final Threshold threshold;
+    private final boolean recycle;
 
     public ThresholdBasedPruneStrategy( FileSystemAbstraction fileSystem, LogFileInformation logFileInformation,
                                         PhysicalLogFiles files, LogVersionRepository versionRepo, Threshold threshold )
     {
+        this( fileSystem, logFileInformation, files, versionRepo, threshold, false );
+    }
+
+    /**
+     * @param recycle whether or not to keep the newest of the pruned files as the
+     * {@link PhysicalLogFiles#getRecycledLogFile() recycled log file}, if there isn't one already, instead of
+     * deleting it.
+     */
+    public ThresholdBasedPruneStrategy( FileSystemAbstraction fileSystem, LogFileInformation logFileInformation,
+                                        PhysicalLogFiles files, LogVersionRepository versionRepo, Threshold threshold,
+                                        boolean recycle )
+    {
+        this.recycle = recycle;
         this.fileSystem = fileSystem;
         this.logFileInformation = logFileInformation;
         this.files = files;
@@ -92,7 +107,25 @@ public class ThresholdBasedPruneStrategy implements LogPruneStrategy
         // we can be sure that no holes are created
         for ( long version = lower; version <= upper; version++ )
         {
-            fileSystem.deleteFile( files.getLogFileForVersion( version ) );
+            File file = files.getLogFileForVersion( version );
+            if ( version == upper && recycle && recycle( file ) )
+            {
+                continue;
+            }
+            fileSystem.deleteFile( file );
+        }
+    }
+
+    private boolean recycle( File file )
+    {
+        File recycledFile = files.getRecycledLogFile();
+        try
+        {
+            return !fileSystem.fileExists( recycledFile ) && fileSystem.renameFile( file, recycledFile );
+        }
+        catch ( IOException e )
+        {   // The file is deleted instead, and the next log file is allocated from scratch
+            return false;
         }
     }
 }
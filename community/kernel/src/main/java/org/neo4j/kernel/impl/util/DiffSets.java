@@ -259,7 +259,10 @@ public class DiffSets<T>
         return added( false ).size() - removed( false ).size();
     }
 
-    private Set<T> newSet()
+    /**
+     * Creates the set of added or removed elements, the first time an element is added to or removed from it.
+     */
+    protected Set<T> newSet()
     {
         return newSetFromMap( new VersionedHashMap<T, Boolean>() );
     }
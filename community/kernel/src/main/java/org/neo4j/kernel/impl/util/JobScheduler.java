@@ -41,12 +41,28 @@ public interface JobScheduler extends Lifecycle
         masterTransactionPushing,
         serverTransactionTimeout,
         pullUpdates,
+        slaveIdAllocation,
 
         /**
          * Gathers approximated data about the underlying data store.
          */
         heuristics,
+
+        /**
+         * Samples the values in schema indexes, for estimating the selectivity of index lookups.
+         */
+        indexSampling,
         pageCacheEviction,
+
+        /**
+         * Records which pages are in the page cache, and loads them back in when the database starts.
+         */
+        pageCacheWarmup,
+
+        /**
+         * Runs parts of Cypher queries in parallel with the thread executing the query.
+         */
+        cypherWorker,
     }
 
     interface JobHandle
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+
+/**
+ * {@link DiffSets} of longs, like entity ids, which keeps its added and removed elements in primitive long sets
+ * rather than as boxed elements in a hash map, so that a transaction adding or removing millions of entities
+ * doesn't need several times the memory for tracking them.
+ */
+public class LongDiffSets extends DiffSets<Long>
+{
+    @Override
+    protected Set<Long> newSet()
+    {
+        return new PrimitiveLongSetView();
+    }
+
+    /**
+     * A set of boxed longs backed by a {@link PrimitiveLongSet}. Iterators behave like those of
+     * {@link VersionedHashMap}: elements added after an iterator was created are not returned by it, and neither
+     * are elements removed before the iterator got to them. Elements are boxed only when an iterator returns them.
+     */
+    private static class PrimitiveLongSetView extends AbstractSet<Long>
+    {
+        private final PrimitiveLongSet set = Primitive.longSet();
+
+        @Override
+        public boolean add( Long element )
+        {
+            return set.add( element );
+        }
+
+        @Override
+        public boolean remove( Object element )
+        {
+            return element instanceof Long && set.remove( (Long) element );
+        }
+
+        @Override
+        public boolean contains( Object element )
+        {
+            return element instanceof Long && set.contains( (Long) element );
+        }
+
+        @Override
+        public int size()
+        {
+            return set.size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return set.isEmpty();
+        }
+
+        @Override
+        public void clear()
+        {
+            set.clear();
+        }
+
+        @Override
+        public Iterator<Long> iterator()
+        {
+            final long[] elements = snapshot();
+            return new Iterator<Long>()
+            {
+                private int next;
+                private int current = -1;
+
+                @Override
+                public boolean hasNext()
+                {
+                    while ( next < elements.length && !set.contains( elements[next] ) )
+                    {
+                        next++;
+                    }
+                    return next < elements.length;
+                }
+
+                @Override
+                public Long next()
+                {
+                    if ( !hasNext() )
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    current = next++;
+                    return elements[current];
+                }
+
+                @Override
+                public void remove()
+                {
+                    if ( current == -1 )
+                    {
+                        throw new IllegalStateException();
+                    }
+                    set.remove( elements[current] );
+                    current = -1;
+                }
+            };
+        }
+
+        private long[] snapshot()
+        {
+            long[] elements = new long[set.size()];
+            PrimitiveLongIterator iterator = set.iterator();
+            for ( int i = 0; i < elements.length; i++ )
+            {
+                elements[i] = iterator.next();
+            }
+            return elements;
+        }
+    }
+}
@@ -26,16 +26,27 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.collection.Iterables;
 
+/**
+ * Creates monitors, i.e. implementations of monitor interfaces that dispatch calls to the listeners registered for
+ * the methods called.
+ *
+ * Monitors are called on hot paths, so listener registrations are resolved into arrays of listeners per method up
+ * front. Registering and unregistering listeners publishes a new such mapping, which holds only the methods that have
+ * listeners. A monitor call returns right after a volatile read when there are no listeners at all, and after a map
+ * lookup when none of the listeners are for the called method.
+ */
 public class Monitors
 {
     public interface Monitor
@@ -59,10 +70,13 @@ public class Monitors
         }
     }
 
-    private AtomicReference<Map<Method, List<MonitorListenerInvocationHandler>>> methodMonitorListeners = new
-            AtomicReference<Map<Method, List<MonitorListenerInvocationHandler>>>( new HashMap<Method,
-            List<MonitorListenerInvocationHandler>>() );
-    private List<Class<?>> monitoredInterfaces = new ArrayList<Class<?>>();
+    private static final MonitorListenerInvocationHandler[] NO_LISTENERS = new MonitorListenerInvocationHandler[0];
+
+    /** Listeners per method, only containing methods that have listeners. Replaced, never modified. */
+    private volatile Map<Method, MonitorListenerInvocationHandler[]> methodMonitorListeners =
+            Collections.emptyMap();
+    private final Set<Method> monitoredMethods = new HashSet<Method>();
+    private final List<Class<?>> monitoredInterfaces = new ArrayList<Class<?>>();
     private Map<Predicate<Method>, MonitorListenerInvocationHandler> monitorListeners =
             new ConcurrentHashMap<Predicate<Method>, MonitorListenerInvocationHandler>();
 
@@ -81,13 +95,14 @@ public class Monitors
 
     public <T> T newMonitor( Class<T> monitorClass, String... tags )
     {
-        if ( !monitoredInterfaces.contains( monitorClass ) )
+        synchronized ( this )
         {
-            monitoredInterfaces.add( monitorClass );
-
-            for ( Method method : monitorClass.getMethods() )
+            if ( !monitoredInterfaces.contains( monitorClass ) )
             {
-                recalculateMethodListeners( method );
+                monitoredInterfaces.add( monitorClass );
+
+                Collections.addAll( monitoredMethods, monitorClass.getMethods() );
+                recalculateAllMethodListeners();
             }
         }
 
@@ -107,7 +122,7 @@ public class Monitors
         }
     }
 
-    public void addMonitorListener( final Object monitorListener, String... tags )
+    public synchronized void addMonitorListener( final Object monitorListener, String... tags )
     {
         MonitorListenerInvocationHandler monitorListenerInvocationHandler = tags.length == 0 ? new
                 UntaggedMonitorListenerInvocationHandler( monitorListener ) :
@@ -125,12 +140,14 @@ public class Monitors
                     }
                 }, monitorListenerInvocationHandler );
 
-                recalculateMethodListeners( method );
+                monitoredMethods.add( method );
             }
         }
+
+        recalculateAllMethodListeners();
     }
 
-    public void removeMonitorListener( Object monitorListener )
+    public synchronized void removeMonitorListener( Object monitorListener )
     {
         Iterator<Map.Entry<Predicate<Method>, MonitorListenerInvocationHandler>> iter = monitorListeners.entrySet
                 ().iterator();
@@ -150,15 +167,15 @@ public class Monitors
         recalculateAllMethodListeners();
     }
 
-    public void addMonitorListener( MonitorListenerInvocationHandler invocationHandler,
-                                    Predicate<Method> methodSpecification )
+    public synchronized void addMonitorListener( MonitorListenerInvocationHandler invocationHandler,
+                                                 Predicate<Method> methodSpecification )
     {
         monitorListeners.put( methodSpecification, invocationHandler );
 
         recalculateAllMethodListeners();
     }
 
-    public void removeMonitorListener( MonitorListenerInvocationHandler invocationHandler )
+    public synchronized void removeMonitorListener( MonitorListenerInvocationHandler invocationHandler )
     {
         Iterator<Map.Entry<Predicate<Method>, MonitorListenerInvocationHandler>> iter = monitorListeners.entrySet
                 ().iterator();
@@ -174,26 +191,28 @@ public class Monitors
         }
     }
 
-    private void recalculateMethodListeners( Method method )
+    private void recalculateAllMethodListeners()
     {
-        List<MonitorListenerInvocationHandler> listeners = new ArrayList<MonitorListenerInvocationHandler>();
-        for ( Map.Entry<Predicate<Method>, MonitorListenerInvocationHandler> handlerEntry : monitorListeners
-                .entrySet() )
+        Map<Method, MonitorListenerInvocationHandler[]> newMethodMonitorListeners =
+                new HashMap<Method, MonitorListenerInvocationHandler[]>();
+        for ( Method method : monitoredMethods )
         {
-            if ( handlerEntry.getKey().accept( method ) )
+            List<MonitorListenerInvocationHandler> listeners = new ArrayList<MonitorListenerInvocationHandler>();
+            for ( Map.Entry<Predicate<Method>, MonitorListenerInvocationHandler> handlerEntry : monitorListeners
+                    .entrySet() )
+            {
+                if ( handlerEntry.getKey().accept( method ) )
+                {
+                    listeners.add( handlerEntry.getValue() );
+                }
+            }
+            if ( !listeners.isEmpty() )
             {
-                listeners.add( handlerEntry.getValue() );
+                newMethodMonitorListeners.put( method, listeners.toArray( NO_LISTENERS ) );
             }
         }
-        methodMonitorListeners.get().put( method, listeners );
-    }
-
-    private void recalculateAllMethodListeners()
-    {
-        for ( Method method : methodMonitorListeners.get().keySet() )
-        {
-            recalculateMethodListeners( method );
-        }
+        methodMonitorListeners = newMethodMonitorListeners.isEmpty() ?
+                Collections.<Method, MonitorListenerInvocationHandler[]>emptyMap() : newMethodMonitorListeners;
     }
 
     private Iterable<Class<?>> getInterfacesOf( Class<?> aClass )
@@ -279,18 +298,21 @@ public class Monitors
         @Override
         public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable
         {
-            invokeMonitorListeners( proxy, method, args );
+            Map<Method, MonitorListenerInvocationHandler[]> listeners = methodMonitorListeners;
+            if ( !listeners.isEmpty() )
+            {
+                invokeMonitorListeners( listeners.get( method ), proxy, method, args );
+            }
             return null;
         }
 
-        private void invokeMonitorListeners( Object proxy, Method method, Object[] args )
+        private void invokeMonitorListeners( MonitorListenerInvocationHandler[] handlers, Object proxy,
+                                             Method method, Object[] args )
         {
-            List<MonitorListenerInvocationHandler> handlers = methodMonitorListeners.get().get( method );
             if ( handlers != null )
             {
-                for ( int i = 0; i < handlers.size(); i++ )
+                for ( MonitorListenerInvocationHandler monitorListenerInvocationHandler : handlers )
                 {
-                    MonitorListenerInvocationHandler monitorListenerInvocationHandler = handlers.get( i );
                     try
                     {
                         monitorListenerInvocationHandler.invoke( proxy, method, args, tags );
@@ -114,4 +114,14 @@ public class DynamicLongArray implements LongArray
             set( toIndex+i, intermediary );
         }
     }
+
+    @Override
+    public void free()
+    {
+        for ( LongArray chunk : chunks )
+        {
+            chunk.free();
+        }
+        chunks = new LongArray[0];
+    }
 }
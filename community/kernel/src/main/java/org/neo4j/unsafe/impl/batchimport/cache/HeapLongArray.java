@@ -85,6 +85,11 @@ public class HeapLongArray implements LongArray
         }
     }
 
+    @Override
+    public void free()
+    {   // Nothing to free, the garbage collector takes care of it
+    }
+
     private int arrayIndex( long index )
     {
         return index < Integer.MAX_VALUE ? (int) index : (int) (index % Integer.MAX_VALUE);
@@ -34,4 +34,9 @@ public interface LongArray
     void setAll( long value );
 
     void swap( long fromIndex, long toIndex, int numberOfEntries );
+
+    /**
+     * Releases the memory held by this array. The array must not be used after this call.
+     */
+    void free();
 }
@@ -29,7 +29,7 @@ import sun.misc.Unsafe;
  */
 public class OffHeapLongArray implements LongArray
 {
-    private final long address;
+    private long address;
     private final long length;
 
     public OffHeapLongArray( long length )
@@ -114,6 +114,13 @@ public class OffHeapLongArray implements LongArray
         }
     }
 
+    @Override
+    public void free()
+    {
+        unsafe.freeMemory( address );
+        address = 0;
+    }
+
     private static final Unsafe unsafe = getUnsafe();
 
     private static Unsafe getUnsafe()
@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.neo4j.collection.pool.Pool;
+import org.neo4j.collection.primitive.PrimitiveLongVisitor;
 import org.neo4j.helpers.Factory;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
@@ -244,6 +245,12 @@ public class BatchingPageCache implements PageCache
         {
             return singleCursor.highestKnownPageId();
         }
+
+        @Override
+        public void visitResidentPages( PrimitiveLongVisitor visitor )
+        {
+            // The batch importer writes its files once, front to back, so there's nothing worth warming up
+        }
     }
 
     class BatchingPageCursor implements PageCursor
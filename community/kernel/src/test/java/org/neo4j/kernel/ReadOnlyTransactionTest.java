@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.ConstraintViolationException;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.DatabaseRule;
+import org.neo4j.test.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ReadOnlyTransactionTest
+{
+    @Rule
+    public final DatabaseRule dbRule = new ImpermanentDatabaseRule();
+
+    @Test
+    public void shouldReadInReadOnlyTransaction() throws Exception
+    {
+        // GIVEN
+        GraphDatabaseAPI db = dbRule.getGraphDatabaseAPI();
+        long nodeId = createNodeWithProperty( db, "value" );
+
+        // WHEN
+        try ( Transaction tx = db.beginReadOnlyTx() )
+        {
+            // THEN
+            assertEquals( "value", db.getNodeById( nodeId ).getProperty( "key" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldNotWriteInReadOnlyTransaction() throws Exception
+    {
+        // GIVEN
+        GraphDatabaseAPI db = dbRule.getGraphDatabaseAPI();
+        long nodeId = createNodeWithProperty( db, "value" );
+
+        // WHEN
+        try ( Transaction tx = db.beginReadOnlyTx() )
+        {
+            db.getNodeById( nodeId ).setProperty( "key", "other value" );
+            fail( "Should not be able to write in a read-only transaction" );
+        }
+        catch ( ConstraintViolationException e )
+        {   // THEN good
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( "value", db.getNodeById( nodeId ).getProperty( "key" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldJoinTransactionAlreadyRunning() throws Exception
+    {
+        // GIVEN
+        GraphDatabaseAPI db = dbRule.getGraphDatabaseAPI();
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            // WHEN
+            try ( Transaction inner = db.beginReadOnlyTx() )
+            {
+                nodeId = db.createNode().getId();
+                inner.success();
+            }
+            tx.success();
+        }
+
+        // THEN
+        try ( Transaction tx = db.beginReadOnlyTx() )
+        {
+            db.getNodeById( nodeId );
+            tx.success();
+        }
+    }
+
+    private long createNodeWithProperty( GraphDatabaseAPI db, String value )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            node.setProperty( "key", value );
+            tx.success();
+            return node.getId();
+        }
+    }
+}
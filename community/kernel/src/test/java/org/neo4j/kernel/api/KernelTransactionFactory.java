@@ -51,6 +51,6 @@ public class KernelTransactionFactory
                 mock( TransactionRepresentationCommitProcess.class ), mock( TransactionMonitor.class ),
                 mock( PersistenceCache.class ),
                 mock( StoreReadLayer.class ),
-                mock( LegacyIndexTransactionState.class ), Clock.SYSTEM_CLOCK );
+                mock( LegacyIndexTransactionState.class ), Clock.SYSTEM_CLOCK, false );
     }
 }
@@ -27,6 +27,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import org.neo4j.helpers.FakeClock;
+import org.neo4j.kernel.api.exceptions.InvalidTransactionTypeKernelException;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.api.KernelTransactionImplementation;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
@@ -44,10 +45,15 @@ import org.neo4j.test.DoubleLatch;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -347,6 +353,42 @@ public class KernelTransactionImplementationTest
         assertEquals( startingTime+5, commitProcess.transaction.getTimeCommitted() );
     }
 
+    @Test
+    public void shouldNotAllowDataUpdatesInReadOnlyTransaction() throws Exception
+    {
+        // GIVEN
+        try ( KernelTransactionImplementation transaction = newTransaction( true ) )
+        {
+            // WHEN
+            transaction.upgradeToDataTransaction();
+            fail( "Should not be able to perform data updates in a read-only transaction" );
+        }
+        catch ( InvalidTransactionTypeKernelException e )
+        {
+            // THEN Good
+        }
+    }
+
+    @Test
+    public void shouldReuseReadOnlyTransactionWithoutTouchingRecordState() throws Exception
+    {
+        // GIVEN
+        KernelTransactionImplementation transaction = newTransaction( true );
+        transaction.success();
+        transaction.close();
+
+        // WHEN
+        transaction.initialize( headerInformation, 5L );
+        transaction.success();
+        transaction.close();
+
+        // THEN
+        assertFalse( transaction.hasTxState() );
+        assertNull( commitProcess.transaction );
+        verify( recordState, never() ).initialize( anyLong() );
+        verify( transactionMonitor, times( 2 ) ).transactionFinished( true );
+    }
+
     private final NeoStore neoStore = mock( NeoStore.class );
     private final TransactionHooks hooks = new TransactionHooks();
     private final TransactionRecordState recordState = mock( TransactionRecordState.class );
@@ -365,10 +407,15 @@ public class KernelTransactionImplementationTest
     }
 
     private KernelTransactionImplementation newTransaction()
+    {
+        return newTransaction( false );
+    }
+
+    private KernelTransactionImplementation newTransaction( boolean readOnlyTransaction )
     {
         return new KernelTransactionImplementation( null, false, null, null, null, null, recordState,
                 null, neoStore, new NoOpClient(), hooks, null, headerInformation, commitProcess, transactionMonitor,
-                null, null, legacyIndexState, clock );
+                null, null, legacyIndexState, clock, readOnlyTransaction );
     }
 
     public class CapturingCommitProcess implements TransactionCommitProcess
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexSampleTest
+{
+    @Test
+    public void shouldKeepOnlyTheMostFrequentValues() throws Exception
+    {
+        // GIVEN
+        IndexSample.Builder builder = new IndexSample.Builder();
+        for ( int i = 0; i < IndexSample.FREQUENT_VALUES * 2; i++ )
+        {
+            builder.addValue( IndexSample.valueKey( i ), i + 1 );
+        }
+
+        // WHEN
+        IndexSample sample = builder.build();
+
+        // THEN
+        assertEquals( IndexSample.FREQUENT_VALUES * 2, sample.distinctValues() );
+        assertEquals( IndexSample.FREQUENT_VALUES * (IndexSample.FREQUENT_VALUES * 2 + 1), sample.indexSize() );
+        assertEquals( IndexSample.FREQUENT_VALUES, sample.frequentValues().size() );
+        assertTrue( sample.frequentValues().containsKey( IndexSample.valueKey( IndexSample.FREQUENT_VALUES * 2 - 1 ) ) );
+        assertFalse( sample.frequentValues().containsKey( IndexSample.valueKey( 0 ) ) );
+    }
+
+    @Test
+    public void shouldEstimateSelectivityOfFrequentAndOtherValues() throws Exception
+    {
+        // GIVEN 100 entries, 80 of which have the same value and the rest spread over 10 other values
+        IndexSample.Builder builder = new IndexSample.Builder().addValue( IndexSample.valueKey( "common" ), 80 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            builder.addValue( IndexSample.valueKey( "rare" + i ), 2 );
+        }
+        IndexSample sample = new IndexSample( 100, 11,
+                Collections.singletonMap( IndexSample.valueKey( "common" ), 80L ) );
+
+        // THEN
+        assertEquals( 1d / 11, builder.build().selectivity(), 0.0001 );
+        assertEquals( 0.8, sample.selectivity( "common" ), 0.0001 );
+        assertEquals( 0.02, sample.selectivity( "rare3" ), 0.0001 );
+    }
+
+    @Test
+    public void shouldTreatEqualNumbersAsTheSameValue() throws Exception
+    {
+        assertEquals( IndexSample.valueKey( 42 ), IndexSample.valueKey( 42.0d ) );
+        assertEquals( IndexSample.valueKey( (byte) 42 ), IndexSample.valueKey( 42L ) );
+        assertFalse( IndexSample.valueKey( "42" ).equals( IndexSample.valueKey( 42 ) ) );
+        assertFalse( IndexSample.valueKey( "true" ).equals( IndexSample.valueKey( true ) ) );
+    }
+}
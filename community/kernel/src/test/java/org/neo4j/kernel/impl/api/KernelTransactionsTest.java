@@ -32,6 +32,7 @@ import org.neo4j.kernel.lifecycle.LifeSupport;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -53,7 +54,7 @@ public class KernelTransactionsTest
         when(locks.newClient()).thenReturn( mock( Locks.Client.class ) );
 
         KernelTransactions registry = new KernelTransactions(
-                new MockContextSupplier(), mock(NeoStore.class), locks, null, null, null, null, null, null,
+                new MockContextSupplier(), mock(NeoStore.class), locks, null, null, null, null, null, null, null,
                 null, null, TransactionHeaderInformationFactory.DEFAULT, null, null,  mock(TransactionCommitProcess.class), null, null,
                 new TransactionHooks(), mock( TransactionMonitor.class ), life, false );
 
@@ -79,7 +80,7 @@ public class KernelTransactionsTest
         when(locks.newClient()).thenReturn( mock( Locks.Client.class ) );
 
         KernelTransactions registry = new KernelTransactions(
-                new MockContextSupplier(), mock(NeoStore.class), locks, null, null, null, null, null, null,
+                new MockContextSupplier(), mock(NeoStore.class), locks, null, null, null, null, null, null, null,
                 null, null, TransactionHeaderInformationFactory.DEFAULT, null, null,  mock(TransactionCommitProcess.class), null, null,
                 new TransactionHooks(), mock( TransactionMonitor.class ), life, false );
 
@@ -102,6 +103,66 @@ public class KernelTransactionsTest
         assertTrue(leftOpen.shouldBeTerminated());
     }
 
+    @Test
+    public void shouldReuseClosedReadOnlyTransactions() throws Exception
+    {
+        // Given
+        LifeSupport life = new LifeSupport();
+        life.start();
+
+        Locks locks = mock( Locks.class );
+        when(locks.newClient()).thenReturn( mock( Locks.Client.class ) );
+
+        KernelTransactions registry = new KernelTransactions(
+                new MockContextSupplier(), mock(NeoStore.class), locks, null, null, null, null, null, null, null,
+                null, null, TransactionHeaderInformationFactory.DEFAULT, null, null,  mock(TransactionCommitProcess.class), null, null,
+                new TransactionHooks(), mock( TransactionMonitor.class ), life, false );
+
+        KernelTransaction first = registry.newReadOnlyInstance();
+        KernelTransaction second = registry.newReadOnlyInstance();
+        first.close();
+
+        // When
+        KernelTransaction third = registry.newReadOnlyInstance();
+        KernelTransaction readWrite = registry.newInstance();
+
+        // Then
+        assertSame( first, third );
+        assertTrue( third.isOpen() );
+        assertThat( readWrite, not( equalTo( first ) ) );
+        assertThat( asUniqueSet(registry.activeTransactions()), equalTo(asSet( second, third, readWrite )) );
+    }
+
+    @Test
+    public void shouldNotPoolReadOnlyTransactionsClosedAfterDisposeAll() throws Exception
+    {
+        // Given
+        LifeSupport life = new LifeSupport();
+        life.start();
+
+        Locks locks = mock( Locks.class );
+        when(locks.newClient()).thenReturn( mock( Locks.Client.class ) );
+
+        KernelTransactions registry = new KernelTransactions(
+                new MockContextSupplier(), mock(NeoStore.class), locks, null, null, null, null, null, null, null,
+                null, null, TransactionHeaderInformationFactory.DEFAULT, null, null,  mock(TransactionCommitProcess.class), null, null,
+                new TransactionHooks(), mock( TransactionMonitor.class ), life, false );
+
+        KernelTransaction pooled = registry.newReadOnlyInstance();
+        KernelTransaction leftOpen = registry.newReadOnlyInstance();
+        pooled.close();
+
+        // When
+        registry.disposeAll();
+        leftOpen.close();
+
+        // Then
+        KernelTransaction postDispose = registry.newReadOnlyInstance();
+        assertThat( postDispose, not( equalTo( pooled ) ) );
+        assertThat( postDispose, not( equalTo( leftOpen ) ) );
+        assertThat( asUniqueSet(registry.activeTransactions()), equalTo(asSet( postDispose )) );
+    }
+
     private static class MockContextSupplier extends NeoStoreTransactionContextSupplier
     {
         public MockContextSupplier()
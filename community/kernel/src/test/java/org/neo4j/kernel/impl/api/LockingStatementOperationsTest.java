@@ -19,11 +19,16 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Test;
 import org.mockito.InOrder;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.index.IndexDescriptor;
@@ -33,12 +38,23 @@ import org.neo4j.kernel.impl.api.operations.EntityReadOperations;
 import org.neo4j.kernel.impl.api.operations.EntityWriteOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaReadOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaWriteOperations;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LockingStatementOperationsTest
@@ -50,10 +66,24 @@ public class LockingStatementOperationsTest
     private final SchemaWriteOperations schemaWriteOps;
     private final Locks.Client locks = mock( Locks.Client.class );
     private final InOrder order;
-    private final KernelStatement state = new KernelStatement( null, null, null, null, locks, null, null, null );
+    private final KernelTransactionImplementation transaction = mock( KernelTransactionImplementation.class );
+    private final KernelStatement state = new KernelStatement( transaction, mock( IndexReaderFactory.class ), null,
+            null, locks, null, null, null );
+    private final List<String> acquiredBatches = new ArrayList<>();
 
     public LockingStatementOperationsTest()
     {
+        // The statement clears its batch after acquiring it, so remember what it looked like at the time
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                acquiredBatches.add( invocation.getArguments()[0].toString() );
+                return null;
+            }
+        } ).when( locks ).acquireExclusive( any( LockBatch.class ) );
+
         entityReadOps = mock( EntityReadOperations.class );
         entityWriteOps = mock( EntityWriteOperations.class );
         schemaReadOps = mock( SchemaReadOperations.class );
@@ -69,20 +99,124 @@ public class LockingStatementOperationsTest
         lockingOps.relationshipCreate( state, 1, 2, 3);
 
         // then
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 2 );
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 3 );
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
         order.verify( entityWriteOps ).relationshipCreate( state, 1, 2, 3 );
+        assertEquals( asList( batch( ResourceTypes.NODE, 2, 3 ) ), acquiredBatches );
     }
 
     @Test
-    public void shouldAcquireEntityWriteLockBeforeAddingLabelToNode() throws Exception
+    public void shouldAcquireEntityWriteLocksLowestIdFirstCreatingRelationship() throws Exception
+    {
+        // when
+        lockingOps.relationshipCreate( state, 1, 3, 2 );
+
+        // then
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
+        order.verify( entityWriteOps ).relationshipCreate( state, 1, 3, 2 );
+        assertEquals( asList( batch( ResourceTypes.NODE, 2, 3 ) ), acquiredBatches );
+    }
+
+    @Test
+    public void shouldAcquireAllEntityWriteLocksInOneBatchDeletingRelationship() throws Exception
+    {
+        // given
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                RelationshipVisitor<?> visitor = (RelationshipVisitor<?>) invocation.getArguments()[2];
+                visitor.visit( 10, 3, 2, 1 );
+                return null;
+            }
+        } ).when( entityReadOps ).relationshipVisit( eq( state ), eq( 10l ), any( RelationshipVisitor.class ) );
+
+        // when
+        lockingOps.relationshipDelete( state, 10 );
+
+        // then
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
+        order.verify( entityWriteOps ).relationshipDelete( state, 10 );
+        verify( locks, never() ).acquireExclusive( any( Locks.ResourceType.class ), Matchers.<long[]>anyVararg() );
+        assertEquals( asList( new LockBatch().add( ResourceTypes.NODE, 2, 3 )
+                .add( ResourceTypes.RELATIONSHIP, 10 ).toString() ), acquiredBatches );
+    }
+
+    @Test
+    public void shouldDeferEntityWriteLocksOfPropertyAndLabelChangesUntilStatementCloses() throws Exception
+    {
+        // given
+        state.acquire();
+
+        // when
+        lockingOps.nodeSetProperty( state, 3, Property.property( 8, 9 ) );
+        lockingOps.nodeAddLabel( state, 1, 456 );
+        lockingOps.nodeRemoveProperty( state, 2, 8 );
+        lockingOps.relationshipSetProperty( state, 10, Property.property( 8, 9 ) );
+
+        // then
+        verify( locks, never() ).acquireExclusive( any( LockBatch.class ) );
+
+        // and when
+        state.close();
+
+        // then
+        verify( locks, never() ).acquireExclusive( any( Locks.ResourceType.class ), Matchers.<long[]>anyVararg() );
+        assertEquals( asList( new LockBatch().add( ResourceTypes.NODE, 1, 2, 3 )
+                .add( ResourceTypes.RELATIONSHIP, 10 ).toString() ), acquiredBatches );
+    }
+
+    @Test
+    public void shouldAcquireDeferredLocksTogetherWithLocksOfNextRecordChange() throws Exception
+    {
+        // given
+        lockingOps.nodeSetProperty( state, 5, Property.property( 8, 9 ) );
+        lockingOps.nodeSetProperty( state, 4, Property.property( 8, 9 ) );
+
+        // when
+        lockingOps.relationshipCreate( state, 1, 3, 2 );
+
+        // then
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
+        order.verify( entityWriteOps ).relationshipCreate( state, 1, 3, 2 );
+        assertEquals( asList( batch( ResourceTypes.NODE, 2, 3, 4, 5 ) ), acquiredBatches );
+    }
+
+    @Test
+    public void shouldFailTransactionIfDeferredLocksCannotBeAcquired() throws Exception
+    {
+        // given
+        RuntimeException deadlock = new RuntimeException( "deadlock" );
+        doThrow( deadlock ).when( locks ).acquireExclusive( any( LockBatch.class ) );
+        state.acquire();
+        lockingOps.nodeSetProperty( state, 3, Property.property( 8, 9 ) );
+
+        // when
+        try
+        {
+            state.close();
+            fail( "Should have failed" );
+        }
+        catch ( RuntimeException e )
+        {
+            // then
+            assertSame( deadlock, e );
+        }
+        verify( transaction ).failure();
+        verify( transaction ).releaseStatement( state );
+    }
+
+    @Test
+    public void shouldAcquireEntityWriteLockForAddingLabelToNode() throws Exception
     {
         // when
         lockingOps.nodeAddLabel( state, 123, 456 );
 
         // then
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 123 );
         order.verify( entityWriteOps ).nodeAddLabel( state, 123, 456 );
+        state.acquireDeferredLocks();
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
+        assertEquals( asList( batch( ResourceTypes.NODE, 123 ) ), acquiredBatches );
     }
 
     @Test
@@ -97,7 +231,7 @@ public class LockingStatementOperationsTest
     }
 
     @Test
-    public void shouldAcquireEntityWriteLockBeforeSettingPropertyOnNode() throws Exception
+    public void shouldAcquireEntityWriteLockForSettingPropertyOnNode() throws Exception
     {
         // given
         DefinedProperty property = Property.property( 8, 9 );
@@ -106,8 +240,10 @@ public class LockingStatementOperationsTest
         lockingOps.nodeSetProperty( state, 123, property );
 
         // then
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 123 );
         order.verify( entityWriteOps ).nodeSetProperty( state, 123, property );
+        state.acquireDeferredLocks();
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
+        assertEquals( asList( batch( ResourceTypes.NODE, 123 ) ), acquiredBatches );
     }
 
     @Test
@@ -131,8 +267,9 @@ public class LockingStatementOperationsTest
         lockingOps.nodeDelete( state, 123 );
 
         //THEN
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 123 );
+        order.verify( locks ).acquireExclusive( any( LockBatch.class ) );
         order.verify( entityWriteOps ).nodeDelete( state, 123 );
+        assertEquals( asList( batch( ResourceTypes.NODE, 123 ) ), acquiredBatches );
     }
 
     @Test
@@ -258,4 +395,9 @@ public class LockingStatementOperationsTest
         order.verify( locks ).acquireShared( ResourceTypes.SCHEMA, ResourceTypes.schemaResource() );
         order.verify( schemaReadOps ).constraintsGetAll( state );
     }
+
+    private static String batch( Locks.ResourceType type, long... ids )
+    {
+        return new LockBatch().add( type, ids ).toString();
+    }
 }
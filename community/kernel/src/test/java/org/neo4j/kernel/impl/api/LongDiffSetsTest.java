@@ -20,15 +20,20 @@
 package org.neo4j.kernel.impl.api;
 
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.neo4j.collection.primitive.PrimitiveLongCollections.iterator;
 import static org.neo4j.graphdb.Neo4jMatchers.hasSamePrimitiveItems;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 
+import java.lang.management.ManagementFactory;
 import java.util.Iterator;
 
 import org.junit.Test;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.kernel.impl.util.DiffSets;
+import org.neo4j.kernel.impl.util.LongDiffSets;
 
 public class LongDiffSetsTest
 {
@@ -98,6 +103,76 @@ public class LongDiffSetsTest
         assertThat( expected, hasSamePrimitiveItems( actual ) );
     }
 
+    @Test
+    public void shouldAugmentSourceLikeBoxedDiffSets() throws Exception
+    {
+        // given
+        DiffSets<Long> boxed = new DiffSets<>();
+        DiffSets<Long> primitive = new LongDiffSets();
+        for ( DiffSets<Long> diffSets : asList( boxed, primitive ) )
+        {
+            diffSets.add( 17l );
+            diffSets.add( 18l );
+            diffSets.remove( 1l );
+            diffSets.remove( 18l );
+        }
+
+        // when
+        PrimitiveLongIterator actual = primitive.augment( iterator( 1l, 2l, 3l ) );
+
+        // then
+        assertThat( boxed.apply( iteratorSource( 1l, 2l, 3l ) ), hasSamePrimitiveItems( actual ) );
+        assertEquals( boxed.getAdded(), primitive.getAdded() );
+        assertEquals( boxed.getRemoved(), primitive.getRemoved() );
+        assertEquals( boxed.delta(), primitive.delta() );
+    }
+
+    @Test
+    public void shouldNotSeeElementsAddedAfterIteratorWasCreated() throws Exception
+    {
+        // given
+        DiffSets<Long> diffSets = new LongDiffSets();
+        diffSets.add( 1l );
+        diffSets.add( 2l );
+        Iterator<Long> added = diffSets.getAdded().iterator();
+
+        // when
+        diffSets.add( 3l );
+        diffSets.remove( 2l );
+
+        // then
+        assertEquals( asSet( 1l ), asSet( added ) );
+    }
+
+    @Test
+    public void shouldKeepAddedElementsUnboxed() throws Exception
+    {
+        // given
+        int count = 1 << 20;
+        long before = usedHeap();
+
+        // when
+        DiffSets<Long> diffSets = new LongDiffSets();
+        for ( long id = 0; id < count; id++ )
+        {
+            diffSets.add( id * 7 );
+        }
+
+        // then a boxed Long in a hash map entry alone takes more than this
+        long bytesPerElement = (usedHeap() - before) / count;
+        assertTrue( "Took " + bytesPerElement + " bytes per element", bytesPerElement < 32 );
+        assertEquals( count, diffSets.delta() );
+    }
+
+    private static long usedHeap()
+    {
+        for ( int i = 0; i < 5; i++ )
+        {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
     private static Iterator<Long> iteratorSource( Long... values )
     {
         return asList( values ).iterator();
@@ -224,6 +224,12 @@ public class ConstraintIndexCreatorTest
             };
         }
 
+        @Override
+        public KernelTransaction newReadOnlyTransaction()
+        {
+            return newTransaction();
+        }
+
         @Override
         public void registerTransactionHook( TransactionHook hook )
         {
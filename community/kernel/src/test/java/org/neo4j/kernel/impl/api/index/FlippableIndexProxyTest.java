@@ -25,9 +25,13 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.neo4j.kernel.api.exceptions.index.FlipFailedKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexProxyAlreadyClosedKernelException;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.test.OtherThreadExecutor;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -36,6 +40,7 @@ import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import static org.neo4j.kernel.impl.api.index.SchemaIndexTestHelper.awaitFuture;
 import static org.neo4j.kernel.impl.api.index.SchemaIndexTestHelper.awaitLatch;
@@ -157,6 +162,53 @@ public class FlippableIndexProxyTest
         verify( contextAfterFlip ).drop();
     }
 
+    @Test
+    public void shouldNotBlockFlipWhileSampling() throws Exception
+    {
+        // GIVEN
+        final IndexProxy contextBeforeFlip = mockIndexProxy();
+        final IndexProxy contextAfterFlip = mockIndexProxy();
+        final FlippableIndexProxy flippable = new FlippableIndexProxy( contextBeforeFlip );
+        flippable.setFlipTarget( singleProxy( contextAfterFlip ) );
+        final OtherThreadExecutor<Void> flippingThread = new OtherThreadExecutor<>( "Flipping thread", null );
+        IndexSampler sampler = mock( IndexSampler.class );
+        when( contextBeforeFlip.newSampler() ).thenReturn( sampler );
+
+        // WHEN the index flips while it is being sampled
+        when( sampler.sampleIndex() ).thenAnswer( new Answer<IndexSample>()
+        {
+            @Override
+            public IndexSample answer( InvocationOnMock invocation ) throws Throwable
+            {
+                flippingThread.executeDontWait( flip( flippable ) ).get( 10, SECONDS );
+                return null;
+            }
+        } );
+        try ( IndexSampler flippableSampler = flippable.newSampler() )
+        {
+            flippableSampler.sampleIndex();
+        }
+
+        // THEN the flip was not held up by the sampling
+        flippable.drop().get();
+        verify( contextAfterFlip ).drop();
+        verify( sampler ).close();
+        flippingThread.close();
+    }
+
+    private OtherThreadExecutor.WorkerCommand<Void, Void> flip( final FlippableIndexProxy flippable )
+    {
+        return new OtherThreadExecutor.WorkerCommand<Void, Void>()
+        {
+            @Override
+            public Void doWork( Void state ) throws FlipFailedKernelException
+            {
+                flippable.flip( noOp(), null );
+                return null;
+            }
+        };
+    }
+
     private OtherThreadExecutor.WorkerCommand<Void, Void> dropTheIndex( final FlippableIndexProxy flippable )
     {
         return new OtherThreadExecutor.WorkerCommand<Void, Void>()
@@ -25,6 +25,8 @@ import java.util.concurrent.Future;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
@@ -113,4 +115,16 @@ public class IndexProxyAdapter implements IndexProxy
     {
         throw new IllegalStateException( "This index isn't failed" );
     }
+
+    @Override
+    public IndexSampler newSampler()
+    {
+        return IndexSampler.NONE;
+    }
+
+    @Override
+    public IndexSample getSample()
+    {
+        return null;
+    }
 }
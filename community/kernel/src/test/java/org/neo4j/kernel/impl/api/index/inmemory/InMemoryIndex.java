@@ -29,6 +29,8 @@ import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
@@ -157,6 +159,8 @@ class InMemoryIndex
 
     private class OnlineAccessor implements IndexAccessor
     {
+        private IndexSample lastSample;
+
         @Override
         public void force() throws IOException
         {
@@ -196,6 +200,37 @@ class InMemoryIndex
         {
             return emptyIterator();
         }
+
+        @Override
+        public IndexSampler newSampler()
+        {
+            return new IndexSampler()
+            {
+                @Override
+                public IndexSample sampleIndex() throws IOException
+                {
+                    try
+                    {
+                        return lastSample = indexData.sample();
+                    }
+                    catch ( Exception e )
+                    {
+                        throw new IOException( e );
+                    }
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public IndexSample lastSample()
+        {
+            return lastSample;
+        }
     }
 
     protected IndexUpdater newUpdater( IndexUpdateMode mode, boolean populating )
@@ -25,6 +25,7 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.kernel.api.direct.BoundedIterable;
 import org.neo4j.kernel.api.index.ArrayEncoder;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
 
 abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterable<Long>
 {
@@ -116,6 +117,23 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
 
     abstract InMemoryIndexImplementation snapshot();
 
+    IndexSample sample() throws Exception
+    {
+        final IndexSample.Builder builder = new IndexSample.Builder();
+        iterateAll( new IndexEntryIterator()
+        {
+            @Override
+            public void visitEntry( Object key, Set<Long> nodeId )
+            {
+                String valueKey = key instanceof ArrayKey
+                        ? IndexSample.encodedArrayValueKey( ((ArrayKey) key).arrayValue )
+                        : IndexSample.valueKey( key );
+                builder.addValue( valueKey, nodeId.size() );
+            }
+        } );
+        return builder.build();
+    }
+
     protected interface IndexEntryIterator
     {
         void visitEntry( Object key, Set<Long> nodeId ) throws Exception;
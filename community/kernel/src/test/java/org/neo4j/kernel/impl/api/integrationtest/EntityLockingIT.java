@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.integrationtest;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.api.DataWriteOperations;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.test.OtherThreadExecutor.WorkerCommand;
+import org.neo4j.test.OtherThreadRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import static org.neo4j.kernel.api.properties.Property.property;
+
+/**
+ * When the write locks of entity changes are taken, and where a failure to take them surfaces. Each call through
+ * the core API is a statement of its own, so it holds its locks when it returns, whereas a statement spanning
+ * several changes, like a Cypher query, takes the locks of its property and label changes when it closes.
+ */
+public class EntityLockingIT extends KernelIntegrationTest
+{
+    @Rule
+    public OtherThreadRule<Void> otherThread = new OtherThreadRule<>( 10, TimeUnit.SECONDS );
+
+    @Test
+    public void shouldHoldWriteLockOfPropertyChangeThroughCoreApiWhenTheCallReturns() throws Exception
+    {
+        // given
+        final long node = createNode();
+        Future<Void> otherWrite;
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.getNodeById( node ).setProperty( "name", "main" );
+
+            // when
+            otherWrite = otherThread.execute( setPropertyInNewTransaction( node, "other" ) );
+
+            // then
+            otherThread.get().waitUntilWaiting();
+            assertFalse( otherWrite.isDone() );
+            tx.success();
+        }
+        otherWrite.get( 10, TimeUnit.SECONDS );
+        assertEquals( "other", nameOf( node ) );
+    }
+
+    @Test
+    public void shouldTakeWriteLockOfPropertyChangeWhenTheStatementCloses() throws Exception
+    {
+        // given
+        long node = createNode();
+        int name;
+        try ( KernelTransaction tx = kernel.newTransaction(); Statement statement = tx.acquireStatement() )
+        {
+            name = statement.tokenWriteOperations().propertyKeyGetOrCreateForName( "name" );
+            tx.success();
+        }
+
+        try ( KernelTransaction tx = kernel.newTransaction() )
+        {
+            try ( Statement statement = tx.acquireStatement() )
+            {
+                statement.dataWriteOperations().nodeSetProperty( node, property( name, "main" ) );
+
+                // when another transaction changes the same node before the statement is closed
+                otherThread.execute( setPropertyInNewTransaction( node, "other" ) ).get( 10, TimeUnit.SECONDS );
+            }
+            tx.success();
+        }
+
+        // then it didn't have to wait for this transaction, which commits last
+        assertEquals( "main", nameOf( node ) );
+    }
+
+    @Test
+    public void shouldSurfaceDeadlockOfDeferredWriteLocksWhenTheStatementCloses() throws Exception
+    {
+        // given
+        final long first = createNode();
+        final long second = createNode();
+        int name;
+        try ( KernelTransaction tx = kernel.newTransaction(); Statement statement = tx.acquireStatement() )
+        {
+            name = statement.tokenWriteOperations().propertyKeyGetOrCreateForName( "name" );
+            tx.success();
+        }
+
+        KernelTransaction tx = kernel.newTransaction();
+        try ( Statement statement = tx.acquireStatement() )
+        {
+            statement.dataWriteOperations().nodeSetProperty( second, property( name, "main" ) );
+        }
+        Future<Void> other = otherThread.execute( new WorkerCommand<Void, Void>()
+        {
+            @Override
+            public Void doWork( Void state )
+            {
+                try ( Transaction otherTx = db.beginTx() )
+                {
+                    db.getNodeById( first ).setProperty( "name", "other" );
+                    db.getNodeById( second ).setProperty( "name", "other" );
+                    otherTx.success();
+                }
+                return null;
+            }
+        } );
+        otherThread.get().waitUntilWaiting();
+
+        // when
+        Statement statement = tx.acquireStatement();
+        DataWriteOperations ops = statement.dataWriteOperations();
+        ops.nodeSetProperty( first, property( name, "main" ) );
+        try
+        {
+            statement.close();
+            fail( "Should have detected the deadlock" );
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            // then
+        }
+
+        // and the transaction has been marked as failed
+        tx.success();
+        try
+        {
+            tx.close();
+            fail( "Should have been rolled back" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            // expected
+        }
+        other.get( 10, TimeUnit.SECONDS );
+        assertEquals( "other", nameOf( first ) );
+        assertEquals( "other", nameOf( second ) );
+    }
+
+    private long createNode()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            tx.success();
+            return node.getId();
+        }
+    }
+
+    private Object nameOf( long node )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            return db.getNodeById( node ).getProperty( "name" );
+        }
+    }
+
+    private WorkerCommand<Void, Void> setPropertyInNewTransaction( final long node, final String value )
+    {
+        return new WorkerCommand<Void, Void>()
+        {
+            @Override
+            public Void doWork( Void state )
+            {
+                try ( Transaction tx = db.beginTx() )
+                {
+                    db.getNodeById( node ).setProperty( "name", value );
+                    tx.success();
+                }
+                return null;
+            }
+        };
+    }
+}
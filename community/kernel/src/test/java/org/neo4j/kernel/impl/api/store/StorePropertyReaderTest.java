@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.store;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+import static org.neo4j.graphdb.DynamicRelationshipType.withName;
+
+public class StorePropertyReaderTest extends DiskLayerTest
+{
+    @Test
+    public void shouldReadOnlyTheRequestedNodeProperties() throws Exception
+    {
+        // GIVEN
+        String longString = "AlalalalalongAlalalalalongAlalalalalongAlalalalalongAlalalalalongAlalalalalong";
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            for ( int i = 0; i < 20; i++ )
+            {
+                node.setProperty( "key" + i, i );
+            }
+            node.setProperty( "long", longString );
+            nodeId = node.getId();
+            tx.success();
+        }
+
+        // WHEN
+        Object[] values = reader().nodeProperties( nodeId,
+                new int[]{keyId( "long" ), keyId( "key3" ), keyId( propertyKey ), keyId( "key17" )} );
+
+        // THEN
+        assertArrayEquals( new Object[]{longString, 3, null, 17}, values );
+    }
+
+    @Test
+    public void shouldReadRelationshipProperties() throws Exception
+    {
+        // GIVEN
+        long relationshipId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Relationship relationship = db.createNode().createRelationshipTo( db.createNode(), withName( "KNOWS" ) );
+            relationship.setProperty( "since", 2001L );
+            relationship.setProperty( propertyKey, "Bob" );
+            relationshipId = relationship.getId();
+            tx.success();
+        }
+
+        // WHEN
+        Object[] values = reader().relationshipProperties( relationshipId,
+                new int[]{keyId( propertyKey ), keyId( "since" )} );
+
+        // THEN
+        assertArrayEquals( new Object[]{"Bob", 2001L}, values );
+    }
+
+    @Test
+    public void shouldFailForMissingNode() throws Exception
+    {
+        // GIVEN
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            nodeId = node.getId();
+            node.delete();
+            tx.success();
+        }
+
+        // WHEN
+        try
+        {
+            reader().nodeProperties( nodeId, new int[]{keyId( propertyKey )} );
+            fail( "Should have thrown" );
+        }
+        catch ( EntityNotFoundException e )
+        {
+            // THEN good
+        }
+    }
+
+    private StorePropertyReader reader()
+    {
+        return new StorePropertyReader( db.getDependencyResolver().resolveDependency( NeoStoreProvider.class ) );
+    }
+
+    private int keyId( String key )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            return disk.propertyKeyGetOrCreateForName( key );
+        }
+    }
+}
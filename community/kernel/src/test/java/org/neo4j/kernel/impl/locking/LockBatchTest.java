@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class LockBatchTest
+{
+    @Test
+    public void shouldVisitResourcesSortedByTypeAndIdWithoutDuplicates() throws Exception
+    {
+        // given
+        LockBatch batch = new LockBatch();
+        batch.add( ResourceTypes.RELATIONSHIP, 7 );
+        batch.add( ResourceTypes.NODE, 5, 3 );
+        batch.add( ResourceTypes.NODE, 3, 1 );
+
+        // when
+        Locks.Client client = mock( Locks.Client.class );
+        batch.acquireExclusivePerType( client );
+
+        // then
+        InOrder order = inOrder( client );
+        order.verify( client ).acquireExclusive( ResourceTypes.NODE, 1, 3, 5 );
+        order.verify( client ).acquireExclusive( ResourceTypes.RELATIONSHIP, 7 );
+        verifyNoMoreInteractions( client );
+        assertEquals( 4, batch.size() );
+        assertEquals( 2, batch.numberOfTypes() );
+    }
+
+    @Test
+    public void shouldAcceptMoreResourcesAfterHavingBeenVisited() throws Exception
+    {
+        // given
+        LockBatch batch = new LockBatch();
+        batch.add( ResourceTypes.NODE, 10 );
+        batch.size();
+
+        // when
+        batch.add( ResourceTypes.NODE, 2, 10 );
+
+        // then
+        Locks.Client client = mock( Locks.Client.class );
+        batch.acquireSharedPerType( client );
+        InOrder order = inOrder( client );
+        order.verify( client ).acquireShared( ResourceTypes.NODE, 2, 10 );
+        verifyNoMoreInteractions( client );
+    }
+
+    @Test
+    public void shouldBeEmptyAfterClear() throws Exception
+    {
+        // given
+        LockBatch batch = new LockBatch();
+        batch.add( ResourceTypes.NODE, 1, 2, 3 );
+        assertFalse( batch.isEmpty() );
+
+        // when
+        batch.clear();
+
+        // then
+        assertTrue( batch.isEmpty() );
+        assertEquals( 0, batch.numberOfTypes() );
+    }
+}
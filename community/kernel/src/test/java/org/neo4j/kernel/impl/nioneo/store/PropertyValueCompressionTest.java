@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.neo4j.helpers.Pair;
+import org.neo4j.helpers.collection.IteratorUtil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyValueCompressionTest
+{
+    @Test
+    public void shouldCompressAndDecompressLongStrings() throws Exception
+    {
+        // given
+        StringBuilder builder = new StringBuilder();
+        for ( int i = 0; i < 50; i++ )
+        {
+            builder.append( "The quick brown fox jumps over the lazy dog, åäö " ).append( i ).append( ". " );
+        }
+        byte[] utf8 = PropertyStore.encodeString( builder.toString() );
+
+        // when
+        byte[] compressed = PropertyValueCompression.compressString( utf8 );
+
+        // then
+        assertTrue( PropertyValueCompression.isCompressedString( compressed ) );
+        assertTrue( compressed.length < utf8.length / 4 );
+        assertEquals( builder.toString(),
+                PropertyStore.decodeString( PropertyValueCompression.decompressString( compressed ) ) );
+    }
+
+    @Test
+    public void shouldLeaveShortAndIncompressibleStringsAlone() throws Exception
+    {
+        // given
+        byte[] shortString = PropertyStore.encodeString( "Not worth it" );
+        byte[] randomString = new byte[500];
+        new Random( 42 ).nextBytes( randomString );
+        randomString[0] = 'x';
+
+        // then
+        assertSame( shortString, PropertyValueCompression.compressString( shortString ) );
+        assertSame( randomString, PropertyValueCompression.compressString( randomString ) );
+        assertFalse( PropertyValueCompression.isCompressedString( randomString ) );
+        assertSame( randomString, PropertyValueCompression.decompressString( randomString ) );
+    }
+
+    @Test
+    public void shouldDeltaEncodeSortedLongArraysWhenCompressing() throws Exception
+    {
+        // given
+        long[] array = new long[200];
+        for ( int i = 0; i < array.length; i++ )
+        {
+            array[i] = 1_400_000_000_000L + i * 1000 + (i % 7);
+        }
+
+        // when
+        List<DynamicRecord> plain = allocate( array, false );
+        List<DynamicRecord> compressed = allocate( array, true );
+
+        // then
+        assertTrue( compressed.size() * 2 < plain.size() );
+        assertArrayEquals( array, (long[]) read( compressed ) );
+        assertArrayEquals( array, (long[]) read( plain ) );
+    }
+
+    @Test
+    public void shouldDeltaEncodeIntArraysWithNegativeDeltas() throws Exception
+    {
+        // given
+        int[] array = new int[]{-5, -3, -4, 0, 0, 0, 10, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+        // when
+        List<DynamicRecord> compressed = allocate( array, true );
+
+        // then
+        assertArrayEquals( array, (int[]) read( compressed ) );
+    }
+
+    @Test
+    public void shouldNotDeltaEncodeArraysWhereThatDoesNotSaveSpace() throws Exception
+    {
+        // given
+        long[] array = new long[]{1, 100, 2, 99, 3, 98};
+
+        // when
+        List<DynamicRecord> compressed = allocate( array, true );
+
+        // then
+        assertFalse( PropertyValueCompression.isDeltaEncoded( compressed.get( 0 ).getData()[0] ) );
+        assertArrayEquals( array, (long[]) read( compressed ) );
+    }
+
+    private static List<DynamicRecord> allocate( Object array, boolean compress )
+    {
+        List<DynamicRecord> records = new ArrayList<>();
+        DynamicArrayStore.allocateRecords( records, array, IteratorUtil.<DynamicRecord>emptyIterator(),
+                new InMemoryRecords( 120 ), compress );
+        return records;
+    }
+
+    private static Object read( Collection<DynamicRecord> records )
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for ( DynamicRecord record : records )
+        {
+            out.write( record.getData(), 0, record.getData().length );
+        }
+        byte[] bytes = out.toByteArray();
+        byte[] header = PropertyType.ARRAY.readDynamicRecordHeader( bytes );
+        return DynamicArrayStore.getRightArray(
+                Pair.of( header, Arrays.copyOfRange( bytes, header.length, bytes.length ) ) );
+    }
+
+    private static class InMemoryRecords implements DynamicRecordAllocator
+    {
+        private final int dataSize;
+        private long nextId;
+
+        InMemoryRecords( int dataSize )
+        {
+            this.dataSize = dataSize;
+        }
+
+        @Override
+        public int dataSize()
+        {
+            return dataSize;
+        }
+
+        @Override
+        public DynamicRecord nextUsedRecordOrNew( Iterator<DynamicRecord> recordsToUseFirst )
+        {
+            DynamicRecord record = new DynamicRecord( nextId++ );
+            record.setInUse( true );
+            record.setCreated();
+            return record;
+        }
+    }
+}
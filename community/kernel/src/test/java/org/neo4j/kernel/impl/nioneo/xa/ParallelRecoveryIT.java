@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.api.index.inmemory.InMemoryIndexProvider;
+import org.neo4j.kernel.impl.api.index.inmemory.InMemoryIndexProviderFactory;
+import org.neo4j.kernel.impl.transaction.xaframework.PhysicalLogFile;
+import org.neo4j.test.EphemeralFileSystemRule;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.graphdb.DynamicLabel.label;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.helpers.collection.IteratorUtil.emptySetOf;
+
+public class ParallelRecoveryIT
+{
+    @Rule
+    public final EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private final Label label = label( "Person" );
+    private final String key = "name";
+    private GraphDatabaseService db;
+
+    @Test
+    public void shouldRecoverIndexEntriesOfNodeChangedByManyTransactionsOfOneBatch() throws Exception
+    {
+        // GIVEN an index whose contents are flushed before the transactions to recover
+        InMemoryIndexProvider indexProvider = new InMemoryIndexProvider( 100 );
+        db = newDatabase( indexProvider );
+        createIndex();
+        rotateLogs();
+        InMemoryIndexProvider flushedIndexes = indexProvider.snapshot();
+
+        // and transactions changing the labels and properties of the same nodes, which all go into one batch
+        Node node, otherNode;
+        try ( Transaction tx = db.beginTx() )
+        {
+            node = db.createNode();
+            node.setProperty( key, "first" );
+            otherNode = db.createNode( label );
+            otherNode.setProperty( key, "other" );
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            node.addLabel( label );
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            node.setProperty( key, "second" );
+            otherNode.removeLabel( label );
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            otherNode.setProperty( key, "third" );
+            tx.success();
+        }
+
+        // WHEN crashing and recovering
+        fs.snapshot( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                db.shutdown();
+            }
+        } );
+        db = newDatabase( flushedIndexes );
+
+        // THEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( asSet( node ), asSet( db.findNodesByLabelAndProperty( label, key, "second" ) ) );
+            assertEquals( emptySetOf( Node.class ), asSet( db.findNodesByLabelAndProperty( label, key, "first" ) ) );
+            assertEquals( emptySetOf( Node.class ), asSet( db.findNodesByLabelAndProperty( label, key, "other" ) ) );
+            assertEquals( emptySetOf( Node.class ), asSet( db.findNodesByLabelAndProperty( label, key, "third" ) ) );
+            assertTrue( db.getNodeById( node.getId() ).hasLabel( label ) );
+            assertFalse( db.getNodeById( otherNode.getId() ).hasLabel( label ) );
+            tx.success();
+        }
+    }
+
+    @After
+    public void shutdown()
+    {
+        if ( db != null )
+        {
+            db.shutdown();
+        }
+    }
+
+    private GraphDatabaseService newDatabase( InMemoryIndexProvider indexProvider )
+    {
+        return new TestGraphDatabaseFactory()
+                .setFileSystem( fs.get() )
+                .addKernelExtension( new InMemoryIndexProviderFactory( indexProvider ) )
+                .newImpermanentDatabaseBuilder()
+                .setConfig( GraphDatabaseSettings.recovery_threads, "4" )
+                .newGraphDatabase();
+    }
+
+    private void createIndex()
+    {
+        IndexDefinition index;
+        try ( Transaction tx = db.beginTx() )
+        {
+            index = db.schema().indexFor( label ).on( key ).create();
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().awaitIndexOnline( index, 10, SECONDS );
+            tx.success();
+        }
+    }
+
+    private void rotateLogs() throws IOException
+    {
+        NeoStoreXaDataSource dataSource = ((GraphDatabaseAPI) db).getDependencyResolver()
+                .resolveDependency( NeoStoreXaDataSource.class );
+        dataSource.getDependencyResolver().resolveDependency( PhysicalLogFile.class ).forceRotate();
+    }
+}
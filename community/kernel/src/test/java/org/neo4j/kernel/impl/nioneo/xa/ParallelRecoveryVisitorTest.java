@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.kernel.impl.api.TransactionRepresentationStoreApplier;
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.NeoStoreCommand;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.transaction.xaframework.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.xaframework.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.xaframework.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.xaframework.log.entry.OnePhaseCommit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelRecoveryVisitorTest
+{
+    private final NeoStore neoStore = mock( NeoStore.class );
+    private final TransactionRepresentationStoreApplier storeApplier =
+            mock( TransactionRepresentationStoreApplier.class );
+    private final RecoveryVisitor.Monitor monitor = mock( RecoveryVisitor.Monitor.class );
+    private final AtomicInteger recoveredCount = new AtomicInteger();
+    private ParallelRecoveryVisitor visitor;
+
+    @Before
+    public void before()
+    {
+        NodeStore nodeStore = mock( NodeStore.class );
+        when( nodeStore.getRecordSize() ).thenReturn( 16 );
+        when( neoStore.getNodeStore() ).thenReturn( nodeStore );
+        RelationshipStore relationshipStore = mock( RelationshipStore.class );
+        when( relationshipStore.getRecordSize() ).thenReturn( 32 );
+        when( neoStore.getRelationshipStore() ).thenReturn( relationshipStore );
+        visitor = new ParallelRecoveryVisitor( neoStore, storeApplier, recoveredCount, monitor, 4, 1024 );
+    }
+
+    @Test
+    public void shouldApplyRecordOnlyTransactionsInOneBatch() throws Exception
+    {
+        // when
+        visitor.visit( transaction( 1, nodeCommand( 1 ), relationshipCommand( 10 ) ) );
+        visitor.visit( transaction( 2, nodeCommand( 2 ) ) );
+        verify( storeApplier, never() ).applyRecoveredBatch( any( List.class ),
+                any( List.class ), any( ExecutorService.class ) );
+        visitor.close();
+
+        // then
+        verify( storeApplier, times( 1 ) ).applyRecoveredBatch( any( List.class ),
+                any( List.class ), any( ExecutorService.class ) );
+        verify( monitor ).transactionRecovered( 1 );
+        verify( monitor ).transactionRecovered( 2 );
+        assertEquals( 2, recoveredCount.get() );
+        verify( neoStore ).setLastCommittedAndClosedTransactionId( 2 );
+    }
+
+    @Test
+    public void shouldHandOverCommandsOfEachBatchedTransactionInLogOrder() throws Exception
+    {
+        // given
+        Command first = nodeCommand( 1 );
+        Command second = nodeCommand( 1 );
+        Command third = relationshipCommand( 10 );
+        final List<Object> transactions = new ArrayList<>();
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                transactions.addAll( (List<?>) invocation.getArguments()[0] );
+                return null;
+            }
+        } ).when( storeApplier ).applyRecoveredBatch( any( List.class ), any( List.class ),
+                any( ExecutorService.class ) );
+
+        // when
+        visitor.visit( transaction( 1, first ) );
+        visitor.visit( transaction( 2, second, third ) );
+        visitor.close();
+
+        // then
+        assertEquals( Arrays.<Object>asList( Arrays.asList( first ), Arrays.asList( second, third ) ),
+                transactions );
+    }
+
+    @Test
+    public void shouldApplyBatchBeforeTransactionsWithOtherCommands() throws Exception
+    {
+        // given
+        TransactionRepresentation neoStoreTransaction = representation(
+                new NeoStoreCommand().init( new NeoStoreRecord() ) );
+
+        // when
+        visitor.visit( transaction( 1, nodeCommand( 1 ) ) );
+        visitor.visit( new CommittedTransactionRepresentation( null, neoStoreTransaction, new OnePhaseCommit( 2, 0 ) ) );
+        visitor.visit( transaction( 3, nodeCommand( 1 ) ) );
+        visitor.close();
+
+        // then
+        InOrder order = inOrder( storeApplier, neoStore );
+        order.verify( storeApplier ).applyRecoveredBatch( any( List.class ),
+                any( List.class ), any( ExecutorService.class ) );
+        order.verify( storeApplier ).apply( neoStoreTransaction, 2, true );
+        order.verify( storeApplier ).applyRecoveredBatch( any( List.class ),
+                any( List.class ), any( ExecutorService.class ) );
+        order.verify( neoStore ).setLastCommittedAndClosedTransactionId( 3 );
+    }
+
+    @Test
+    public void shouldStartNewBatchWhenReusingDynamicRecordsOfCurrentBatch() throws Exception
+    {
+        // given
+        NodeRecord removedLabels = new NodeRecord( 1 );
+        removedLabels.setLabelField( 0, Arrays.asList( new DynamicRecord( 5 ) ) );
+        NodeRecord addedLabels = new NodeRecord( 900 );
+        addedLabels.setInUse( true );
+        addedLabels.setLabelField( 0, Arrays.asList( new DynamicRecord( 5 ) ) );
+
+        // when
+        visitor.visit( transaction( 1, nodeCommand( removedLabels, new NodeRecord( 1 ) ) ) );
+        visitor.visit( transaction( 2, nodeCommand( new NodeRecord( 900 ), addedLabels ) ) );
+        visitor.close();
+
+        // then
+        verify( storeApplier, times( 2 ) ).applyRecoveredBatch( any( List.class ),
+                any( List.class ), any( ExecutorService.class ) );
+    }
+
+    @Test
+    public void shouldShutDownRecoveryThreadsAfterEachBatch() throws Exception
+    {
+        // when
+        visitor.visit( transaction( 1, nodeCommand( 1 ) ) );
+        visitor.close();
+
+        // then
+        ArgumentCaptor<ExecutorService> executor = ArgumentCaptor.forClass( ExecutorService.class );
+        verify( storeApplier ).applyRecoveredBatch( any( List.class ), any( List.class ),
+                executor.capture() );
+        assertTrue( executor.getValue().isShutdown() );
+    }
+
+    @Test
+    public void shouldShutDownRecoveryThreadsWhenApplyingBatchFails() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "Failed to apply" );
+        doThrow( failure ).when( storeApplier ).applyRecoveredBatch( any( List.class ),
+                any( List.class ), any( ExecutorService.class ) );
+        visitor.visit( transaction( 1, nodeCommand( 1 ) ) );
+
+        // when
+        try
+        {
+            visitor.close();
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            assertSame( failure, e );
+        }
+
+        // then
+        ArgumentCaptor<ExecutorService> executor = ArgumentCaptor.forClass( ExecutorService.class );
+        verify( storeApplier ).applyRecoveredBatch( any( List.class ), any( List.class ),
+                executor.capture() );
+        assertTrue( executor.getValue().isShutdown() );
+        verify( neoStore, never() ).setLastCommittedAndClosedTransactionId( 1 );
+    }
+
+    @Test
+    public void shouldPartitionRecordsByStorePage() throws Exception
+    {
+        // page size 1024 and 16 byte node records gives 64 nodes per page
+        assertEquals( visitor.partition( nodeCommand( 0 ) ), visitor.partition( nodeCommand( 63 ) ) );
+        assertNotEquals( visitor.partition( nodeCommand( 63 ) ), visitor.partition( nodeCommand( 64 ) ) );
+        assertEquals( visitor.partition( nodeCommand( 64 ) ), visitor.partition( nodeCommand( 4 * 64 + 64 ) ) );
+    }
+
+    private CommittedTransactionRepresentation transaction( long txId, Command... commands )
+    {
+        return new CommittedTransactionRepresentation( null, representation( commands ),
+                new OnePhaseCommit( txId, 0 ) );
+    }
+
+    private TransactionRepresentation representation( Command... commands )
+    {
+        return new PhysicalTransactionRepresentation( Arrays.asList( commands ) );
+    }
+
+    private Command nodeCommand( long id )
+    {
+        return nodeCommand( new NodeRecord( id ), new NodeRecord( id ) );
+    }
+
+    private Command nodeCommand( NodeRecord before, NodeRecord after )
+    {
+        NodeCommand command = new NodeCommand();
+        command.init( before, after );
+        return command;
+    }
+
+    private Command relationshipCommand( long id )
+    {
+        RelationshipCommand command = new RelationshipCommand();
+        command.init( new RelationshipRecord( id ) );
+        return command;
+    }
+}
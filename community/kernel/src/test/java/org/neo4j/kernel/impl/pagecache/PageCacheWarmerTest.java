@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.CountingPageCacheMonitor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_total_size;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_LOCK;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 1024;
+
+    @Rule
+    public EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+    private final File storeDir = new File( "store" );
+    private final File storeFile = new File( storeDir, "neostore.nodestore.db" );
+    private final Neo4jJobScheduler scheduler = new Neo4jJobScheduler();
+
+    @Before
+    public void startScheduler() throws Throwable
+    {
+        scheduler.init();
+        scheduler.start();
+    }
+
+    @After
+    public void stopScheduler() throws Throwable
+    {
+        scheduler.stop();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldLoadThePagesThatWereInThePageCacheWhenTheProfileWasRecorded() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fsRule.get();
+        fs.mkdirs( storeDir );
+        writePages( fs, storeFile, 20 );
+        LifecycledPageCache pageCache = startPageCache( new CountingPageCacheMonitor() );
+        PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE );
+        touch( pagedFile, 2, 3, 4, 9 );
+        newWarmer( pageCache ).profile();
+        pageCache.unmap( storeFile );
+        stop( pageCache );
+        assertTrue( fs.fileExists( new File( storeDir, PageCacheWarmer.PROFILE_FILE_NAME ) ) );
+
+        // WHEN
+        CountingPageCacheMonitor monitor = new CountingPageCacheMonitor();
+        pageCache = startPageCache( monitor );
+        pagedFile = pageCache.map( storeFile, PAGE_SIZE );
+        long pages = newWarmer( pageCache ).warmUp();
+
+        // THEN
+        assertEquals( 4, pages );
+        assertEquals( 4, monitor.countFaults() );
+        touch( pagedFile, 2, 3, 4, 9 );
+        assertEquals( 4, monitor.countFaults() );
+        pageCache.unmap( storeFile );
+        stop( pageCache );
+    }
+
+    @Test
+    public void shouldNotLoadFilesThatAreNotMapped() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fsRule.get();
+        fs.mkdirs( storeDir );
+        writePages( fs, storeFile, 20 );
+        LifecycledPageCache pageCache = startPageCache( new CountingPageCacheMonitor() );
+        touch( pageCache.map( storeFile, PAGE_SIZE ), 1 );
+        newWarmer( pageCache ).profile();
+        pageCache.unmap( storeFile );
+
+        // WHEN
+        long pages = newWarmer( pageCache ).warmUp();
+
+        // THEN
+        assertEquals( 0, pages );
+        assertTrue( pageCache.mappedFiles().isEmpty() );
+        stop( pageCache );
+    }
+
+    @Test
+    public void shouldKeepTheLastProfileWhenNothingIsMapped() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fsRule.get();
+        fs.mkdirs( storeDir );
+        LifecycledPageCache pageCache = startPageCache( new CountingPageCacheMonitor() );
+
+        // WHEN
+        newWarmer( pageCache ).profile();
+
+        // THEN
+        assertFalse( fs.fileExists( new File( storeDir, PageCacheWarmer.PROFILE_FILE_NAME ) ) );
+        stop( pageCache );
+    }
+
+    private PageCacheWarmer newWarmer( LifecycledPageCache pageCache )
+    {
+        return new PageCacheWarmer( pageCache, fsRule.get(), storeDir, scheduler, 1000, StringLogger.DEV_NULL );
+    }
+
+    private LifecycledPageCache startPageCache( CountingPageCacheMonitor monitor )
+    {
+        Config config = new Config( stringMap(
+                mapped_memory_page_size.name(), Integer.toString( PAGE_SIZE ),
+                mapped_memory_total_size.name(), Integer.toString( PAGE_SIZE * 16 ) ) );
+        LifecycledPageCache pageCache = new LifecycledPageCache( new StandardPageCacheFactory(),
+                new SingleFilePageSwapperFactory( fsRule.get() ), scheduler, config, monitor );
+        pageCache.start();
+        return pageCache;
+    }
+
+    private void stop( LifecycledPageCache pageCache ) throws IOException
+    {
+        pageCache.stop();
+        pageCache.close();
+    }
+
+    private void writePages( FileSystemAbstraction fs, File file, int pages ) throws IOException
+    {
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            channel.writeAll( ByteBuffer.allocate( PAGE_SIZE * pages ) );
+        }
+    }
+
+    private void touch( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        for ( long pageId : pageIds )
+        {
+            try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storecompaction;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.index.IndexConfigStore;
+import org.neo4j.kernel.impl.nioneo.store.NeoStoreUtil;
+import org.neo4j.kernel.impl.storemigration.LogFiles;
+import org.neo4j.kernel.logging.DevNullLoggingService;
+import org.neo4j.test.TargetDirectory;
+import org.neo4j.tooling.GlobalGraphOperations;
+import org.neo4j.unsafe.impl.batchimport.staging.DetailedExecutionMonitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.neo4j.graphdb.Direction.OUTGOING;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.dense_node_threshold;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_total_size;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class RelationshipChainCompactorTest
+{
+    private static final String[] TYPES = {"KNOWS", "LIKES", "OWES"};
+
+    private final File storeDir = TargetDirectory.forTest( getClass() ).cleanDirectory( "db" );
+    private final Map<String, String> settings = stringMap(
+            dense_node_threshold.name(), "10",
+            mapped_memory_total_size.name(), "1M" );
+
+    @Test
+    public void shouldStoreRelationshipsOfEachNodeNextToEachOther() throws Exception
+    {
+        // GIVEN relationships created in random order, some of them deleted again
+        GraphDatabaseService db = newDatabase();
+        Map<Long, List<String>> graphBefore;
+        try
+        {
+            createScatteredRelationships( db );
+            graphBefore = graph( db );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+
+        // WHEN
+        compactor().compact( storeDir );
+
+        // THEN
+        db = newDatabase();
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( graphBefore, graph( db ) );
+            for ( Node node : GlobalGraphOperations.at( db ).getAllNodes() )
+            {
+                long lowestId = Long.MAX_VALUE, highestId = Long.MIN_VALUE;
+                int count = 0;
+                Set<String> seenTypes = new HashSet<>();
+                String previousType = null;
+                for ( Relationship relationship : sortedById( node.getRelationships( OUTGOING ) ) )
+                {
+                    lowestId = Math.min( lowestId, relationship.getId() );
+                    highestId = Math.max( highestId, relationship.getId() );
+                    count++;
+                    String type = relationship.getType().name();
+                    if ( !type.equals( previousType ) )
+                    {
+                        assertTrue( "Types of " + node + " not grouped", seenTypes.add( type ) );
+                        previousType = type;
+                    }
+                }
+                if ( count > 0 )
+                {
+                    assertEquals( "Relationships of " + node + " not contiguous", count - 1, highestId - lowestId );
+                }
+                assertEquals( count( node.getRelationships() ), node.getDegree() );
+            }
+            tx.success();
+        }
+        // and the store is usable for new relationships
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.getNodeById( 1 );
+            int degree = node.getDegree();
+            node.createRelationshipTo( db.getNodeById( 2 ), DynamicRelationshipType.withName( TYPES[0] ) )
+                    .setProperty( "round", -1 );
+            assertEquals( degree + 1, count( node.getRelationships() ) );
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+        assertTrue( new File( storeDir, RelationshipChainCompactor.LEFT_OVERS_DIRECTORY ).isDirectory() );
+    }
+
+    @Test
+    public void shouldGiveCompactedStoreNewStoreIdAndMoveLogicalLogsAway() throws Exception
+    {
+        // GIVEN
+        GraphDatabaseService db = newDatabase();
+        try
+        {
+            createScatteredRelationships( db );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+        DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        NeoStoreUtil before = new NeoStoreUtil( storeDir, fs );
+        LogFiles.LogicalLogFilenameFilter logFiles = new LogFiles.LogicalLogFilenameFilter();
+        assertTrue( storeDir.list( logFiles ).length > 0 );
+
+        // WHEN
+        compactor().compact( storeDir );
+
+        // THEN
+        NeoStoreUtil after = new NeoStoreUtil( storeDir, fs );
+        assertFalse( before.getStoreId() == after.getStoreId() && before.getCreationTime() == after.getCreationTime() );
+        assertEquals( before.getLastCommittedTx(), after.getLastCommittedTx() );
+        assertEquals( 0, storeDir.list( logFiles ).length );
+        File leftOversDir = new File( storeDir, RelationshipChainCompactor.LEFT_OVERS_DIRECTORY );
+        assertTrue( leftOversDir.list( logFiles ).length > 0 );
+
+        // and the store can be started and written to again
+        db = newDatabase();
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.getNodeById( 1 ).createRelationshipTo( db.getNodeById( 2 ),
+                    DynamicRelationshipType.withName( TYPES[0] ) );
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+        assertEquals( before.getLastCommittedTx() + 1, new NeoStoreUtil( storeDir, fs ).getLastCommittedTx() );
+    }
+
+    @Test
+    public void shouldRefuseToCompactStoreWithRelationshipIndexes() throws Exception
+    {
+        // GIVEN
+        GraphDatabaseService db = newDatabase();
+        try
+        {
+            createScatteredRelationships( db );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+        IndexConfigStore indexStore = new IndexConfigStore( storeDir, new DefaultFileSystemAbstraction() );
+        indexStore.init();
+        indexStore.set( Relationship.class, "since", stringMap( "provider", "lucene" ) );
+
+        // WHEN
+        try
+        {
+            compactor().compact( storeDir );
+            fail( "Should have refused to compact" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // THEN
+            assertTrue( e.getMessage(), e.getMessage().contains( "since" ) );
+        }
+        assertFalse( new File( storeDir, RelationshipChainCompactor.LEFT_OVERS_DIRECTORY ).exists() );
+    }
+
+    private GraphDatabaseService newDatabase()
+    {
+        return new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir.getAbsolutePath() )
+                .setConfig( settings ).newGraphDatabase();
+    }
+
+    private RelationshipChainCompactor compactor()
+    {
+        return new RelationshipChainCompactor( new DefaultFileSystemAbstraction(),
+                new Config( settings, GraphDatabaseSettings.class ), new DevNullLoggingService(),
+                new DetailedExecutionMonitor() );
+    }
+
+    private void createScatteredRelationships( GraphDatabaseService db )
+    {
+        Random random = new Random( 1234 );
+        List<Node> nodes = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                Node node = db.createNode( DynamicLabel.label( "Person" ) );
+                node.setProperty( "name", "Person " + i );
+                nodes.add( node );
+            }
+            tx.success();
+        }
+
+        List<Relationship> relationships = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int round = 0; round < 10; round++ )
+            {
+                for ( Node node : nodes )
+                {
+                    Node other = nodes.get( random.nextInt( 10 ) == 0 ? 0 : random.nextInt( nodes.size() ) );
+                    Relationship relationship = node.createRelationshipTo( other,
+                            DynamicRelationshipType.withName( TYPES[random.nextInt( TYPES.length )] ) );
+                    relationship.setProperty( "round", round );
+                    relationships.add( relationship );
+                }
+            }
+            tx.success();
+        }
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < relationships.size(); i += 7 )
+            {
+                relationships.get( i ).delete();
+            }
+            Node deletedNode = nodes.get( 50 );
+            for ( Relationship relationship : deletedNode.getRelationships() )
+            {
+                relationship.delete();
+            }
+            deletedNode.delete();
+            tx.success();
+        }
+    }
+
+    /**
+     * @return for each node its properties, labels and relationships, which doesn't depend on relationship ids.
+     */
+    private Map<Long, List<String>> graph( GraphDatabaseService db )
+    {
+        Map<Long, List<String>> graph = new HashMap<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Node node : GlobalGraphOperations.at( db ).getAllNodes() )
+            {
+                List<String> entries = new ArrayList<>();
+                entries.add( "labels:" + node.getLabels().iterator().next() );
+                entries.add( "name:" + node.getProperty( "name" ) );
+                for ( Relationship relationship : node.getRelationships() )
+                {
+                    entries.add( relationship.getStartNode().getId() + "-" + relationship.getType().name() + "->" +
+                            relationship.getEndNode().getId() + " round:" + relationship.getProperty( "round" ) );
+                }
+                Collections.sort( entries );
+                graph.put( node.getId(), entries );
+            }
+            tx.success();
+        }
+        return graph;
+    }
+
+    private static List<Relationship> sortedById( Iterable<Relationship> relationships )
+    {
+        List<Relationship> result = new ArrayList<>();
+        for ( Relationship relationship : relationships )
+        {
+            result.add( relationship );
+        }
+        Collections.sort( result, new Comparator<Relationship>()
+        {
+            @Override
+            public int compare( Relationship o1, Relationship o2 )
+            {
+                return Long.compare( o1.getId(), o2.getId() );
+            }
+        } );
+        return result;
+    }
+}
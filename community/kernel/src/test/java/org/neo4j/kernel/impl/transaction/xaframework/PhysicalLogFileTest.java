@@ -41,6 +41,7 @@ import org.neo4j.test.TargetDirectory.TestDirectory;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
@@ -231,6 +232,135 @@ public class PhysicalLogFileTest
         }
     }
 
+    @Test
+    public void shouldPreallocateLogFilesAndTruncateThemWhenRotatedAway() throws Exception
+    {
+        // GIVEN
+        String name = "log";
+        LifeSupport life = new LifeSupport();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000, true,
+                LogPruneStrategyFactory.NO_PRUNING, transactionIdStore, logVersionRepository, mock( Monitor.class ),
+                mock( LogRotationControl.class ), new TransactionMetadataCache( 10, 100 ), NO_RECOVERY_EXPECTED ) );
+        life.start();
+        try
+        {
+            assertEquals( 1000, fs.getFileSize( logFiles.getLogFileForVersion( 1 ) ) );
+
+            // WHEN
+            WritableLogChannel writer = logFile.getWriter();
+            byte[] someBytes = someBytes( 40 );
+            writer.put( someBytes, someBytes.length );
+            writer.emptyBufferIntoChannelAndClearIt();
+            logFile.forceRotate();
+
+            // THEN
+            assertEquals( LOG_HEADER_SIZE + someBytes.length, fs.getFileSize( logFiles.getLogFileForVersion( 1 ) ) );
+            assertEquals( 1000, fs.getFileSize( logFiles.getLogFileForVersion( 2 ) ) );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+        assertEquals( LOG_HEADER_SIZE, fs.getFileSize( logFiles.getLogFileForVersion( 2 ) ) );
+    }
+
+    @Test
+    public void shouldReadPreallocatedLogFileOnlyUpToWhatHasBeenWritten() throws Exception
+    {
+        // GIVEN
+        String name = "log";
+        LifeSupport life = new LifeSupport();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        PhysicalLogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 1000, true,
+                LogPruneStrategyFactory.NO_PRUNING, transactionIdStore, logVersionRepository, mock( Monitor.class ),
+                mock( LogRotationControl.class ), new TransactionMetadataCache( 10, 100 ), NO_RECOVERY_EXPECTED ) );
+        life.start();
+        try
+        {
+            WritableLogChannel writer = logFile.getWriter();
+            LogPositionMarker positionMarker = new LogPositionMarker();
+            writer.getCurrentPosition( positionMarker );
+            LogPosition position = positionMarker.newPosition();
+            byte[] someBytes = someBytes( 40 );
+            writer.put( someBytes, someBytes.length );
+            writer.emptyBufferIntoChannelAndClearIt();
+            writer.put( someBytes, someBytes.length );
+
+            // WHEN
+            try ( ReadableLogChannel reader = logFile.getReader( position ) )
+            {
+                // THEN the flushed bytes can be read, but not the unflushed ones nor the empty tail after them
+                assertArrayEquals( someBytes, readBytes( reader, 40 ) );
+                assertNoMoreBytes( reader );
+            }
+
+            // WHEN flushing and rotating
+            writer.emptyBufferIntoChannelAndClearIt();
+            logFile.forceRotate();
+
+            // THEN all of it can be read, and then the header-only next log
+            try ( ReadableLogChannel reader = logFile.getReader( position ) )
+            {
+                assertArrayEquals( someBytes, readBytes( reader, 40 ) );
+                assertArrayEquals( someBytes, readBytes( reader, 40 ) );
+                assertNoMoreBytes( reader );
+            }
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    private void assertNoMoreBytes( ReadableLogChannel reader ) throws IOException
+    {
+        try
+        {
+            reader.get();
+            fail( "There should be no more" );
+        }
+        catch ( ReadPastEndException e )
+        {   // Good
+        }
+    }
+
+    @Test
+    public void shouldPrepareNewLogFileFromRecycledLogFile() throws Exception
+    {
+        // GIVEN a recycled log file with old data in it
+        String name = "log";
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        writeSomeData( logFiles.getRecycledLogFile(), new Visitor<ByteBuffer, IOException>()
+        {
+            @Override
+            public boolean visit( ByteBuffer buffer ) throws IOException
+            {
+                writeLogHeader( buffer, 0, 1 );
+                buffer.clear();
+                buffer.position( LOG_HEADER_SIZE );
+                buffer.put( someBytes( 100 ) );
+                return true;
+            }
+        } );
+        LifeSupport life = new LifeSupport();
+        life.add( new PhysicalLogFile( fs, logFiles, 1000, true,
+                LogPruneStrategyFactory.NO_PRUNING, transactionIdStore, logVersionRepository, mock( Monitor.class ),
+                mock( LogRotationControl.class ), new TransactionMetadataCache( 10, 100 ), NO_RECOVERY_EXPECTED ) );
+
+        // WHEN
+        life.start();
+        life.shutdown();
+
+        // THEN
+        File file = logFiles.getLogFileForVersion( 1L );
+        LogHeader header = readLogHeader( fs, file );
+        assertEquals( 1L, header.logVersion );
+        assertEquals( 5L, header.lastCommittedTxId );
+        assertEquals( LOG_HEADER_SIZE, fs.getFileSize( file ) );
+        assertFalse( fs.fileExists( logFiles.getRecycledLogFile() ) );
+    }
+
     private void writeSomeData( File file, Visitor<ByteBuffer, IOException> visitor ) throws IOException
     {
         try ( StoreChannel channel = fs.open( file, "rw" ) )
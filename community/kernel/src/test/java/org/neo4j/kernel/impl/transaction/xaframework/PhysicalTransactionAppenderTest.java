@@ -38,7 +38,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -181,7 +181,7 @@ public class PhysicalTransactionAppenderTest
         long txId = 3;
         String failureMessage = "Forces a failure";
         WritableLogChannel channel = spy( new InMemoryLogChannel() );
-        when( channel.putInt( anyInt() ) ).thenThrow( new IOException( failureMessage ) );
+        when( channel.putLong( anyLong() ) ).thenThrow( new IOException( failureMessage ) );
         LogFile logFile = mock( LogFile.class );
         when( logFile.getWriter() ).thenReturn( channel );
         TxIdGenerator txIdGenerator = mock( TxIdGenerator.class );
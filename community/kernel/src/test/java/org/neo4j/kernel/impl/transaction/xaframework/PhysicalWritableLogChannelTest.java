@@ -87,6 +87,45 @@ public class PhysicalWritableLogChannelTest
         assertArrayEquals( byteArrayValue, readByteArray );
     }
 
+    @Test
+    public void shouldWriteArraysLargerThanTheBuffer() throws Exception
+    {
+        // GIVEN
+        File file = new File( directory.directory(), "file" );
+        PhysicalWritableLogChannel channel = new PhysicalWritableLogChannel(
+                new PhysicalLogVersionedStoreChannel( fs.open( file, "rw" ), 1, (byte) -1 /* ignored */ ) );
+        byte[] smallArray = new byte[] {1, 2, 3};
+        byte[] mediumArray = new byte[3 * 1024];
+        byte[] largeArray = new byte[10 * 1024 + 7];
+        for ( int i = 0; i < largeArray.length; i++ )
+        {
+            largeArray[i] = (byte) i;
+            mediumArray[i % mediumArray.length] = (byte) -i;
+        }
+
+        // WHEN
+        channel.put( smallArray, smallArray.length );
+        channel.put( largeArray, largeArray.length );
+        channel.put( mediumArray, mediumArray.length );
+        channel.putInt( 42 );
+        channel.close();
+
+        // THEN
+        ByteBuffer contents = readFile( file );
+        assertArrayEquals( smallArray, readBytes( contents, smallArray.length ) );
+        assertArrayEquals( largeArray, readBytes( contents, largeArray.length ) );
+        assertArrayEquals( mediumArray, readBytes( contents, mediumArray.length ) );
+        assertEquals( 42, contents.getInt() );
+        assertEquals( 0, contents.remaining() );
+    }
+
+    private byte[] readBytes( ByteBuffer buffer, int length )
+    {
+        byte[] bytes = new byte[length];
+        buffer.get( bytes );
+        return bytes;
+    }
+
     private ByteBuffer readFile( File file ) throws IOException
     {
         try ( StoreChannel channel = fs.open( file, "r" ) )
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.xa.command.Command;
+import org.neo4j.kernel.impl.transaction.xaframework.log.entry.LogEntryWriterv1;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TransactionLogBufferTest
+{
+    @Test
+    public void shouldEncodeTheSameBytesAsWritingTheEntriesToTheLog() throws Exception
+    {
+        // given
+        TransactionRepresentation transaction = transactionWithSingleNode();
+        InMemoryLogChannel expected = new InMemoryLogChannel();
+        LogEntryWriterv1 writer = new LogEntryWriterv1( expected, new CommandWriter( expected ) );
+        writer.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(), transaction.getTimeStarted(),
+                transaction.getLatestCommittedTxWhenStarted(), transaction.additionalHeader() );
+        writer.serialize( transaction );
+
+        // when
+        TransactionLogBuffer buffer = new TransactionLogBuffer();
+        buffer.encode( transaction );
+        InMemoryLogChannel actual = new InMemoryLogChannel();
+        buffer.writeTo( actual );
+
+        // then
+        assertArrayEquals( bytesOf( expected ), bytesOf( actual ) );
+    }
+
+    @Test
+    public void shouldHaveNoPositionInAnyLog() throws Exception
+    {
+        // given
+        TransactionLogBuffer buffer = new TransactionLogBuffer();
+        buffer.encode( transactionWithSingleNode() );
+        LogPositionMarker marker = new LogPositionMarker();
+        marker.mark( 1, 2 );
+
+        // when
+        buffer.getCurrentPosition( marker );
+
+        // then
+        assertEquals( LogPosition.UNSPECIFIED, marker.newPosition() );
+    }
+
+    private byte[] bytesOf( InMemoryLogChannel channel ) throws IOException
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+
+    private TransactionRepresentation transactionWithSingleNode()
+    {
+        Collection<Command> commands = new ArrayList<>();
+        Command.NodeCommand command = new Command.NodeCommand();
+        NodeRecord after = new NodeRecord( 0 );
+        after.setInUse( true );
+        command.init( new NodeRecord( 0 ), after );
+        commands.add( command );
+
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[] {1, 2, 5}, 2, 1, 12345, 4545, 12355 );
+        return transaction;
+    }
+}
@@ -138,4 +138,45 @@ public class ThresholdBasedPruneStrategyTest
         verify( fileSystem, times( 1 ) ).deleteFile( fileName2 );
         verify( fileSystem, times( 1 ) ).deleteFile( fileName3 );
     }
+
+    @Test
+    public void shouldRecycleTheNewestPrunedFile() throws Exception
+    {
+        // Given
+        when( threshold.reached( Matchers.<File>any(), anyLong(), Matchers.<LogFileInformation>any() ) )
+                .thenReturn( false );
+        when( threshold.reached( Matchers.<File>any(), Matchers.eq( 2l ), Matchers.<LogFileInformation>any() ) )
+                .thenReturn( true );
+
+        File fileName1 = new File( "logical.log.v1" );
+        File fileName2 = new File( "logical.log.v2" );
+        File fileName3 = new File( "logical.log.v3" );
+        File recycledFile = new File( "logical.log.recycled" );
+
+        when( files.getLogFileForVersion( 3 ) ).thenReturn( fileName3 );
+        when( files.getLogFileForVersion( 2 ) ).thenReturn( fileName2 );
+        when( files.getLogFileForVersion( 1 ) ).thenReturn( fileName1 );
+        when( files.getRecycledLogFile() ).thenReturn( recycledFile );
+
+        when( fileSystem.fileExists( fileName3 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName2 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName1 ) ).thenReturn( true );
+        when( fileSystem.renameFile( fileName2, recycledFile ) ).thenReturn( true );
+
+        when( fileSystem.getFileSize( Matchers.<File>any() ) ).thenReturn( LOG_HEADER_SIZE + 1l );
+
+        when( logVersionRepository.getCurrentLogVersion() ).thenReturn( 4l );
+
+        final ThresholdBasedPruneStrategy strategy = new ThresholdBasedPruneStrategy(
+                fileSystem, logFileInfo, files, logVersionRepository, threshold, true );
+
+        // When
+        strategy.prune();
+
+        // Then
+        verify( fileSystem, times( 1 ) ).deleteFile( fileName1 );
+        verify( fileSystem, times( 1 ) ).renameFile( fileName2, recycledFile );
+        verify( fileSystem, times( 0 ) ).deleteFile( fileName2 );
+        verify( fileSystem, times( 0 ) ).deleteFile( fileName3 );
+    }
 }
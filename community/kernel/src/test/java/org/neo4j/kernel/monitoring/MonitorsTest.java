@@ -19,14 +19,20 @@
  */
 package org.neo4j.kernel.monitoring;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.lang.reflect.Method;
+
 import org.junit.Test;
 
+import org.neo4j.helpers.Predicate;
+
 public class MonitorsTest
 {
     interface MyMonitor
@@ -111,4 +117,33 @@ public class MonitorsTest
         verifyNoMoreInteractions( listener );
 
     }
+
+    @Test
+    public void shouldOnlyInvokeListenersOfTheCalledMethod() throws Throwable
+    {
+        // Given
+        Monitors monitors = new Monitors();
+
+        MonitorListenerInvocationHandler handler = mock( MonitorListenerInvocationHandler.class );
+        MyMonitor monitor = monitors.newMonitor( MyMonitor.class );
+        final Method aVoid = MyMonitor.class.getMethod( "aVoid" );
+
+        // When
+        monitors.addMonitorListener( handler, new Predicate<Method>()
+        {
+            @Override
+            public boolean accept( Method item )
+            {
+                return aVoid.equals( item );
+            }
+        } );
+        monitor.takesArgs( "ha", 12 );
+        monitor.aVoid();
+        monitors.removeMonitorListener( handler );
+        monitor.aVoid();
+
+        // Then
+        verify( handler, times( 1 ) ).invoke( any(), eq( aVoid ), any( Object[].class ) );
+        verifyNoMoreInteractions( handler );
+    }
 }
@@ -29,6 +29,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.util.NumericUtils;
 
 import org.neo4j.kernel.api.index.ArrayEncoder;
+import org.neo4j.kernel.api.index.IndexSample;
 
 import static java.lang.String.format;
 
@@ -76,6 +77,12 @@ public class LuceneDocumentStructure
                 String encodedString = NumericUtils.doubleToPrefixCoded( ((Number)value).doubleValue() );
                 return new TermQuery( new Term( key(), encodedString ) );
             }
+
+            @Override
+            String valueKey( String term )
+            {
+                return IndexSample.valueKey( NumericUtils.prefixCodedToDouble( term ) );
+            }
         },
         Array
         {
@@ -102,6 +109,12 @@ public class LuceneDocumentStructure
             {
                 return new TermQuery( new Term( key(), ArrayEncoder.encode( value ) ) );
             }
+
+            @Override
+            String valueKey( String term )
+            {
+                return IndexSample.encodedArrayValueKey( term );
+            }
         },
         Bool
         {
@@ -128,6 +141,12 @@ public class LuceneDocumentStructure
             {
                 return new TermQuery( new Term( key(), value.toString() ) );
             }
+
+            @Override
+            String valueKey( String term )
+            {
+                return IndexSample.valueKey( Boolean.valueOf( term ) );
+            }
         },
         String
         {
@@ -155,6 +174,12 @@ public class LuceneDocumentStructure
             {
                 return new TermQuery( new Term( key(), value.toString() ) );
             }
+
+            @Override
+            String valueKey( String term )
+            {
+                return IndexSample.valueKey( term );
+            }
         };
 
         abstract String key();
@@ -162,6 +187,11 @@ public class LuceneDocumentStructure
         abstract boolean canEncode( Object value );
         abstract Fieldable encodeField( Object value );
         abstract Query encodeQuery( Object value );
+
+        /**
+         * @return the {@link IndexSample#valueKey(Object) sample value key} of the value encoded as the given term.
+         */
+        abstract String valueKey( String term );
     }
 
     public Document newDocumentRepresentingProperty( long nodeId, Object value )
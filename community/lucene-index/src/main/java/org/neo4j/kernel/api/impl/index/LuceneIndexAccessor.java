@@ -36,6 +36,8 @@ import org.neo4j.kernel.api.direct.BoundedIterable;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
@@ -51,6 +53,9 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     private final IndexWriterStatus writerStatus;
     private final Directory dir;
     private final File dirFile;
+    private final LuceneIndexSampler sampler = new LuceneIndexSampler();
+    private volatile IndexSample lastSample;
+    private long lastSampledVersion = -1;
 
     LuceneIndexAccessor( LuceneDocumentStructure documentStructure, LuceneIndexWriterFactory indexWriterFactory,
                          IndexWriterStatus writerStatus, DirectoryFactory dirFactory, File dirFile )
@@ -62,6 +67,7 @@ abstract class LuceneIndexAccessor implements IndexAccessor
         this.writer = indexWriterFactory.create( dir );
         this.writerStatus = writerStatus;
         this.searcherManager = new SearcherManager( writer, true, new SearcherFactory() );
+        this.lastSample = sampler.read( dir );
     }
 
     @Override
@@ -124,6 +130,49 @@ abstract class LuceneIndexAccessor implements IndexAccessor
         return new LuceneSnapshotter().snapshot( this.dirFile, writer );
     }
 
+    @Override
+    public IndexSampler newSampler()
+    {
+        final IndexSearcher searcher = searcherManager.acquire();
+        return new IndexSampler()
+        {
+            @Override
+            public IndexSample sampleIndex() throws IOException
+            {
+                // Sampling reads every value in the index, so don't do it again for an index that hasn't changed
+                long version = searcher.getIndexReader().getVersion();
+                if ( lastSample != null && version == lastSampledVersion )
+                {
+                    return lastSample;
+                }
+                IndexSample sample = sampler.sample( searcher.getIndexReader() );
+                sampler.write( dir, sample );
+                lastSample = sample;
+                lastSampledVersion = version;
+                return sample;
+            }
+
+            @Override
+            public void close()
+            {
+                try
+                {
+                    searcherManager.release( searcher );
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+    }
+
+    @Override
+    public IndexSample lastSample()
+    {
+        return lastSample;
+    }
+
     private void addRecovered( long nodeId, Object value ) throws IOException
     {
         IndexSearcher searcher = searcherManager.acquire();
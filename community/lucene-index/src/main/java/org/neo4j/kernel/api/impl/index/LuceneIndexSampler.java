@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+import org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.ValueEncoding;
+import org.neo4j.kernel.api.index.IndexSample;
+
+/**
+ * Samples a schema index by going through the terms of all value fields, which gives the exact number of distinct
+ * values and the frequency of each. Frequencies include documents that are deleted but not yet merged away.
+ *
+ * The last sample is stored in a file of its own in the index directory. Lucene leaves files it doesn't know about
+ * alone.
+ */
+class LuceneIndexSampler
+{
+    static final String SAMPLE_FILE_NAME = "neo4j-index-sample";
+    private static final byte FORMAT_VERSION = 1;
+
+    IndexSample sample( IndexReader reader ) throws IOException
+    {
+        IndexSample.Builder builder = new IndexSample.Builder();
+        for ( ValueEncoding encoding : ValueEncoding.values() )
+        {
+            TermEnum terms = reader.terms( new Term( encoding.key(), "" ) );
+            try
+            {
+                do
+                {
+                    Term term = terms.term();
+                    if ( term == null || !encoding.key().equals( term.field() ) )
+                    {
+                        break;
+                    }
+                    builder.addValue( encoding.valueKey( term.text() ), terms.docFreq() );
+                }
+                while ( terms.next() );
+            }
+            finally
+            {
+                terms.close();
+            }
+        }
+        return builder.build();
+    }
+
+    void write( Directory directory, IndexSample sample ) throws IOException
+    {
+        if ( directory.fileExists( SAMPLE_FILE_NAME ) )
+        {
+            directory.deleteFile( SAMPLE_FILE_NAME );
+        }
+        IndexOutput output = directory.createOutput( SAMPLE_FILE_NAME );
+        try
+        {
+            output.writeByte( FORMAT_VERSION );
+            output.writeVLong( sample.indexSize() );
+            output.writeVLong( sample.distinctValues() );
+            output.writeVInt( sample.frequentValues().size() );
+            for ( Map.Entry<String, Long> entry : sample.frequentValues().entrySet() )
+            {
+                output.writeString( entry.getKey() );
+                output.writeVLong( entry.getValue() );
+            }
+        }
+        finally
+        {
+            output.close();
+        }
+        directory.sync( Collections.singleton( SAMPLE_FILE_NAME ) );
+    }
+
+    /**
+     * @return the sample stored in the given directory, or {@code null} if there is none, or if it can't be read.
+     */
+    IndexSample read( Directory directory )
+    {
+        try
+        {
+            if ( !directory.fileExists( SAMPLE_FILE_NAME ) )
+            {
+                return null;
+            }
+
+            IndexInput input = directory.openInput( SAMPLE_FILE_NAME );
+            try
+            {
+                if ( input.readByte() != FORMAT_VERSION )
+                {
+                    return null;
+                }
+                long indexSize = input.readVLong();
+                long distinctValues = input.readVLong();
+                int frequentValueCount = input.readVInt();
+                Map<String, Long> frequentValues = new HashMap<>();
+                for ( int i = 0; i < frequentValueCount; i++ )
+                {
+                    frequentValues.put( input.readString(), input.readVLong() );
+                }
+                return new IndexSample( indexSize, distinctValues, frequentValues );
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+        catch ( IOException e )
+        {
+            // The sample is only an estimate, and the index will be sampled again
+            return null;
+        }
+    }
+}
@@ -1786,4 +1786,30 @@ public class TestLuceneIndex extends AbstractLuceneIndexTest
         // THEN
         assertEquals( asSet(), nodes );
     }
+
+    @Test
+    public void shouldLookUpExistingIndexesInReadOnlyTransactions() throws Exception
+    {
+        // GIVEN
+        Index<Node> index = nodeIndex( EXACT_CONFIG );
+        RelationshipIndex relationshipIndex = relationshipIndex( EXACT_CONFIG );
+        Node node = graphDb.createNode();
+        Relationship relationship = node.createRelationshipTo( node, DynamicRelationshipType.withName( "KNOWS" ) );
+        index.add( node, "name", "Mattias" );
+        relationshipIndex.add( relationship, "name", "Mattias" );
+        finishTx( true );
+
+        // WHEN/THEN looking up the indexes again, like a cached read only query does on every run
+        for ( int i = 0; i < 2; i++ )
+        {
+            try ( Transaction readOnlyTx = ((GraphDatabaseAPI) graphDb).beginReadOnlyTx() )
+            {
+                assertEquals( node, graphDb.index().forNodes( index.getName() ).get( "name", "Mattias" ).getSingle() );
+                assertEquals( relationship,
+                        graphDb.index().forRelationships( relationshipIndex.getName() ).get( "name", "Mattias" )
+                                .getSingle() );
+                readOnlyTx.success();
+            }
+        }
+    }
 }
@@ -28,6 +28,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
@@ -120,6 +122,80 @@ public class LuceneIndexAccessorTest
         reader.close();
     }
 
+    @Test
+    public void shouldSampleDistinctValuesAndTheirFrequencies() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList(
+                add( nodeId, value ),
+                add( nodeId2, value ),
+                add( 3, value2 ),
+                add( 4, true ) ) );
+
+        // WHEN
+        IndexSample sample = sample();
+
+        // THEN
+        assertEquals( 4, sample.indexSize() );
+        assertEquals( 3, sample.distinctValues() );
+        assertEquals( Long.valueOf( 2 ), sample.frequentValues().get( IndexSample.valueKey( value ) ) );
+        assertEquals( Long.valueOf( 1 ), sample.frequentValues().get( IndexSample.valueKey( 40.0 ) ) );
+        assertEquals( Long.valueOf( 1 ), sample.frequentValues().get( IndexSample.valueKey( true ) ) );
+        assertEquals( sample, accessor.lastSample() );
+    }
+
+    @Test
+    public void shouldKeepLastSampleWhenReopened() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList( add( nodeId, value ), add( nodeId2, value2 ) ) );
+        IndexSample sample = sample();
+
+        // WHEN
+        accessor.close();
+        accessor = new NonUniqueLuceneIndexAccessor( documentLogic, standard(), writerLogic, dirFactory, dir );
+
+        // THEN
+        assertEquals( sample, accessor.lastSample() );
+    }
+
+    @Test
+    public void shouldOnlyResampleChangedIndex() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList( add( nodeId, value ) ) );
+        IndexSample sample = sample();
+
+        // WHEN
+        IndexSample unchanged = sample();
+        updateAndCommit( asList( add( nodeId2, value2 ) ) );
+        IndexSample changed = sample();
+
+        // THEN
+        assertSame( sample, unchanged );
+        assertEquals( 2, changed.indexSize() );
+        assertEquals( changed, accessor.lastSample() );
+    }
+
+    @Test
+    public void shouldSampleIndexAsItWasWhenSamplerWasCreated() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList( add( nodeId, value ) ) );
+
+        // WHEN
+        IndexSample sample;
+        try ( IndexSampler sampler = accessor.newSampler() )
+        {
+            updateAndCommit( asList( add( nodeId2, value2 ) ) );
+            sample = sampler.sampleIndex();
+        }
+
+        // THEN
+        assertEquals( 1, sample.indexSize() );
+        assertEquals( 2, sample().indexSize() );
+    }
+
     private final long nodeId = 1, nodeId2 = 2;
     private final Object value = "value", value2 = 40;
     private final LuceneDocumentStructure documentLogic = new LuceneDocumentStructure();
@@ -141,6 +217,14 @@ public class LuceneIndexAccessorTest
         dirFactory.close();
     }
 
+    private IndexSample sample() throws IOException
+    {
+        try ( IndexSampler sampler = accessor.newSampler() )
+        {
+            return sampler.sampleIndex();
+        }
+    }
+
     private NodePropertyUpdate add( long nodeId, Object value )
     {
         return NodePropertyUpdate.add( nodeId, 0, value, new long[0] );
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.collection.primitive.hopscotch;
+
+import static java.util.Arrays.fill;
+
+public class LongKeyLongValueTable extends LongKeyTable<long[]>
+{
+    public static final long NULL = -1;
+    private final long[] transport;
+    private long[] values;
+
+    public LongKeyLongValueTable( int capacity )
+    {
+        super( capacity, new long[] { NULL } );
+        this.transport = new long[1];
+    }
+
+    @Override
+    protected void initializeTable()
+    {
+        super.initializeTable();
+        values = new long[capacity];
+    }
+
+    @Override
+    protected void clearTable()
+    {
+        super.clearTable();
+        fill( values, NULL );
+    }
+
+    @Override
+    public long[] value( int index )
+    {
+        long value = values[index];
+        return value == NULL ? null : pack( value );
+    }
+
+    @Override
+    public void put( int index, long key, long[] value )
+    {
+        values[index] = unpack( value );
+        super.put( index, key, value );
+    }
+
+    @Override
+    public long[] putValue( int index, long[] value )
+    {
+        long previous = values[index];
+        values[index] = unpack( value );
+        super.putValue( index, value );
+        return pack( previous );
+    }
+
+    @Override
+    public long[] remove( int index )
+    {
+        long[] result = pack( values[index] );
+        values[index] = NULL;
+        super.remove( index );
+        return result;
+    }
+
+    @Override
+    public long move( int fromIndex, int toIndex )
+    {
+        values[toIndex] = values[fromIndex];
+        values[fromIndex] = NULL;
+        return super.move( fromIndex, toIndex );
+    }
+
+    @Override
+    protected LongKeyTable<long[]> newInstance( int newCapacity )
+    {
+        return new LongKeyLongValueTable( newCapacity );
+    }
+
+    private long unpack( long[] value )
+    {
+        return value[0];
+    }
+
+    private long[] pack( long value )
+    {
+        transport[0] = value;
+        return transport;
+    }
+}
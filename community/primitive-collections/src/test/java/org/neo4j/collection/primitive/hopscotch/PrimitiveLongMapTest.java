@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveLongIntMap;
+import org.neo4j.collection.primitive.PrimitiveLongLongMap;
 import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
 import org.neo4j.collection.primitive.PrimitiveLongObjectVisitor;
 
@@ -838,4 +839,28 @@ public class PrimitiveLongMapTest
         assertEquals( "value after putting should be 6", (Integer) 6, valueAfter );
         assertEquals( "Size after put should have been 200", 200, sizeAfter );
     }
+
+    @Test
+    public void longLongMapShouldGrowAndKeepAllValues() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongLongMap map = Primitive.longLongMap( 4 );
+
+        // WHEN
+        for ( long key = 0; key < 1000; key++ )
+        {
+            map.put( key * 31, key * 2 );
+        }
+        long previous = map.put( 31, 5 );
+        long removed = map.remove( 62 );
+
+        // THEN
+        assertEquals( 999, map.size() );
+        assertEquals( 2, previous );
+        assertEquals( 4, removed );
+        assertEquals( 5, map.get( 31 ) );
+        assertEquals( 1998, map.get( 999 * 31 ) );
+        assertFalse( map.containsKey( 62 ) );
+        assertEquals( -1, map.get( 62 ) );
+    }
 }
@@ -94,6 +94,12 @@ public class ReadOnlyGraphDatabaseProxy implements GraphDatabaseService, GraphDa
         return actual.beginTx();
     }
 
+    @Override
+    public Transaction beginReadOnlyTx()
+    {
+        return actual.beginReadOnlyTx();
+    }
+
     @Override
     public Node createNode()
     {
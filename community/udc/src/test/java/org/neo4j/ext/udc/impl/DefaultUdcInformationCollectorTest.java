@@ -215,6 +215,12 @@ public class DefaultUdcInformationCollectorTest
             return null;
         }
 
+        @Override
+        public Transaction beginReadOnlyTx()
+        {
+            return null;
+        }
+
         @Override
         public <T> TransactionEventHandler<T> registerTransactionEventHandler( TransactionEventHandler<T>
                                                                                        handler )
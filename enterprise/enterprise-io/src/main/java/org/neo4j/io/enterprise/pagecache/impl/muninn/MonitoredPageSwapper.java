@@ -61,6 +61,12 @@ public class MonitoredPageSwapper implements PageSwapper
         return pageSwapper.fileName();
     }
 
+    @Override
+    public int filePageSize()
+    {
+        return pageSwapper.filePageSize();
+    }
+
     @Override
     public void close() throws IOException
     {
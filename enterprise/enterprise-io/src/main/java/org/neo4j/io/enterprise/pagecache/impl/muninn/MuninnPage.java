@@ -52,6 +52,8 @@ final class MuninnPage extends StampedLock implements Page
 
     final int cachePageSize;
     private long pointer;
+    // The memory that the pointer points into, if it isn't memory of this page's own
+    private final PageMemory memory;
 
     // Optimistically incremented; occasionally truncated to a max of 5.
     // accessed through unsafe
@@ -66,6 +68,14 @@ final class MuninnPage extends StampedLock implements Page
     public MuninnPage( int cachePageSize )
     {
         this.cachePageSize = cachePageSize;
+        this.memory = null;
+    }
+
+    public MuninnPage( int cachePageSize, PageMemory memory, int cachePageId )
+    {
+        this.cachePageSize = cachePageSize;
+        this.memory = memory;
+        this.pointer = memory.pageAddress( cachePageId );
     }
 
     private boolean checkBounds( int position )
@@ -363,7 +373,10 @@ final class MuninnPage extends StampedLock implements Page
     protected void finalize() throws Throwable
     {
         super.finalize();
-        UnsafeUtil.free( pointer );
+        if ( memory == null )
+        {
+            UnsafeUtil.free( pointer );
+        }
         pointer = 0;
     }
 
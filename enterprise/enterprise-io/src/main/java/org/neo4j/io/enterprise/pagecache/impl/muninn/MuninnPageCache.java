@@ -135,11 +135,16 @@ public class MuninnPageCache implements RunnablePageCache
         this.pages = new MuninnPage[maxPages];
         this.monitor = monitor;
 
+        // Pages for direct I/O need aligned memory, which is simplest to get by allocating all of it up front
+        int bufferAlignment = swapperFactory.requiredBufferAlignment();
+        PageMemory memory = bufferAlignment > 1 ? new PageMemory( maxPages, cachePageSize, bufferAlignment ) : null;
+
         MuninnPage pageList = null;
         int cachePageId = maxPages;
         while ( cachePageId --> 0 )
         {
-            MuninnPage page = new MuninnPage( cachePageSize );
+            MuninnPage page = memory == null ?
+                    new MuninnPage( cachePageSize ) : new MuninnPage( cachePageSize, memory, cachePageId );
             pages[cachePageId] = page;
             page.nextFree = pageList;
             pageList = page;
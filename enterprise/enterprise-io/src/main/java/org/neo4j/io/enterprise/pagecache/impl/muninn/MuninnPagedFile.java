@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
+import org.neo4j.collection.primitive.PrimitiveLongVisitor;
 import org.neo4j.io.pagecache.PageCacheMonitor;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
@@ -193,6 +194,26 @@ class MuninnPagedFile implements PagedFile
         return lastPageId;
     }
 
+    @Override
+    public void visitResidentPages( PrimitiveLongVisitor visitor )
+    {
+        for ( int i = 0; i < translationTableStripeLevel; i++ )
+        {
+            PrimitiveLongObjectMap<MuninnPage> translationTable = translationTables[i];
+            StampedLock translationTableLock = translationTableLocks[i];
+
+            long stamp = translationTableLock.readLock();
+            try
+            {
+                translationTable.visitKeys( visitor );
+            }
+            finally
+            {
+                translationTableLock.unlockRead( stamp );
+            }
+        }
+    }
+
     private void initialiseLastPageId( long lastPageIdFromFile )
     {
         UnsafeUtil.putLong( this, lastPageIdOffset, lastPageIdFromFile );
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.enterprise.pagecache.impl.muninn;
+
+/**
+ * The memory of all pages of a page cache as one allocation, in which every page starts at an address with a given
+ * alignment, as needed for direct I/O. The memory is freed once neither the page cache nor any of its pages are
+ * reachable.
+ */
+final class PageMemory
+{
+    private final long pointer;
+    private final long firstPageAddress;
+    private final long pageStride;
+
+    PageMemory( int pages, int cachePageSize, int alignment )
+    {
+        pageStride = roundUp( cachePageSize, alignment );
+        pointer = UnsafeUtil.malloc( pages * pageStride + alignment );
+        firstPageAddress = roundUp( pointer, alignment );
+    }
+
+    long pageAddress( int cachePageId )
+    {
+        return firstPageAddress + cachePageId * pageStride;
+    }
+
+    private static long roundUp( long value, int alignment )
+    {
+        long remainder = value % alignment;
+        return remainder == 0 ? value : value + alignment - remainder;
+    }
+
+    @Override
+    protected void finalize() throws Throwable
+    {
+        super.finalize();
+        UnsafeUtil.free( pointer );
+    }
+}
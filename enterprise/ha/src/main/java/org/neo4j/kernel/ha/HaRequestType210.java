@@ -36,6 +36,7 @@ import org.neo4j.kernel.ha.com.master.HandshakeResult;
 import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.kernel.ha.id.IdAllocation;
 import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
@@ -263,6 +264,40 @@ public enum HaRequestType210 implements RequestType<Master>
         }
     }, INTEGER_SERIALIZER ),
 
+    // ==== Lock batches are only sent by MasterClient220, protocol version 8 and up
+    ACQUIRE_EXCLUSIVE_LOCKS( new AcquireLockBatchCall()
+    {
+        @Override
+        protected Response<LockResult> lock( Master master, RequestContext context, LockBatch batch )
+        {
+            return master.acquireExclusiveLocks( context, batch );
+        }
+    }, LOCK_SERIALIZER )
+    {
+        @Override
+        public boolean isLock()
+        {
+            return true;
+        }
+    },
+
+    // ====
+    ACQUIRE_SHARED_LOCKS( new AcquireLockBatchCall()
+    {
+        @Override
+        protected Response<LockResult> lock( Master master, RequestContext context, LockBatch batch )
+        {
+            return master.acquireSharedLocks( context, batch );
+        }
+    }, LOCK_SERIALIZER )
+    {
+        @Override
+        public boolean isLock()
+        {
+            return true;
+        }
+    },
+
     ;
 
 
@@ -318,4 +353,28 @@ public enum HaRequestType210 implements RequestType<Master>
         protected abstract Response<LockResult> lock( Master master, RequestContext context, Locks.ResourceType type,
                                                       long... ids );
     }
+
+    private static abstract class AcquireLockBatchCall implements TargetCaller<Master, LockResult>
+    {
+        @Override
+        public Response<LockResult> call( Master master, RequestContext context,
+                                          ChannelBuffer input, ChannelBuffer target )
+        {
+            LockBatch batch = new LockBatch();
+            int numberOfTypes = input.readInt();
+            for ( int t = 0; t < numberOfTypes; t++ )
+            {
+                Locks.ResourceType type = ResourceTypes.fromId( input.readInt() );
+                long[] ids = new long[input.readInt()];
+                for ( int i = 0; i < ids.length; i++ )
+                {
+                    ids[i] = input.readLong();
+                }
+                batch.add( type, ids );
+            }
+            return lock( master, context, batch );
+        }
+
+        protected abstract Response<LockResult> lock( Master master, RequestContext context, LockBatch batch );
+    }
 }
@@ -413,7 +413,8 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
     protected IdGeneratorFactory createIdGeneratorFactory()
     {
         idGeneratorFactory = new HaIdGeneratorFactory( masterDelegateInvocationHandler, logging,
-                requestContextFactory );
+                requestContextFactory, jobScheduler,
+                monitors.newMonitor( HaIdGeneratorFactory.Monitor.class, HaIdGeneratorFactory.class ) );
         SwitchToSlave switchToSlaveInstance = new SwitchToSlave( logging.getConsoleLog(
                 HighAvailabilityModeSwitcher.class ), config, getDependencyResolver(),
                 (HaIdGeneratorFactory) idGeneratorFactory,
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.com.RequestContext;
+import org.neo4j.com.ResourceReleaser;
+import org.neo4j.com.Response;
+import org.neo4j.com.TransactionStream;
+import org.neo4j.kernel.ha.com.master.Master;
+import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.ha.lock.LockStatus;
+import org.neo4j.kernel.impl.locking.LockBatch;
+import org.neo4j.kernel.impl.locking.Locks;
+
+/**
+ * Acquires a {@link LockBatch} from a master whose protocol version has no notion of lock batches, by sending the
+ * batch as one request per resource type. All requests carry the same context, so the last response carries all
+ * transactions the earlier ones did.
+ */
+final class LockBatchPerType
+{
+    private LockBatchPerType()
+    {
+    }
+
+    static Response<LockResult> acquire( final Master master, final RequestContext context, LockBatch batch,
+                                         final boolean exclusive )
+    {
+        final List<Response<LockResult>> responses = new ArrayList<>();
+        batch.accept( new LockBatch.Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                if ( !responses.isEmpty() &&
+                     responses.get( responses.size() - 1 ).response().getStatus() != LockStatus.OK_LOCKED )
+                {
+                    return;
+                }
+                responses.add( exclusive ? master.acquireExclusiveLock( context, type, resourceIds ) :
+                                           master.acquireSharedLock( context, type, resourceIds ) );
+            }
+        } );
+        for ( int i = 0; i < responses.size() - 1; i++ )
+        {
+            responses.get( i ).close();
+        }
+        return responses.isEmpty() ?
+               new Response<>( new LockResult( LockStatus.OK_LOCKED ), null, TransactionStream.EMPTY,
+                       ResourceReleaser.NO_OP ) :
+               responses.get( responses.size() - 1 );
+    }
+}
@@ -40,6 +40,7 @@ import org.neo4j.kernel.ha.com.master.MasterServer;
 import org.neo4j.kernel.ha.com.slave.MasterClient;
 import org.neo4j.kernel.ha.id.IdAllocation;
 import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
@@ -255,6 +256,18 @@ public class MasterClient201 extends Client<Master> implements MasterClient
         }
     }
 
+    @Override
+    public Response<LockResult> acquireExclusiveLocks( RequestContext context, LockBatch batch )
+    {
+        return LockBatchPerType.acquire( this, context, batch, true );
+    }
+
+    @Override
+    public Response<LockResult> acquireSharedLocks( RequestContext context, LockBatch batch )
+    {
+        return LockBatchPerType.acquire( this, context, batch, false );
+    }
+
     @Override
     public Response<Long> commit( RequestContext context, final TransactionRepresentation tx )
     {
@@ -39,6 +39,7 @@ import org.neo4j.kernel.ha.com.master.MasterServer;
 import org.neo4j.kernel.ha.com.slave.MasterClient;
 import org.neo4j.kernel.ha.id.IdAllocation;
 import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
@@ -75,7 +76,15 @@ public class MasterClient210 extends Client<Master> implements MasterClient
     public MasterClient210( String hostNameOrIp, int port, Logging logging, Monitors monitors, StoreId storeId,
                             long readTimeoutSeconds, long lockReadTimeout, int maxConcurrentChannels, int chunkSize )
     {
-        super( hostNameOrIp, port, logging, monitors, storeId, MasterServer.FRAME_LENGTH, PROTOCOL_VERSION,
+        this( hostNameOrIp, port, logging, monitors, storeId, readTimeoutSeconds, lockReadTimeout,
+                maxConcurrentChannels, chunkSize, PROTOCOL_VERSION );
+    }
+
+    protected MasterClient210( String hostNameOrIp, int port, Logging logging, Monitors monitors, StoreId storeId,
+                               long readTimeoutSeconds, long lockReadTimeout, int maxConcurrentChannels,
+                               int chunkSize, byte protocolVersion )
+    {
+        super( hostNameOrIp, port, logging, monitors, storeId, MasterServer.FRAME_LENGTH, protocolVersion,
                 readTimeoutSeconds, maxConcurrentChannels, chunkSize );
         this.lockReadTimeout = lockReadTimeout;
         this.monitor = monitors.newMonitor( ByteCounterMonitor.class, getClass() );
@@ -208,6 +217,18 @@ public class MasterClient210 extends Client<Master> implements MasterClient
                 new AcquireLockSerializer( type, resourceIds ), LOCK_RESULT_DESERIALIZER );
     }
 
+    @Override
+    public Response<LockResult> acquireExclusiveLocks( RequestContext context, LockBatch batch )
+    {
+        return LockBatchPerType.acquire( this, context, batch, true );
+    }
+
+    @Override
+    public Response<LockResult> acquireSharedLocks( RequestContext context, LockBatch batch )
+    {
+        return LockBatchPerType.acquire( this, context, batch, false );
+    }
+
     @Override
     public Response<Long> commit( RequestContext context, TransactionRepresentation tx )
     {
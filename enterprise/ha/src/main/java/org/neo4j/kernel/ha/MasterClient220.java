@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha;
+
+import java.io.IOException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+
+import org.neo4j.com.RequestContext;
+import org.neo4j.com.Response;
+import org.neo4j.com.Serializer;
+import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.impl.locking.LockBatch;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.logging.Logging;
+import org.neo4j.kernel.monitoring.Monitors;
+
+/**
+ * {@link MasterClient210} with the addition of acquiring a whole {@link LockBatch} from the master in one request,
+ * instead of one request per resource type.
+ */
+public class MasterClient220 extends MasterClient210
+{
+    /* Version 8 since 2014-11-03
+     */
+    public static final byte PROTOCOL_VERSION = 8;
+
+    public MasterClient220( String hostNameOrIp, int port, Logging logging, Monitors monitors, StoreId storeId,
+                            long readTimeoutSeconds, long lockReadTimeout, int maxConcurrentChannels, int chunkSize )
+    {
+        super( hostNameOrIp, port, logging, monitors, storeId, readTimeoutSeconds, lockReadTimeout,
+                maxConcurrentChannels, chunkSize, PROTOCOL_VERSION );
+    }
+
+    @Override
+    public Response<LockResult> acquireSharedLocks( RequestContext context, LockBatch batch )
+    {
+        return sendRequest( HaRequestType210.ACQUIRE_SHARED_LOCKS, context,
+                new AcquireLockBatchSerializer( batch ), LOCK_RESULT_DESERIALIZER );
+    }
+
+    @Override
+    public Response<LockResult> acquireExclusiveLocks( RequestContext context, LockBatch batch )
+    {
+        return sendRequest( HaRequestType210.ACQUIRE_EXCLUSIVE_LOCKS, context,
+                new AcquireLockBatchSerializer( batch ), LOCK_RESULT_DESERIALIZER );
+    }
+
+    protected static class AcquireLockBatchSerializer implements Serializer
+    {
+        private final LockBatch batch;
+
+        AcquireLockBatchSerializer( LockBatch batch )
+        {
+            this.batch = batch;
+        }
+
+        @Override
+        public void write( final ChannelBuffer buffer ) throws IOException
+        {
+            buffer.writeInt( batch.numberOfTypes() );
+            batch.accept( new LockBatch.Visitor()
+            {
+                @Override
+                public void visit( Locks.ResourceType type, long[] resourceIds )
+                {
+                    buffer.writeInt( type.typeId() );
+                    buffer.writeInt( resourceIds.length );
+                    for ( long entity : resourceIds )
+                    {
+                        buffer.writeLong( entity );
+                    }
+                }
+            } );
+        }
+    }
+}
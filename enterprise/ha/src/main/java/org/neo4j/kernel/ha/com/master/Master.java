@@ -28,6 +28,7 @@ import org.neo4j.kernel.IdType;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.ha.id.IdAllocation;
 import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
 import org.neo4j.kernel.impl.transaction.xaframework.TransactionRepresentation;
@@ -80,4 +81,14 @@ public interface Master
     Response<LockResult> acquireExclusiveLock( RequestContext context, Locks.ResourceType type, long... resourceIds );
 
     Response<LockResult> acquireSharedLock( RequestContext context, Locks.ResourceType type, long... resourceIds );
+
+    /**
+     * Acquires exclusive locks on all resources in the batch, of any resource types, in one request.
+     */
+    Response<LockResult> acquireExclusiveLocks( RequestContext context, LockBatch batch );
+
+    /**
+     * Acquires shared locks on all resources in the batch, of any resource types, in one request.
+     */
+    Response<LockResult> acquireSharedLocks( RequestContext context, LockBatch batch );
 }
@@ -51,6 +51,7 @@ import org.neo4j.kernel.ha.HaSettings;
 import org.neo4j.kernel.ha.id.IdAllocation;
 import org.neo4j.kernel.ha.lock.LockResult;
 import org.neo4j.kernel.ha.lock.LockStatus;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
 import org.neo4j.kernel.impl.transaction.IllegalResourceException;
@@ -429,6 +430,54 @@ public class MasterImpl extends LifecycleAdapter implements Master
         }
     }
 
+    @Override
+    public Response<LockResult> acquireExclusiveLocks( RequestContext context, LockBatch batch )
+    {
+        assertCorrectEpoch( context );
+        LockSession session = resume( context );
+        try
+        {
+            session.client().acquireExclusive( batch );
+            return packResponse( context, new LockResult( LockStatus.OK_LOCKED ) );
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            return packResponse( context, new LockResult( e.getMessage() ) );
+        }
+        catch ( IllegalResourceException e )
+        {
+            return packResponse( context, new LockResult( LockStatus.NOT_LOCKED ) );
+        }
+        finally
+        {
+            suspend( context, session );
+        }
+    }
+
+    @Override
+    public Response<LockResult> acquireSharedLocks( RequestContext context, LockBatch batch )
+    {
+        assertCorrectEpoch( context );
+        LockSession session = resume( context );
+        try
+        {
+            session.client().acquireShared( batch );
+            return packResponse( context, new LockResult( LockStatus.OK_LOCKED ) );
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            return packResponse( context, new LockResult( e.getMessage() ) );
+        }
+        catch ( IllegalResourceException e )
+        {
+            return packResponse( context, new LockResult( LockStatus.NOT_LOCKED ) );
+        }
+        finally
+        {
+            suspend( context, session );
+        }
+    }
+
     // =====================================================================
     // Just some methods which aren't really used when running a HA cluster,
     // but exposed so that other tools can reach that information.
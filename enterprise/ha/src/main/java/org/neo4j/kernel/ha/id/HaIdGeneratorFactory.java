@@ -20,9 +20,11 @@
 package org.neo4j.kernel.ha.id;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.Queue;
 
 import org.neo4j.com.Response;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
@@ -34,25 +36,44 @@ import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.IdGenerator;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.Logging;
 
 public class HaIdGeneratorFactory implements IdGeneratorFactory
 {
+    public interface Monitor
+    {
+        /**
+         * A slave ran out of ids of the given type and had to wait for the master to hand out a new range,
+         * since no prefetched range was available.
+         */
+        void idRangeRefillStalled( IdType idType, long waitedMillis );
+
+        /**
+         * A range of ids of the given type was fetched from the master in the background.
+         */
+        void idRangePrefetched( IdType idType, int prefetchedRanges );
+    }
+
     private final Map<IdType, HaIdGenerator> generators =
             new EnumMap<IdType, HaIdGenerator>( IdType.class );
     private final IdGeneratorFactory localFactory = new DefaultIdGeneratorFactory();
     private final DelegateInvocationHandler<Master> master;
     private final StringLogger logger;
     private final RequestContextFactory requestContextFactory;
+    private final JobScheduler jobScheduler;
+    private final Monitor monitor;
     private IdGeneratorState globalState = IdGeneratorState.PENDING;
 
     public HaIdGeneratorFactory( DelegateInvocationHandler<Master> master, Logging logging,
-            RequestContextFactory requestContextFactory )
+            RequestContextFactory requestContextFactory, JobScheduler jobScheduler, Monitor monitor )
     {
         this.master = master;
         this.logger = logging.getMessagesLog( getClass() );
         this.requestContextFactory = requestContextFactory;
+        this.jobScheduler = jobScheduler;
+        this.monitor = monitor;
     }
 
     @Override
@@ -71,7 +92,7 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             initialIdGenerator = localFactory.open( fs, fileName, grabSize, idType, highId );
             break;
         case SLAVE:
-            initialIdGenerator = new SlaveIdGenerator( idType, highId, master.cement(), logger, requestContextFactory );
+            initialIdGenerator = newSlaveIdGenerator( idType, highId, master.cement() );
             break;
         default:
             throw new IllegalStateException( globalState.name() );
@@ -116,8 +137,18 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         }
     }
 
+    private SlaveIdGenerator newSlaveIdGenerator( IdType idType, long highId, Master master )
+    {
+        return new SlaveIdGenerator( idType, highId, master, logger, requestContextFactory, jobScheduler, monitor );
+    }
+
     private static final long VALUE_REPRESENTING_NULL = -1;
 
+    /**
+     * Upper bound on the number of id ranges a slave keeps prefetched per id type.
+     */
+    private static final int MAX_PREFETCHED_RANGES = 8;
+
     private enum IdGeneratorState
     {
         PENDING, SLAVE, MASTER;
@@ -148,7 +179,7 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         {
             long highId = delegate.getHighId();
             delegate.close();
-            delegate = new SlaveIdGenerator( idType, highId, master, logger, requestContextFactory );
+            delegate = newSlaveIdGenerator( idType, highId, master );
             logger.debug( "Instantiated slave delegate " + delegate + " of type " + idType + " with highid " + highId );
             state = IdGeneratorState.SLAVE;
         }
@@ -266,6 +297,12 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         }
     }
 
+    /**
+     * Hands out ids from ranges allocated by the master. To keep master round trips out of the write path, the
+     * next range is fetched in the background as soon as the current one is half consumed. The number of ranges
+     * kept in stock adapts to how fast ranges are consumed compared to how long it takes to get one from the
+     * master, so that a slave with a high allocation rate will not have to wait for the master.
+     */
     private static class SlaveIdGenerator implements IdGenerator
     {
         private volatile long highestIdInUse;
@@ -275,20 +312,35 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         private final IdType idType;
         private final StringLogger logger;
         private final RequestContextFactory requestContextFactory;
+        private final JobScheduler jobScheduler;
+        private final Monitor monitor;
+
+        // All guarded by this
+        private final Queue<IdAllocation> prefetched = new ArrayDeque<>();
+        private boolean prefetching;
+        private boolean closed;
+        private int targetPrefetchedRanges = 1;
+        private long lastRoundTripMillis;
+        private long currentRangeStartedAt;
 
         SlaveIdGenerator( IdType idType, long highId, Master master, StringLogger logger,
-                RequestContextFactory requestContextFactory )
+                RequestContextFactory requestContextFactory, JobScheduler jobScheduler, Monitor monitor )
         {
             this.idType = idType;
             this.highestIdInUse = highId;
             this.master = master;
             this.logger = logger;
             this.requestContextFactory = requestContextFactory;
+            this.jobScheduler = jobScheduler;
+            this.monitor = monitor;
         }
 
         @Override
-        public void close()
+        public synchronized void close()
         {
+            // Ranges that are prefetched, or in flight, are simply lost, just as the remainder of the current one
+            closed = true;
+            prefetched.clear();
         }
 
         @Override
@@ -320,18 +372,98 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             long nextId = nextLocalId();
             if ( nextId == VALUE_REPRESENTING_NULL )
             {
-                // If we don't have anymore grabbed ids from master, grab a bunch
-                try ( Response<IdAllocation> response =
-                        master.allocateIds( requestContextFactory.newRequestContext(), idType ) )
+                long now = System.currentTimeMillis();
+                adaptTargetPrefetchedRanges( now );
+                IdAllocation allocation = prefetched.poll();
+                if ( allocation == null )
                 {
-                    IdAllocation allocation = response.response();
-                    logger.info( "Received id allocation " + allocation + " from master " + master + " for " + idType );
-                    nextId = storeLocally( allocation );
+                    // If we don't have anymore grabbed ids from master, grab a bunch
+                    allocation = allocateFromMaster();
+                    long waited = System.currentTimeMillis() - now;
+                    lastRoundTripMillis = waited;
+                    monitor.idRangeRefillStalled( idType, waited );
                 }
+                currentRangeStartedAt = System.currentTimeMillis();
+                nextId = storeLocally( allocation );
             }
+            prefetchIfNeeded();
             return nextId;
         }
 
+        private IdAllocation allocateFromMaster()
+        {
+            try ( Response<IdAllocation> response =
+                    master.allocateIds( requestContextFactory.newRequestContext(), idType ) )
+            {
+                IdAllocation allocation = response.response();
+                logger.info( "Received id allocation " + allocation + " from master " + master + " for " + idType );
+                return allocation;
+            }
+        }
+
+        /**
+         * Keeps enough ranges in stock to cover one master round trip at the rate the previous range was consumed.
+         */
+        private void adaptTargetPrefetchedRanges( long now )
+        {
+            if ( currentRangeStartedAt == 0 )
+            {
+                return;
+            }
+            long rangeConsumptionMillis = Math.max( 1, now - currentRangeStartedAt );
+            int needed = (int) (lastRoundTripMillis / rangeConsumptionMillis) + 1;
+            targetPrefetchedRanges = Math.max( 1, Math.min( MAX_PREFETCHED_RANGES, needed ) );
+        }
+
+        private void prefetchIfNeeded()
+        {
+            if ( closed || prefetching || prefetched.size() >= targetPrefetchedRanges ||
+                 (prefetched.isEmpty() && !idQueue.halfConsumed()) )
+            {
+                return;
+            }
+
+            prefetching = true;
+            jobScheduler.schedule( JobScheduler.Group.slaveIdAllocation, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    prefetch();
+                }
+            } );
+        }
+
+        private void prefetch()
+        {
+            long start = System.currentTimeMillis();
+            IdAllocation allocation = null;
+            try
+            {
+                allocation = allocateFromMaster();
+            }
+            catch ( Throwable e )
+            {
+                // Not fatal, the next id to be requested after the current range has run out will be
+                // allocated while waiting for the master instead.
+                logger.warn( "Unable to prefetch id allocation for " + idType + " from master " + master, e );
+            }
+
+            synchronized ( this )
+            {
+                prefetching = false;
+                if ( allocation != null && !closed )
+                {
+                    // The master considers these ids as handed out already, so should we
+                    setHighId( allocation.getHighestIdInUse() );
+                    lastRoundTripMillis = System.currentTimeMillis() - start;
+                    prefetched.add( allocation );
+                    monitor.idRangePrefetched( idType, prefetched.size() );
+                    prefetchIfNeeded();
+                }
+            }
+        }
+
         @Override
         public IdRange nextIdBatch( int size )
         {
@@ -389,6 +521,11 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             this.length = idRange.getRangeLength();
         }
 
+        boolean halfConsumed()
+        {
+            return position * 2 >= defrag.length + length;
+        }
+
         long next()
         {
             try
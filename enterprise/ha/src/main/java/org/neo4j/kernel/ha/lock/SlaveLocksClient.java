@@ -32,9 +32,11 @@ import org.neo4j.kernel.DeadlockDetectedException;
 import org.neo4j.kernel.ha.com.RequestContextFactory;
 import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.kernel.impl.locking.AcquireLockTimeoutException;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.kernel.impl.transaction.LockManager;
+import org.neo4j.kernel.impl.transaction.LockType;
 
 import static org.neo4j.kernel.impl.transaction.LockType.READ;
 import static org.neo4j.kernel.impl.transaction.LockType.WRITE;
@@ -138,6 +140,97 @@ class SlaveLocksClient implements Locks.Client
         }
     }
 
+    @Override
+    public void acquireShared( LockBatch batch ) throws AcquireLockTimeoutException
+    {
+        LockBatch untaken = incrementAndRemoveAlreadyTakenLocks( sharedLocks, batch );
+        if ( untaken.isEmpty() )
+        {
+            return;
+        }
+
+        final LockBatch onMaster = new LockBatch();
+        untaken.accept( new LockBatch.Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                if ( isSharedLockedOnMaster( type ) )
+                {
+                    onMaster.add( type, resourceIds );
+                }
+            }
+        } );
+        if ( !onMaster.isEmpty() )
+        {
+            makeSureTxHasBeenInitialized();
+            receiveLockResponse( master.acquireSharedLocks(
+                    requestContextFactory.newRequestContext( (int) getIdentifier() ), onMaster ) );
+        }
+        takeLocally( sharedLocks, untaken, READ );
+    }
+
+    @Override
+    public void acquireExclusive( LockBatch batch ) throws AcquireLockTimeoutException
+    {
+        LockBatch untaken = incrementAndRemoveAlreadyTakenLocks( exclusiveLocks, batch );
+        if ( untaken.isEmpty() )
+        {
+            return;
+        }
+
+        makeSureTxHasBeenInitialized();
+        receiveLockResponse( master.acquireExclusiveLocks(
+                requestContextFactory.newRequestContext( (int) getIdentifier() ), untaken ) );
+        takeLocally( exclusiveLocks, untaken, WRITE );
+    }
+
+    /**
+     * Grabs the locks of a batch, which has already been granted by the master, on the local lock manager.
+     */
+    private void takeLocally( final Map<Locks.ResourceType, Map<Long, AtomicInteger>> resourceMap, LockBatch batch,
+                              final LockType lockType )
+    {
+        batch.accept( new LockBatch.Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                boolean locked = lockType == WRITE ?
+                                 client.tryExclusiveLock( type, resourceIds ) :
+                                 client.trySharedLock( type, resourceIds );
+                if ( !locked )
+                {
+                    throw new LocalDeadlockDetectedException( client, localLockManager, type, resourceIds, lockType );
+                }
+                Map<Long, AtomicInteger> lockMap = getLockMap( resourceMap, type );
+                for ( long resourceId : resourceIds )
+                {
+                    lockMap.put( resourceId, new AtomicInteger( 1 ) );
+                }
+            }
+        } );
+    }
+
+    private LockBatch incrementAndRemoveAlreadyTakenLocks(
+            final Map<Locks.ResourceType, Map<Long, AtomicInteger>> resourceMap, LockBatch batch )
+    {
+        final LockBatch untaken = new LockBatch();
+        batch.accept( new LockBatch.Visitor()
+        {
+            @Override
+            public void visit( Locks.ResourceType type, long[] resourceIds )
+            {
+                long[] untakenIds = incrementAndRemoveAlreadyTakenLocks( getLockMap( resourceMap, type ), resourceIds );
+                if ( untakenIds.length > 0 )
+                {
+                    untaken.add( type, untakenIds );
+                }
+            }
+        } );
+        return untaken;
+    }
+
     private long[] incrementAndRemoveAlreadyTakenLocks(
             Map<Long, AtomicInteger> takenLocks,
             long[] resourceIds )
@@ -264,10 +357,7 @@ class SlaveLocksClient implements Locks.Client
 
     private boolean getReadLockOnMaster( Locks.ResourceType resourceType, long ... resourceId )
     {
-        if ( resourceType == ResourceTypes.NODE
-            || resourceType == ResourceTypes.RELATIONSHIP
-            || resourceType == ResourceTypes.GRAPH_PROPS
-            || resourceType == ResourceTypes.LEGACY_INDEX )
+        if ( isSharedLockedOnMaster( resourceType ) )
         {
             makeSureTxHasBeenInitialized();
             return receiveLockResponse(
@@ -279,6 +369,14 @@ class SlaveLocksClient implements Locks.Client
         }
     }
 
+    private static boolean isSharedLockedOnMaster( Locks.ResourceType resourceType )
+    {
+        return resourceType == ResourceTypes.NODE
+            || resourceType == ResourceTypes.RELATIONSHIP
+            || resourceType == ResourceTypes.GRAPH_PROPS
+            || resourceType == ResourceTypes.LEGACY_INDEX;
+    }
+
     private boolean acquireExclusiveOnMaster( Locks.ResourceType resourceType, long ... resourceId )
     {
         makeSureTxHasBeenInitialized();
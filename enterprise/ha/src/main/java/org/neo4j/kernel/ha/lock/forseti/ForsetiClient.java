@@ -27,6 +27,7 @@ import org.neo4j.collection.pool.LinkedQueuePool;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.kernel.DeadlockDetectedException;
 import org.neo4j.kernel.impl.locking.AcquireLockTimeoutException;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
 import org.neo4j.kernel.impl.util.concurrent.WaitStrategy;
@@ -239,6 +240,18 @@ public class ForsetiClient implements Locks.Client
         }
     }
 
+    @Override
+    public void acquireShared( LockBatch batch )
+    {
+        batch.acquireSharedPerType( this );
+    }
+
+    @Override
+    public void acquireExclusive( LockBatch batch )
+    {
+        batch.acquireExclusivePerType( this );
+    }
+
     @Override
     public boolean tryExclusiveLock( Locks.ResourceType resourceType, long... resourceIds )
     {
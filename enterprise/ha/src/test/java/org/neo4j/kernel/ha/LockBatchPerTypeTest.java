@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha;
+
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import org.neo4j.com.RequestContext;
+import org.neo4j.com.ResourceReleaser;
+import org.neo4j.com.Response;
+import org.neo4j.com.TransactionStream;
+import org.neo4j.kernel.ha.com.master.Master;
+import org.neo4j.kernel.ha.lock.LockResult;
+import org.neo4j.kernel.ha.lock.LockStatus;
+import org.neo4j.kernel.impl.locking.LockBatch;
+import org.neo4j.kernel.impl.locking.Locks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.RELATIONSHIP;
+
+public class LockBatchPerTypeTest
+{
+    private final Master master = mock( Master.class );
+    private final RequestContext context = RequestContext.anonymous( 1 );
+
+    @Test
+    public void shouldSendOneRequestPerResourceTypeAndReturnTheLastResponse() throws Exception
+    {
+        // given
+        ResourceReleaser nodeReleaser = mock( ResourceReleaser.class );
+        when( master.acquireExclusiveLock( context, NODE, 1, 2 ) ).thenReturn( response( LockStatus.OK_LOCKED,
+                nodeReleaser ) );
+        Response<LockResult> relationshipResponse = response( LockStatus.OK_LOCKED, ResourceReleaser.NO_OP );
+        when( master.acquireExclusiveLock( context, RELATIONSHIP, 3 ) ).thenReturn( relationshipResponse );
+
+        // when
+        Response<LockResult> response = LockBatchPerType.acquire( master,
+                context, new LockBatch().add( NODE, 2, 1 ).add( RELATIONSHIP, 3 ), true );
+
+        // then
+        assertSame( relationshipResponse, response );
+        verify( nodeReleaser ).release();
+    }
+
+    @Test
+    public void shouldStopSendingRequestsOnceALockIsNotGranted() throws Exception
+    {
+        // given
+        when( master.acquireSharedLock( context, NODE, 1 ) ).thenReturn( response( LockStatus.DEAD_LOCKED,
+                ResourceReleaser.NO_OP ) );
+
+        // when
+        Response<LockResult> response = LockBatchPerType.acquire( master,
+                context, new LockBatch().add( NODE, 1 ).add( RELATIONSHIP, 3 ), false );
+
+        // then
+        assertEquals( LockStatus.DEAD_LOCKED, response.response().getStatus() );
+        verify( master, never() ).acquireSharedLock( Matchers.<RequestContext>any(), Matchers.eq( RELATIONSHIP ),
+                Matchers.<long[]>anyVararg() );
+    }
+
+    @Test
+    public void shouldGrantEmptyBatchWithoutAskingTheMaster() throws Exception
+    {
+        // when
+        Response<LockResult> response = LockBatchPerType.acquire( master, context, new LockBatch(), true );
+
+        // then
+        assertEquals( LockStatus.OK_LOCKED, response.response().getStatus() );
+        verify( master, never() ).acquireExclusiveLock( Matchers.<RequestContext>any(),
+                Matchers.<Locks.ResourceType>any(), Matchers.<long[]>anyVararg() );
+    }
+
+    private Response<LockResult> response( LockStatus status, ResourceReleaser releaser )
+    {
+        LockResult result = status.hasMessage() ? new LockResult( "deadlock" ) : new LockResult( status );
+        return new Response<>( result, null, TransactionStream.EMPTY, releaser );
+    }
+}
@@ -23,6 +23,8 @@ import java.io.File;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.Response;
@@ -32,11 +34,13 @@ import org.neo4j.kernel.ha.com.RequestContextFactory;
 import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.kernel.impl.nioneo.store.IdGenerator;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -153,10 +157,59 @@ public class HaIdGeneratorFactoryTest
         assertEquals ( highIdFromUpdatedRecord, gen.getHighId() );
     }
     
+    @Test
+    public void slaveIdGeneratorShouldPrefetchNextRangeWhenCurrentIsHalfConsumed() throws Exception
+    {
+        // GIVEN
+        IdAllocation firstResult = new IdAllocation( new IdRange( new long[]{}, 42, 10 ), 42 + 10, 0 );
+        IdAllocation secondResult = new IdAllocation( new IdRange( new long[]{}, 1042, 10 ), 1042 + 10, 0 );
+        Response<IdAllocation> response = response( firstResult, secondResult );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        runJobsImmediately();
+        IdGenerator gen = switchToSlave();
+
+        // WHEN
+        for ( long i = 42; i < 42 + 5; i++ )
+        {
+            assertEquals( i, gen.nextId() );
+        }
+
+        // THEN
+        verify( master, times( 2 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ) );
+        for ( long i = 42 + 5; i < 42 + 10; i++ )
+        {
+            assertEquals( i, gen.nextId() );
+        }
+        assertEquals( 1042, gen.nextId() );
+        verify( monitor, times( 1 ) ).idRangeRefillStalled( eq( IdType.NODE ), anyLong() );
+    }
+
+    @Test
+    public void slaveIdGeneratorShouldHandOverHighIdOfPrefetchedRangeWhenSwitchingToMaster() throws Exception
+    {
+        // GIVEN
+        IdAllocation firstResult = new IdAllocation( new IdRange( new long[]{}, 42, 2 ), 42 + 2, 0 );
+        IdAllocation secondResult = new IdAllocation( new IdRange( new long[]{}, 1042, 2 ), 1042 + 2, 0 );
+        Response<IdAllocation> response = response( firstResult, secondResult );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        runJobsImmediately();
+        IdGenerator gen = switchToSlave();
+        gen.nextId();
+
+        // WHEN
+        fac.switchToMaster();
+
+        // THEN
+        assertEquals( 1042 + 2, gen.getHighId() );
+        assertEquals( 1042 + 2, gen.nextId() );
+    }
+
     private Master master;
     private DelegateInvocationHandler<Master> masterDelegate;
     private EphemeralFileSystemAbstraction fs;
     private HaIdGeneratorFactory fac;
+    private JobScheduler jobScheduler;
+    private HaIdGeneratorFactory.Monitor monitor;
     
     @Before
     public void before()
@@ -164,8 +217,24 @@ public class HaIdGeneratorFactoryTest
         master = mock( Master.class );
         masterDelegate = new DelegateInvocationHandler<>( Master.class );
         fs = new EphemeralFileSystemAbstraction();
+        jobScheduler = mock( JobScheduler.class );
+        monitor = mock( HaIdGeneratorFactory.Monitor.class );
         fac  = new HaIdGeneratorFactory( masterDelegate, new DevNullLoggingService(),
-                mock( RequestContextFactory.class ) );
+                mock( RequestContextFactory.class ), jobScheduler, monitor );
+    }
+
+    private void runJobsImmediately()
+    {
+        when( jobScheduler.schedule( any( JobScheduler.Group.class ), any( Runnable.class ) ) ).thenAnswer(
+                new Answer<JobScheduler.JobHandle>()
+                {
+                    @Override
+                    public JobScheduler.JobHandle answer( InvocationOnMock invocation ) throws Throwable
+                    {
+                        ((Runnable) invocation.getArguments()[1]).run();
+                        return null;
+                    }
+                } );
     }
     
     @SuppressWarnings( "unchecked" )
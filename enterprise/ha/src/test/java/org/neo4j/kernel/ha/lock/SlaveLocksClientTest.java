@@ -31,16 +31,20 @@ import org.neo4j.com.storecopy.TransactionCommittingResponseUnpacker;
 import org.neo4j.kernel.AvailabilityGuard;
 import org.neo4j.kernel.ha.com.RequestContextFactory;
 import org.neo4j.kernel.ha.com.master.Master;
+import org.neo4j.kernel.impl.locking.LockBatch;
 import org.neo4j.kernel.impl.locking.Locks;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.RELATIONSHIP;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.SCHEMA;
 
 public class SlaveLocksClientTest
 {
@@ -72,6 +76,13 @@ public class SlaveLocksClientTest
                 Matchers.<Locks.ResourceType>any(), Matchers.<long[]>anyVararg() ) ).thenReturn( new Response
                 <>( new LockResult( LockStatus.OK_LOCKED ), null,
                 TransactionStream.EMPTY, ResourceReleaser.NO_OP  ));
+        when( master.acquireSharedLocks( Matchers.<RequestContext>any(), Matchers.<LockBatch>any() ) )
+                .thenReturn( new Response<>( new LockResult( LockStatus.OK_LOCKED ), null,
+                        TransactionStream.EMPTY, ResourceReleaser.NO_OP ) );
+
+        when( master.acquireExclusiveLocks( Matchers.<RequestContext>any(), Matchers.<LockBatch>any() ) )
+                .thenReturn( new Response<>( new LockResult( LockStatus.OK_LOCKED ), null,
+                        TransactionStream.EMPTY, ResourceReleaser.NO_OP ) );
         AvailabilityGuard availabilityGuard = mock( AvailabilityGuard.class );
         when( availabilityGuard.isAvailable( anyLong() )).thenReturn( true );
         SlaveLockManager.Configuration config = mock( SlaveLockManager.Configuration.class );
@@ -199,4 +210,51 @@ public class SlaveLocksClientTest
         verify( local, times(1) ).trySharedLock( NODE, 1l);
         verify( local, times(0) ).releaseShared( NODE, 1l);
     }
+
+    @Test
+    public void shouldTakeBatchOfExclusiveLocksOfDifferentTypesOnMasterInOneRoundtrip() throws Exception
+    {
+        // Given the local locks do what they are supposed to do
+        when( local.tryExclusiveLock( NODE, 1, 2 ) ).thenReturn( true );
+        when( local.tryExclusiveLock( RELATIONSHIP, 3 ) ).thenReturn( true );
+
+        // When
+        client.acquireExclusive( new LockBatch().add( NODE, 2, 1 ).add( RELATIONSHIP, 3 ) );
+
+        // Then
+        verify( master, times( 1 ) ).acquireExclusiveLocks( Matchers.<RequestContext>any(), Matchers.<LockBatch>any() );
+        verify( master, never() ).acquireExclusiveLock( Matchers.<RequestContext>any(),
+                Matchers.<Locks.ResourceType>any(), Matchers.<long[]>anyVararg() );
+        verify( local ).tryExclusiveLock( NODE, 1, 2 );
+        verify( local ).tryExclusiveLock( RELATIONSHIP, 3 );
+    }
+
+    @Test
+    public void shouldNotAskMasterForExclusiveLocksInBatchAlreadyHeld() throws Exception
+    {
+        // Given
+        client.acquireExclusive( NODE, 1 );
+
+        // When
+        client.acquireExclusive( new LockBatch().add( NODE, 1 ) );
+        client.releaseExclusive( NODE, 1 );
+
+        // Then
+        verify( master, never() ).acquireExclusiveLocks( Matchers.<RequestContext>any(), Matchers.<LockBatch>any() );
+        verify( local, times( 0 ) ).releaseExclusive( NODE, 1l );
+    }
+
+    @Test
+    public void shouldOnlySendSharedLocksInBatchThatAreCoordinatedByMaster() throws Exception
+    {
+        // Given
+        when( local.trySharedLock( SCHEMA, 0 ) ).thenReturn( true );
+
+        // When only taking a lock that is local to the slave
+        client.acquireShared( new LockBatch().add( SCHEMA, 0 ) );
+
+        // Then
+        verify( master, never() ).acquireSharedLocks( Matchers.<RequestContext>any(), Matchers.<LockBatch>any() );
+        verify( local ).trySharedLock( SCHEMA, 0 );
+    }
 }